@@ -6,8 +6,6 @@ import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
-import javax.annotation.Nullable;
-
 import com.google.api.client.util.Maps;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
@@ -15,18 +13,18 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.janknspank.bizness.TimeRankingStrategy.EntityStreamStrategy;
-import com.janknspank.bizness.TimeRankingStrategy.MainStreamStrategy;
 import com.janknspank.classifier.FeatureId;
+import com.janknspank.common.Metrics;
 import com.janknspank.common.TopList;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
 import com.janknspank.database.QueryOption;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.ArticleProto.Article.Reason;
+import com.janknspank.proto.ArticleProto.ArticleFeature;
 import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 import com.janknspank.proto.ArticleProto.SocialEngagement;
 import com.janknspank.proto.ArticleProto.SocialEngagement.Site;
@@ -42,6 +40,7 @@ import com.janknspank.rank.Deduper;
 import com.janknspank.rank.DiversificationPass;
 import com.janknspank.rank.NeuralNetworkScorer;
 import com.janknspank.rank.Scorer;
+import com.janknspank.server.ArticleSerializer;
 
 /**
  * Helper class that manages storing and retrieving Article objects from the
@@ -55,51 +54,27 @@ public class Articles {
   public static final int NUM_RESULTS = 51;
 
   /**
-   * Returns a function that gives an iterable of articles a specific reason for
-   * existing, such as being about companies, people, or industries.
-   *
-   * Yes it's a little redic that Java's async implementations make us do stupid
-   * crap like this... :).
+   * The fields we read for candidate articles: Only what the scorer, deduper,
+   * diversification passes and ArticleSerializer look at.  Paragraphs are
+   * most of an article's size, and none of them look past the first, so we
+   * don't read the rest.
    */
-  private static AsyncFunction<Iterable<Article>, Iterable<Article>>
-      getFunctionToGiveArticlesReason(
-          final Article.Reason reason,
-          final @Nullable FeatureId industryFeatureId) {
-    return new AsyncFunction<Iterable<Article>, Iterable<Article>>() {
-      @Override
-      public ListenableFuture<Iterable<Article>> apply(Iterable<Article> articles) {
-        return Futures.immediateFuture(
-            Iterables.transform(articles, new Function<Article, Article>() {
-              @Override
-              public Article apply(Article article) {
-                Article.Builder builder = article.toBuilder();
-                builder.setReason(reason);
-                if (industryFeatureId != null) {
-                  builder.setReasonIndustryCode(industryFeatureId.getId());
-                }
-                return builder.build();
-              }
-            }));
-      }
-    };
-  }
+  private static final QueryOption CANDIDATE_FIELDS = new QueryOption.Fields(
+      ImmutableSet.<String>builder()
+          .addAll(NeuralNetworkScorer.ARTICLE_FIELDS)
+          .addAll(Deduper.ARTICLE_FIELDS)
+          .addAll(DiversificationPass.ARTICLE_FIELDS)
+          .addAll(ArticleSerializer.ARTICLE_FIELDS)
+          .build());
+  private static final QueryOption FIRST_PARAGRAPH_ONLY =
+      new QueryOption.FirstValues("paragraph", 1);
 
   /**
-   * Gets articles that contain a set of keywords.
+   * How many times its quota of articles we read for each industry a user
+   * follows.  Industries share one query sorted by recency, so a busy
+   * industry can take up some of the others' share of the results.
    */
-  private static ListenableFuture<Iterable<Article>> getArticlesForKeywordsFuture(
-      Iterable<String> keywords, final Article.Reason reason, int limit,
-      Set<String> excludeUrlIds, boolean videoOnly)
-      throws DatabaseSchemaException {
-    return Futures.transform(
-        Database.with(Article.class).getFuture(
-            new QueryOption.DescendingSort("published_time"),
-            new QueryOption.WhereEquals("keyword.keyword", keywords),
-            new QueryOption.WhereNotEquals("url_id", excludeUrlIds),
-            videoOnly ? new QueryOption.WhereNotNull("video") : null,
-            new QueryOption.Limit(limit)),
-        getFunctionToGiveArticlesReason(reason, null));
-  }
+  private static final int INDUSTRY_OVERFETCH = 2;
 
   /**
    * Gets articles that contain a set of entity IDs.
@@ -114,8 +89,10 @@ public class Articles {
             new QueryOption.WhereEquals("keyword.entity.id", entityIds),
             new QueryOption.WhereNotEquals("url_id", excludeUrlIds),
             videoOnly ? new QueryOption.WhereNotNull("video") : null,
+            CANDIDATE_FIELDS,
+            FIRST_PARAGRAPH_ONLY,
             new QueryOption.Limit(limit)),
-        getFunctionToGiveArticlesReason(reason, null));
+        getFunctionToTagArticles(reason));
   }
 
   /**
@@ -127,17 +104,16 @@ public class Articles {
     return getMainStream(user, ImmutableSet.<String>of(), false /* videoOnly */);
   }
 
+  /**
+   * Returns the main stream for the given user, excluding articles the user's
+   * already seen.  Streams are ranked once and then served from
+   * {@code RankedStreamCache} until the user's interests change or new
+   * relevant articles are crawled.
+   */
   public static Iterable<Article> getMainStream(
       User user, Set<String> excludeUrlIds, boolean videoOnly)
       throws DatabaseSchemaException, BiznessException {
-    return Articles.getRankedArticles(
-        user,
-        NeuralNetworkScorer.getInstance(),
-        new MainStreamStrategy(),
-        new DiversificationPass.MainStreamPass(),
-        NUM_RESULTS,
-        excludeUrlIds,
-        videoOnly);
+    return RankedStreamCache.getMainStream(user, excludeUrlIds, videoOnly);
   }
 
   public static Iterable<Article> getStream(
@@ -163,6 +139,10 @@ public class Articles {
    * default serialization of Articles does not include their keywords.  Instead
    * use {@code ArticleSerializer#serialize(Iterable, User, boolean, boolean)
    * with the results of this method.
+   *
+   * The returned articles only have the fields in {@code #CANDIDATE_FIELDS},
+   * and only their first paragraph.  Use {@code Collection#hydrate} if you
+   * need anything else.
    */
   public static Iterable<Article> getRankedArticles(
       User user,
@@ -240,20 +220,29 @@ public class Articles {
       throws DatabaseSchemaException, BiznessException {
 
     // Find the top 150 articles based on neural network rank + time punishment.
-    TopList<Article, Double> goodArticles = new TopList<>(limit * 3);
+    long startNanos = System.nanoTime();
+    List<Article> candidateArticles = Lists.newArrayList();
     Set<String> urls = Sets.newHashSet();
     for (Article article : unrankedArticles) {
-      if (urls.contains(article.getUrl())) {
-        continue;
+      if (urls.add(article.getUrl())) {
+        candidateArticles.add(article);
       }
-      urls.add(article.getUrl());
-
-      double score = scorer.getScore(user, article) * strategy.getTimeRank(article, user);
+    }
+    TimeRankingStrategy.Context timeRankingContext = new TimeRankingStrategy.Context(user);
+    double[] scores = scorer.getScores(user, candidateArticles);
+    TopList<Article, Double> goodArticles = new TopList<>(limit * 3);
+    for (int i = 0; i < scores.length; i++) {
+      Article article = candidateArticles.get(i);
+      double score = scores[i] * strategy.getTimeRank(article, timeRankingContext);
       goodArticles.add(article.toBuilder().setScore(score).build(), score);
     }
 
+    Metrics.getTimer("articles.ranking.score").record(startNanos);
+
     // Dedupe them - This will knock us down about 10 - 20%.
+    startNanos = System.nanoTime();
     List<Article> dedupedArticles = Deduper.filterOutDupes(goodArticles);
+    Metrics.getTimer("articles.ranking.dedupe").record(startNanos);
 
     // Keep around only the top 55.  Make decisions based on the score and its
     // social relevance.
@@ -273,7 +262,11 @@ public class Articles {
 
     // Distribute them, letting the least-different articles to fall off the
     // bottom.
-    return Iterables.limit(diversificationPass.diversify(sortedArticles), limit);
+    startNanos = System.nanoTime();
+    Iterable<Article> diversifiedArticles =
+        ImmutableList.copyOf(Iterables.limit(diversificationPass.diversify(sortedArticles), limit));
+    Metrics.getTimer("articles.ranking.diversify").record(startNanos);
+    return diversifiedArticles;
   }
 
   /**
@@ -355,17 +348,18 @@ public class Articles {
       }
     }
 
+    long startNanos = System.nanoTime();
+    List<CandidateQuery> candidateQueries = getCandidateQueries(
+        entityIds, personNames, companyNames, featureIds, limitPerType, excludeUrlIds,
+        videoOnly);
     List<ListenableFuture<Iterable<Article>>> articlesFutures = Lists.newArrayList();
-    articlesFutures.add(getArticlesForEntityIdsFuture(
-        entityIds, Article.Reason.COMPANY, limitPerType, excludeUrlIds, videoOnly));
-    articlesFutures.add(getArticlesForKeywordsFuture(
-        personNames, Article.Reason.PERSON, limitPerType / 4, excludeUrlIds, videoOnly));
-    articlesFutures.add(getArticlesForKeywordsFuture(
-        companyNames, Article.Reason.COMPANY, limitPerType, excludeUrlIds, videoOnly));
-    for (FeatureId featureId : featureIds) {
-      articlesFutures.add(getArticlesByFeatureIdFuture(
-          featureId, limitPerType, excludeUrlIds, videoOnly));
+    for (CandidateQuery candidateQuery : candidateQueries) {
+      articlesFutures.add(Futures.transform(
+          Database.with(Article.class).getFuture(candidateQuery.queryOptions),
+          candidateQuery.tagFunction));
     }
+    Metrics.getCounter("articles.retrieval.queries").add(articlesFutures.size());
+
     Map<String, Article> dedupingArticleMap = Maps.newHashMap();
     for (ListenableFuture<Iterable<Article>> articlesFuture : articlesFutures) {
       try {
@@ -378,24 +372,142 @@ public class Articles {
         throw new BiznessException("Async error: " + e.getMessage(), e);
       }
     }
+    Metrics.getTimer("articles.retrieval").record(startNanos);
     return dedupingArticleMap.values();
   }
 
   /**
-   * Gets a list of articles tailored specifically to the specified
-   * industries.
+   * A query for candidate articles, plus the function that tags the articles
+   * it finds with their reason for being in the user's stream.
    */
-  public static ListenableFuture<Iterable<Article>> getArticlesByFeatureIdFuture(
-      FeatureId featureId, int limit, Set<String> excludeUrlIds, boolean videoOnly)
-      throws DatabaseSchemaException {
-    return Futures.transform(
-        Database.with(Article.class).getFuture(
-            new QueryOption.WhereEqualsNumber("feature.feature_id", featureId.getId()),
-            new QueryOption.DescendingSort("published_time"),
-            new QueryOption.WhereNotEquals("url_id", excludeUrlIds),
-            videoOnly ? new QueryOption.WhereNotNull("video") : null,
-            new QueryOption.Limit(limit)),
-        getFunctionToGiveArticlesReason(Reason.INDUSTRY, featureId));
+  static class CandidateQuery {
+    final QueryOption[] queryOptions;
+    final Function<Iterable<Article>, Iterable<Article>> tagFunction;
+
+    CandidateQuery(
+        Function<Iterable<Article>, Iterable<Article>> tagFunction,
+        QueryOption... queryOptions) {
+      this.queryOptions = queryOptions;
+      this.tagFunction = tagFunction;
+    }
+  }
+
+  /**
+   * Returns the queries for a user's candidate articles: At most one per group
+   * of interests, however many industries, companies or people the user
+   * follows.  Each group gets its own bounded query, so that a prolific group
+   * can't crowd out the others, and groups the user doesn't follow aren't
+   * queried at all.  People are queried before companies, so that articles
+   * mentioning both are given a PERSON reason.
+   */
+  static List<CandidateQuery> getCandidateQueries(
+      List<String> entityIds, List<String> personNames, List<String> companyNames,
+      List<FeatureId> featureIds, int limitPerType, Set<String> excludeUrlIds,
+      boolean videoOnly) {
+    List<CandidateQuery> candidateQueries = Lists.newArrayList();
+    if (!entityIds.isEmpty()) {
+      candidateQueries.add(getCandidateQuery(
+          new QueryOption.WhereEquals("keyword.entity.id", entityIds),
+          limitPerType, excludeUrlIds, videoOnly, getFunctionToTagArticles(Reason.COMPANY)));
+    }
+    if (!personNames.isEmpty()) {
+      candidateQueries.add(getCandidateQuery(
+          new QueryOption.WhereEquals("keyword.keyword", personNames),
+          limitPerType / 4, excludeUrlIds, videoOnly, getFunctionToTagArticles(Reason.PERSON)));
+    }
+    if (!companyNames.isEmpty()) {
+      candidateQueries.add(getCandidateQuery(
+          new QueryOption.WhereEquals("keyword.keyword", companyNames),
+          limitPerType, excludeUrlIds, videoOnly, getFunctionToTagArticles(Reason.COMPANY)));
+    }
+    if (!featureIds.isEmpty()) {
+      // All industries share one query, over-fetched so that after each
+      // industry's quota is split out in memory, the quieter industries still
+      // have articles to fill theirs.
+      List<Number> featureIdIds = Lists.newArrayList();
+      for (FeatureId featureId : featureIds) {
+        featureIdIds.add(featureId.getId());
+      }
+      candidateQueries.add(getCandidateQuery(
+          new QueryOption.WhereEqualsNumber("feature.feature_id", featureIdIds),
+          limitPerType * featureIds.size() * INDUSTRY_OVERFETCH, excludeUrlIds, videoOnly,
+          getFunctionToTakeIndustryQuotas(featureIds, limitPerType)));
+    }
+    return candidateQueries;
+  }
+
+  private static CandidateQuery getCandidateQuery(
+      QueryOption where, int limit, Set<String> excludeUrlIds, boolean videoOnly,
+      Function<Iterable<Article>, Iterable<Article>> tagFunction) {
+    return new CandidateQuery(
+        tagFunction,
+        where,
+        new QueryOption.DescendingSort("published_time"),
+        new QueryOption.WhereNotEquals("url_id", excludeUrlIds),
+        videoOnly ? new QueryOption.WhereNotNull("video") : null,
+        CANDIDATE_FIELDS,
+        FIRST_PARAGRAPH_ONLY,
+        new QueryOption.Limit(Math.max(1, limit)));
+  }
+
+  private static Function<Iterable<Article>, Iterable<Article>> getFunctionToTagArticles(
+      final Reason reason) {
+    return new Function<Iterable<Article>, Iterable<Article>>() {
+      @Override
+      public Iterable<Article> apply(Iterable<Article> articles) {
+        return Iterables.transform(articles, new Function<Article, Article>() {
+          @Override
+          public Article apply(Article article) {
+            return article.toBuilder().setReason(reason).build();
+          }
+        });
+      }
+    };
+  }
+
+  private static Function<Iterable<Article>, Iterable<Article>> getFunctionToTakeIndustryQuotas(
+      final List<FeatureId> featureIds, final int limitPerIndustry) {
+    return new Function<Iterable<Article>, Iterable<Article>>() {
+      @Override
+      public Iterable<Article> apply(Iterable<Article> articles) {
+        return takeIndustryQuotas(articles, featureIds, limitPerIndustry);
+      }
+    };
+  }
+
+  /**
+   * Splits articles about any of the passed industries into at most
+   * {@code limitPerIndustry} articles per industry, tagging each with the
+   * INDUSTRY reason and the code of the industry it was counted against.  An
+   * article about several of the industries counts against the one it's most
+   * similar to that still has room.  Articles are kept in the order passed.
+   */
+  static List<Article> takeIndustryQuotas(
+      Iterable<Article> articles, List<FeatureId> featureIds, int limitPerIndustry) {
+    Map<Integer, Integer> industryCounts = Maps.newHashMap();
+    for (FeatureId featureId : featureIds) {
+      industryCounts.put(featureId.getId(), 0);
+    }
+    List<Article> industryArticles = Lists.newArrayList();
+    for (Article article : articles) {
+      ArticleFeature bestFeature = null;
+      for (ArticleFeature feature : article.getFeatureList()) {
+        Integer count = industryCounts.get(feature.getFeatureId());
+        if (count != null && count < limitPerIndustry
+            && (bestFeature == null || feature.getSimilarity() > bestFeature.getSimilarity())) {
+          bestFeature = feature;
+        }
+      }
+      if (bestFeature != null) {
+        industryCounts.put(
+            bestFeature.getFeatureId(), industryCounts.get(bestFeature.getFeatureId()) + 1);
+        industryArticles.add(article.toBuilder()
+            .setReason(Reason.INDUSTRY)
+            .setReasonIndustryCode(bestFeature.getFeatureId())
+            .build());
+      }
+    }
+    return industryArticles;
   }
 
   public static Iterable<Article> getArticlesForLinkedInContacts(
@@ -430,6 +542,8 @@ public class Articles {
             new QueryOption.DescendingSort("published_time"),
             new QueryOption.WhereNotEquals("url_id", excludeUrlIds),
             videoOnly ? new QueryOption.WhereNotNull("video") : null,
+            CANDIDATE_FIELDS,
+            FIRST_PARAGRAPH_ONLY,
             new QueryOption.Limit(limit * 3)));
   }
 
@@ -1,36 +1,113 @@
 package com.janknspank.bizness;
 
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Logger;
+import com.janknspank.common.Metrics;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
-import com.janknspank.database.QueryOption;
 import com.janknspank.proto.CoreProto.Entity;
 
+/**
+ * Caches Entities by ID, for code that looks up lots of them, e.g. keyword
+ * canonicalization during crawls.  Safe to use from any number of threads.
+ *
+ * IDs that don't match any Entity are remembered too, but only for a little
+ * while, in case the Entity gets created.  Entities are otherwise never
+ * invalidated: They're only changed by offline tools (in their own
+ * processes), and the one place that creates them while serving,
+ * CreateEntityServlet, gives them new IDs.
+ *
+ * Sizes can be configured with these environment variables:
+ *  - ENTITY_CACHE_SIZE: Max number of Entities to cache (default 50000).
+ *  - ENTITY_CACHE_MISSING_TTL_SECONDS: How long to remember that an ID has
+ *    no Entity (default 600).
+ *
+ * Hits, misses, and load times are exported through {@code Metrics}.
+ */
 public class EntityCache {
-  private static final LinkedHashMap<String, Entity> ENTITY_CACHE_MAP =
-      new LinkedHashMap<String, Entity>() {
-        @Override
-        protected boolean removeEldestEntry(Map.Entry<String, Entity> eldest) {
-          return size() > 500;
-        }
-      };
-  private static final Object SYNCHRONIZE_HELPER = new Object();
+  private static final Logger LOG = new Logger(EntityCache.class);
 
+  private static final Cache<String, Entity> ENTITIES =
+      CacheBuilder.newBuilder()
+          .maximumSize(Environment.getInt("ENTITY_CACHE_SIZE", 50000))
+          .build();
+  private static final Cache<String, Boolean> MISSING_ENTITY_IDS =
+      CacheBuilder.newBuilder()
+          .maximumSize(Environment.getInt("ENTITY_CACHE_SIZE", 50000))
+          .expireAfterWrite(
+              Environment.getInt("ENTITY_CACHE_MISSING_TTL_SECONDS", 600), TimeUnit.SECONDS)
+          .build();
+  static {
+    Metrics.registerGauge("entity_cache.size", new Supplier<Long>() {
+      @Override
+      public Long get() {
+        return ENTITIES.size();
+      }
+    });
+  }
+
+  /**
+   * Returns the Entity with ID {@code entityId}, or null if there isn't one,
+   * or if it couldn't be read.
+   */
   public static Entity getEntity(String entityId) {
-    if (!ENTITY_CACHE_MAP.containsKey(entityId)) {
-      synchronized (SYNCHRONIZE_HELPER) {
-        if (!ENTITY_CACHE_MAP.containsKey(entityId)) {
-          try {
-            ENTITY_CACHE_MAP.put(entityId,
-                Database.with(Entity.class).getFirst(new QueryOption.WhereEquals("id", entityId)));
-          } catch (DatabaseSchemaException e) {
-            e.printStackTrace();
-          }
-        }
+    try {
+      return getEntities(ImmutableList.of(entityId)).get(entityId);
+    } catch (DatabaseSchemaException e) {
+      LOG.warning("Could not read entity " + entityId, e);
+      return null;
+    }
+  }
+
+  /**
+   * Returns the Entities with the passed IDs, keyed by ID.  IDs that don't
+   * match any Entity are left out.  Any IDs that aren't cached are read in a
+   * single query.
+   */
+  public static Map<String, Entity> getEntities(Iterable<String> entityIds)
+      throws DatabaseSchemaException {
+    Map<String, Entity> entities = Maps.newHashMap();
+    List<String> idsToLoad = Lists.newArrayList();
+    for (String entityId : entityIds) {
+      if (entities.containsKey(entityId)) {
+        continue;
+      }
+      Entity entity = ENTITIES.getIfPresent(entityId);
+      if (entity != null) {
+        Metrics.getCounter("entity_cache.hit").increment();
+        entities.put(entityId, entity);
+      } else if (MISSING_ENTITY_IDS.getIfPresent(entityId) != null) {
+        Metrics.getCounter("entity_cache.missing_hit").increment();
+      } else if (!idsToLoad.contains(entityId)) {
+        Metrics.getCounter("entity_cache.miss").increment();
+        idsToLoad.add(entityId);
+      }
+    }
+    if (idsToLoad.isEmpty()) {
+      return entities;
+    }
+
+    long startNanos = System.nanoTime();
+    for (Entity entity : Database.with(Entity.class).get(idsToLoad)) {
+      ENTITIES.put(entity.getId(), entity);
+      entities.put(entity.getId(), entity);
+    }
+    Metrics.getTimer("entity_cache.load").record(startNanos);
+    for (String entityId : idsToLoad) {
+      if (!entities.containsKey(entityId)) {
+        MISSING_ENTITY_IDS.put(entityId, Boolean.TRUE);
       }
     }
-    return ENTITY_CACHE_MAP.get(entityId);
+    return entities;
   }
 }
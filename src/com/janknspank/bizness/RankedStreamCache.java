@@ -0,0 +1,216 @@
+package com.janknspank.bizness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Charsets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.janknspank.bizness.TimeRankingStrategy.MainStreamStrategy;
+import com.janknspank.database.Database;
+import com.janknspank.database.DatabaseSchemaException;
+import com.janknspank.database.QueryOption;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.CoreProto.Entity.Source;
+import com.janknspank.proto.UserProto.AddressBookContact;
+import com.janknspank.proto.UserProto.Interest;
+import com.janknspank.proto.UserProto.Interest.InterestType;
+import com.janknspank.proto.UserProto.LinkedInContact;
+import com.janknspank.proto.UserProto.User;
+import com.janknspank.rank.DiversificationPass;
+import com.janknspank.rank.NeuralNetworkScorer;
+
+/**
+ * Caches each user's ranked main stream, so that repeat opens of the app,
+ * push notification pre-caching, and requests for the next page don't have
+ * to re-run the full retrieval + neural network + dedupe + diversification
+ * pipeline.
+ *
+ * Streams are keyed by user ID plus a fingerprint of everything that goes
+ * into choosing the user's candidate articles (interests, contacts), so any
+ * change to a user's interests naturally misses the cache.  Entries are also
+ * thrown away when the crawler lands new articles that match the user's
+ * industries or entities, and unconditionally after {@code #MAX_AGE_MINUTES},
+ * since time-based ranking slowly drifts as articles age.
+ */
+public class RankedStreamCache {
+  /**
+   * How many articles to rank and keep per cached stream.  This is enough to
+   * serve the first couple pages of a user's stream (via exclude_url_ids)
+   * without re-ranking.
+   */
+  static final int CACHED_STREAM_DEPTH = Articles.NUM_RESULTS * 2;
+
+  /**
+   * How long a cached stream can live, regardless of whether any new articles
+   * have been crawled for the user.
+   */
+  private static final long MAX_AGE_MINUTES = 15;
+
+  /**
+   * How often we check the database for newly crawled articles relevant to a
+   * cached stream.  Crawls land every ~20 minutes, so there's no point in
+   * checking more than this.
+   */
+  private static final long FRESHNESS_CHECK_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private static final Cache<String, CachedStream> CACHE =
+      CacheBuilder.newBuilder()
+          .maximumSize(5000)
+          .expireAfterWrite(MAX_AGE_MINUTES, TimeUnit.MINUTES)
+          .build();
+
+  private static class CachedStream {
+    private final List<Article> articles;
+    private final long createTime;
+    private volatile long lastFreshnessCheckTime;
+
+    private CachedStream(List<Article> articles, long createTime) {
+      this.articles = articles;
+      this.createTime = createTime;
+      this.lastFreshnessCheckTime = createTime;
+    }
+  }
+
+  /**
+   * Returns the main stream for the given user, excluding any articles in
+   * {@code excludeUrlIds}.  Served from cache whenever possible.
+   */
+  public static Iterable<Article> getMainStream(
+      User user, Set<String> excludeUrlIds, boolean videoOnly)
+      throws DatabaseSchemaException, BiznessException {
+    String key = getCacheKey(user, videoOnly);
+    CachedStream cachedStream = CACHE.getIfPresent(key);
+    if (cachedStream != null && !isStale(user, cachedStream)) {
+      List<Article> page = getPage(cachedStream.articles, excludeUrlIds);
+      if (page != null) {
+        return page;
+      }
+
+      // The user's paged past what we have cached.  Fall back to ranking from
+      // scratch, excluding the articles they've already seen.
+      return rank(user, Articles.NUM_RESULTS, excludeUrlIds, videoOnly);
+    }
+
+    cachedStream = new CachedStream(
+        ImmutableList.copyOf(
+            rank(user, CACHED_STREAM_DEPTH, ImmutableSet.<String>of(), videoOnly)),
+        System.currentTimeMillis());
+    CACHE.put(key, cachedStream);
+    List<Article> page = getPage(cachedStream.articles, excludeUrlIds);
+    return (page == null)
+        ? rank(user, Articles.NUM_RESULTS, excludeUrlIds, videoOnly)
+        : page;
+  }
+
+  /**
+   * Throws away all cached streams for the passed user.  Call this whenever
+   * the user's interests or contacts change.
+   */
+  public static void invalidate(User user) {
+    String keyPrefix = user.getId() + ":";
+    for (Map.Entry<String, CachedStream> entry : CACHE.asMap().entrySet()) {
+      if (entry.getKey().startsWith(keyPrefix)) {
+        CACHE.invalidate(entry.getKey());
+      }
+    }
+  }
+
+  private static Iterable<Article> rank(
+      User user, int limit, Set<String> excludeUrlIds, boolean videoOnly)
+      throws DatabaseSchemaException, BiznessException {
+    return Articles.getRankedArticles(
+        user,
+        NeuralNetworkScorer.getInstance(),
+        new MainStreamStrategy(),
+        new DiversificationPass.MainStreamPass(),
+        limit,
+        excludeUrlIds,
+        videoOnly);
+  }
+
+  /**
+   * Returns the next {@code Articles#NUM_RESULTS} articles from the cached
+   * stream that aren't in {@code excludeUrlIds}, or null if the cached stream
+   * doesn't have enough articles left to fill a complete page.
+   */
+  private static List<Article> getPage(List<Article> articles, Set<String> excludeUrlIds) {
+    List<Article> page = Lists.newArrayList();
+    for (Article article : articles) {
+      if (!excludeUrlIds.contains(article.getUrlId())) {
+        page.add(article);
+        if (page.size() == Articles.NUM_RESULTS) {
+          return page;
+        }
+      }
+    }
+
+    // If the cached stream was cut short by a lack of candidates (rather than
+    // by CACHED_STREAM_DEPTH), then re-ranking won't find anything new either.
+    return articles.size() < CACHED_STREAM_DEPTH ? page : null;
+  }
+
+  /**
+   * Returns true if new articles relevant to this user have been crawled since
+   * the passed stream was ranked.  To keep cache hits cheap, this only hits
+   * the database once every {@code #FRESHNESS_CHECK_INTERVAL_MILLIS}.
+   */
+  private static boolean isStale(User user, CachedStream cachedStream)
+      throws DatabaseSchemaException {
+    long now = System.currentTimeMillis();
+    if (now - cachedStream.lastFreshnessCheckTime < FRESHNESS_CHECK_INTERVAL_MILLIS) {
+      return false;
+    }
+    cachedStream.lastFreshnessCheckTime = now;
+
+    List<Number> featureIdIds = Lists.newArrayList();
+    List<String> entityIds = Lists.newArrayList();
+    List<String> keywords = Lists.newArrayList();
+    for (Interest interest : UserInterests.getInterests(user)) {
+      if (interest.getType() == InterestType.INDUSTRY) {
+        featureIdIds.add(interest.getIndustryCode());
+      } else if (interest.getType() == InterestType.ENTITY) {
+        if (interest.getEntity().hasId() && interest.getEntity().getSource() != Source.USER) {
+          entityIds.add(interest.getEntity().getId());
+        } else {
+          keywords.add(interest.getEntity().getKeyword());
+        }
+      }
+    }
+
+    QueryOption crawledSince =
+        new QueryOption.WhereGreaterThan("crawl_time", cachedStream.createTime);
+    return (!featureIdIds.isEmpty() && Database.with(Article.class).getFirst(
+            crawledSince, new QueryOption.WhereEqualsNumber("feature.feature_id", featureIdIds))
+                != null)
+        || (!entityIds.isEmpty() && Database.with(Article.class).getFirst(
+            crawledSince, new QueryOption.WhereEquals("keyword.entity.id", entityIds)) != null)
+        || (!keywords.isEmpty() && Database.with(Article.class).getFirst(
+            crawledSince, new QueryOption.WhereEquals("keyword.keyword", keywords)) != null);
+  }
+
+  /**
+   * Returns a cache key that changes whenever anything that determines the
+   * user's candidate articles changes.
+   */
+  private static String getCacheKey(User user, boolean videoOnly) {
+    Hasher hasher = Hashing.sha1().newHasher();
+    for (Interest interest : user.getInterestList()) {
+      hasher.putBytes(interest.toByteArray());
+    }
+    for (LinkedInContact contact : user.getLinkedInContactList()) {
+      hasher.putString(contact.getName(), Charsets.UTF_8);
+    }
+    for (AddressBookContact contact : user.getAddressBookContactList()) {
+      hasher.putString(contact.getName(), Charsets.UTF_8);
+    }
+    return user.getId() + ":" + hasher.hash().toString() + (videoOnly ? ":video" : "");
+  }
+}
@@ -1,29 +1,58 @@
 package com.janknspank.bizness;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
 import com.janknspank.database.Database;
+import com.janknspank.database.DatabaseRequestException;
 import com.janknspank.database.DatabaseSchemaException;
 import com.janknspank.database.QueryOption.DescendingSort;
 import com.janknspank.database.QueryOption.Limit;
 import com.janknspank.database.QueryOption.WhereEquals;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.janknspank.proto.ArticleProto.SocialEngagementHistory;
 
 public class SocialEngagements {
   /**
-   * Returns the SocialEngagements for a given URL, as cached in the database.
-   * All social engagements are returned.
+   * Returns the social engagement history for the given article, newest
+   * first.  Unlike the article itself, which only keeps the latest engagement
+   * per site, this has every snapshot we've taken.
    */
-  public static Iterable<SocialEngagement> getForUrl(String url, int limit)
+  public static Iterable<SocialEngagementHistory> getHistoryForArticle(Article article, int limit)
       throws DatabaseSchemaException {
-    return Database.with(SocialEngagement.class).get(
-        new WhereEquals("url", url),
+    return Database.with(SocialEngagementHistory.class).get(
+        new WhereEquals("url_id", article.getUrlId()),
         new Limit(limit),
         new DescendingSort("create_time"));
   }
 
+  /**
+   * Stores fresh social engagements for the given article.  Each one
+   * atomically replaces the article's engagement for the same site, so
+   * articles only ever carry one engagement per site.  Every engagement is
+   * also added to the article's SocialEngagementHistory.
+   */
+  public static void update(Article article, Iterable<SocialEngagement> engagements)
+      throws DatabaseSchemaException, DatabaseRequestException {
+    List<SocialEngagementHistory> histories = Lists.newArrayList();
+    for (SocialEngagement engagement : engagements) {
+      Database.replaceOrPush(article, "social_engagement", "site", engagement);
+      histories.add(SocialEngagementHistory.newBuilder()
+          .setSocialEngagement(engagement)
+          .setUrlId(article.getUrlId())
+          .setCreateTime(engagement.getCreateTime())
+          .build());
+    }
+    Database.insert(histories);
+  }
+
   /**
    * Returns the most recent social engagement we have for the given article on
-   * a specific social site (facebook, etc).
+   * a specific social site (facebook, etc).  Articles stored before we kept
+   * engagement history separately can still have more than one per site,
+   * hence the search.
    */
   public static SocialEngagement getForArticle(Article article, SocialEngagement.Site site) {
     SocialEngagement latest = null;
@@ -36,4 +65,55 @@ public class SocialEngagements {
     }
     return latest;
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns whether it's time to get fresh social engagement for the given
+   * article from the specified site.  Newer articles are updated more often,
+   * since that's when their engagement changes the most.
+   */
+  public static boolean needsUpdate(Article article, SocialEngagement.Site site, long now) {
+    SocialEngagement socialEngagement = getForArticle(article, site);
+    if (socialEngagement == null) {
+      // Always get at least one.
+      return true;
+    }
+    double articleAgeInHours =
+        (double) (now - Articles.getPublishedTime(article)) / TimeUnit.HOURS.toMillis(1);
+    double socialEngagementAgeInHours =
+        (double) (now - socialEngagement.getCreateTime()) / TimeUnit.HOURS.toMillis(1);
+
+    // NOTE: WE USED TO BE SUPER AGGRESSIVE HERE BUT FACEBOOK STARTED THROTTLING
+    // OUR REQUESTS!!  This was especially bad because we shared our Facebook app
+    // ID across both frontend and crawling, which broke facebook authentication
+    // for end users.  To fix this, we switched to a secondary app ID, so that
+    // the two quotas are isolated - but this means we'll have a small quota for
+    // the crawler for the foreseeable future.  Someday we might want to switch
+    // back to the frontend app ID / secret so that we can get higher QPS quotas
+    // (since query quota seems to be associated with # of users an app has).
+
+    // For articles between 0 and 8 hours old, update social engagements if we
+    // haven't updated them in at least 6 hours.
+    if (articleAgeInHours < 8) {
+      return socialEngagementAgeInHours > 6;
+    }
+
+    // For articles between 8 and 24 hours old, update social engagements if we
+    // haven't updated them in at least 12 hours.
+    if (articleAgeInHours < 24) {
+      return socialEngagementAgeInHours > 12;
+    }
+
+    // For articles between 24 hours and 2 1/2 days old, update social
+    // engagements if we haven't updated them in at least 24 hours.
+    if (articleAgeInHours < (24 + 24 + 12)) {
+      return socialEngagementAgeInHours > 24;
+    }
+
+    return false;
+  }
+
+  /** Helper method for creating the SocialEngagementHistory table. */
+  public static void main(String args[]) throws Exception {
+    Database.with(SocialEngagementHistory.class).createTable();
+  }
+}
@@ -11,6 +11,63 @@ import com.janknspank.proto.UserProto.User;
  * and what stream (main stream, topic, stream, etc) the user's looking at.
  */
 public abstract class TimeRankingStrategy {
+  private static final double HOUR_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  /**
+   * Everything the strategies need to know about the user and the current
+   * time, worked out once per ranking request rather than once per article.
+   * The current time is frozen when the context's created, so every article
+   * in a request is ranked against the same "now".
+   */
+  public static class Context {
+    private final long now;
+    private final boolean isWeekend;
+
+    /**
+     * How many hours ago the user last used the app, not counting the last
+     * hour, and capped at {@link #cliffHours}.
+     */
+    private final double lastAppUsageInHoursAgo;
+
+    /**
+     * When time punishment starts.  It's later on weekends, because there's
+     * less news on weekends.
+     */
+    private final int cliffHours;
+
+    public Context(User user) {
+      this(user, System.currentTimeMillis());
+    }
+
+    public Context(User user, long now) {
+      this.now = now;
+      this.isWeekend = isWeekend(user, now);
+      this.cliffHours = isWeekend ? 42 : 18;
+      this.lastAppUsageInHoursAgo =
+          Math.min(cliffHours, Users.getLastAppUsageInMinutes(user, now) / 60.0);
+    }
+
+    private static boolean isWeekend(User user, long now) {
+      try {
+        UserTimezone userTimezone = UserTimezone.getForUser(user, false /* update */);
+        return userTimezone.isWeekend(now);
+      } catch (Exception e) {}
+      return false;
+    }
+
+    public long getNow() {
+      return now;
+    }
+
+    public boolean isWeekend() {
+      return isWeekend;
+    }
+
+    private double getArticleAgeInHours(Article article) {
+      return (now - Articles.getPublishedTime(article)) / HOUR_IN_MILLIS;
+    }
+  }
+
   /**
    * Returns a time-value coefficient for this article given the current user.
    * This value will typically be multiplied by the article's neural network
@@ -18,15 +75,7 @@ public abstract class TimeRankingStrategy {
    * This method should strive to return 1 for articles that are still relevant
    * given their age, and slowly decay towards 0 for articles that are older.
    */
-  public abstract double getTimeRank(Article article, User user);
-
-  private static boolean isWeekend(User user) {
-    try {
-      UserTimezone userTimezone = UserTimezone.getForUser(user, false /* update */);
-      return userTimezone.isWeekend();
-    } catch (Exception e) {}
-    return false;
-  }
+  public abstract double getTimeRank(Article article, Context context);
 
   /**
    * This is the time ranking strategy (aka how we punish articles for being
@@ -34,18 +83,14 @@ public abstract class TimeRankingStrategy {
    */
   public static class MainStreamStrategy extends TimeRankingStrategy {
     @Override
-    public double getTimeRank(Article article, User user) {
+    public double getTimeRank(Article article, Context context) {
       // How many hours ago did the user last use the app?  Don't let this
       // get bigger than 18 (or 42 on weekends), otherwise the stream gets
       // really dated.
-      double lastAppUsageInHoursAgo = Math.min(
-          isWeekend(user) ? 42 : 18,
-          Users.getLastAppUsageInMinutes(user) / 60.0);
+      double lastAppUsageInHoursAgo = context.lastAppUsageInHoursAgo;
 
       // How many hours ago was the article published?
-      double articleAgeInHours =
-          ((double) System.currentTimeMillis() - Articles.getPublishedTime(article))
-              / (double) TimeUnit.HOURS.toMillis(1);
+      double articleAgeInHours = context.getArticleAgeInHours(article);
 
       // Hours since last app usage.
       double hoursSinceLastAppUsage = Math.max(0, articleAgeInHours - lastAppUsageInHoursAgo);
@@ -64,15 +109,13 @@ public abstract class TimeRankingStrategy {
    */
   public static class IndustryStreamStrategy extends TimeRankingStrategy {
     @Override
-    public double getTimeRank(Article article, User user) {
+    public double getTimeRank(Article article, Context context) {
       // How many hours ago was the article published?
-      double articleAgeInHours =
-          ((double) System.currentTimeMillis() - Articles.getPublishedTime(article))
-              / (double) TimeUnit.HOURS.toMillis(1);
+      double articleAgeInHours = context.getArticleAgeInHours(article);
 
       // This is when the time punishment starts.  It is bigger on weekends
       // because there's less news on weekends.
-      int cliff = isWeekend(user) ? 42 : 18;
+      int cliff = context.cliffHours;
 
       // OK, here's what we're going to do.  If
       // articleAgeInHours <= cliff: Return 1.
@@ -88,15 +131,13 @@ public abstract class TimeRankingStrategy {
    */
   public static class EntityStreamStrategy extends TimeRankingStrategy {
     @Override
-    public double getTimeRank(Article article, User user) {
+    public double getTimeRank(Article article, Context context) {
       // How many hours ago was the article published?
-      double articleAgeInHours =
-          ((double) System.currentTimeMillis() - Articles.getPublishedTime(article))
-              / (double) TimeUnit.HOURS.toMillis(1);
+      double articleAgeInHours = context.getArticleAgeInHours(article);
 
       // This is when the time punishment starts.  It is bigger on weekends
       // because there's less news on weekends.
-      int cliff = isWeekend(user) ? 42 : 18;
+      int cliff = context.cliffHours;
 
       // OK, here's what we're going to do.  If
       // articleAgeInHours <= cliff: Return 1.
@@ -75,15 +75,21 @@ public class Users {
    * excluding any usages in the last hour.
    */
   public static long getLastAppUsageInMinutes(User user) {
+    return getLastAppUsageInMinutes(user, System.currentTimeMillis());
+  }
+
+  /**
+   * Same as above, but as of {@code now}, rather than the current time.
+   */
+  public static long getLastAppUsageInMinutes(User user, long now) {
     long lastAppUsageAtLeastOneHourAgo = 0;
     for (long last5AppUseTime : user.getLast5AppUseTimeList()) {
-      if (last5AppUseTime < (System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1))
+      if (last5AppUseTime < (now - TimeUnit.HOURS.toMillis(1))
           && last5AppUseTime > lastAppUsageAtLeastOneHourAgo) {
         lastAppUsageAtLeastOneHourAgo = last5AppUseTime;
       }
     }
-    return (System.currentTimeMillis() - lastAppUsageAtLeastOneHourAgo)
-        / TimeUnit.MINUTES.toMillis(1);
+    return (now - lastAppUsageAtLeastOneHourAgo) / TimeUnit.MINUTES.toMillis(1);
   }
 
   /** Helper method for creating the User table. */
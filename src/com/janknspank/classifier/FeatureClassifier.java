@@ -1,5 +1,6 @@
 package com.janknspank.classifier;
 
+import java.util.Arrays;
 import java.util.List;
 
 import com.google.api.client.util.Lists;
@@ -12,6 +13,48 @@ import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
  * like relevance to startups.
  */
 public class FeatureClassifier {
+  /**
+   * Scorers that handle many features at once: An inverted index over all the
+   * VectorFeatures' vectors, and one ManualHeuristicScorer for all the manual
+   * features.  Lazily initialized, since loading features is expensive.
+   */
+  private static class BatchScorerHolder {
+    private static final List<VectorFeature> VECTOR_FEATURES = Lists.newArrayList();
+    private static final VectorIndex VECTOR_INDEX;
+    private static final ManualHeuristicScorer MANUAL_HEURISTIC_SCORER;
+
+    /**
+     * For each FeatureId ordinal, the feature's position in VECTOR_FEATURES or
+     * MANUAL_HEURISTIC_SCORER's features, or -1 if it isn't batch scored.
+     */
+    private static final int[] POSITIONS_BY_FEATURE_ID_ORDINAL =
+        new int[FeatureId.values().length];
+
+    static {
+      List<Vector> vectors = Lists.newArrayList();
+      List<ManualHeuristicFeature> manualHeuristicFeatures = Lists.newArrayList();
+      Arrays.fill(POSITIONS_BY_FEATURE_ID_ORDINAL, -1);
+      for (Feature feature : Feature.getAllFeatures()) {
+        int ordinal = feature.getFeatureId().ordinal();
+        if (feature instanceof VectorFeature) {
+          VectorFeature vectorFeature = (VectorFeature) feature;
+          POSITIONS_BY_FEATURE_ID_ORDINAL[ordinal] = VECTOR_FEATURES.size();
+          VECTOR_FEATURES.add(vectorFeature);
+          vectors.add(vectorFeature.getFeatureVector());
+        } else if (feature instanceof ManualHeuristicFeature) {
+          POSITIONS_BY_FEATURE_ID_ORDINAL[ordinal] = manualHeuristicFeatures.size();
+          manualHeuristicFeatures.add((ManualHeuristicFeature) feature);
+        }
+      }
+      try {
+        VECTOR_INDEX = new VectorIndex(UniverseVector.getInstance(), vectors);
+      } catch (ClassifierException e) {
+        throw new Error("Could not load universe vector: " + e.getMessage(), e);
+      }
+      MANUAL_HEURISTIC_SCORER = new ManualHeuristicScorer(manualHeuristicFeatures);
+    }
+  }
+
   public static ArticleFeature classifyForFeature(ArticleOrBuilder article, Feature feature)
       throws ClassifierException {
     return ArticleFeature.newBuilder()
@@ -30,9 +73,32 @@ public class FeatureClassifier {
     // thing.
     TopList<ArticleFeature, Double> topIndustryArticleFeatures = new TopList<>(5);
 
+    // Get raw scores for all the vector features, and scores for all the
+    // manual heuristic features, at once.
+    double[] vectorFeatureRawScores =
+        BatchScorerHolder.VECTOR_INDEX.getCosineSimilarities(Vector.fromArticle(article));
+    double[] manualHeuristicScores = BatchScorerHolder.MANUAL_HEURISTIC_SCORER.score(article);
+
     // Classify and add all the article features.
     for (Feature feature : Feature.getAllFeatures()) {
-      ArticleFeature articleFeature = classifyForFeature(article, feature);
+      int position =
+          BatchScorerHolder.POSITIONS_BY_FEATURE_ID_ORDINAL[feature.getFeatureId().ordinal()];
+      ArticleFeature articleFeature;
+      if (position < 0) {
+        articleFeature = classifyForFeature(article, feature);
+      } else if (feature instanceof VectorFeature) {
+        articleFeature = ArticleFeature.newBuilder()
+            .setFeatureId(feature.getId().getId())
+            .setSimilarity(BatchScorerHolder.VECTOR_FEATURES.get(position).normalizeScore(
+                vectorFeatureRawScores[position],
+                Feature.getBoost(feature.getFeatureId(), article)))
+            .build();
+      } else {
+        articleFeature = ArticleFeature.newBuilder()
+            .setFeatureId(feature.getId().getId())
+            .setSimilarity(manualHeuristicScores[position])
+            .build();
+      }
       if (feature.getFeatureId().getFeatureType() == FeatureType.INDUSTRY) {
         if (articleFeature.getSimilarity() >= 0.75) {
           topIndustryArticleFeatures.add(articleFeature, articleFeature.getSimilarity());
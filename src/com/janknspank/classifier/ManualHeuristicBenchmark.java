@@ -0,0 +1,129 @@
+package com.janknspank.classifier;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.janknspank.classifier.manual.ManualFeatureAcquisitions;
+import com.janknspank.classifier.manual.ManualFeatureBigMoney;
+import com.janknspank.classifier.manual.ManualFeatureFundraising;
+import com.janknspank.classifier.manual.ManualFeatureIsList;
+import com.janknspank.classifier.manual.ManualFeatureLaunches;
+import com.janknspank.classifier.manual.ManualFeatureQuarterlyEarnings;
+import com.janknspank.proto.ArticleProto.Article;
+
+/**
+ * Compares scoring articles against all the manual heuristic features with a
+ * single ManualHeuristicScorer versus running each feature's regexes one at a
+ * time, as we used to.  Also verifies that both ways give the same scores.
+ *
+ * Usage:
+ * java com.janknspank.classifier.ManualHeuristicBenchmark [testdata directory] [passes]
+ */
+public class ManualHeuristicBenchmark {
+  private static List<Article> readArticles(File directory) throws IOException {
+    List<Article> articles = Lists.newArrayList();
+    for (File file : directory.listFiles()) {
+      if (!file.getName().endsWith(".html")) {
+        continue;
+      }
+      Document document = Jsoup.parse(file, "UTF-8");
+      Article.Builder articleBuilder = Article.newBuilder().setTitle(document.title());
+      for (Element paragraphEl : document.select("p")) {
+        if (paragraphEl.text().length() > 0) {
+          articleBuilder.addParagraph(paragraphEl.text());
+        }
+      }
+      articles.add(articleBuilder.build());
+    }
+    return articles;
+  }
+
+  private static double[] scoreOneRegexAtATime(
+      List<ManualHeuristicFeature> features, Article article) {
+    double[] scores = new double[features.size()];
+    for (int i = 0; i < scores.length; i++) {
+      ManualHeuristicFeature feature = features.get(i);
+      scores[i] = ManualHeuristicFeature.relevanceToRegexs(article,
+          feature.getTitleScores(), feature.getTitleBlacklist(),
+          feature.getBodyScores(), feature.getBodyBlacklist());
+    }
+    return scores;
+  }
+
+  /**
+   * Returns articles per second for the old, one regex at a time approach.
+   */
+  private static double runOneRegexAtATime(
+      List<ManualHeuristicFeature> features, List<Article> articles, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Article article : articles) {
+        scoreOneRegexAtATime(features, article);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (articles.size() * passes) / elapsedSeconds;
+  }
+
+  /**
+   * Returns articles per second for ManualHeuristicScorer.
+   */
+  private static double runScorer(
+      ManualHeuristicScorer scorer, List<Article> articles, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Article article : articles) {
+        scorer.score(article);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (articles.size() * passes) / elapsedSeconds;
+  }
+
+  public static void main(String args[]) throws Exception {
+    File directory = new File(args.length > 0 ? args[0] : "testdata");
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    List<Article> articles = readArticles(directory);
+    if (articles.isEmpty()) {
+      throw new IllegalStateException("No .html files found in " + directory);
+    }
+
+    List<ManualHeuristicFeature> features = ImmutableList.<ManualHeuristicFeature>of(
+        new ManualFeatureAcquisitions(),
+        new ManualFeatureBigMoney(),
+        new ManualFeatureFundraising(),
+        new ManualFeatureIsList(),
+        new ManualFeatureLaunches(),
+        new ManualFeatureQuarterlyEarnings());
+    ManualHeuristicScorer scorer = new ManualHeuristicScorer(features);
+    for (Article article : articles) {
+      double[] expectedScores = scoreOneRegexAtATime(features, article);
+      double[] scores = scorer.score(article);
+      for (int i = 0; i < scores.length; i++) {
+        if (expectedScores[i] != scores[i]) {
+          throw new IllegalStateException("Score mismatch for "
+              + features.get(i).getFeatureId() + " on \"" + article.getTitle() + "\": "
+              + expectedScores[i] + " vs " + scores[i]);
+        }
+      }
+    }
+
+    // Warm up both, so that JIT compilation isn't counted.
+    runOneRegexAtATime(features, articles, Math.max(1, passes / 10));
+    runScorer(scorer, articles, Math.max(1, passes / 10));
+
+    System.out.println("Benchmarking " + articles.size() + " articles x " + passes + " passes");
+    double oldRate = runOneRegexAtATime(features, articles, passes);
+    double newRate = runScorer(scorer, articles, passes);
+    System.out.println(String.format("One regex at a time:   %10.2f articles/sec", oldRate));
+    System.out.println(String.format("ManualHeuristicScorer: %10.2f articles/sec (%.2fx)",
+        newRate, newRate / oldRate));
+  }
+}
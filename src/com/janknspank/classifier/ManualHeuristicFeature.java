@@ -5,24 +5,65 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 
+/**
+ * A Feature scored by regular expressions against an article's title and
+ * first paragraph.  Subclasses provide the rules: Patterns with the score a
+ * match is worth, plus blacklisted Patterns that zero the score if they match.
+ * Both texts are lowercased before matching.
+ *
+ * Scoring is done through a {@link ManualHeuristicScorer}, which
+ * FeatureClassifier also uses to score all manual features at once.
+ */
 public abstract class ManualHeuristicFeature extends Feature {
+  private final Map<Pattern, Double> titleScores;
+  private final Iterable<Pattern> titleBlacklist;
+  private final Map<Pattern, Double> bodyScores;
+  private final Iterable<Pattern> bodyBlacklist;
+  private final ManualHeuristicScorer scorer;
 
-  public ManualHeuristicFeature(FeatureId featureId) {
+  public ManualHeuristicFeature(FeatureId featureId,
+      Map<Pattern, Double> titleScores, Iterable<Pattern> titleBlacklist,
+      Map<Pattern, Double> bodyScores, Iterable<Pattern> bodyBlacklist) {
     super(featureId);
     if (featureId.getFeatureType() != FeatureType.MANUAL_HEURISTIC) {
       throw new IllegalStateException("The specified feature ID is not a manual heuristic");
     }
+    this.titleScores = titleScores;
+    this.titleBlacklist = titleBlacklist;
+    this.bodyScores = bodyScores;
+    this.bodyBlacklist = bodyBlacklist;
+    this.scorer = new ManualHeuristicScorer(ImmutableList.of(this));
   }
 
   @Override
-  public abstract double score(ArticleOrBuilder article);
+  public double score(ArticleOrBuilder article) {
+    return scorer.score(article)[0];
+  }
+
+  Map<Pattern, Double> getTitleScores() {
+    return titleScores;
+  }
+
+  Iterable<Pattern> getTitleBlacklist() {
+    return titleBlacklist;
+  }
+
+  Map<Pattern, Double> getBodyScores() {
+    return bodyScores;
+  }
+
+  Iterable<Pattern> getBodyBlacklist() {
+    return bodyBlacklist;
+  }
 
   /**
    * Given an article and set of regex's and blacklists, computes a relevance score.
-   * Any blacklist matches will return 0.
+   * Any blacklist matches will return 0.  This runs each regex separately,
+   * so it's only used for checking and benchmarking ManualHeuristicScorer.
    */
   protected static double relevanceToRegexs(ArticleOrBuilder article, 
       Map<Pattern, Double> titleScores, Iterable<Pattern> titleBlacklist,
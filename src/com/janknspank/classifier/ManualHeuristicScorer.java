@@ -0,0 +1,120 @@
+package com.janknspank.classifier;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
+
+/**
+ * Scores articles against a set of ManualHeuristicFeatures at once.  The title
+ * and first paragraph rules of all the features are compiled into one
+ * MultiPatternMatcher each, so each article's title and first paragraph are
+ * scanned once, no matter how many features (or patterns) there are.
+ *
+ * Scores are the same as {@code ManualHeuristicFeature#relevanceToRegexs}
+ * would give for each feature.  Immutable and thread-safe.
+ */
+public class ManualHeuristicScorer {
+  /**
+   * One feature's rules for one text field, as indexes into the field's
+   * MultiPatternMatcher.
+   */
+  private static class FieldRules {
+    private final int[] scorePatternIndexes;
+    private final double[] scores;
+    private final int[] blacklistPatternIndexes;
+
+    private FieldRules(List<Pattern> allPatterns,
+        Map<Pattern, Double> scoreRules, Iterable<Pattern> blacklist) {
+      List<Integer> scorePatternIndexes = Lists.newArrayList();
+      List<Double> scores = Lists.newArrayList();
+      for (Map.Entry<Pattern, Double> entry : scoreRules.entrySet()) {
+        scorePatternIndexes.add(allPatterns.size());
+        allPatterns.add(entry.getKey());
+        scores.add(entry.getValue());
+      }
+      List<Integer> blacklistPatternIndexes = Lists.newArrayList();
+      for (Pattern pattern : blacklist) {
+        blacklistPatternIndexes.add(allPatterns.size());
+        allPatterns.add(pattern);
+      }
+      this.scorePatternIndexes = Ints.toArray(scorePatternIndexes);
+      this.scores = Doubles.toArray(scores);
+      this.blacklistPatternIndexes = Ints.toArray(blacklistPatternIndexes);
+    }
+
+    /**
+     * Same as {@code ManualHeuristicFeature#getScore(String, Map, Iterable)},
+     * given which patterns matched: -1 if a blacklisted pattern matched,
+     * otherwise the highest score of any matching pattern, or 0.
+     */
+    private double getScore(BitSet matches) {
+      for (int patternIndex : blacklistPatternIndexes) {
+        if (matches.get(patternIndex)) {
+          return -1;
+        }
+      }
+      double score = 0;
+      for (int i = 0; i < scorePatternIndexes.length; i++) {
+        if (matches.get(scorePatternIndexes[i])) {
+          score = Math.max(score, scores[i]);
+        }
+      }
+      return score;
+    }
+  }
+
+  private final List<ManualHeuristicFeature> features;
+  private final FieldRules[] titleRules;
+  private final FieldRules[] bodyRules;
+  private final MultiPatternMatcher titleMatcher;
+  private final MultiPatternMatcher bodyMatcher;
+
+  public ManualHeuristicScorer(Iterable<ManualHeuristicFeature> features) {
+    this.features = ImmutableList.copyOf(features);
+    this.titleRules = new FieldRules[this.features.size()];
+    this.bodyRules = new FieldRules[this.features.size()];
+    List<Pattern> titlePatterns = Lists.newArrayList();
+    List<Pattern> bodyPatterns = Lists.newArrayList();
+    for (int i = 0; i < this.features.size(); i++) {
+      ManualHeuristicFeature feature = this.features.get(i);
+      titleRules[i] = new FieldRules(
+          titlePatterns, feature.getTitleScores(), feature.getTitleBlacklist());
+      bodyRules[i] = new FieldRules(
+          bodyPatterns, feature.getBodyScores(), feature.getBodyBlacklist());
+    }
+    this.titleMatcher = new MultiPatternMatcher(titlePatterns);
+    this.bodyMatcher = new MultiPatternMatcher(bodyPatterns);
+  }
+
+  public List<ManualHeuristicFeature> getFeatures() {
+    return features;
+  }
+
+  /**
+   * Returns the article's score for each of this scorer's features, in
+   * {@code #getFeatures()} order.  Any blacklist match makes a feature's score
+   * 0.
+   */
+  public double[] score(ArticleOrBuilder article) {
+    BitSet titleMatches = titleMatcher.findMatchingPatterns(article.getTitle().toLowerCase());
+    BitSet bodyMatches = bodyMatcher.findMatchingPatterns(
+        Iterables.getFirst(article.getParagraphList(), "").toLowerCase());
+    double[] scores = new double[features.size()];
+    for (int i = 0; i < scores.length; i++) {
+      double titleScore = titleRules[i].getScore(titleMatches);
+      double firstParagraphScore = bodyRules[i].getScore(bodyMatches);
+      scores[i] = (titleScore < 0 || firstParagraphScore < 0)
+          ? 0 // A blacklist word was found
+          : Math.max(titleScore, firstParagraphScore);
+    }
+    return scores;
+  }
+}
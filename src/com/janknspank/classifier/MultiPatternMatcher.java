@@ -0,0 +1,283 @@
+package com.janknspank.classifier;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+import com.janknspank.common.AhoCorasick;
+
+/**
+ * Finds which of a list of regular expressions match (as in
+ * {@code Matcher#find()}) a piece of text, without running most of them.
+ *
+ * Nearly all of our manual heuristic patterns are either plain strings, or
+ * contain a plain string that any match must include (e.g. " of the week" in
+ * "the [0-9]+ best .* of the week").  We pull out the longest such string
+ * from each pattern and find them all with a single Aho-Corasick pass over
+ * the text.  Then, only patterns whose required string was found, and that
+ * aren't plain strings themselves, get run as regular expressions.  Patterns
+ * we can't find a required string for are always run.
+ *
+ * Returns exactly the same results as running each pattern separately.
+ * Immutable and thread-safe.
+ */
+public class MultiPatternMatcher {
+  /**
+   * Required strings shorter than this aren't worth prefiltering on, since
+   * they'd be found in nearly every text anyway.
+   */
+  private static final int MINIMUM_LITERAL_LENGTH = 2;
+
+  private final List<Pattern> patterns;
+  private final AhoCorasick literalMatcher;
+
+  /**
+   * For each literal in literalMatcher, the index of its pattern, and whether
+   * finding the literal is the same thing as the pattern matching.
+   */
+  private final int[] patternIndexesByLiteral;
+  private final BitSet exactLiterals = new BitSet();
+
+  /**
+   * Indexes of patterns with no usable required string.
+   */
+  private final int[] unfilteredPatternIndexes;
+
+  public MultiPatternMatcher(List<Pattern> patterns) {
+    this.patterns = ImmutableList.copyOf(patterns);
+    List<String> literals = Lists.newArrayList();
+    List<Integer> patternIndexesByLiteral = Lists.newArrayList();
+    List<Integer> unfilteredPatternIndexes = Lists.newArrayList();
+    for (int i = 0; i < patterns.size(); i++) {
+      RequiredLiteral requiredLiteral = getRequiredLiteral(patterns.get(i));
+      if (requiredLiteral == null) {
+        unfilteredPatternIndexes.add(i);
+        continue;
+      }
+      if (requiredLiteral.isExact) {
+        exactLiterals.set(literals.size());
+      }
+      literals.add(requiredLiteral.literal);
+      patternIndexesByLiteral.add(i);
+    }
+    this.literalMatcher = new AhoCorasick(literals);
+    this.patternIndexesByLiteral = Ints.toArray(patternIndexesByLiteral);
+    this.unfilteredPatternIndexes = Ints.toArray(unfilteredPatternIndexes);
+  }
+
+  public int getPatternCount() {
+    return patterns.size();
+  }
+
+  /**
+   * Returns a BitSet with a bit set for the index of each pattern that's
+   * found in {@code text}.
+   */
+  public BitSet findMatchingPatterns(String text) {
+    BitSet matches = new BitSet(patterns.size());
+    BitSet foundLiterals = literalMatcher.findContainedPatterns(text);
+    for (int literal = foundLiterals.nextSetBit(0); literal >= 0;
+        literal = foundLiterals.nextSetBit(literal + 1)) {
+      int patternIndex = patternIndexesByLiteral[literal];
+      if (exactLiterals.get(literal) || patterns.get(patternIndex).matcher(text).find()) {
+        matches.set(patternIndex);
+      }
+    }
+    for (int patternIndex : unfilteredPatternIndexes) {
+      if (patterns.get(patternIndex).matcher(text).find()) {
+        matches.set(patternIndex);
+      }
+    }
+    return matches;
+  }
+
+  @VisibleForTesting
+  static class RequiredLiteral {
+    final String literal;
+
+    /**
+     * True if the pattern is nothing but this literal, so finding the literal
+     * means the pattern matches.
+     */
+    final boolean isExact;
+
+    RequiredLiteral(String literal, boolean isExact) {
+      this.literal = literal;
+      this.isExact = isExact;
+    }
+  }
+
+  /**
+   * Returns the longest string that must appear in any text {@code pattern}
+   * finds a match in, or null if we can't tell.  This only understands the
+   * simple regex syntax our patterns use, and gives up (returns null) on
+   * anything fancier, e.g. top-level alternation or flags.
+   */
+  @VisibleForTesting
+  static RequiredLiteral getRequiredLiteral(Pattern pattern) {
+    if (pattern.flags() != 0) {
+      return null;
+    }
+    String regex = pattern.pattern();
+    String longestRun = "";
+    StringBuilder run = new StringBuilder();
+    boolean isExact = true;
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      Character literalChar = null;
+      if (c == '\\') {
+        if (i + 1 >= regex.length()) {
+          return null;
+        }
+        char escaped = regex.charAt(i + 1);
+        if ("0cEkNpPQux".indexOf(escaped) >= 0) {
+          // Escapes that consume more than one character after the backslash.
+          return null;
+        } else if (Character.isLetterOrDigit(escaped)) {
+          // Character classes (\s), anchors (\b), back references, etc.
+          i = skipQuantifier(regex, i + 2);
+        } else {
+          literalChar = escaped;
+          i += 2;
+        }
+      } else if (c == '|') {
+        return null;
+      } else if (c == '[') {
+        i = skipCharacterClass(regex, i);
+        if (i < 0) {
+          return null;
+        }
+        i = skipQuantifier(regex, i);
+      } else if (c == '(') {
+        if (i + 1 < regex.length() && regex.charAt(i + 1) == '?') {
+          // Inline flags, lookarounds, etc.
+          return null;
+        }
+        i = skipGroup(regex, i);
+        if (i < 0) {
+          return null;
+        }
+        i = skipQuantifier(regex, i);
+      } else if (c == '.' || c == '^' || c == '$') {
+        i = skipQuantifier(regex, i + 1);
+      } else if (c == ')' || c == ']' || c == '{' || c == '}'
+          || c == '*' || c == '+' || c == '?') {
+        return null;
+      } else {
+        literalChar = c;
+        i++;
+      }
+
+      if (literalChar == null) {
+        isExact = false;
+        longestRun = longer(longestRun, run);
+        run.setLength(0);
+        continue;
+      }
+
+      // A quantifier after a literal character makes it optional (?, *, {0,})
+      // or repeatable (+), either of which ends the run of characters we know
+      // are required in sequence.
+      char next = (i < regex.length()) ? regex.charAt(i) : 0;
+      if (next == '?' || next == '*' || next == '{' || next == '+') {
+        isExact = false;
+        if (next == '+') {
+          run.append(literalChar);
+        }
+        longestRun = longer(longestRun, run);
+        run.setLength(0);
+        i = skipQuantifier(regex, i);
+      } else {
+        run.append(literalChar);
+      }
+    }
+    longestRun = longer(longestRun, run);
+    if (longestRun.length() < MINIMUM_LITERAL_LENGTH) {
+      return null;
+    }
+    return new RequiredLiteral(longestRun, isExact);
+  }
+
+  private static String longer(String longestRun, StringBuilder run) {
+    return (run.length() > longestRun.length()) ? run.toString() : longestRun;
+  }
+
+  /**
+   * Returns the index just past the quantifier at {@code i}, if there is one,
+   * including any lazy or possessive suffix.  Otherwise returns {@code i}.
+   */
+  private static int skipQuantifier(String regex, int i) {
+    if (i >= regex.length()) {
+      return i;
+    }
+    char c = regex.charAt(i);
+    if (c == '{') {
+      int end = regex.indexOf('}', i);
+      i = (end < 0) ? regex.length() : end + 1;
+    } else if (c == '?' || c == '*' || c == '+') {
+      i++;
+    } else {
+      return i;
+    }
+    if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the index just past the character class starting at {@code i},
+   * or -1 if it doesn't end.
+   */
+  private static int skipCharacterClass(String regex, int i) {
+    int depth = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      if (c == '[') {
+        depth++;
+      } else if (c == ']' && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index just past the group starting at {@code i}, or -1 if it
+   * doesn't end.
+   */
+  private static int skipGroup(String regex, int i) {
+    int depth = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      if (c == '[') {
+        i = skipCharacterClass(regex, i);
+        if (i < 0) {
+          return -1;
+        }
+        continue;
+      }
+      if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    return -1;
+  }
+}
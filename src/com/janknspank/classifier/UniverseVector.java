@@ -21,7 +21,7 @@ public class UniverseVector {
 
   private UniverseVector() {}
 
-  public static Vector getInstance() throws ClassifierException {
+  public static synchronized Vector getInstance() throws ClassifierException {
     if (universeVector == null) {
       universeVector = Vector.fromFile(UNIVERSE_VECTOR_FILE);
     }
@@ -8,9 +8,12 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
@@ -18,7 +21,6 @@ import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.io.IOUtils;
 
-import com.google.api.client.util.Maps;
 import com.google.api.client.util.Throwables;
 import com.google.common.base.Strings;
 import com.google.common.cache.CacheBuilder;
@@ -91,9 +93,11 @@ public class Vector {
 
   /**
    * A map of this document Vector's TF-IDF versus a specific universe Vector.
-   * Typically there will only be 1 universe.
+   * Typically there will only be 1 universe.  Feature vectors are shared
+   * across crawler threads, so this needs to be concurrent.
    */
-  private final Map<Vector, Map<String, Double>> tfIdfAgainstUniverseMap = Maps.newHashMap();
+  private final ConcurrentMap<Vector, Map<String, Double>> tfIdfAgainstUniverseMap =
+      new ConcurrentHashMap<>();
 
   public Vector(VectorData data) {
     documentCount = data.hasDocumentCount() ? data.getDocumentCount() : 1;
@@ -229,18 +233,19 @@ public class Vector {
     Map<String, Double> tfIdf1 = getTfIdf(universeVector);
     Map<String, Double> tfIdf2 = v2.getTfIdf(universeVector);
     double dotProduct = 0;
-    for (String k : Sets.intersection(tfIdf1.keySet(), tfIdf2.keySet())) {
-      dotProduct += tfIdf1.get(k) * tfIdf2.get(k);
-    }
-
     double normalizedLength1 = 0;
-    for (String k : tfIdf1.keySet()) {
-      normalizedLength1 += Math.pow(tfIdf1.get(k), 2);
+    for (Map.Entry<String, Double> entry : tfIdf1.entrySet()) {
+      double value1 = entry.getValue();
+      Double value2 = tfIdf2.get(entry.getKey());
+      if (value2 != null) {
+        dotProduct += value1 * value2;
+      }
+      normalizedLength1 += value1 * value1;
     }
 
     double normalizedLength2 = 0;
-    for (String k : tfIdf2.keySet()) {
-      normalizedLength2 += Math.pow(tfIdf2.get(k), 2);
+    for (double value2 : tfIdf2.values()) {
+      normalizedLength2 += value2 * value2;
     }
 
     return dotProduct / (Math.sqrt(normalizedLength1) * Math.sqrt(normalizedLength2));
@@ -253,8 +258,9 @@ public class Vector {
    *     set of documents we've parsed
    */
   public Map<String, Double> getTfIdf(Vector universeVector) {
-    if (tfIdfAgainstUniverseMap.containsKey(universeVector)) {
-      return tfIdfAgainstUniverseMap.get(universeVector);
+    Map<String, Double> cachedTfIdfVector = tfIdfAgainstUniverseMap.get(universeVector);
+    if (cachedTfIdfVector != null) {
+      return cachedTfIdfVector;
     }
 
     Map<String, Double> tfIdfVector = new HashMap<>();
@@ -265,8 +271,9 @@ public class Vector {
           (0.000001 + universeVector.numDocumentOccurencesMap.count(word)));
       tfIdfVector.put(word, tf * idf);
     }
-    tfIdfAgainstUniverseMap.put(universeVector, tfIdfVector);
-    return tfIdfVector;
+    tfIdfVector = Collections.unmodifiableMap(tfIdfVector);
+    cachedTfIdfVector = tfIdfAgainstUniverseMap.putIfAbsent(universeVector, tfIdfVector);
+    return (cachedTfIdfVector == null) ? tfIdfVector : cachedTfIdfVector;
   }
 
   public int getDocumentCount() {
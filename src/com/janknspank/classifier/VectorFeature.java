@@ -51,8 +51,19 @@ public final class VectorFeature extends Feature {
   }
 
   public double score(Vector articleVector, int boost) {
-    return normalizer.getNormalizedScore(
-        rawScore(this.featureId, featureVector, articleVector), boost);
+    return normalizeScore(rawScore(this.featureId, featureVector, articleVector), boost);
+  }
+
+  /**
+   * Returns a distribution-adjusted score for a raw score that was already
+   * calculated against this feature's vector, e.g. by a {@link VectorIndex}.
+   */
+  double normalizeScore(double rawScore, int boost) {
+    return normalizer.getNormalizedScore(rawScore, boost);
+  }
+
+  Vector getFeatureVector() {
+    return featureVector;
   }
 
   public double rawScore(ArticleOrBuilder article) {
@@ -0,0 +1,131 @@
+package com.janknspank.classifier;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Doubles;
+import com.google.common.primitives.Ints;
+import com.janknspank.common.Asserts;
+
+/**
+ * Computes the cosine similarity of a vector against a fixed set of vectors
+ * (e.g. all our industry features) in one pass over the vector's words.
+ *
+ * The fixed vectors' TF-IDF weights are calculated once, divided by their
+ * vector's length, and stored in an inverted index: For each word, the
+ * vectors that contain it and the (normalized) weight it has in each.  So
+ * scoring an article only touches the words the article actually has, rather
+ * than intersecting its word set with each feature's separately.
+ *
+ * Returns the same values as {@link Vector#getCosineSimilarity(Vector, Vector)}
+ * does for each vector, modulo floating point rounding.  Immutable and
+ * thread-safe.
+ */
+public class VectorIndex {
+  private final Vector universeVector;
+  private final int vectorCount;
+
+  /**
+   * Words are interned to IDs, which index into the posting arrays below.
+   */
+  private final Map<String, Integer> wordIds = Maps.newHashMap();
+
+  /**
+   * For each word ID, the indexes of the vectors containing the word, and the
+   * word's TF-IDF weight in each of them, divided by the vector's length.
+   */
+  private final int[][] postingVectorIndexes;
+  private final double[][] postingWeights;
+
+  /**
+   * Which vectors have no length, and therefore no meaningful similarity to
+   * anything.
+   */
+  private final BitSet emptyVectors = new BitSet();
+
+  public VectorIndex(Vector universeVector, List<Vector> vectors) {
+    this.universeVector = universeVector;
+    this.vectorCount = vectors.size();
+
+    List<List<Integer>> vectorIndexLists = Lists.newArrayList();
+    List<List<Double>> weightLists = Lists.newArrayList();
+    for (int i = 0; i < vectorCount; i++) {
+      Vector vector = vectors.get(i);
+      Asserts.assertTrue(vector.getDocumentCount() <= universeVector.getDocumentCount(),
+          "This Vector is bigger than the universe - This can't be true!",
+          IllegalStateException.class);
+      Map<String, Double> tfIdf = vector.getTfIdf(universeVector);
+      double length = Math.sqrt(getSumOfSquares(tfIdf));
+      if (length == 0) {
+        emptyVectors.set(i);
+        continue;
+      }
+      for (Map.Entry<String, Double> entry : tfIdf.entrySet()) {
+        Integer wordId = wordIds.get(entry.getKey());
+        if (wordId == null) {
+          wordId = wordIds.size();
+          wordIds.put(entry.getKey(), wordId);
+          vectorIndexLists.add(Lists.<Integer>newArrayList());
+          weightLists.add(Lists.<Double>newArrayList());
+        }
+        vectorIndexLists.get(wordId).add(i);
+        weightLists.get(wordId).add(entry.getValue() / length);
+      }
+    }
+
+    postingVectorIndexes = new int[wordIds.size()][];
+    postingWeights = new double[wordIds.size()][];
+    for (int wordId = 0; wordId < wordIds.size(); wordId++) {
+      postingVectorIndexes[wordId] = Ints.toArray(vectorIndexLists.get(wordId));
+      postingWeights[wordId] = Doubles.toArray(weightLists.get(wordId));
+    }
+  }
+
+  private static double getSumOfSquares(Map<String, Double> tfIdf) {
+    double sumOfSquares = 0;
+    for (double value : tfIdf.values()) {
+      sumOfSquares += value * value;
+    }
+    return sumOfSquares;
+  }
+
+  public int size() {
+    return vectorCount;
+  }
+
+  /**
+   * Returns the cosine similarity of {@code vector} against each of the
+   * vectors this index was constructed with, in the same order.
+   */
+  public double[] getCosineSimilarities(Vector vector) {
+    Asserts.assertTrue(vector.getDocumentCount() <= universeVector.getDocumentCount(),
+        "Comparison Vector is bigger than the universe - This can't be true!",
+        IllegalStateException.class);
+
+    Map<String, Double> tfIdf = vector.getTfIdf(universeVector);
+    double[] similarities = new double[vectorCount];
+    for (Map.Entry<String, Double> entry : tfIdf.entrySet()) {
+      Integer wordId = wordIds.get(entry.getKey());
+      if (wordId == null) {
+        continue;
+      }
+      double weight = entry.getValue();
+      int[] vectorIndexes = postingVectorIndexes[wordId];
+      double[] weights = postingWeights[wordId];
+      for (int i = 0; i < vectorIndexes.length; i++) {
+        similarities[vectorIndexes[i]] += weight * weights[i];
+      }
+    }
+
+    // Like Vector#getCosineSimilarity, comparisons against empty vectors
+    // are NaN.
+    double length = Math.sqrt(getSumOfSquares(tfIdf));
+    for (int i = 0; i < vectorCount; i++) {
+      similarities[i] = emptyVectors.get(i) ? Double.NaN : similarities[i] / length;
+    }
+    return similarities;
+  }
+}
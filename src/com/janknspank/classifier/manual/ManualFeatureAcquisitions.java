@@ -8,7 +8,6 @@ import java.util.regex.Pattern;
 import com.google.common.collect.ImmutableMap;
 import com.janknspank.classifier.FeatureId;
 import com.janknspank.classifier.ManualHeuristicFeature;
-import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 
 public class ManualFeatureAcquisitions extends ManualHeuristicFeature {
   // Acquisition keywords.
@@ -57,12 +56,8 @@ public class ManualFeatureAcquisitions extends ManualHeuristicFeature {
   private static final Iterable<Pattern> BODY_BLACKLIST = Arrays.asList();
 
   public ManualFeatureAcquisitions() {
-    super(FeatureId.MANUAL_HEURISTIC_ACQUISITIONS);
-  }
-
-  @Override
-  public double score(ArticleOrBuilder article) {
-    return relevanceToRegexs(article, TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
+    super(FeatureId.MANUAL_HEURISTIC_ACQUISITIONS,
+        TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
   }
 
   public static boolean isRelevantToUser(Set<FeatureId> userIndustryFeatureIds) {
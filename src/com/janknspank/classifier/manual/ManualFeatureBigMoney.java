@@ -10,7 +10,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.janknspank.classifier.FeatureId;
 import com.janknspank.classifier.ManualHeuristicFeature;
-import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 
 public class ManualFeatureBigMoney extends ManualHeuristicFeature {
   private static final Map<Pattern, Double> TITLE_SCORES =
@@ -57,13 +56,8 @@ public class ManualFeatureBigMoney extends ManualHeuristicFeature {
           FeatureId.VENTURE_CAPITAL);
 
   public ManualFeatureBigMoney() {
-    super(FeatureId.MANUAL_HEURISTIC_BIG_MONEY);
-  }
-
-  @Override
-  public double score(ArticleOrBuilder article) {
-    return relevanceToRegexs(article, TITLE_SCORES, TITLE_BLACKLIST,
-        BODY_SCORES, BODY_BLACKLIST);
+    super(FeatureId.MANUAL_HEURISTIC_BIG_MONEY,
+        TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
   }
 
   public static boolean isRelevantToUser(Set<FeatureId> userIndustryFeatureIds) {
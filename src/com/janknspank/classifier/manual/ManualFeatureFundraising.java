@@ -10,7 +10,6 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.janknspank.classifier.FeatureId;
 import com.janknspank.classifier.ManualHeuristicFeature;
-import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 
 public class ManualFeatureFundraising extends ManualHeuristicFeature {
   private static final Map<Pattern, Double> TITLE_SCORES =
@@ -70,13 +69,8 @@ public class ManualFeatureFundraising extends ManualHeuristicFeature {
           FeatureId.VENTURE_CAPITAL);
 
   public ManualFeatureFundraising() {
-    super(FeatureId.MANUAL_HEURISTIC_FUNDRAISING);
-  }
-
-  @Override
-  public double score(ArticleOrBuilder article) {
-    return relevanceToRegexs(article, TITLE_SCORES, TITLE_BLACKLIST,
-        BODY_SCORES, BODY_BLACKLIST);
+    super(FeatureId.MANUAL_HEURISTIC_FUNDRAISING,
+        TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
   }
 
   public static boolean isRelevantToUser(Set<FeatureId> userIndustryFeatureIds) {
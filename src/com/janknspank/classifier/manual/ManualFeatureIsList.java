@@ -8,7 +8,6 @@ import java.util.regex.Pattern;
 import com.google.common.collect.ImmutableMap;
 import com.janknspank.classifier.FeatureId;
 import com.janknspank.classifier.ManualHeuristicFeature;
-import com.janknspank.proto.ArticleProto.ArticleOrBuilder;
 
 public class ManualFeatureIsList extends ManualHeuristicFeature {
   private static final Map<Pattern, Double> TITLE_SCORES =
@@ -30,12 +29,8 @@ public class ManualFeatureIsList extends ManualHeuristicFeature {
   private static final Iterable<Pattern> BODY_BLACKLIST = Arrays.asList();
 
   public ManualFeatureIsList() {
-    super(FeatureId.MANUAL_HEURISTIC_IS_LIST);
-  }
-
-  @Override
-  public double score(ArticleOrBuilder article) {
-    return relevanceToRegexs(article, TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
+    super(FeatureId.MANUAL_HEURISTIC_IS_LIST,
+        TITLE_SCORES, TITLE_BLACKLIST, BODY_SCORES, BODY_BLACKLIST);
   }
 
   public static boolean isRelevantToUser(Set<FeatureId> userIndustryFeatureIds) {
@@ -0,0 +1,143 @@
+package com.janknspank.common;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.primitives.Ints;
+
+/**
+ * Finds which of a fixed set of patterns occur within a piece of text, in a
+ * single pass over the text, regardless of how many patterns there are.  This
+ * is the standard Aho-Corasick automaton: A trie of the patterns, plus
+ * "failure" links that say where to continue matching when the next character
+ * doesn't extend the current partial match.
+ *
+ * Matching is case sensitive and does not care about word boundaries, i.e. it
+ * gives the same answers as calling {@code text.contains(pattern)} for each
+ * pattern.  Instances are immutable and thread-safe.
+ */
+public class AhoCorasick {
+  private final int patternCount;
+
+  // For each state, the characters it has transitions on (sorted, so they can
+  // be binary searched), and the states those transitions go to.
+  private final char[][] transitionChars;
+  private final int[][] transitionStates;
+
+  // For each state, the state representing the longest proper suffix of this
+  // state's string that's also in the trie.
+  private final int[] failureStates;
+
+  // For each state, the indexes of all patterns that end here, including those
+  // found by following failure links.
+  private final int[][] outputs;
+
+  public AhoCorasick(List<String> patterns) {
+    patternCount = patterns.size();
+
+    // Build the trie.
+    List<TreeMap<Character, Integer>> trie = Lists.newArrayList();
+    List<List<Integer>> patternEnds = Lists.newArrayList();
+    trie.add(new TreeMap<Character, Integer>());
+    patternEnds.add(Lists.<Integer>newArrayList());
+    for (int i = 0; i < patterns.size(); i++) {
+      String pattern = patterns.get(i);
+      int state = 0;
+      for (int c = 0; c < pattern.length(); c++) {
+        Integer nextState = trie.get(state).get(pattern.charAt(c));
+        if (nextState == null) {
+          nextState = trie.size();
+          trie.add(new TreeMap<Character, Integer>());
+          patternEnds.add(Lists.<Integer>newArrayList());
+          trie.get(state).put(pattern.charAt(c), nextState);
+        }
+        state = nextState;
+      }
+      patternEnds.get(state).add(i);
+    }
+
+    int stateCount = trie.size();
+    transitionChars = new char[stateCount][];
+    transitionStates = new int[stateCount][];
+    for (int state = 0; state < stateCount; state++) {
+      Map<Character, Integer> transitions = trie.get(state);
+      transitionChars[state] = new char[transitions.size()];
+      transitionStates[state] = new int[transitions.size()];
+      int i = 0;
+      for (Map.Entry<Character, Integer> entry : transitions.entrySet()) {
+        transitionChars[state][i] = entry.getKey();
+        transitionStates[state][i] = entry.getValue();
+        i++;
+      }
+    }
+
+    // Breadth-first, calculate failure links and fold in the outputs of each
+    // state's failure state.  Since failure states are always shallower, their
+    // outputs are already complete by the time we get to them.
+    failureStates = new int[stateCount];
+    outputs = new int[stateCount][];
+    outputs[0] = Ints.toArray(patternEnds.get(0));
+    Queue<Integer> queue = new ArrayDeque<>();
+    queue.add(0);
+    while (!queue.isEmpty()) {
+      int state = queue.remove();
+      for (int i = 0; i < transitionChars[state].length; i++) {
+        char c = transitionChars[state][i];
+        int nextState = transitionStates[state][i];
+        int failureState = 0;
+        if (state != 0) {
+          int fallback = failureStates[state];
+          while (fallback != 0 && getTransition(fallback, c) < 0) {
+            fallback = failureStates[fallback];
+          }
+          failureState = Math.max(0, getTransition(fallback, c));
+        }
+        failureStates[nextState] = failureState;
+        List<Integer> nextOutputs = Lists.newArrayList(patternEnds.get(nextState));
+        nextOutputs.addAll(Ints.asList(outputs[failureState]));
+        outputs[nextState] = Ints.toArray(nextOutputs);
+        queue.add(nextState);
+      }
+    }
+  }
+
+  private int getTransition(int state, char c) {
+    int index = Arrays.binarySearch(transitionChars[state], c);
+    return (index < 0) ? -1 : transitionStates[state][index];
+  }
+
+  public int getPatternCount() {
+    return patternCount;
+  }
+
+  /**
+   * Returns a BitSet with a bit set for each index into the constructor's
+   * pattern list whose pattern occurs somewhere in {@code text}.
+   */
+  public BitSet findContainedPatterns(String text) {
+    BitSet found = new BitSet(patternCount);
+    for (int output : outputs[0]) {
+      found.set(output);
+    }
+    int state = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      int nextState = getTransition(state, c);
+      while (nextState < 0 && state != 0) {
+        state = failureStates[state];
+        nextState = getTransition(state, c);
+      }
+      state = Math.max(0, nextState);
+      for (int output : outputs[state]) {
+        found.set(output);
+      }
+    }
+    return found;
+  }
+}
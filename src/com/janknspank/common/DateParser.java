@@ -1,16 +1,26 @@
 package com.janknspank.common;
 
 import java.text.DateFormat;
-import java.text.ParseException;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
 
 /**
  * Utility class for parsing dates.  Supports all sorts of RSS date formats,
  * date formats in <meta> tags, as well as pulling dates from URLs.
+ *
+ * This is safe to use from many threads at once, without locking: Each
+ * thread gets its own copies of the SimpleDateFormats, cloned from ones that
+ * are compiled once.  Formats that don't match return null rather than
+ * throwing.  And we remember which format fully matched each "shape" of date
+ * string (see {@code #getShape}), so we can usually skip trying every format
+ * in turn.
  */
 public class DateParser {
   private static final Pattern[] DATE_IN_URL_PATTERNS = {
@@ -21,33 +31,73 @@ public class DateParser {
   };
   private static final Pattern MONTH_IN_URL_PATTERN =
       Pattern.compile("\\/20[0-9]{2}\\/(0[0-9]|1[012])\\/");
-  private static final DateFormat[] KNOWN_DATE_FORMATS = {
-      new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX"), // ISO 8601, BusinessWeek, CNBC.
-      new SimpleDateFormat("MMMM dd, yyyy, hh:mm a"), // CBS News.
-      new SimpleDateFormat("MMMM dd, yyyy"), // Chicago Tribune.
-      new SimpleDateFormat("yyyy-MM-dd'T'HH:mmX"), // Channelnewsasia.com.
-      new SimpleDateFormat("yyyy-MM-dd"), // New York Times, LA Times and PCMag.
-      new SimpleDateFormat("yyyyMMddHHmmss"), // New York Times 'pdate'.
-      new SimpleDateFormat("yyyyMMdd"), // Washington Post.
-      new SimpleDateFormat("yyyy/MM/dd HH:mm:ss"), // BBC.
-      new SimpleDateFormat("yyyy/MM/dd"), // CBC, Chron.com.
-      new SimpleDateFormat("EEE, dd MMM yyyy HH:mm z"), // Boston.com.
-      new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss z"), // Boston.com.
-      new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss"), // Boston.com
-      new SimpleDateFormat("EEE, d MMM yyyy"), // LATimes.com RSS.
-      new SimpleDateFormat("MM.dd.yyyy"), // Advice.careerbuilder.com, in content body.
-      new SimpleDateFormat("dd MMMM yyyy"), // Ribaj.com, in <date> tag.
-      new SimpleDateFormat("EEE dd MMM yyyy 'at' hha z"),
-      new SimpleDateFormat("dd MMM yyyy '|' HH:mm z"), // Spectrum.ieee.org.
-      new SimpleDateFormat("hh:mm a z  MMMM dd, yyyy"),
-      new SimpleDateFormat("EEE MMM d, yyyy   h:mm a"),
-      new SimpleDateFormat("MMM d yyyy"),
-      new SimpleDateFormat("EEE MMM dd HH:mm:ss z yyyy"), // Dailyfx.com.
-      new SimpleDateFormat("EEE, MMM dd yyyy, HH:mm z") // Fxstreet.com.
+  static final String[] KNOWN_DATE_PATTERNS = {
+      "yyyy-MM-dd'T'HH:mm:ssXXX", // ISO 8601, BusinessWeek, CNBC.
+      "MMMM dd, yyyy, hh:mm a", // CBS News.
+      "MMMM dd, yyyy", // Chicago Tribune.
+      "yyyy-MM-dd'T'HH:mmX", // Channelnewsasia.com.
+      "yyyy-MM-dd", // New York Times, LA Times and PCMag.
+      "yyyyMMddHHmmss", // New York Times 'pdate'.
+      "yyyyMMdd", // Washington Post.
+      "yyyy/MM/dd HH:mm:ss", // BBC.
+      "yyyy/MM/dd", // CBC, Chron.com.
+      "EEE, dd MMM yyyy HH:mm z", // Boston.com.
+      "EEE, dd MMM yyyy HH:mm:ss z", // Boston.com.
+      "EEE, dd MMM yyyy HH:mm:ss", // Boston.com
+      "EEE, d MMM yyyy", // LATimes.com RSS.
+      "MM.dd.yyyy", // Advice.careerbuilder.com, in content body.
+      "dd MMMM yyyy", // Ribaj.com, in <date> tag.
+      "EEE dd MMM yyyy 'at' hha z",
+      "dd MMM yyyy '|' HH:mm z", // Spectrum.ieee.org.
+      "hh:mm a z  MMMM dd, yyyy",
+      "EEE MMM d, yyyy   h:mm a",
+      "MMM d yyyy",
+      "EEE MMM dd HH:mm:ss z yyyy", // Dailyfx.com.
+      "EEE, MMM dd yyyy, HH:mm z" // Fxstreet.com.
   };
+  private static final DateFormat[] KNOWN_DATE_FORMATS =
+      new DateFormat[KNOWN_DATE_PATTERNS.length];
+  static {
+    for (int i = 0; i < KNOWN_DATE_PATTERNS.length; i++) {
+      KNOWN_DATE_FORMATS[i] = new SimpleDateFormat(KNOWN_DATE_PATTERNS[i]);
+    }
+  }
   private static final DateFormat MONTH_IN_URL_DATE_FORMAT =
       new SimpleDateFormat("/yyyy/MM/");
 
+  /**
+   * This thread's copies of {@code #KNOWN_DATE_FORMATS}, plus its copy of
+   * {@code #MONTH_IN_URL_DATE_FORMAT} at the end.  SimpleDateFormat isn't
+   * thread-safe.
+   */
+  private static final ThreadLocal<DateFormat[]> THREAD_DATE_FORMATS =
+      new ThreadLocal<DateFormat[]>() {
+        @Override
+        protected DateFormat[] initialValue() {
+          DateFormat[] formats = new DateFormat[KNOWN_DATE_FORMATS.length + 1];
+          for (int i = 0; i < KNOWN_DATE_FORMATS.length; i++) {
+            formats[i] = (DateFormat) KNOWN_DATE_FORMATS[i].clone();
+          }
+          formats[KNOWN_DATE_FORMATS.length] = (DateFormat) MONTH_IN_URL_DATE_FORMAT.clone();
+          return formats;
+        }
+      };
+
+  /**
+   * Strings longer than this aren't cached, since formats can look at any
+   * part of them.  Real-world dates are shorter.
+   */
+  private static final int MAX_SHAPE_LENGTH = 48;
+
+  /**
+   * Caps how many shapes we remember, in case we're fed lots of strange
+   * strings.  Real-world dates only come in a few hundred shapes.
+   */
+  private static final int MAX_CACHED_SHAPES = 1000;
+
+  private static final ConcurrentMap<String, Integer> FORMAT_INDEX_BY_SHAPE =
+      Maps.newConcurrentMap();
+
   /**
    * Returns the number of milliseconds since 1970 when the passed article was
    * published, if we can arrive at such a conclusion.
@@ -66,14 +116,8 @@ public class DateParser {
     if (allowMonth) {
       Matcher dateInUrlMatcher = MONTH_IN_URL_PATTERN.matcher(url);
       if (dateInUrlMatcher.find()) {
-        try {
-          // Note: SimpleDateFormat is not thread-safe.
-          synchronized (MONTH_IN_URL_DATE_FORMAT) {
-            return MONTH_IN_URL_DATE_FORMAT.parse(dateInUrlMatcher.group()).getTime();
-          }
-        } catch (ParseException e) {
-          // This is OK - we just don't match.
-        }
+        return parse(THREAD_DATE_FORMATS.get()[KNOWN_DATE_FORMATS.length],
+            dateInUrlMatcher.group(), false /* requireFullMatch */);
       }
     }
     return null;
@@ -85,17 +129,63 @@ public class DateParser {
     if (Strings.isNullOrEmpty(dateStr)) {
       return null;
     }
-    for (DateFormat format : KNOWN_DATE_FORMATS) {
-      // Note: SimpleDateFormat is not thread-safe.
-      synchronized (format) {
-        try {
-          return format.parse(dateStr).getTime();
-        } catch (ParseException e2) {
-          // This is OK - we just don't match.  Try the next one.
+    DateFormat[] formats = THREAD_DATE_FORMATS.get();
+    String shape = (dateStr.length() <= MAX_SHAPE_LENGTH) ? getShape(dateStr) : null;
+
+    // If this shape fully matched a format before, try that format first.
+    // It has to match all of this string too: Formats only need to match the
+    // start of a string, so a prefix match here might not be what trying
+    // each format in order would give us.
+    Integer shapeIndex = (shape == null) ? null : FORMAT_INDEX_BY_SHAPE.get(shape);
+    if (shapeIndex != null) {
+      Long millis = parse(formats[shapeIndex], dateStr, true /* requireFullMatch */);
+      if (millis != null) {
+        return millis;
+      }
+    }
+
+    for (int i = 0; i < KNOWN_DATE_FORMATS.length; i++) {
+      ParsePosition position = new ParsePosition(0);
+      Date date = formats[i].parse(dateStr, position);
+      if (date != null) {
+        if (shape != null
+            && position.getIndex() == dateStr.length()
+            && FORMAT_INDEX_BY_SHAPE.size() < MAX_CACHED_SHAPES) {
+          FORMAT_INDEX_BY_SHAPE.put(shape, i);
         }
+        return date.getTime();
       }
     }
     System.err.println("COULD NOT PARSE DATE: " + dateStr);
     return null;
   }
+
+  /**
+   * Parses {@code dateStr} the same way DateFormat#parse(String) does, except
+   * that it returns null instead of throwing if the format doesn't match.
+   */
+  private static Long parse(DateFormat format, String dateStr, boolean requireFullMatch) {
+    ParsePosition position = new ParsePosition(0);
+    Date date = format.parse(dateStr, position);
+    if (date == null || requireFullMatch && position.getIndex() < dateStr.length()) {
+      return null;
+    }
+    return date.getTime();
+  }
+
+  /**
+   * Returns a cheap summary of how the passed date string looks: Digits
+   * become '9', letters are lower-cased, and everything else stays as it is.
+   * E.g. "Thu, 01 Jan 2015 23:44:25 GMT" becomes "thu, 99 jan 9999 99:99:99
+   * gmt".  Strings with the same shape differ only in their digits, so
+   * they almost always match the same formats.
+   */
+  static String getShape(String dateStr) {
+    StringBuilder shape = new StringBuilder(dateStr.length());
+    for (int i = 0; i < dateStr.length(); i++) {
+      char c = dateStr.charAt(i);
+      shape.append(Character.isDigit(c) ? '9' : Character.toLowerCase(c));
+    }
+    return shape.toString();
+  }
 }
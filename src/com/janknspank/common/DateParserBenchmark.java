@@ -0,0 +1,159 @@
+package com.janknspank.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Compares DateParser against trying a SimpleDateFormat for each known
+ * pattern in turn, as DateParser used to, and verifies that both give the
+ * same times.  DateParser is also run from several threads at once, which
+ * SimpleDateFormat couldn't safely do.
+ *
+ * The dates are the <meta> tag contents, datetime and value attributes and
+ * <time> tag text that look like they might hold a year, from the web pages
+ * in testdata.
+ *
+ * Usage:
+ * java com.janknspank.common.DateParserBenchmark [testdata directory] [passes] [threads]
+ */
+public class DateParserBenchmark {
+  private static final Pattern YEAR_PATTERN = Pattern.compile("(19|20)[0-9]{2}");
+
+  /**
+   * Returns the strings in the passed directory's web pages that we might
+   * try to parse as dates.
+   */
+  static List<String> readDates(File directory) throws IOException {
+    List<String> dates = Lists.newArrayList();
+    for (File file : directory.listFiles()) {
+      if (!file.getName().endsWith(".html")) {
+        continue;
+      }
+      Document document = Jsoup.parse(file, "UTF-8");
+      for (Element element : document.select("[content], [datetime], [value]")) {
+        for (String attribute : ImmutableList.of("content", "datetime", "value")) {
+          String value = element.attr(attribute);
+          if (YEAR_PATTERN.matcher(value).find()) {
+            dates.add(value);
+          }
+        }
+      }
+      for (Element timeEl : document.select("time")) {
+        if (YEAR_PATTERN.matcher(timeEl.text()).find()) {
+          dates.add(timeEl.text());
+        }
+      }
+    }
+    return dates;
+  }
+
+  private static final DateFormat[] LEGACY_FORMATS =
+      new DateFormat[DateParser.KNOWN_DATE_PATTERNS.length];
+  static {
+    for (int i = 0; i < LEGACY_FORMATS.length; i++) {
+      LEGACY_FORMATS[i] = new SimpleDateFormat(DateParser.KNOWN_DATE_PATTERNS[i]);
+    }
+  }
+
+  /**
+   * The way DateParser used to work: Try every format, in order, until one
+   * doesn't throw.
+   */
+  static Long parseDateTimeByTryingEachFormat(String dateStr) {
+    for (DateFormat format : LEGACY_FORMATS) {
+      try {
+        return format.parse(dateStr).getTime();
+      } catch (ParseException e) {
+        // Try the next one.
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns dates per second when trying each SimpleDateFormat.
+   */
+  private static double runLegacy(List<String> dates, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (String date : dates) {
+        parseDateTimeByTryingEachFormat(date);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (dates.size() * passes) / elapsedSeconds;
+  }
+
+  /**
+   * Returns dates per second for DateParser, with {@code threads} threads
+   * each doing {@code passes} passes.
+   */
+  private static double runDateParser(final List<String> dates, final int passes, int threads)
+      throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    long startTime = System.nanoTime();
+    for (int i = 0; i < threads; i++) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (int pass = 0; pass < passes; pass++) {
+            for (String date : dates) {
+              DateParser.parseDateTime(date);
+            }
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.HOURS);
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (dates.size() * passes * threads) / elapsedSeconds;
+  }
+
+  public static void main(String args[]) throws Exception {
+    File directory = new File(args.length > 0 ? args[0] : "testdata");
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    int threads = args.length > 2
+        ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+    List<String> dates = readDates(directory);
+    if (dates.isEmpty()) {
+      throw new IllegalStateException("No dates found in " + directory);
+    }
+
+    for (String date : dates) {
+      Long expected = parseDateTimeByTryingEachFormat(date);
+      Long actual = DateParser.parseDateTime(date);
+      if (expected == null ? actual != null : !expected.equals(actual)) {
+        throw new IllegalStateException(
+            "Time mismatch for \"" + date + "\": " + expected + " vs " + actual);
+      }
+    }
+
+    // Warm up both, so that JIT compilation isn't counted.
+    runLegacy(dates, Math.max(1, passes / 10));
+    runDateParser(dates, Math.max(1, passes / 10), 1);
+
+    System.out.println("Benchmarking " + dates.size() + " dates x " + passes + " passes");
+    double oldRate = runLegacy(dates, passes);
+    double newRate = runDateParser(dates, passes, 1);
+    double threadedRate = runDateParser(dates, passes, threads);
+    System.out.println(String.format("SimpleDateFormat: %10.2f/sec, "
+        + "DateParser: %10.2f/sec (%.2fx), %d threads: %10.2f/sec (%.2fx)",
+        oldRate, newRate, newRate / oldRate, threads, threadedRate, threadedRate / oldRate));
+  }
+}
@@ -0,0 +1,21 @@
+package com.janknspank.common;
+
+/**
+ * Helper class for reading settings from system environment variables, so
+ * they can be tuned for each deployment without code changes.
+ */
+public class Environment {
+  /**
+   * Returns the integer value of the environment variable {@code name}, or
+   * {@code defaultValue} if it isn't set.
+   * @throws IllegalStateException if the variable is set, but isn't a number
+   */
+  public static int getInt(String name, int defaultValue) {
+    String value = System.getenv(name);
+    try {
+      return (value == null) ? defaultValue : Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalStateException("Invalid value for " + name + ": " + value, e);
+    }
+  }
+}
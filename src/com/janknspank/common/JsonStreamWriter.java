@@ -0,0 +1,290 @@
+package com.janknspank.common;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Writes JSON to a Writer as it's produced, rather than building up a
+ * JSONObject tree and converting the whole thing to a String at the end.
+ * Usage:
+ *
+ * <code>
+ *   JsonStreamWriter writer = new JsonStreamWriter(outputWriter);
+ *   writer.beginObject();
+ *   writer.name("success").value(true);
+ *   writer.name("articles").beginArray();
+ *   ...
+ *   writer.endArray();
+ *   writer.endObject();
+ *   writer.close();
+ * </code>
+ *
+ * Strings and numbers are formatted the same way org.json formats them, so
+ * clients can't tell the difference.  Not thread-safe.
+ */
+public class JsonStreamWriter implements Closeable, Flushable {
+  private final Writer writer;
+  private final int indentFactor;
+
+  /**
+   * How many objects / arrays we're currently inside of.
+   */
+  private int depth = 0;
+
+  /**
+   * Bit N is set if the object or array at depth N already has a value in it,
+   * so the next value needs a comma before it.
+   */
+  private final BitSet hasValue = new BitSet();
+
+  /**
+   * True if we just wrote an object key, so a value's expected next.
+   */
+  private boolean afterName = false;
+
+  public JsonStreamWriter(Writer writer) {
+    this(writer, 0);
+  }
+
+  /**
+   * @param indentFactor number of spaces to indent each level of nesting, or
+   *     0 to write everything on one line
+   */
+  public JsonStreamWriter(Writer writer, int indentFactor) {
+    this.writer = writer;
+    this.indentFactor = Math.max(0, indentFactor);
+  }
+
+  public JsonStreamWriter beginObject() throws IOException {
+    return begin('{');
+  }
+
+  public JsonStreamWriter endObject() throws IOException {
+    return end('}');
+  }
+
+  public JsonStreamWriter beginArray() throws IOException {
+    return begin('[');
+  }
+
+  public JsonStreamWriter endArray() throws IOException {
+    return end(']');
+  }
+
+  /**
+   * Writes the key for the next value in the current object.
+   */
+  public JsonStreamWriter name(String name) throws IOException {
+    if (afterName || depth == 0) {
+      throw new IllegalStateException("Unexpected name: " + name);
+    }
+    beforeElement();
+    writeQuoted(name);
+    writer.write(indentFactor > 0 ? ": " : ":");
+    afterName = true;
+    return this;
+  }
+
+  public JsonStreamWriter value(String value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    writeQuoted(value);
+    return this;
+  }
+
+  public JsonStreamWriter value(long value) throws IOException {
+    beforeValue();
+    writer.write(Long.toString(value));
+    return this;
+  }
+
+  public JsonStreamWriter value(double value) throws IOException {
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw new IllegalArgumentException("JSON does not allow non-finite numbers");
+    }
+    beforeValue();
+    writer.write(numberToString(value));
+    return this;
+  }
+
+  public JsonStreamWriter value(boolean value) throws IOException {
+    beforeValue();
+    writer.write(value ? "true" : "false");
+    return this;
+  }
+
+  public JsonStreamWriter nullValue() throws IOException {
+    beforeValue();
+    writer.write("null");
+    return this;
+  }
+
+  /**
+   * Writes an already-built JSONObject as the next value.  Useful for the
+   * small, irregular parts of a response that aren't worth streaming.
+   */
+  public JsonStreamWriter value(JSONObject value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    value.write(writer);
+    return this;
+  }
+
+  public JsonStreamWriter value(JSONArray value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    value.write(writer);
+    return this;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    writer.flush();
+  }
+
+  /**
+   * Closes the underlying Writer.
+   */
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  private JsonStreamWriter begin(char c) throws IOException {
+    beforeValue();
+    writer.write(c);
+    depth++;
+    hasValue.clear(depth);
+    return this;
+  }
+
+  private JsonStreamWriter end(char c) throws IOException {
+    if (depth == 0 || afterName) {
+      throw new IllegalStateException("Unexpected " + c);
+    }
+    boolean isEmpty = !hasValue.get(depth);
+    depth--;
+    if (!isEmpty) {
+      newline();
+    }
+    writer.write(c);
+    return this;
+  }
+
+  /**
+   * Writes whatever needs to go before a value: A comma and newline if it's
+   * an array element, or nothing if it follows an object key.
+   */
+  private void beforeValue() throws IOException {
+    if (afterName) {
+      afterName = false;
+    } else if (depth > 0) {
+      beforeElement();
+    } else if (hasValue.get(0)) {
+      throw new IllegalStateException("JSON documents can only have one top-level value");
+    } else {
+      hasValue.set(0);
+    }
+  }
+
+  private void beforeElement() throws IOException {
+    if (hasValue.get(depth)) {
+      writer.write(',');
+    }
+    hasValue.set(depth);
+    newline();
+  }
+
+  private void newline() throws IOException {
+    if (indentFactor > 0) {
+      writer.write('\n');
+      for (int i = 0; i < depth * indentFactor; i++) {
+        writer.write(' ');
+      }
+    }
+  }
+
+  /**
+   * Same as {@code JSONObject#numberToString(Number)}: Integral doubles lose
+   * their trailing ".0", etc.
+   */
+  static String numberToString(double value) {
+    String string = Double.toString(value);
+    if (string.indexOf('.') > 0 && string.indexOf('e') < 0 && string.indexOf('E') < 0) {
+      int end = string.length();
+      while (string.charAt(end - 1) == '0') {
+        end--;
+      }
+      if (string.charAt(end - 1) == '.') {
+        end--;
+      }
+      string = string.substring(0, end);
+    }
+    return string;
+  }
+
+  /**
+   * Same escaping as {@code JSONObject#quote(String)}, so that "</script>"
+   * can't end a script block, etc.
+   */
+  private void writeQuoted(String string) throws IOException {
+    writer.write('"');
+    char previous = 0;
+    int runStart = 0;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      String escape = null;
+      switch (c) {
+        case '\\':
+        case '"':
+          escape = "\\" + c;
+          break;
+        case '/':
+          if (previous == '<') {
+            escape = "\\/";
+          }
+          break;
+        case '\b':
+          escape = "\\b";
+          break;
+        case '\t':
+          escape = "\\t";
+          break;
+        case '\n':
+          escape = "\\n";
+          break;
+        case '\f':
+          escape = "\\f";
+          break;
+        case '\r':
+          escape = "\\r";
+          break;
+        default:
+          if (c < ' ' || (c >= 0x80 && c < 0xa0) || (c >= 0x2000 && c < 0x2100)) {
+            String hex = Integer.toHexString(c);
+            escape = "\\u0000".substring(0, 6 - hex.length()) + hex;
+          }
+      }
+      if (escape != null) {
+        writer.write(string, runStart, i - runStart);
+        writer.write(escape);
+        runStart = i + 1;
+      }
+      previous = c;
+    }
+    writer.write(string, runStart, string.length() - runStart);
+    writer.write('"');
+  }
+}
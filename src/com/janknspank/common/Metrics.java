@@ -0,0 +1,135 @@
+package com.janknspank.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Process-wide registry of simple performance counters, latency timers, and
+ * gauges.  Usage:
+ *
+ * <code>
+ *   long startNanos = System.nanoTime();
+ *   doSomethingExpensive();
+ *   Metrics.getTimer("something.expensive").record(startNanos);
+ * </code>
+ *
+ * Everything here is thread-safe and cheap enough to call on every request.
+ * Use {@code #getSnapshot()} to see all current values.
+ */
+public class Metrics {
+  private static final ConcurrentMap<String, Timer> TIMERS = Maps.newConcurrentMap();
+  private static final ConcurrentMap<String, Counter> COUNTERS = Maps.newConcurrentMap();
+  private static final ConcurrentMap<String, Supplier<? extends Number>> GAUGES =
+      Maps.newConcurrentMap();
+
+  /**
+   * Tracks the number of times something happened, and how long it took.
+   */
+  public static class Timer {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records an event that started at {@code startNanos}, as returned by
+     * {@code System#nanoTime()}, and ended now.
+     */
+    public void record(long startNanos) {
+      recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void recordNanos(long nanos) {
+      count.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+        max = maxNanos.get();
+      }
+    }
+
+    public long getCount() {
+      return count.get();
+    }
+
+    public double getAverageMillis() {
+      long count = this.count.get();
+      return (count == 0) ? 0 : ((double) totalNanos.get() / count) / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxMillis() {
+      return (double) maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+  }
+
+  /**
+   * A monotonically increasing count of something.
+   */
+  public static class Counter {
+    private final AtomicLong value = new AtomicLong();
+
+    public void increment() {
+      value.incrementAndGet();
+    }
+
+    public void add(long delta) {
+      value.addAndGet(delta);
+    }
+
+    public long get() {
+      return value.get();
+    }
+  }
+
+  public static Timer getTimer(String name) {
+    Timer timer = TIMERS.get(name);
+    if (timer == null) {
+      TIMERS.putIfAbsent(name, new Timer());
+      timer = TIMERS.get(name);
+    }
+    return timer;
+  }
+
+  public static Counter getCounter(String name) {
+    Counter counter = COUNTERS.get(name);
+    if (counter == null) {
+      COUNTERS.putIfAbsent(name, new Counter());
+      counter = COUNTERS.get(name);
+    }
+    return counter;
+  }
+
+  /**
+   * Registers a value that's computed on demand whenever metrics are read,
+   * such as a queue's current depth.  Replaces any existing gauge with the
+   * same name.
+   */
+  public static void registerGauge(String name, Supplier<? extends Number> gauge) {
+    GAUGES.put(name, gauge);
+  }
+
+  /**
+   * Returns a sorted map of all current metric values.  Timers are expanded
+   * into .count, .avg_ms, and .max_ms entries.
+   */
+  public static Map<String, Number> getSnapshot() {
+    ImmutableSortedMap.Builder<String, Number> builder = ImmutableSortedMap.naturalOrder();
+    for (Map.Entry<String, Timer> entry : TIMERS.entrySet()) {
+      builder.put(entry.getKey() + ".count", entry.getValue().getCount());
+      builder.put(entry.getKey() + ".avg_ms", entry.getValue().getAverageMillis());
+      builder.put(entry.getKey() + ".max_ms", entry.getValue().getMaxMillis());
+    }
+    for (Map.Entry<String, Counter> entry : COUNTERS.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().get());
+    }
+    for (Map.Entry<String, Supplier<? extends Number>> entry : GAUGES.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().get());
+    }
+    return builder.build();
+  }
+}
@@ -14,6 +14,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
@@ -42,19 +43,69 @@ import com.janknspank.proto.CrawlerProto.SiteManifest;
 
 /**
  * The is the top-most method of the Crawl task.  It creates a bunch of threads
- * that go and grab articles off of sites, then uses ArticleCreator to interpret
- * those article documents, then stores the results to the database.
+ * that go and find article URLs on sites, then hands them to a CrawlPipeline,
+ * which grabs the articles, uses ArticleCreator to interpret those article
+ * documents, then stores the results to the database.
  */
 public class ArticleCrawler implements Callable<Void> {
   public static final int THREAD_COUNT = 50;
 
   private final SiteManifest manifest;
+  private final CrawlPipeline pipeline;
   private final static CrawlHistory.Builder CRAWL_HISTORY_BUILDER = CrawlHistory.newBuilder();
   private final static ConcurrentHashMap<String, CrawlHistory.Site.Builder> CRAWL_HISTORY_SITES =
       new ConcurrentHashMap<>();
 
-  private ArticleCrawler(SiteManifest manifest) {
+  private ArticleCrawler(SiteManifest manifest, CrawlPipeline pipeline) {
     this.manifest = manifest;
+    this.pipeline = pipeline;
+  }
+
+  /**
+   * Keeps this site's CrawlHistory up to date as its articles make it through
+   * the pipeline.  The site's finished once all its URLs are.
+   */
+  private class SiteListener implements CrawlPipeline.Listener {
+    private final CrawlHistory.Site.Builder crawlHistorySiteBuilder;
+
+    // URLs still in the pipeline, plus one until we're done queueing them.
+    private final AtomicInteger pendingCount = new AtomicInteger(1);
+
+    private SiteListener(CrawlHistory.Site.Builder crawlHistorySiteBuilder) {
+      this.crawlHistorySiteBuilder = crawlHistorySiteBuilder;
+    }
+
+    @Override
+    public void onSuccess(Url url, Article article) {
+      if (article != null) {
+        synchronized (crawlHistorySiteBuilder) {
+          crawlHistorySiteBuilder.setArticlesCrawled(
+              crawlHistorySiteBuilder.getArticlesCrawled() + 1);
+        }
+      }
+      finishUrl();
+    }
+
+    @Override
+    public void onFailure(Url url, Exception e) {
+      finishUrl();
+    }
+
+    private void startUrl() {
+      pendingCount.incrementAndGet();
+    }
+
+    private void finishUrl() {
+      if (pendingCount.decrementAndGet() == 0) {
+        synchronized (crawlHistorySiteBuilder) {
+          crawlHistorySiteBuilder.setEndTime(System.currentTimeMillis());
+          crawlHistorySiteBuilder.setMillis(
+              crawlHistorySiteBuilder.getEndTime() - crawlHistorySiteBuilder.getStartTime());
+          System.out.println("Finished updating " + manifest.getRootDomain() + " in "
+              + crawlHistorySiteBuilder.getMillis() + "ms");
+        }
+      }
+    }
   }
 
   @Override
@@ -65,6 +116,7 @@ public class ArticleCrawler implements Callable<Void> {
         .setStartTime(startTime)
         .setArticlesCrawled(0);
     CRAWL_HISTORY_SITES.put(manifest.getRootDomain(), crawlHistorySiteBuilder);
+    SiteListener siteListener = new SiteListener(crawlHistorySiteBuilder);
 
     // For this site, figure out what URLs are mentioned on its home page, other
     // start URLs, and RSS feeds.  Then figure out whether we already know the
@@ -130,25 +182,12 @@ public class ArticleCrawler implements Callable<Void> {
         continue;
       }
 
-      // Save this article and its keywords.
-      try {
-        crawl(url, false /* retain */);
-        crawlHistorySiteBuilder.setArticlesCrawled(
-            crawlHistorySiteBuilder.getArticlesCrawled() + 1);
-
-      } catch (DatabaseSchemaException | DatabaseRequestException | BiznessException e) {
-        // Internal error (bug in our code).
-        e.printStackTrace();
-      } catch (FetchException | RequiredFieldException e) {
-        // Bad article.
-        e.printStackTrace();
-      }
+      // Save this article and its keywords.  The pipeline takes it from
+      // here, and lets the site listener know how it went.
+      siteListener.startUrl();
+      pipeline.crawl(url, siteListener);
     }
-    crawlHistorySiteBuilder.setEndTime(System.currentTimeMillis());
-    crawlHistorySiteBuilder.setMillis(
-        crawlHistorySiteBuilder.getEndTime() - crawlHistorySiteBuilder.getStartTime());
-    System.out.println("Finished updating " + manifest.getRootDomain() + " in "
-        + (System.currentTimeMillis() - startTime) + "ms");
+    siteListener.finishUrl();
     return null;
   }
 
@@ -178,23 +217,7 @@ public class ArticleCrawler implements Callable<Void> {
             .setRetain(retain)
             .build();
       }
-      try {
-        Database.insert(article);
-      } catch (DatabaseRequestException | DatabaseSchemaException e) {
-        // It could be that some other process decided to steal this article
-        // and process it first (mainly due to human error).  If so, delete
-        // everything and store it again.
-        System.out.println("Handling human error: " + url.getUrl());
-        e.printStackTrace();
-        Database.with(Article.class).delete(url.getId());
-        Links.deleteFromOriginUrlId(ImmutableList.of(url.getId()));
-
-        // Try again!
-        Database.insert(article);
-      } catch (Throwable e) {
-        e.printStackTrace();
-        throw e;
-      }
+      article = store(url, article);
       urls = ImmutableSet.copyOf(interpretedData.getUrlList());
     } else {
       urls = UrlFinder.findUrls(url.getUrl());
@@ -215,6 +238,42 @@ public class ArticleCrawler implements Callable<Void> {
     return article;
   }
 
+  /**
+   * Clusters the passed article with its duplicates, then inserts it into the
+   * database.  Returns the article as it was stored.  If it couldn't be
+   * stored, the clusterer forgets it.
+   */
+  static Article store(Url url, Article article)
+      throws DatabaseSchemaException, DatabaseRequestException {
+    DuplicateClusterer clusterer = DuplicateClusterer.getInstance();
+    article = clusterer.cluster(article);
+    boolean stored = false;
+    try {
+      Database.insert(article);
+      stored = true;
+    } catch (DatabaseRequestException | DatabaseSchemaException e) {
+      // It could be that some other process decided to steal this article
+      // and process it first (mainly due to human error).  If so, delete
+      // everything and store it again.
+      System.out.println("Handling human error: " + url.getUrl());
+      e.printStackTrace();
+      Database.with(Article.class).delete(url.getId());
+      Links.deleteFromOriginUrlId(ImmutableList.of(url.getId()));
+
+      // Try again!
+      Database.insert(article);
+      stored = true;
+    } catch (Throwable e) {
+      e.printStackTrace();
+      throw e;
+    } finally {
+      if (!stored) {
+        clusterer.remove(article);
+      }
+    }
+    return article;
+  }
+
   /**
    * Returns a map of URL -> Article for each given article.
    */
@@ -315,7 +374,7 @@ public class ArticleCrawler implements Callable<Void> {
     return articles;
   }
 
-  private static void updateCrawlHistoryInDatabase()
+  private static void updateCrawlHistoryInDatabase(CrawlPipeline pipeline)
       throws DatabaseRequestException, DatabaseSchemaException {
     if (CRAWL_HISTORY_BUILDER.hasEndTime()) {
       CRAWL_HISTORY_BUILDER.setMillis(
@@ -327,8 +386,12 @@ public class ArticleCrawler implements Callable<Void> {
 
     CRAWL_HISTORY_BUILDER.clearSite();
     for (CrawlHistory.Site.Builder siteBuilder : CRAWL_HISTORY_SITES.values()) {
-      CRAWL_HISTORY_BUILDER.addSite(siteBuilder.build());
+      synchronized (siteBuilder) {
+        CRAWL_HISTORY_BUILDER.addSite(siteBuilder.build());
+      }
     }
+    CRAWL_HISTORY_BUILDER.clearStage();
+    CRAWL_HISTORY_BUILDER.addAllStage(pipeline.getStageHistories());
     Database.update(CRAWL_HISTORY_BUILDER.build());
   }
 
@@ -337,6 +400,12 @@ public class ArticleCrawler implements Callable<Void> {
    * doing.
    */
   private static class CommitCrawlHistoryThread extends Thread {
+    private final CrawlPipeline pipeline;
+
+    private CommitCrawlHistoryThread(CrawlPipeline pipeline) {
+      this.pipeline = pipeline;
+    }
+
     @Override
     public void run() {
       try {
@@ -352,7 +421,7 @@ public class ArticleCrawler implements Callable<Void> {
           } catch (InterruptedException e) {
             return; // Totally expected!
           }
-          updateCrawlHistoryInDatabase();
+          updateCrawlHistoryInDatabase(pipeline);
         }
       } catch (Throwable e) {
         e.printStackTrace();
@@ -363,6 +432,11 @@ public class ArticleCrawler implements Callable<Void> {
   public static void main(String args[]) throws Exception {
     long startTime = System.currentTimeMillis();
 
+    // Kill the process after 18 minutes, then let the next crawler take
+    // over.  (Note: Heroku's scheduling isn't that reliable, so we can't
+    // keep this at 20 minutes - Tasks start to overlap.)
+    long deadline = startTime + TimeUnit.MINUTES.toMillis(18);
+
     // If there's any arguments, use them as a filtering method on the manifests
     // we process.  The Boolean marks whether we found the specified root domain
     // in the manifests.
@@ -381,7 +455,8 @@ public class ArticleCrawler implements Callable<Void> {
     }
 
     // Record crawl history on a regular basis.
-    CommitCrawlHistoryThread commitCrawlHistoryThread = new CommitCrawlHistoryThread();
+    CrawlPipeline pipeline = new CrawlPipeline();
+    CommitCrawlHistoryThread commitCrawlHistoryThread = new CommitCrawlHistoryThread(pipeline);
     commitCrawlHistoryThread.start();
 
     // Randomly create crawlers, which will be execution poll throttled to
@@ -395,9 +470,9 @@ public class ArticleCrawler implements Callable<Void> {
     for (SiteManifest manifest : allManifests) {
       String rootDomain = manifest.getRootDomain();
       if (rootDomainMap.isEmpty()) {
-        crawlers.add(new ArticleCrawler(manifest));
+        crawlers.add(new ArticleCrawler(manifest, pipeline));
       } else if (rootDomainMap.containsKey(rootDomain)) {
-        crawlers.add(new ArticleCrawler(manifest));
+        crawlers.add(new ArticleCrawler(manifest, pipeline));
         rootDomainMap.put(manifest.getRootDomain(), true);
       }
     }
@@ -407,24 +482,24 @@ public class ArticleCrawler implements Callable<Void> {
       }
     }
 
-    // Start the threads!
+    // Start the threads!  They find each site's article URLs and queue them
+    // in the pipeline.  Once they're all done, wait for the pipeline to
+    // finish what's been queued.
+    boolean finished = false;
     ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
-    executor.invokeAll(crawlers);
-    executor.shutdown();
     try {
-      // Kill the process after 18 minutes, then let the next crawler take
-      // over.  (Note: Heroku's scheduling isn't that reliable, so we can't
-      // keep this at 20 minutes - Tasks start to overlap.)
-      executor.awaitTermination(TimeUnit.MINUTES.toMillis(18), TimeUnit.MILLISECONDS);
+      executor.invokeAll(crawlers, deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      executor.shutdown();
+      finished = pipeline.shutdown(deadline);
       commitCrawlHistoryThread.interrupt();
     } catch (InterruptedException e) {}
     System.out.println("Finished crawl in " + (System.currentTimeMillis() - startTime) + "ms");
 
     // Record that we finished.
     CRAWL_HISTORY_BUILDER
-        .setWasInterrupted(false)
+        .setWasInterrupted(!finished)
         .setEndTime(System.currentTimeMillis());
-    updateCrawlHistoryInDatabase();
+    updateCrawlHistoryInDatabase(pipeline);
     System.exit(0);
   }
 }
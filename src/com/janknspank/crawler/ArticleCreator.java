@@ -116,6 +116,17 @@ class ArticleCreator {
 
   public static Article create(Url url, Document document)
       throws RequiredFieldException {
+    return create(url, document, true /* includeSocialEngagement */);
+  }
+
+  /**
+   * Creates an Article from the passed document.  If {@code
+   * includeSocialEngagement} is false, the Article's Facebook and Twitter
+   * engagement isn't retrieved, and it's up to the caller to get it later
+   * (e.g. with a SocialEngagementEnricher).
+   */
+  public static Article create(Url url, Document document, boolean includeSocialEngagement)
+      throws RequiredFieldException {
     SiteManifest site = SiteManifests.getForUrl(document.baseUri());
 
     Article.Builder articleBuilder = Article.newBuilder();
@@ -206,6 +217,26 @@ class ArticleCreator {
     }
 
     // Social Engagement
+    if (includeSocialEngagement) {
+      addSocialEngagement(articleBuilder);
+    }
+
+    // Deduping.
+    articleBuilder.addAllDedupingStems(getDedupingStems(articleBuilder.getTitle()));
+
+    // Timestamp.
+    articleBuilder.setCrawlTime(System.currentTimeMillis());
+
+    // Done!
+    return articleBuilder.build();
+  }
+
+  /**
+   * Adds Facebook and Twitter engagement scores to the passed article.
+   * Failures are logged and skipped, since an article without social
+   * engagement is still an article.
+   */
+  private static void addSocialEngagement(Article.Builder articleBuilder) {
     try {
       SocialEngagement engagement = FacebookData.getEngagementForArticle(articleBuilder);
       if (engagement != null) {
@@ -222,15 +253,6 @@ class ArticleCreator {
     } catch (SocialException e) {
       e.printStackTrace();
     }
-
-    // Deduping.
-    articleBuilder.addAllDedupingStems(getDedupingStems(articleBuilder.getTitle()));
-
-    // Timestamp.
-    articleBuilder.setCrawlTime(System.currentTimeMillis());
-
-    // Done!
-    return articleBuilder.build();
   }
 
   public static String getAuthor(Document document) {
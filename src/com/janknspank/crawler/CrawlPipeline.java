@@ -0,0 +1,261 @@
+package com.janknspank.crawler;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jsoup.nodes.Document;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.janknspank.bizness.Urls;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Logger;
+import com.janknspank.common.Metrics;
+import com.janknspank.crawler.social.SocialEngagementEnricher;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.CoreProto.Url;
+import com.janknspank.proto.CrawlerProto.CrawlHistory;
+
+/**
+ * Crawls article URLs in stages, each with its own thread pool:
+ *  - fetch: Downloads the article's web page.  (Network-bound.)
+ *  - process: Parses the page, classifies it, and finds its keywords.
+ *    (CPU-bound.)
+ *  - store: Clusters the article and writes it to the database.
+ *
+ * Stages are connected by bounded queues.  When a stage falls behind, whoever
+ * is feeding it waits until there's room, so we never hold more than a few
+ * hundred pages in memory, and slow downloads can't tie up the threads that
+ * parse and classify articles (or vice versa).
+ *
+ * Once an article's stored, it's handed to a SocialEngagementEnricher, which
+ * gets its Facebook and Twitter engagement in the background.  The crawl
+ * doesn't wait for it: Whatever it hasn't gotten to when the crawl ends is
+ * left for UpdateSocialEngagements.
+ *
+ * Sizes can be configured with these environment variables:
+ *  - CRAWL_FETCH_THREADS: Threads downloading pages (default 50).
+ *  - CRAWL_PROCESS_THREADS: Threads interpreting pages (default: the number
+ *    of processors).
+ *  - CRAWL_STORE_THREADS: Threads writing to the database (default 10).
+ *  - CRAWL_STAGE_QUEUE_SIZE: Max items waiting for each stage (default 200).
+ *
+ * Each stage's throughput and latency (plus the enricher's) are available
+ * from {@code #getStageHistories()}, for recording in CrawlHistory.
+ */
+class CrawlPipeline {
+  private static final Logger LOG = new Logger(CrawlPipeline.class);
+  private static final int QUEUE_SIZE = Environment.getInt("CRAWL_STAGE_QUEUE_SIZE", 200);
+
+  private final PipelineStage fetchStage =
+      new PipelineStage("fetch", Environment.getInt("CRAWL_FETCH_THREADS", 50));
+  private final PipelineStage processStage = new PipelineStage("process",
+      Environment.getInt("CRAWL_PROCESS_THREADS", Runtime.getRuntime().availableProcessors()));
+  private final PipelineStage storeStage =
+      new PipelineStage("store", Environment.getInt("CRAWL_STORE_THREADS", 10));
+  private final List<PipelineStage> stages =
+      ImmutableList.of(fetchStage, processStage, storeStage);
+  private final SocialEngagementEnricher socialEngagementEnricher =
+      new SocialEngagementEnricher();
+
+  /**
+   * Told when each URL handed to the pipeline is finished.
+   */
+  interface Listener {
+    void onSuccess(Url url, Article article);
+    void onFailure(Url url, Exception e);
+  }
+
+  /**
+   * One stage's worth of work for a URL.
+   */
+  private interface Step {
+    void run() throws Exception;
+  }
+
+  /**
+   * A thread pool plus the statistics we keep about it.
+   */
+  private static class PipelineStage {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger itemsCompleted = new AtomicInteger();
+    private final AtomicInteger itemsFailed = new AtomicInteger();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong queueNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private PipelineStage(final String name, int threadCount) {
+      this.name = name;
+      ThreadFactory threadFactory = new ThreadFactoryBuilder()
+          .setNameFormat("crawl-" + name + "-%d")
+          .setDaemon(true)
+          .build();
+      executor = new ThreadPoolExecutor(threadCount, threadCount,
+          0, TimeUnit.MILLISECONDS,
+          new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+          threadFactory,
+          new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+              // The queue's full: Make the caller wait for room.
+              if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Crawl stage shut down: " + name);
+              }
+              try {
+                executor.getQueue().put(r);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted waiting for " + name, e);
+              }
+            }
+          });
+
+      Metrics.registerGauge("crawler." + name + ".queue_depth", new Supplier<Integer>() {
+        @Override
+        public Integer get() {
+          return executor.getQueue().size();
+        }
+      });
+    }
+
+    /**
+     * Runs {@code step} for {@code url} on this stage's threads.  If it
+     * throws, the listener's told, and the URL goes no further.
+     */
+    private void submit(final Url url, final Listener listener, final Step step) {
+      final long enqueueNanos = System.nanoTime();
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          long startNanos = System.nanoTime();
+          queueNanos.addAndGet(startNanos - enqueueNanos);
+          try {
+            step.run();
+            itemsCompleted.incrementAndGet();
+          } catch (Exception e) {
+            itemsFailed.incrementAndGet();
+            LOG.warning("Could not " + name + " " + url.getUrl() + ": " + e.getMessage(), e);
+            listener.onFailure(url, e);
+          } finally {
+            long nanos = System.nanoTime() - startNanos;
+            busyNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+              max = maxNanos.get();
+            }
+            Metrics.getTimer("crawler." + name).recordNanos(nanos);
+          }
+        }
+      });
+    }
+
+    /**
+     * Stops taking new work, then waits until {@code deadline} for the work
+     * that's already queued to finish.  Returns true if it did.
+     */
+    private boolean shutdown(long deadline) throws InterruptedException {
+      executor.shutdown();
+      return executor.awaitTermination(
+          Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private CrawlHistory.Stage toCrawlHistoryStage() {
+      return CrawlHistory.Stage.newBuilder()
+          .setName(name)
+          .setBusyMillis(TimeUnit.NANOSECONDS.toMillis(busyNanos.get()))
+          .setQueueMillis(TimeUnit.NANOSECONDS.toMillis(queueNanos.get()))
+          .setMaxMillis(TimeUnit.NANOSECONDS.toMillis(maxNanos.get()))
+          .setItemsCompleted(itemsCompleted.get())
+          .setItemsFailed(itemsFailed.get())
+          .build();
+    }
+  }
+
+  /**
+   * Queues {@code url} for crawling.  This blocks if the pipeline is backed
+   * up.  The URL should already be marked as "crawl started".
+   */
+  void crawl(final Url url, final Listener listener) {
+    if (!ArticleUrlDetector.isArticle(url.getUrl())) {
+      // We only crawl non-articles for their links, which we currently ignore
+      // (see ArticleCrawler#crawl), so there's nothing to do but mark them
+      // as crawled.
+      storeStage.submit(url, listener, new Step() {
+        @Override
+        public void run() throws Exception {
+          Urls.markCrawlFinish(url);
+          listener.onSuccess(url, null);
+        }
+      });
+      return;
+    }
+
+    fetchStage.submit(url, listener, new Step() {
+      @Override
+      public void run() throws Exception {
+        final Document document = Interpreter.fetchDocument(url);
+        processStage.submit(url, listener, new Step() {
+          @Override
+          public void run() throws Exception {
+            final Article interpretedArticle = Interpreter.interpret(
+                url, document, false /* includeSocialEngagement */).getArticle();
+            storeStage.submit(url, listener, new Step() {
+              @Override
+              public void run() throws Exception {
+                Article article = ArticleCrawler.store(url, interpretedArticle);
+                Urls.markCrawlFinish(url);
+                socialEngagementEnricher.offer(article);
+                listener.onSuccess(url, article);
+              }
+            });
+          }
+        });
+      }
+    });
+  }
+
+  /**
+   * Stops taking new URLs, then waits until {@code deadline} (in epoch
+   * millis) for everything already in the pipeline to be stored.  Stages are
+   * shut down in order, since each one feeds the next.  Returns true if
+   * everything was stored in time.
+   *
+   * Social engagement is best effort: The enricher's stopped without waiting
+   * for its queue, and UpdateSocialEngagements picks up what it didn't get to.
+   */
+  boolean shutdown(long deadline) throws InterruptedException {
+    boolean finished = true;
+    for (PipelineStage stage : stages) {
+      if (!stage.shutdown(deadline)) {
+        finished = false;
+        break;
+      }
+    }
+    int droppedCount = socialEngagementEnricher.shutdownNow();
+    if (droppedCount > 0) {
+      LOG.info("Left " + droppedCount + " articles for UpdateSocialEngagements");
+    }
+    return finished;
+  }
+
+  /**
+   * Returns throughput and latency statistics for each stage, so far.
+   */
+  List<CrawlHistory.Stage> getStageHistories() {
+    ImmutableList.Builder<CrawlHistory.Stage> builder = ImmutableList.builder();
+    for (PipelineStage stage : stages) {
+      builder.add(stage.toCrawlHistoryStage());
+    }
+    builder.add(socialEngagementEnricher.toCrawlHistoryStage());
+    return builder.build();
+  }
+}
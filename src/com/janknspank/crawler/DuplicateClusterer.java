@@ -0,0 +1,250 @@
+package com.janknspank.crawler;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.TreeMultiset;
+import com.janknspank.bizness.Articles;
+import com.janknspank.database.Database;
+import com.janknspank.database.DatabaseSchemaException;
+import com.janknspank.database.QueryOption;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.rank.Deduper;
+
+/**
+ * Assigns each newly crawled article to a cluster of duplicate articles, so
+ * that ranking and notifications can collapse duplicates with a simple
+ * group-by on Article.duplicate_cluster_id rather than comparing stems across
+ * every pair of candidate articles.
+ *
+ * A new article joins the cluster of the earliest article it's a duplicate of
+ * (per {@code Deduper.ArticleExtraction#isDuplicate}) among articles crawled
+ * in the last {@code Deduper.STEM_INTERSECTION_PUBLISH_DATE_RANGE}.  If it's
+ * not a duplicate of anything, it starts a new cluster, whose ID is its own
+ * url_id.  Either way, hot_count and oldest_hot_duplicate_time on the article
+ * describe its cluster as of the time it was crawled.
+ *
+ * The recent articles are kept in memory, indexed by deduping stem, and
+ * loaded from the database on first use.  Only the fields clustering needs are
+ * read.  This class is thread-safe.
+ */
+public class DuplicateClusterer {
+  private static DuplicateClusterer instance = null;
+
+  private static final QueryOption RECENT_ARTICLE_FIELDS = new QueryOption.Fields(
+      "url_id",
+      "published_time",
+      "crawl_time",
+      "deduping_stems",
+      "duplicate_cluster_id",
+      "hot_count");
+
+  private static class Cluster {
+    private final String id;
+    private int size = 0;
+    private final TreeMultiset<Long> publishedTimes = TreeMultiset.create();
+    private int indexedMemberCount = 0;
+
+    private Cluster(String id) {
+      this.id = id;
+    }
+
+    private long getOldestTime() {
+      return publishedTimes.firstEntry().getElement();
+    }
+  }
+
+  private static class Member {
+    private final String urlId;
+    private final Cluster cluster;
+    private final Deduper.ArticleExtraction extraction;
+    private final Iterable<String> stems;
+    private final long publishedTime;
+    private final long crawlTime;
+    private final long sequence;
+
+    private Member(String urlId, Cluster cluster, Deduper.ArticleExtraction extraction,
+        Iterable<String> stems, long publishedTime, long crawlTime, long sequence) {
+      this.urlId = urlId;
+      this.cluster = cluster;
+      this.extraction = extraction;
+      this.stems = stems;
+      this.publishedTime = publishedTime;
+      this.crawlTime = crawlTime;
+      this.sequence = sequence;
+    }
+  }
+
+  private final Map<String, List<Member>> membersByStem = Maps.newHashMap();
+  private final Queue<Member> membersByCrawlTime = new ArrayDeque<>();
+  private final Map<String, Member> membersByUrlId = Maps.newHashMap();
+  private final Map<String, Cluster> clustersById = Maps.newHashMap();
+  private long nextSequence = 0;
+
+  /**
+   * Creates a clusterer that doesn't know about any articles yet.  Use
+   * {@code #getInstance()} instead, except in tests.
+   */
+  DuplicateClusterer() {
+  }
+
+  public static synchronized DuplicateClusterer getInstance() throws DatabaseSchemaException {
+    if (instance == null) {
+      DuplicateClusterer clusterer = new DuplicateClusterer();
+      clusterer.loadRecentArticles();
+      instance = clusterer;
+    }
+    return instance;
+  }
+
+  /**
+   * Indexes the articles crawled within the deduping window, oldest first,
+   * so that clusters are assigned the same way they would have been if this
+   * process had crawled them.  Articles crawled before we started storing
+   * cluster IDs get clustered here, in memory.
+   */
+  private void loadRecentArticles() throws DatabaseSchemaException {
+    List<Article> articles = Lists.newArrayList(Database.with(Article.class).get(
+        new QueryOption.WhereGreaterThan("crawl_time",
+            System.currentTimeMillis() - Deduper.STEM_INTERSECTION_PUBLISH_DATE_RANGE),
+        RECENT_ARTICLE_FIELDS));
+    Collections.sort(articles, new Comparator<Article>() {
+      @Override
+      public int compare(Article article1, Article article2) {
+        return Long.compare(article1.getCrawlTime(), article2.getCrawlTime());
+      }
+    });
+    for (Article article : articles) {
+      if (article.hasDuplicateClusterId()) {
+        Cluster cluster = clustersById.get(article.getDuplicateClusterId());
+        if (cluster == null) {
+          cluster = new Cluster(article.getDuplicateClusterId());
+          clustersById.put(cluster.id, cluster);
+        }
+        addToCluster(cluster, article, new Deduper.ArticleExtraction(article));
+        cluster.size = Math.max(cluster.size, article.getHotCount());
+      } else {
+        cluster(article);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code article} with its duplicate_cluster_id, hot_count, and
+   * oldest_hot_duplicate_time set, and remembers it so that articles crawled
+   * after it can join its cluster.
+   */
+  public synchronized Article cluster(Article article) {
+    evictExpiredMembers(System.currentTimeMillis());
+
+    Deduper.ArticleExtraction extraction = new Deduper.ArticleExtraction(article);
+    Member earliestMatch = null;
+    for (String stem : article.getDedupingStemsList()) {
+      List<Member> members = membersByStem.get(stem);
+      if (members == null) {
+        continue;
+      }
+      for (Member member : members) {
+        if ((earliestMatch == null || member.sequence < earliestMatch.sequence)
+            && member.extraction.isDuplicate(extraction)) {
+          earliestMatch = member;
+        }
+      }
+    }
+
+    Cluster cluster;
+    if (earliestMatch == null) {
+      cluster = new Cluster(article.getUrlId());
+      clustersById.put(cluster.id, cluster);
+    } else {
+      cluster = earliestMatch.cluster;
+    }
+    addToCluster(cluster, article, extraction);
+
+    Article.Builder articleBuilder = article.toBuilder()
+        .setDuplicateClusterId(cluster.id);
+    if (cluster.size > 1) {
+      articleBuilder
+          .setHotCount(cluster.size)
+          .setOldestHotDuplicateTime(cluster.getOldestTime());
+    }
+    return articleBuilder.build();
+  }
+
+  /**
+   * Forgets {@code article}, which was passed to {@code #cluster(Article)} but
+   * couldn't be stored, so that articles crawled after it don't join its
+   * cluster (or count it toward their hot_count).
+   */
+  public synchronized void remove(Article article) {
+    Member member = membersByUrlId.remove(article.getUrlId());
+    if (member == null) {
+      return;
+    }
+    removeFromIndex(member);
+    membersByCrawlTime.remove(member);
+    member.cluster.size--;
+    member.cluster.publishedTimes.remove(member.publishedTime);
+  }
+
+  private void addToCluster(
+      Cluster cluster, Article article, Deduper.ArticleExtraction extraction) {
+    Member member = new Member(article.getUrlId(), cluster, extraction,
+        article.getDedupingStemsList(), Articles.getPublishedTime(article),
+        article.getCrawlTime(), nextSequence++);
+    for (String stem : member.stems) {
+      List<Member> members = membersByStem.get(stem);
+      if (members == null) {
+        members = Lists.newArrayList();
+        membersByStem.put(stem, members);
+      }
+      members.add(member);
+    }
+    membersByCrawlTime.add(member);
+    membersByUrlId.put(member.urlId, member);
+    cluster.size++;
+    cluster.publishedTimes.add(member.publishedTime);
+    cluster.indexedMemberCount++;
+  }
+
+  /**
+   * Forgets articles that were crawled too long ago to be considered
+   * duplicates of new articles, and clusters that no longer have any.
+   */
+  private void evictExpiredMembers(long now) {
+    long cutoff = now - Deduper.STEM_INTERSECTION_PUBLISH_DATE_RANGE;
+    while (!membersByCrawlTime.isEmpty() && membersByCrawlTime.peek().crawlTime < cutoff) {
+      Member member = membersByCrawlTime.remove();
+      if (membersByUrlId.get(member.urlId) == member) {
+        membersByUrlId.remove(member.urlId);
+      }
+      removeFromIndex(member);
+    }
+  }
+
+  /**
+   * Removes {@code member} from the stem index, and its cluster too if it was
+   * the last of the cluster's members that we still have indexed.
+   */
+  private void removeFromIndex(Member member) {
+    for (String stem : member.stems) {
+      List<Member> members = membersByStem.get(stem);
+      if (members == null) {
+        continue; // The article listed this stem more than once.
+      }
+      members.remove(member);
+      if (members.isEmpty()) {
+        membersByStem.remove(stem);
+      }
+    }
+    if (--member.cluster.indexedMemberCount == 0) {
+      clustersById.remove(member.cluster.id);
+    }
+  }
+}
@@ -54,6 +54,15 @@ public class Interpreter {
    */
   public static InterpretedData interpret(Url url)
       throws FetchException, RequiredFieldException {
+    return interpret(url, fetchDocument(url));
+  }
+
+  /**
+   * Retrieves the passed URL by making a request to the respective website,
+   * and returns its document, ready to be interpreted.
+   */
+  static Document fetchDocument(Url url)
+      throws FetchException, RequiredFieldException {
     FetchResponse response = null;
     Reader reader = null;
     try {
@@ -66,7 +75,7 @@ public class Interpreter {
       if (ReadWriteArticleHandler.isReadWriteArticle(document)) {
         document = ReadWriteArticleHandler.getRealDocument(document);
       }
-      return interpret(url, document);
+      return document;
     } finally {
       IOUtils.closeQuietly(reader);
     }
@@ -197,9 +206,19 @@ public class Interpreter {
    */
   public static InterpretedData interpret(Url url, Document document)
       throws FetchException, RequiredFieldException {
+    return interpret(url, document, true /* includeSocialEngagement */);
+  }
+
+  /**
+   * Interprets the web page, optionally skipping the article's social
+   * engagement lookups.  Those are slow network calls, so CrawlPipeline does
+   * them separately, on its own threads.
+   */
+  static InterpretedData interpret(Url url, Document document, boolean includeSocialEngagement)
+      throws FetchException, RequiredFieldException {
 
     // Parse the article and any links it contains.
-    Article article = ArticleCreator.create(url, document);
+    Article article = ArticleCreator.create(url, document, includeSocialEngagement);
     Iterable<String> urls = UrlFinder.findUrls(document);
 
     // Are there videos?
@@ -13,8 +13,9 @@ import java.util.Set;
 import org.apache.commons.io.IOUtils;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.net.InternetDomainName;
@@ -33,8 +34,54 @@ import com.janknspank.proto.CrawlerProto.TestInstructions.ArticleUrlDetectorChec
  */
 public class SiteManifests {
   private static final Logger LOG = new Logger(SiteManifests.class);
-  private static Map<String, SiteManifest> SITE_MANIFEST_MAP = null;
-  private static List<SiteManifest> SITE_MANIFEST_LIST = null;
+  private static volatile Index INDEX = null;
+
+  /**
+   * An immutable snapshot of every site manifest, indexed for fast lookups.
+   * Reloading builds a new Index and swaps it in, so readers never need a
+   * lock and never see a half-built one.
+   */
+  private static class Index {
+    private final ImmutableList<SiteManifest> sites;
+    private final ImmutableMap<String, SiteManifest> sitesByDomain;
+    private final ImmutableMap<String, SiteManifest> sitesByShortName;
+
+    private Index(Iterable<SiteManifest> sites) {
+      this.sites = ImmutableList.copyOf(sites);
+
+      // If two sites claim the same domain, root domains win over aka root
+      // domains, then earlier sites win over later ones.
+      Map<String, SiteManifest> sitesByDomain = Maps.newHashMap();
+      Map<String, SiteManifest> sitesByShortName = Maps.newHashMap();
+      for (SiteManifest site : this.sites) {
+        sitesByDomain.putIfAbsent(site.getRootDomain(), site);
+        sitesByShortName.putIfAbsent(site.getShortName(), site);
+      }
+      for (SiteManifest site : this.sites) {
+        for (String akaRootDomain : site.getAkaRootDomainList()) {
+          sitesByDomain.putIfAbsent(akaRootDomain, site);
+        }
+      }
+      this.sitesByDomain = ImmutableMap.copyOf(sitesByDomain);
+      this.sitesByShortName = ImmutableMap.copyOf(sitesByShortName);
+    }
+
+    /**
+     * Returns the site for {@code host} or its closest parent domain, e.g.
+     * "money.cnn.com", then "cnn.com".
+     */
+    private SiteManifest getForHost(String host) {
+      String domain = host;
+      while (domain.contains(".")) {
+        SiteManifest site = sitesByDomain.get(domain);
+        if (site != null) {
+          return site;
+        }
+        domain = domain.substring(domain.indexOf(".") + 1);
+      }
+      return null;
+    }
+  }
 
   /**
    * Validates that the passed-in domain is indeed part of the root domain or an
@@ -163,51 +210,72 @@ public class SiteManifests {
   }
 
   /**
-   * Builds a Map of SiteManifest object definitions, keyed by root URL, from
-   * the .manifest files located in /sites/.
+   * Reads SiteManifest object definitions from the .manifest files located in
+   * /sites/.
    */
-  private static synchronized Map<String, SiteManifest> getSiteManifestMap() {
-    if (SITE_MANIFEST_MAP == null) {
-      SITE_MANIFEST_MAP = Maps.newHashMap();
-      for (File manifestFile : new File("sites/").listFiles()) {
-        if (!manifestFile.getName().endsWith(".manifest")) {
-          continue;
-        }
-        SiteManifest.Builder siteManifestBuilder = SiteManifest.newBuilder();
-        Reader reader = null;
+  private static List<SiteManifest> readSiteManifests() {
+    List<SiteManifest> sites = Lists.newArrayList();
+    for (File manifestFile : new File("sites/").listFiles()) {
+      if (!manifestFile.getName().endsWith(".manifest")) {
+        continue;
+      }
+      SiteManifest.Builder siteManifestBuilder = SiteManifest.newBuilder();
+      Reader reader = null;
+      try {
+        reader = new FileReader(manifestFile);
         try {
-          reader = new FileReader(manifestFile);
-          try {
-            TextFormat.merge(reader, siteManifestBuilder);
-          } catch (TextFormat.ParseException e) {
-            throw new SiteManifestException(
-                "Error in site manifest " + manifestFile.getAbsolutePath() + ": " + e.getMessage(),
-                e);
-          }
-          SiteManifest siteManifest = siteManifestBuilder.build();
-          validateSiteManifest(manifestFile, siteManifest);
-          SITE_MANIFEST_MAP.put(siteManifest.getRootDomain(), siteManifest);
-        } catch (IOException e) {
-          LOG.error("Could not read site manifest: " + manifestFile.getAbsolutePath(), e);
-          throw new Error(e);
-        } catch (SiteManifestException e) {
-          LOG.error("Invalid manifest: " + manifestFile.getAbsolutePath(), e);
-          throw new Error(e);
-        } finally {
-          IOUtils.closeQuietly(reader);
+          TextFormat.merge(reader, siteManifestBuilder);
+        } catch (TextFormat.ParseException e) {
+          throw new SiteManifestException(
+              "Error in site manifest " + manifestFile.getAbsolutePath() + ": " + e.getMessage(),
+              e);
         }
+        SiteManifest siteManifest = siteManifestBuilder.build();
+        validateSiteManifest(manifestFile, siteManifest);
+        sites.add(siteManifest);
+      } catch (IOException e) {
+        LOG.error("Could not read site manifest: " + manifestFile.getAbsolutePath(), e);
+        throw new Error(e);
+      } catch (SiteManifestException e) {
+        LOG.error("Invalid manifest: " + manifestFile.getAbsolutePath(), e);
+        throw new Error(e);
+      } finally {
+        IOUtils.closeQuietly(reader);
       }
-      SITE_MANIFEST_LIST = Lists.newArrayList(SITE_MANIFEST_MAP.values());
     }
-    return SITE_MANIFEST_MAP;
+    return sites;
+  }
+
+  private static Index getIndex() {
+    Index index = INDEX;
+    if (index == null) {
+      synchronized (SiteManifests.class) {
+        if (INDEX == null) {
+          INDEX = new Index(readSiteManifests());
+        }
+        index = INDEX;
+      }
+    }
+    return index;
+  }
+
+  /**
+   * Re-reads the .manifest files in /sites/.  Lookups that are already
+   * running finish against the old manifests; everything after this returns
+   * the new ones.
+   */
+  public static void reload() {
+    Index index = new Index(readSiteManifests());
+    synchronized (SiteManifests.class) {
+      INDEX = index;
+    }
   }
 
   /**
    * Returns SiteManifest objects for every news site supported by our system.
    */
   public static List<SiteManifest> getList() {
-    getSiteManifestMap();
-    return SITE_MANIFEST_LIST;
+    return getIndex().sites;
   }
 
   public static SiteManifest getForUrl(String url) {
@@ -224,40 +292,24 @@ public class SiteManifests {
    * "cnn.com" would be returned.
    */
   public static SiteManifest getForUrl(URL url) {
-    List<SiteManifest> sites = getList();
-    if (sites == null) {
-      throw new Error("Site manifests did not load.  See exceptions above for explanation.");
-    }
-
-    String domain = url.getHost();
-    while (domain.contains(".")) {
-      for (SiteManifest site : sites) {
-        if (site.getRootDomain().equals(domain)
-            || Iterables.contains(site.getAkaRootDomainList(), domain)) {
-          return site;
-        }
-      }
-      domain = domain.substring(domain.indexOf(".") + 1);
-    }
-    return null;
+    return getIndex().getForHost(url.getHost());
   }
 
   public static SiteManifest getForShortName(String shortName) {
-    for (SiteManifest site : getList()) {
-      if (site.getShortName().equals(shortName)) {
-        return site;
-      }
-    }
-    return null;
+    return getIndex().sitesByShortName.get(shortName);
   }
 
   /**
    * For testing only: Puts a site manifest into the system programmatically.
    */
   @VisibleForTesting
-  public static void addSiteManifest(SiteManifest site) {
-    getSiteManifestMap(); // Warm cache.
-    SITE_MANIFEST_MAP.put(site.getRootDomain(), site);
-    SITE_MANIFEST_LIST.add(site);
+  public static synchronized void addSiteManifest(SiteManifest site) {
+    List<SiteManifest> sites = Lists.newArrayList(site);
+    for (SiteManifest existingSite : getIndex().sites) {
+      if (!existingSite.getRootDomain().equals(site.getRootDomain())) {
+        sites.add(existingSite);
+      }
+    }
+    INDEX = new Index(sites);
   }
 }
@@ -0,0 +1,133 @@
+package com.janknspank.crawler;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.janknspank.proto.CrawlerProto.SiteManifest;
+import com.janknspank.proto.CrawlerProto.TestInstructions.ArticleUrlDetectorChecks;
+
+/**
+ * Compares SiteManifests' domain index against scanning every site manifest
+ * for each of the URL's domain suffixes, as SiteManifests#getForUrl used to.
+ * Also verifies that both find the same sites.
+ *
+ * The URLs are read from a file, one per line, or if no file's given, taken
+ * from the test instructions in every site manifest, plus a few from sites we
+ * don't support.
+ *
+ * Usage:
+ * java com.janknspank.crawler.SiteManifestsBenchmark [url file] [passes]
+ */
+public class SiteManifestsBenchmark {
+  private static List<URL> readUrls(String filename) throws Exception {
+    List<String> urlStrings = Lists.newArrayList();
+    if (filename == null) {
+      for (SiteManifest site : SiteManifests.getList()) {
+        ArticleUrlDetectorChecks checks = site.getTestInstructions().getArticleUrlDetectorChecks();
+        urlStrings.addAll(checks.getArticleUrlList());
+        urlStrings.addAll(checks.getNonArticleUrlList());
+      }
+      urlStrings.add("http://www.example.com/2015/01/09/some-article");
+      urlStrings.add("http://news.ycombinator.com/item?id=1");
+      urlStrings.add("http://localhost/");
+    } else {
+      urlStrings.addAll(Files.readAllLines(new File(filename).toPath(), StandardCharsets.UTF_8));
+    }
+
+    List<URL> urls = Lists.newArrayList();
+    for (String urlString : urlStrings) {
+      try {
+        urls.add(new URL(urlString.trim()));
+      } catch (MalformedURLException e) {
+        // Skip it.
+      }
+    }
+    return urls;
+  }
+
+  /**
+   * The way SiteManifests#getForUrl used to work: For each suffix of the
+   * URL's domain, check every site's root domain and aka root domains.
+   */
+  private static SiteManifest getForUrlByScanning(List<SiteManifest> sites, URL url) {
+    String domain = url.getHost();
+    while (domain.contains(".")) {
+      for (SiteManifest site : sites) {
+        if (site.getRootDomain().equals(domain)
+            || Iterables.contains(site.getAkaRootDomainList(), domain)) {
+          return site;
+        }
+      }
+      domain = domain.substring(domain.indexOf(".") + 1);
+    }
+    return null;
+  }
+
+  /**
+   * Returns URLs per second when scanning every site manifest.
+   */
+  private static double runScan(List<SiteManifest> sites, List<URL> urls, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (URL url : urls) {
+        getForUrlByScanning(sites, url);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (urls.size() * passes) / elapsedSeconds;
+  }
+
+  /**
+   * Returns URLs per second for SiteManifests' index.
+   */
+  private static double runIndex(List<URL> urls, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (URL url : urls) {
+        SiteManifests.getForUrl(url);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (urls.size() * passes) / elapsedSeconds;
+  }
+
+  public static void main(String args[]) throws Exception {
+    List<URL> urls = readUrls(args.length > 0 ? args[0] : null);
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    if (urls.isEmpty()) {
+      throw new IllegalStateException("No URLs found");
+    }
+
+    List<SiteManifest> sites = SiteManifests.getList();
+    for (URL url : urls) {
+      SiteManifest expected = getForUrlByScanning(sites, url);
+      SiteManifest actual = SiteManifests.getForUrl(url);
+      if (expected != actual) {
+        throw new IllegalStateException("Site mismatch for " + url + ": "
+            + (expected == null ? null : expected.getRootDomain()) + " vs "
+            + (actual == null ? null : actual.getRootDomain()));
+      }
+    }
+    for (SiteManifest site : sites) {
+      if (SiteManifests.getForShortName(site.getShortName()) != site) {
+        throw new IllegalStateException("Site mismatch for short name " + site.getShortName());
+      }
+    }
+
+    // Warm up both, so that JIT compilation isn't counted.
+    runScan(sites, urls, Math.max(1, passes / 10));
+    runIndex(urls, Math.max(1, passes / 10));
+
+    System.out.println("Benchmarking " + urls.size() + " URLs, " + passes + " passes");
+    double oldRate = runScan(sites, urls, passes);
+    double newRate = runIndex(urls, passes);
+    System.out.println(String.format("Scanning: %10.2f/sec, index: %10.2f/sec (%.2fx)",
+        oldRate, newRate, newRate / oldRate));
+  }
+}
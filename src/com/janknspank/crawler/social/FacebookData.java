@@ -2,7 +2,11 @@ package com.janknspank.crawler.social;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.List;
+import java.util.Map;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.janknspank.bizness.Articles;
 import com.janknspank.classifier.ClassifierException;
 import com.janknspank.common.DateParser;
@@ -15,6 +19,9 @@ import com.restfb.DefaultFacebookClient;
 import com.restfb.FacebookClient;
 import com.restfb.Parameter;
 import com.restfb.Version;
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchRequest.BatchRequestBuilder;
+import com.restfb.batch.BatchResponse;
 import com.restfb.exception.FacebookOAuthException;
 import com.restfb.json.JsonException;
 import com.restfb.json.JsonObject;
@@ -75,21 +82,8 @@ public class FacebookData {
             .getJsonObject("summary")
             .getInt("total_count");
 
-        return SocialEngagement.newBuilder()
-            .setSite(Site.FACEBOOK)
-            .setLikeCount(likeCount)
-            .setShareCount(shareCount)
-            .setShareScore(ShareNormalizer.getInstance(Site.FACEBOOK).getShareScore(
-                url,
-                shareCount,
-                System.currentTimeMillis() - Articles.getPublishedTime(article) /* ageInMillis */))
-            .setCommentCount(commentCount)
-            .setCreateTime(System.currentTimeMillis())
-            .build();
+        return createEngagement(article, likeCount, shareCount, commentCount);
       }
-    } catch (ClassifierException e) {
-      // FacebookShareNormalizer failed to instantiate from disk - this is an invalid state.
-      throw new IllegalStateException(e);
     } catch (FacebookOAuthException e) {
       e.printStackTrace();
       throw new SocialException("Can't get FB engagement for url "
@@ -100,6 +94,103 @@ public class FacebookData {
     }
   }
 
+  /**
+   * Returns Facebook engagement for each of the passed articles, mapped by
+   * URL.  Rather than making two Graph API requests per article, this makes
+   * two batch requests for all of them, so pass at most 50 articles (the
+   * most Facebook allows in a batch).  Articles Facebook doesn't know about
+   * are left out of the returned map.
+   */
+  public static Map<String, SocialEngagement> getEngagementForArticles(
+      List<? extends ArticleOrBuilder> articles) throws SocialException {
+    Map<String, SocialEngagement> engagements = Maps.newHashMap();
+    if (articles.isEmpty()) {
+      return engagements;
+    }
+    try {
+      // Get shares and comments, plus the Open Graph object IDs we need to
+      // ask for likes.
+      List<BatchRequest> urlRequests = Lists.newArrayList();
+      for (ArticleOrBuilder article : articles) {
+        urlRequests.add(new BatchRequestBuilder(encodeUrl(article.getUrl())).build());
+      }
+      List<BatchResponse> urlResponses = getCrawlerClient().executeBatch(urlRequests);
+
+      List<ArticleOrBuilder> sharedArticles = Lists.newArrayList();
+      List<JsonObject> shareObjects = Lists.newArrayList();
+      List<BatchRequest> likesRequests = Lists.newArrayList();
+      for (int i = 0; i < articles.size(); i++) {
+        JsonObject urlObject = getResponseObject(urlResponses.get(i));
+        if (urlObject == null || !urlObject.has("share") || !urlObject.has("og_object")) {
+          continue;
+        }
+        sharedArticles.add(articles.get(i));
+        shareObjects.add(urlObject.getJsonObject("share"));
+        likesRequests.add(
+            new BatchRequestBuilder(urlObject.getJsonObject("og_object").getString("id"))
+                .parameters(Parameter.with("fields", "likes.summary(true)"))
+                .build());
+      }
+      if (likesRequests.isEmpty()) {
+        return engagements;
+      }
+
+      // Get likes.
+      List<BatchResponse> likesResponses = getCrawlerClient().executeBatch(likesRequests);
+      for (int i = 0; i < sharedArticles.size(); i++) {
+        JsonObject likesObject = getResponseObject(likesResponses.get(i));
+        if (likesObject == null) {
+          continue;
+        }
+        ArticleOrBuilder article = sharedArticles.get(i);
+        JsonObject shareObject = shareObjects.get(i);
+        engagements.put(article.getUrl(), createEngagement(article,
+            likesObject.getJsonObject("likes").getJsonObject("summary").getInt("total_count"),
+            shareObject.getInt("share_count"),
+            shareObject.getInt("comment_count")));
+      }
+      return engagements;
+    } catch (FacebookOAuthException e) {
+      e.printStackTrace();
+      throw new SocialException("Can't get FB engagement for "
+          + articles.size() + " urls: " + e.getMessage(), e);
+    } catch (JsonException e) {
+      e.printStackTrace();
+      throw new SocialException("Can't parse Facebook JSON: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns the JSON body of a successful batch response, or null if this
+   * part of the batch failed.
+   */
+  private static JsonObject getResponseObject(BatchResponse response) {
+    if (response == null || response.getCode() == null || response.getCode() != 200) {
+      return null;
+    }
+    return new JsonObject(response.getBody());
+  }
+
+  private static SocialEngagement createEngagement(
+      ArticleOrBuilder article, int likeCount, int shareCount, int commentCount) {
+    try {
+      return SocialEngagement.newBuilder()
+          .setSite(Site.FACEBOOK)
+          .setLikeCount(likeCount)
+          .setShareCount(shareCount)
+          .setShareScore(ShareNormalizer.getInstance(Site.FACEBOOK).getShareScore(
+              article.getUrl(),
+              shareCount,
+              System.currentTimeMillis() - Articles.getPublishedTime(article) /* ageInMillis */))
+          .setCommentCount(commentCount)
+          .setCreateTime(System.currentTimeMillis())
+          .build();
+    } catch (ClassifierException e) {
+      // FacebookShareNormalizer failed to instantiate from disk - this is an invalid state.
+      throw new IllegalStateException(e);
+    }
+  }
+
   private static synchronized FacebookClient getCrawlerClient() throws SocialException {
     if (__crawlerClient == null) {
       __crawlerClient =
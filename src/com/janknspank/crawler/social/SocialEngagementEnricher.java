@@ -0,0 +1,285 @@
+package com.janknspank.crawler.social;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.janknspank.bizness.SocialEngagements;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Logger;
+import com.janknspank.common.Metrics;
+import com.janknspank.database.DatabaseRequestException;
+import com.janknspank.database.DatabaseSchemaException;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.janknspank.proto.ArticleProto.SocialEngagement.Site;
+import com.janknspank.proto.CrawlerProto.CrawlHistory;
+
+/**
+ * Gets social engagement for articles in the background, after they've been
+ * stored, so that crawling an article doesn't have to wait on Facebook and
+ * Twitter.
+ *
+ * Articles are handled in batches.  Facebook engagement for a whole batch
+ * takes two Graph API batch requests.  Twitter doesn't have a multi-URL count
+ * API, so its engagement is requested one article at a time, on a small pool
+ * of threads so that the requests' latencies overlap.  Each site has its own
+ * rate budget, shared by all its requests, and engagement is only requested
+ * when {@code SocialEngagements#needsUpdate} says it's time.
+ *
+ * Sizes can be configured with these environment variables:
+ *  - SOCIAL_ENGAGEMENT_BATCH_SIZE: Articles per batch (default 25, max 50).
+ *  - SOCIAL_ENGAGEMENT_QUEUE_SIZE: Max articles waiting (default 5000).
+ *  - FACEBOOK_CALLS_PER_MINUTE: Facebook's budget.  Every request inside a
+ *    batch counts (default 200).
+ *  - TWITTER_CALLS_PER_MINUTE: Twitter's budget (default 600).
+ *  - TWITTER_THREADS: Twitter requests in flight at once (default 4).
+ *
+ * If the queue's full, articles are dropped.  UpdateSocialEngagements will
+ * pick them up on its next run.
+ */
+public class SocialEngagementEnricher {
+  private static final Logger LOG = new Logger(SocialEngagementEnricher.class);
+  private static final int BATCH_SIZE =
+      Math.min(50, Environment.getInt("SOCIAL_ENGAGEMENT_BATCH_SIZE", 25));
+  private static final int QUEUE_SIZE = Environment.getInt("SOCIAL_ENGAGEMENT_QUEUE_SIZE", 5000);
+
+  private final BlockingQueue<QueuedArticle> queue =
+      new ArrayBlockingQueue<QueuedArticle>(QUEUE_SIZE);
+  private final RateLimiter facebookRateLimiter =
+      RateLimiter.create(Environment.getInt("FACEBOOK_CALLS_PER_MINUTE", 200) / 60.0);
+  private final RateLimiter twitterRateLimiter =
+      RateLimiter.create(Environment.getInt("TWITTER_CALLS_PER_MINUTE", 600) / 60.0);
+  private final ExecutorService twitterExecutor = Executors.newFixedThreadPool(
+      Environment.getInt("TWITTER_THREADS", 4),
+      new ThreadFactoryBuilder()
+          .setNameFormat("social-engagement-twitter-%d")
+          .setDaemon(true)
+          .build());
+  private final Thread workerThread;
+  private volatile boolean shutdown = false;
+
+  private final AtomicInteger itemsCompleted = new AtomicInteger();
+  private final AtomicInteger itemsFailed = new AtomicInteger();
+  private final AtomicLong busyNanos = new AtomicLong();
+  private final AtomicLong queueNanos = new AtomicLong();
+  private final AtomicLong maxBatchNanos = new AtomicLong();
+
+  private static class QueuedArticle {
+    private final Article article;
+    private final long enqueueNanos = System.nanoTime();
+
+    private QueuedArticle(Article article) {
+      this.article = article;
+    }
+  }
+
+  public SocialEngagementEnricher() {
+    workerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          processQueue();
+        } finally {
+          twitterExecutor.shutdown();
+        }
+      }
+    }, "social-engagement-enricher");
+    workerThread.setDaemon(true);
+    workerThread.start();
+
+    Metrics.registerGauge("social_engagement.queue_depth", new Supplier<Integer>() {
+      @Override
+      public Integer get() {
+        return queue.size();
+      }
+    });
+  }
+
+  /**
+   * Queues the passed article for social engagement, if there's room.
+   * Returns false if it was dropped instead.  Never blocks.
+   */
+  public boolean offer(Article article) {
+    if (!shutdown && queue.offer(new QueuedArticle(article))) {
+      return true;
+    }
+    Metrics.getCounter("social_engagement.dropped").increment();
+    return false;
+  }
+
+  /**
+   * Queues the passed article for social engagement, waiting for room if
+   * necessary.
+   */
+  public void put(Article article) throws InterruptedException {
+    if (shutdown) {
+      throw new IllegalStateException("Enricher has been shut down");
+    }
+    queue.put(new QueuedArticle(article));
+  }
+
+  private void processQueue() {
+    List<QueuedArticle> batch = Lists.newArrayList();
+    while (true) {
+      try {
+        QueuedArticle first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+          if (shutdown) {
+            return;
+          }
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, BATCH_SIZE - 1);
+        processBatch(batch);
+      } catch (InterruptedException e) {
+        return;
+      } catch (RuntimeException e) {
+        LOG.warning("Error getting social engagement: " + e.getMessage(), e);
+        itemsFailed.addAndGet(batch.size());
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void processBatch(List<QueuedArticle> batch) throws InterruptedException {
+    long startNanos = System.nanoTime();
+    long now = System.currentTimeMillis();
+    List<Article> facebookArticles = Lists.newArrayList();
+    for (QueuedArticle queuedArticle : batch) {
+      queueNanos.addAndGet(startNanos - queuedArticle.enqueueNanos);
+      if (SocialEngagements.needsUpdate(queuedArticle.article, Site.FACEBOOK, now)) {
+        facebookArticles.add(queuedArticle.article);
+      }
+    }
+    ListMultimap<String, SocialEngagement> engagements = ArrayListMultimap.create();
+
+    // Facebook: Two batch requests for everyone.
+    if (!facebookArticles.isEmpty()) {
+      facebookRateLimiter.acquire(facebookArticles.size() * 2);
+      try {
+        for (Map.Entry<String, SocialEngagement> entry :
+            FacebookData.getEngagementForArticles(facebookArticles).entrySet()) {
+          engagements.put(entry.getKey(), entry.getValue());
+        }
+      } catch (SocialException e) {
+        LOG.warning("Could not get Facebook engagement: " + e.getMessage(), e);
+      }
+    }
+
+    // Twitter: One request per article, a few at a time.
+    Map<String, Future<SocialEngagement>> twitterFutures = Maps.newLinkedHashMap();
+    for (QueuedArticle queuedArticle : batch) {
+      final Article article = queuedArticle.article;
+      if (SocialEngagements.needsUpdate(article, Site.TWITTER, now)) {
+        twitterFutures.put(article.getUrl(), twitterExecutor.submit(new Callable<SocialEngagement>() {
+          @Override
+          public SocialEngagement call() throws SocialException {
+            twitterRateLimiter.acquire();
+            return TwitterData.getEngagementForArticle(article);
+          }
+        }));
+      }
+    }
+    for (Map.Entry<String, Future<SocialEngagement>> entry : twitterFutures.entrySet()) {
+      try {
+        SocialEngagement engagement = entry.getValue().get();
+        if (engagement != null) {
+          engagements.put(entry.getKey(), engagement);
+        }
+      } catch (ExecutionException e) {
+        LOG.warning("Could not get Twitter engagement: " + e.getCause().getMessage(),
+            e.getCause());
+      }
+    }
+
+    // Store everything we found.
+    for (QueuedArticle queuedArticle : batch) {
+      Article article = queuedArticle.article;
+      List<SocialEngagement> articleEngagements = engagements.get(article.getUrl());
+      try {
+        if (!articleEngagements.isEmpty()) {
+          SocialEngagements.update(article, articleEngagements);
+        }
+        itemsCompleted.incrementAndGet();
+      } catch (DatabaseSchemaException | DatabaseRequestException e) {
+        LOG.warning("Could not store social engagement for " + article.getUrl(), e);
+        itemsFailed.incrementAndGet();
+      }
+    }
+
+    long nanos = System.nanoTime() - startNanos;
+    busyNanos.addAndGet(nanos);
+    long max = maxBatchNanos.get();
+    while (nanos > max && !maxBatchNanos.compareAndSet(max, nanos)) {
+      max = maxBatchNanos.get();
+    }
+    Metrics.getTimer("social_engagement.batch").recordNanos(nanos);
+  }
+
+  /**
+   * Stops taking new articles, then waits until {@code deadline} (in epoch
+   * millis) for the queued ones to be finished.  Returns true if they were.
+   * If they weren't, the articles still waiting are logged and counted as
+   * unfinished, and are left to finish in the background.
+   */
+  public boolean shutdown(long deadline) throws InterruptedException {
+    shutdown = true;
+    workerThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+    if (workerThread.isAlive()) {
+      int unfinished = queue.size();
+      LOG.warning("Social engagement shutdown deadline passed with "
+          + unfinished + " articles still queued");
+      Metrics.getCounter("social_engagement.unfinished").add(unfinished);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Stops taking new articles and drops the queued ones, without waiting.
+   * The batch that's in progress, if any, is still finished in the
+   * background.  Returns how many articles were dropped.
+   */
+  public int shutdownNow() {
+    shutdown = true;
+    List<QueuedArticle> dropped = Lists.newArrayList();
+    queue.drainTo(dropped);
+    Metrics.getCounter("social_engagement.dropped").add(dropped.size());
+    return dropped.size();
+  }
+
+  /**
+   * Returns throughput and latency statistics so far, in the same form as the
+   * crawl pipeline's stages.  Since articles are handled in batches, the max
+   * is for the slowest batch.
+   */
+  public CrawlHistory.Stage toCrawlHistoryStage() {
+    return CrawlHistory.Stage.newBuilder()
+        .setName("social")
+        .setBusyMillis(TimeUnit.NANOSECONDS.toMillis(busyNanos.get()))
+        .setQueueMillis(TimeUnit.NANOSECONDS.toMillis(queueNanos.get()))
+        .setMaxMillis(TimeUnit.NANOSECONDS.toMillis(maxBatchNanos.get()))
+        .setItemsCompleted(itemsCompleted.get())
+        .setItemsFailed(itemsFailed.get())
+        .build();
+  }
+}
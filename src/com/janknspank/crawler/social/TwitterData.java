@@ -11,8 +11,8 @@ import org.json.JSONObject;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
-import com.google.protobuf.Message;
 import com.janknspank.bizness.Articles;
+import com.janknspank.bizness.SocialEngagements;
 import com.janknspank.classifier.ClassifierException;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
@@ -81,7 +81,7 @@ public class TwitterData {
     public Void call() throws Exception {
       SocialEngagement socialEngagement = getEngagementForArticle(article);
       if (socialEngagement != null) {
-        Database.push(article, "social_engagement", ImmutableList.of((Message) socialEngagement));
+        SocialEngagements.update(article, ImmutableList.of(socialEngagement));
       }
       int count = getCount();
       if (count % 500 == 0) {
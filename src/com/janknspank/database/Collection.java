@@ -1,17 +1,16 @@
 package com.janknspank.database;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Executors;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Descriptors.FieldDescriptor;
 import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
 import com.google.protobuf.Message;
@@ -29,9 +28,6 @@ import com.janknspank.database.ExtensionsProto.StorageMethod;
  * @see Collection#get(QueryOption...)
  */
 public abstract class Collection<T extends Message> {
-  ListeningExecutorService EXECUTOR_SERVICE =
-      MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(100));
-
   protected final Class<T> clazz;
   protected final ImmutableMap<FieldDescriptor, StorageMethod> storageMethodMap;
   protected final String primaryKeyField;
@@ -244,8 +240,103 @@ public abstract class Collection<T extends Message> {
    */
   public abstract Iterable<T> get(QueryOption... options) throws DatabaseSchemaException;
 
+  /**
+   * Returns the projection in the passed query options, or null if the query
+   * should read whole messages.  Also validates the field names used by the
+   * projection and by any FirstValues options.
+   */
+  protected QueryOption.Projection getProjection(QueryOption[] options)
+      throws DatabaseSchemaException {
+    List<QueryOption.Projection> projections =
+        QueryOption.getList(options, QueryOption.Projection.class);
+    Asserts.assertTrue(projections.size() <= 1,
+        "Duplicate definitions of QueryOption.Projection not allowed",
+        DatabaseSchemaException.class);
+    QueryOption.Projection projection = Iterables.getFirst(projections, null);
+    if (projection != null) {
+      for (String fieldName : projection.getFieldNames()) {
+        Asserts.assertTrue(getTopLevelField(fieldName) != null,
+            "Cannot project unknown field: " + clazz.getSimpleName() + "." + fieldName,
+            DatabaseSchemaException.class);
+      }
+    }
+    for (QueryOption.FirstValues firstValues :
+        QueryOption.getList(options, QueryOption.FirstValues.class)) {
+      FieldDescriptor field = getTopLevelField(firstValues.getFieldName());
+      Asserts.assertTrue(field != null && field.isRepeated(),
+          "FirstValues requires a repeated field: " + firstValues.getFieldName(),
+          DatabaseSchemaException.class);
+      Asserts.assertTrue(projection == null || projection.includes(field.getName()),
+          "FirstValues field " + field.getName() + " is not read by the query's projection",
+          DatabaseSchemaException.class);
+    }
+    return projection;
+  }
+
+  private FieldDescriptor getTopLevelField(String fieldName) {
+    for (FieldDescriptor field : storageMethodMap.keySet()) {
+      if (field.getName().equals(fieldName)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Fills in the named fields on messages that were read with a projection
+   * that left them out, by reading just those fields from the database.  The
+   * hydrated messages are returned in the same order they were passed.
+   * Messages that no longer exist in the database are returned as-is.
+   */
+  public List<T> hydrate(Iterable<T> messages, String... fieldNames)
+      throws DatabaseSchemaException {
+    if (primaryKeyField == null) {
+      throw new IllegalStateException(
+          "Invalid query: " + clazz.getSimpleName() + " has no primary key");
+    }
+    List<T> messageList = ImmutableList.copyOf(messages);
+    if (messageList.isEmpty() || fieldNames.length == 0) {
+      return messageList;
+    }
+    Map<String, T> storedMessages = Maps.newHashMap();
+    for (T storedMessage : get(
+        new QueryOption.WhereEquals(primaryKeyField, Database.getPrimaryKeys(messageList)),
+        new QueryOption.Fields(fieldNames))) {
+      storedMessages.put(Database.getPrimaryKey(storedMessage), storedMessage);
+    }
+    List<T> hydratedMessages = Lists.newArrayListWithCapacity(messageList.size());
+    for (T message : messageList) {
+      T storedMessage = storedMessages.get(Database.getPrimaryKey(message));
+      hydratedMessages.add((storedMessage == null)
+          ? message : copyFields(storedMessage, message, fieldNames));
+    }
+    return hydratedMessages;
+  }
+
+  /**
+   * Returns {@code destination} with the named top-level fields replaced by
+   * their values in {@code source}.
+   */
+  @SuppressWarnings("unchecked")
+  @VisibleForTesting
+  static <T extends Message> T copyFields(T source, T destination, String... fieldNames) {
+    Message.Builder builder = destination.toBuilder();
+    for (String fieldName : fieldNames) {
+      FieldDescriptor field = source.getDescriptorForType().findFieldByName(fieldName);
+      builder.clearField(field);
+      if (field.isRepeated() || source.hasField(field)) {
+        builder.setField(field, source.getField(field));
+      }
+    }
+    return (T) builder.build();
+  }
+
+  /**
+   * Asynchronously gets Messages matching the passed options, using the
+   * shared {@code DatabaseExecutor}.
+   */
   public ListenableFuture<Iterable<T>> getFuture(final QueryOption... options) {
-    return EXECUTOR_SERVICE.submit(new Callable<Iterable<T>>() {
+    return DatabaseExecutor.submit(clazz.getSimpleName(), "get", new Callable<Iterable<T>>() {
       @Override
       public Iterable<T> call() throws DatabaseSchemaException {
         return get(options);
@@ -303,9 +394,13 @@ public abstract class Collection<T extends Message> {
   public abstract T set(T message, String fieldName, Object value)
       throws DatabaseSchemaException, DatabaseRequestException;
 
+  /**
+   * Asynchronously sets a subfield in the specified message, using the
+   * shared {@code DatabaseExecutor}.
+   */
   public ListenableFuture<T> setFuture(
       final T message, final String fieldName, final Object value) {
-    return EXECUTOR_SERVICE.submit(new Callable<T>() {
+    return DatabaseExecutor.submit(clazz.getSimpleName(), "set", new Callable<T>() {
       @Override
       public T call() throws DatabaseSchemaException, DatabaseRequestException {
         return set(message, fieldName, value);
@@ -321,6 +416,18 @@ public abstract class Collection<T extends Message> {
   public abstract <U extends Object> void push(T message, String fieldName, Iterable<U> values)
       throws DatabaseSchemaException, DatabaseRequestException;
 
+  /**
+   * In the embedded array specified by {@code fieldName}, replaces the element
+   * whose {@code keyFieldName} subfield matches {@code value}'s, or pushes
+   * {@code value} if there's no such element.  This is atomic, so concurrent
+   * callers can't leave the array with two elements for the same key.  Use it
+   * to keep arrays that hold one element per key, e.g. the latest social
+   * engagement per site.
+   */
+  public abstract void replaceOrPush(
+      T message, String fieldName, String keyFieldName, Message value)
+      throws DatabaseSchemaException, DatabaseRequestException;
+
   /**
    * Returns the number of rows/documents in this collection that match the
    * optional QueryOptions.
@@ -264,6 +264,19 @@ public class Database {
     ((Collection<T>) with(message.getClass())).push(message, fieldName, values);
   }
 
+  /**
+   * Atomically replaces the element of the embedded array {@code fieldName}
+   * whose {@code keyFieldName} subfield matches {@code value}'s, or pushes
+   * {@code value} if there isn't one.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends Message> void replaceOrPush(
+      T message, String fieldName, String keyFieldName, Message value)
+      throws DatabaseSchemaException, DatabaseRequestException {
+    ((Collection<T>) with(message.getClass())).replaceOrPush(
+        message, fieldName, keyFieldName, value);
+  }
+
   /**
    * Gets the FieldDescriptor for the specified field, if one exists.  Supports
    * dot-notation to retrieve nested fields.
@@ -0,0 +1,216 @@
+package com.janknspank.database;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Metrics;
+
+/**
+ * The one thread pool that all asynchronous database operations in this
+ * process run on, e.g. {@code Collection#getFuture} and
+ * {@code Collection#setFuture}.
+ *
+ * Work is limited in two ways:
+ *  - Each collection can only have so many operations running at once (see
+ *    {@code #getCollectionConcurrency(String)}).  Anything more waits in a
+ *    per-collection queue, so one slow table can't hog every thread.
+ *  - The shared pool's queue is bounded.  When either queue is full, the
+ *    operation is run synchronously on the calling thread instead, which
+ *    naturally slows down whoever's generating too much work.
+ *
+ * Sizes can be configured with these environment variables:
+ *  - DATABASE_EXECUTOR_THREADS: Size of the shared pool (default 50).
+ *  - DATABASE_EXECUTOR_QUEUE_SIZE: Max queued operations (default 2000).
+ *  - DATABASE_COLLECTION_CONCURRENCY: Default max concurrent operations per
+ *    collection (default 20).
+ *  - DATABASE_COLLECTION_CONCURRENCY_[TABLE]: Override for a specific
+ *    collection, e.g. DATABASE_COLLECTION_CONCURRENCY_ARTICLE.
+ *
+ * Queue depths, thread usage, and queue wait times are exported through
+ * {@code Metrics}.
+ */
+public class DatabaseExecutor {
+  private static final int THREAD_COUNT = Environment.getInt("DATABASE_EXECUTOR_THREADS", 50);
+  private static final int QUEUE_SIZE = Environment.getInt("DATABASE_EXECUTOR_QUEUE_SIZE", 2000);
+  private static final int DEFAULT_COLLECTION_CONCURRENCY =
+      Environment.getInt("DATABASE_COLLECTION_CONCURRENCY", 20);
+
+  private static final ThreadPoolExecutor THREAD_POOL_EXECUTOR;
+  private static final ListeningExecutorService EXECUTOR_SERVICE;
+  static {
+    ThreadFactory threadFactory = new ThreadFactoryBuilder()
+        .setNameFormat("database-%d")
+        .setDaemon(true)
+        .build();
+    THREAD_POOL_EXECUTOR = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
+        60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(QUEUE_SIZE),
+        threadFactory,
+        new ThreadPoolExecutor.CallerRunsPolicy() {
+          @Override
+          public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            Metrics.getCounter("database.executor.rejected").increment();
+            super.rejectedExecution(r, executor);
+          }
+        });
+    THREAD_POOL_EXECUTOR.allowCoreThreadTimeOut(true);
+    EXECUTOR_SERVICE = MoreExecutors.listeningDecorator(THREAD_POOL_EXECUTOR);
+
+    Metrics.registerGauge("database.executor.queue_depth", new Supplier<Integer>() {
+      @Override
+      public Integer get() {
+        return THREAD_POOL_EXECUTOR.getQueue().size();
+      }
+    });
+    Metrics.registerGauge("database.executor.active_threads", new Supplier<Integer>() {
+      @Override
+      public Integer get() {
+        return THREAD_POOL_EXECUTOR.getActiveCount();
+      }
+    });
+  }
+
+  private static final ConcurrentMap<String, CollectionLimiter> LIMITERS =
+      Maps.newConcurrentMap();
+
+  /**
+   * Keeps at most {@code maxConcurrency} operations for a single collection
+   * running on the shared pool, queueing up the rest.
+   */
+  private static class CollectionLimiter {
+    private final String tableName;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final Queue<Runnable> pending = Queues.newConcurrentLinkedQueue();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+
+    private CollectionLimiter(String tableName, int maxConcurrency) {
+      this.tableName = tableName;
+      this.maxConcurrency = maxConcurrency;
+      this.maxPending = QUEUE_SIZE;
+
+      Metrics.registerGauge("database." + tableName + ".queue_depth", new Supplier<Integer>() {
+        @Override
+        public Integer get() {
+          return pendingCount.get();
+        }
+      });
+      Metrics.registerGauge("database." + tableName + ".in_flight", new Supplier<Integer>() {
+        @Override
+        public Integer get() {
+          return inFlightCount.get();
+        }
+      });
+    }
+
+    private void execute(Runnable runnable) {
+      if (pendingCount.get() >= maxPending) {
+        Metrics.getCounter("database." + tableName + ".rejected").increment();
+        runnable.run();
+        return;
+      }
+      pendingCount.incrementAndGet();
+      pending.add(runnable);
+      drain();
+    }
+
+    /**
+     * Moves pending operations onto the shared pool until we either run out
+     * of them or hit this collection's concurrency limit.
+     */
+    private void drain() {
+      while (true) {
+        int inFlight = inFlightCount.get();
+        if (inFlight >= maxConcurrency) {
+          return;
+        }
+        if (!inFlightCount.compareAndSet(inFlight, inFlight + 1)) {
+          continue;
+        }
+        final Runnable runnable = pending.poll();
+        if (runnable == null) {
+          inFlightCount.decrementAndGet();
+          // Something may have been queued between our poll and decrement.
+          if (pending.isEmpty()) {
+            return;
+          }
+          continue;
+        }
+        pendingCount.decrementAndGet();
+        THREAD_POOL_EXECUTOR.execute(new Runnable() {
+          @Override
+          public void run() {
+            try {
+              runnable.run();
+            } finally {
+              inFlightCount.decrementAndGet();
+              drain();
+            }
+          }
+        });
+      }
+    }
+  }
+
+  static int getCollectionConcurrency(String tableName) {
+    return Environment.getInt("DATABASE_COLLECTION_CONCURRENCY_" + tableName.toUpperCase(),
+        DEFAULT_COLLECTION_CONCURRENCY);
+  }
+
+  private static CollectionLimiter getLimiter(String tableName) {
+    CollectionLimiter limiter = LIMITERS.get(tableName);
+    if (limiter == null) {
+      LIMITERS.putIfAbsent(tableName,
+          new CollectionLimiter(tableName, getCollectionConcurrency(tableName)));
+      limiter = LIMITERS.get(tableName);
+    }
+    return limiter;
+  }
+
+  /**
+   * Runs the passed database operation against {@code tableName}
+   * asynchronously, subject to that collection's concurrency limit.
+   */
+  public static <T> ListenableFuture<T> submit(
+      final String tableName, final String operation, final Callable<T> callable) {
+    final long enqueueNanos = System.nanoTime();
+    ListenableFutureTask<T> task = ListenableFutureTask.create(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        Metrics.getTimer("database.executor.queue_wait").record(enqueueNanos);
+        long startNanos = System.nanoTime();
+        try {
+          return callable.call();
+        } finally {
+          Metrics.getTimer("database." + tableName + "." + operation).record(startNanos);
+        }
+      }
+    });
+    getLimiter(tableName).execute(task);
+    return task;
+  }
+
+  /**
+   * Returns the shared executor, for asynchronous work that doesn't belong to
+   * any one collection, e.g. multi-step servlet operations.
+   */
+  public static ListeningExecutorService getExecutorService() {
+    return EXECUTOR_SERVICE;
+  }
+}
@@ -1,9 +1,10 @@
 package com.janknspank.database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
+import org.apache.commons.dbcp.BasicDataSource;
+
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.protobuf.Message;
@@ -20,23 +21,31 @@ class LocalSqlCollection<T extends Message> extends SqlCollection<T> {
               "characterEncoding=UTF-8",
               "characterSetResults=utf8",
               "connectionCollation=utf8_bin"));
-  private static Connection connection;
+  private static BasicDataSource dataSource;
 
   public LocalSqlCollection(Class<T> clazz) {
     super(clazz);
   }
 
+  private static synchronized BasicDataSource getDataSource() {
+    if (dataSource == null) {
+      LOG.info("Connecting to local database...");
+      dataSource = new BasicDataSource();
+      dataSource.setDriverClassName("com.mysql.jdbc.Driver");
+      dataSource.setUrl(DB_URL);
+      dataSource.setUsername("hello");
+      dataSource.setPassword("");
+      dataSource.setPoolPreparedStatements(true);
+    }
+    return dataSource;
+  }
+
   @Override
   protected Connection getConnection() throws DatabaseSchemaException {
-    if (connection == null) {
-      LOG.info("Connecting to local database...");
-      try {
-        connection = DriverManager.getConnection(DB_URL, "hello", "");
-      } catch (SQLException e) {
-        throw new DatabaseSchemaException("Could not connect to local database", e);
-      }
-      LOG.info("Connected to local database successfully.");
+    try {
+      return getDataSource().getConnection();
+    } catch (SQLException e) {
+      throw new DatabaseSchemaException("Could not connect to local database", e);
     }
-    return connection;
   }
 }
@@ -0,0 +1,303 @@
+package com.janknspank.database;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.bson.BasicBSONObject;
+import org.bson.types.BasicBSONList;
+import org.bson.types.ObjectId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.EnumDescriptor;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.google.protobuf.Message;
+import com.janknspank.common.Asserts;
+import com.janknspank.database.ExtensionsProto.Required;
+import com.janknspank.database.ExtensionsProto.StorageMethod;
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCursor;
+
+/**
+ * Converts one type of protocol buffer message to and from MongoDB documents.
+ * Everything we need to know about the message's fields (storage method,
+ * whether it's required, nested message types, etc.) is worked out once,
+ * when the codec's created, rather than for each document.  MongoCollection
+ * keeps the codec for its message type, and codecs for nested message types
+ * are shared between everyone who uses them.
+ *
+ * Immutable and thread-safe.
+ */
+class MongoCodec<T extends Message> {
+  private static final ConcurrentMap<Descriptor, MongoCodec<?>> CODECS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Everything we need to read and write one field.
+   */
+  private static class Field {
+    private final FieldDescriptor fieldDescriptor;
+    private final String name;
+    private final JavaType javaType;
+    private final boolean isRepeated;
+    private final boolean isPrimaryKey;
+    private final boolean isRequired;
+    private final EnumDescriptor enumType;
+
+    /**
+     * For MESSAGE fields, the default instance of the field's message type,
+     * and its codec.  The codec's resolved lazily, since messages can contain
+     * themselves.
+     */
+    private final Message messageDefaultInstance;
+    private volatile MongoCodec<Message> messageCodec = null;
+
+    private Field(FieldDescriptor fieldDescriptor, StorageMethod storageMethod,
+        Message messageDefaultInstance) throws DatabaseSchemaException {
+      this.fieldDescriptor = fieldDescriptor;
+      this.name = fieldDescriptor.getName();
+      this.javaType = fieldDescriptor.getJavaType();
+      this.isRepeated = fieldDescriptor.isRepeated();
+      this.isPrimaryKey = (storageMethod == StorageMethod.PRIMARY_KEY);
+      this.isRequired = (fieldDescriptor.getOptions().getExtension(ExtensionsProto.required)
+          == Required.YES);
+      this.enumType = (javaType == JavaType.ENUM) ? fieldDescriptor.getEnumType() : null;
+      this.messageDefaultInstance = messageDefaultInstance;
+      if (isPrimaryKey) {
+        Asserts.assertTrue(javaType == JavaType.STRING, "Primary key must be a string",
+            DatabaseSchemaException.class);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCodec<Message> getMessageCodec() throws DatabaseSchemaException {
+      MongoCodec<Message> codec = messageCodec;
+      if (codec == null) {
+        codec = (MongoCodec<Message>) MongoCodec.get(messageDefaultInstance);
+        messageCodec = codec;
+      }
+      return codec;
+    }
+
+    private DatabaseSchemaException unsupportedType() {
+      return new DatabaseSchemaException("Unsupported type: " + javaType.name());
+    }
+  }
+
+  private final T defaultInstance;
+
+  /**
+   * All the fields of the message, for reading.
+   */
+  private final List<Field> fields;
+
+  /**
+   * The fields we store, for writing.  Excludes DO_NOT_STORE fields.
+   */
+  private final List<Field> storedFields;
+
+  private MongoCodec(T defaultInstance) throws DatabaseSchemaException {
+    this.defaultInstance = defaultInstance;
+    List<Field> fields = Lists.newArrayList();
+    List<Field> storedFields = Lists.newArrayList();
+    for (FieldDescriptor fieldDescriptor : defaultInstance.getDescriptorForType().getFields()) {
+      StorageMethod storageMethod =
+          fieldDescriptor.getOptions().getExtension(ExtensionsProto.storageMethod);
+      Message messageDefaultInstance = (fieldDescriptor.getJavaType() == JavaType.MESSAGE)
+          ? defaultInstance.newBuilderForType().newBuilderForField(fieldDescriptor)
+              .getDefaultInstanceForType()
+          : null;
+      Field field = new Field(fieldDescriptor, storageMethod, messageDefaultInstance);
+      fields.add(field);
+      if (storageMethod != StorageMethod.DO_NOT_STORE) {
+        storedFields.add(field);
+      }
+    }
+    this.fields = ImmutableList.copyOf(fields);
+    this.storedFields = ImmutableList.copyOf(storedFields);
+  }
+
+  /**
+   * Returns the codec for messages of type {@code clazz}.
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends Message> MongoCodec<T> of(Class<T> clazz) throws DatabaseSchemaException {
+    return (MongoCodec<T>) get(Database.getDefaultInstance(clazz));
+  }
+
+  /**
+   * Returns the codec for messages of the same type as {@code message}.
+   */
+  @SuppressWarnings("unchecked")
+  static <T extends Message> MongoCodec<T> of(T message) throws DatabaseSchemaException {
+    return (MongoCodec<T>) get(message.getDefaultInstanceForType());
+  }
+
+  private static MongoCodec<?> get(Message defaultInstance) throws DatabaseSchemaException {
+    Descriptor descriptor = defaultInstance.getDescriptorForType();
+    MongoCodec<?> codec = CODECS.get(descriptor);
+    if (codec == null) {
+      codec = new MongoCodec<Message>(defaultInstance);
+      MongoCodec<?> existingCodec = CODECS.putIfAbsent(descriptor, codec);
+      if (existingCodec != null) {
+        codec = existingCodec;
+      }
+    }
+    return codec;
+  }
+
+  public List<T> fromDBList(BasicBSONList list) throws DatabaseSchemaException {
+    List<T> messageList = Lists.newArrayListWithCapacity(list.size());
+    for (int i = 0; i < list.size(); i++) {
+      messageList.add(fromDBObject((BasicBSONObject) list.get(i)));
+    }
+    return messageList;
+  }
+
+  public List<T> fromCursor(DBCursor cursor) throws DatabaseSchemaException {
+    return fromCursor(cursor, null);
+  }
+
+  /**
+   * Reads the documents in {@code cursor}, which was queried with
+   * {@code projection}.  Required fields the projection left out aren't
+   * enforced.
+   */
+  public List<T> fromCursor(DBCursor cursor, QueryOption.Projection projection)
+      throws DatabaseSchemaException {
+    List<T> messageList = Lists.newArrayList();
+    while (cursor.hasNext()) {
+      messageList.add(fromDBObject((BasicBSONObject) cursor.next(), projection));
+    }
+    return messageList;
+  }
+
+  public T fromDBObject(BasicBSONObject object) throws DatabaseSchemaException {
+    return fromDBObject(object, null);
+  }
+
+  @SuppressWarnings("unchecked")
+  public T fromDBObject(BasicBSONObject object, QueryOption.Projection projection)
+      throws DatabaseSchemaException {
+    Message.Builder messageBuilder = defaultInstance.newBuilderForType();
+    for (Field field : fields) {
+      // Handle primary keys a little differently - they're stored in "_id".
+      if (field.isPrimaryKey) {
+        ObjectId objectId = object.getObjectId("_id");
+        Asserts.assertNotNull(objectId, "Primary key must be defined",
+            DatabaseSchemaException.class);
+        messageBuilder.setField(field.fieldDescriptor, objectId.toHexString());
+        continue;
+      }
+
+      // Enforce required fields.
+      Object value = object.get(field.name);
+      if (value == null) {
+        Asserts.assertTrue(!field.isRequired
+                || (projection != null && !projection.includes(field.name)),
+            "Required field missing: " + field.fieldDescriptor.getFullName(),
+            DatabaseSchemaException.class);
+        continue;
+      }
+
+      if (field.isRepeated) {
+        BasicDBList list = (BasicDBList) value;
+        for (int i = 0; i < list.size(); i++) {
+          Object listValue = fromDBValue(field, list.get(i));
+          if (listValue != null) {
+            messageBuilder.addRepeatedField(field.fieldDescriptor, listValue);
+          }
+        }
+      } else {
+        Object fieldValue = fromDBValue(field, value);
+        if (fieldValue != null) {
+          messageBuilder.setField(field.fieldDescriptor, fieldValue);
+        }
+      }
+    }
+    return (T) messageBuilder.build();
+  }
+
+  /**
+   * Converts a value from a MongoDB document to what the protocol buffer
+   * builder wants for {@code field}.  Returns null for enum values we don't
+   * know about, e.g. ones written by newer code.
+   */
+  private static Object fromDBValue(Field field, Object value) throws DatabaseSchemaException {
+    switch (field.javaType) {
+      case STRING:
+        return value.toString();
+
+      case LONG:
+        return ((Number) value).longValue();
+
+      case INT:
+        return ((Number) value).intValue();
+
+      case DOUBLE:
+        return ((Number) value).doubleValue();
+
+      case ENUM:
+        return field.enumType.findValueByName(value.toString());
+
+      case BOOLEAN:
+        return (value instanceof Number) ? ((Number) value).intValue() != 0 : (Boolean) value;
+
+      case MESSAGE:
+        return field.getMessageCodec().fromDBObject((BasicBSONObject) value);
+
+      default:
+        throw field.unsupportedType();
+    }
+  }
+
+  public BasicDBObject toDBObject(T message) throws DatabaseSchemaException {
+    BasicDBObject object = new BasicDBObject();
+    for (Field field : storedFields) {
+      if (field.isRepeated) {
+        List<?> values = (List<?>) message.getField(field.fieldDescriptor);
+        if (values.isEmpty()) {
+          continue;
+        }
+        BasicDBList list = new BasicDBList();
+        for (Object value : values) {
+          list.add(toDBValue(field, value));
+        }
+        object.put(field.name, list);
+
+      } else if (message.hasField(field.fieldDescriptor)) {
+        if (field.isPrimaryKey) {
+          object.put("_id", new ObjectId((String) message.getField(field.fieldDescriptor)));
+          continue;
+        }
+        object.put(field.name, toDBValue(field, message.getField(field.fieldDescriptor)));
+      }
+    }
+    return object;
+  }
+
+  private static Object toDBValue(Field field, Object value) throws DatabaseSchemaException {
+    switch (field.javaType) {
+      case STRING:
+      case LONG:
+      case INT:
+      case DOUBLE:
+      case BOOLEAN:
+        return value;
+
+      case ENUM:
+        return ((EnumValueDescriptor) value).getName();
+
+      case MESSAGE:
+        return field.getMessageCodec().toDBObject((Message) value);
+
+      default:
+        throw field.unsupportedType();
+    }
+  }
+}
@@ -54,12 +54,14 @@ import com.mongodb.WriteResult;
 public class MongoCollection<T extends Message> extends Collection<T> {
   private static final Logger LOG = new Logger(MongoCollection.class);
   private final Set<String> primaryKeyFields;
+  private final MongoCodec<T> codec;
   private MongoClient __clientInternal = null; // DO NOT USE DIRECTLY!!
   private DB __database = null; // DO NOT USE DIRECTLY!!
 
   protected MongoCollection(Class<T> clazz) throws DatabaseSchemaException {
     super(clazz);
     primaryKeyFields = getPrimaryKeyFields(storageMethodMap.keySet());
+    codec = MongoCodec.of(clazz);
   }
 
   protected synchronized MongoClient getClient() throws DatabaseSchemaException {
@@ -356,6 +358,33 @@ public class MongoCollection<T extends Message> extends Collection<T> {
     return dbObject;
   }
 
+  /**
+   * Returns the MongoDB projection document for the passed query's projection
+   * and FirstValues options.  An empty document reads everything.
+   */
+  private BasicDBObject getProjectionObject(
+      QueryOption.Projection projection, QueryOption[] options) {
+    BasicDBObject dbObject = new BasicDBObject();
+    if (projection != null) {
+      // The primary key is stored in _id, which we always want back.
+      int value = (projection instanceof QueryOption.Fields) ? 1 : 0;
+      if (value == 1) {
+        dbObject.put("_id", 1);
+      }
+      for (String fieldName : projection.getFieldNames()) {
+        if (!fieldName.equals(primaryKeyField)) {
+          dbObject.put(fieldName, value);
+        }
+      }
+    }
+    for (QueryOption.FirstValues firstValues :
+        QueryOption.getList(options, QueryOption.FirstValues.class)) {
+      dbObject.put(firstValues.getFieldName(),
+          new BasicDBObject("$slice", firstValues.getCount()));
+    }
+    return dbObject;
+  }
+
   @Override
   public Iterable<T> get(QueryOption... options) throws DatabaseSchemaException {
     if (QueryOption.isWhereClauseEmpty(options)) {
@@ -364,9 +393,12 @@ public class MongoCollection<T extends Message> extends Collection<T> {
 
     DBCursor cursor = null;
     try {
+      QueryOption.Projection projection = getProjection(options);
       BasicDBObject query = getQueryObject(options);
       BasicDBObject sort = getSortObject(options);
-      cursor = getDatabase().getCollection(this.getTableName()).find(query).sort(sort);
+      cursor = getDatabase().getCollection(this.getTableName())
+          .find(query, getProjectionObject(projection, options))
+          .sort(sort);
 
       List<QueryOption.Limit> queryOptionList = QueryOption.getList(options, QueryOption.Limit.class);
       if (queryOptionList.size() > 1) {
@@ -380,7 +412,7 @@ public class MongoCollection<T extends Message> extends Collection<T> {
         }
       }
 
-      return Mongoizer.fromCursor(cursor, this.clazz);
+      return codec.fromCursor(cursor, projection);
 
     } finally {
       IOUtils.closeQuietly(cursor);
@@ -405,7 +437,7 @@ public class MongoCollection<T extends Message> extends Collection<T> {
       for (T t : get(options)) {
         try {
           rows += getDatabase().getCollection(this.getTableName())
-              .remove(Mongoizer.toDBObject(t))
+              .remove(codec.toDBObject(t))
               .getN();
         } catch (DatabaseSchemaException e) {
           LOG.warning(e.getMessage());
@@ -451,7 +483,7 @@ public class MongoCollection<T extends Message> extends Collection<T> {
       LOG.fine("Update: " + clazz.getSimpleName() + " (id=" + primaryKey + ")");
       queryDbObject.put("_id", new ObjectId(primaryKey));
       rows += getDatabase().getCollection(this.getTableName())
-          .update(queryDbObject, Mongoizer.toDBObject(t))
+          .update(queryDbObject, codec.toDBObject(t))
           .getN();
     }
     return rows;
@@ -526,6 +558,43 @@ public class MongoCollection<T extends Message> extends Collection<T> {
     }
   }
 
+  @Override
+  public void replaceOrPush(T message, String fieldName, String keyFieldName, Message value)
+      throws DatabaseSchemaException, DatabaseRequestException {
+    String classAndField = message.getClass().getSimpleName() + "." + fieldName;
+    Collection.validateType(Database.getFieldDescriptor(message.getClass(), fieldName),
+        ImmutableList.of(value));
+    BasicDBObject valueDbObject = Mongoizer.toDBObject(Validator.assertValid(value));
+    Object key = valueDbObject.get(keyFieldName);
+    DBCollection dbCollection = getDatabase().getCollection(this.getTableName());
+
+    // Replace the element in place if it's there.  Otherwise, push it - but
+    // only if nobody else pushed one for this key in the meantime.  If they
+    // did, go around again and replace theirs.  Each update is atomic, so the
+    // array never gets two elements with the same key.
+    for (int i = 0; i < 3; i++) {
+      BasicDBObject replaceQuery = getQueryObject(
+          new WhereEquals("_id", Database.getPrimaryKey(message)));
+      replaceQuery.put(fieldName + "." + keyFieldName, key);
+      if (dbCollection.update(replaceQuery,
+              new BasicDBObject("$set", new BasicDBObject(fieldName + ".$", valueDbObject)))
+          .getN() > 0) {
+        return;
+      }
+
+      BasicDBObject pushQuery = getQueryObject(
+          new WhereEquals("_id", Database.getPrimaryKey(message)));
+      pushQuery.put(fieldName + "." + keyFieldName, new BasicDBObject("$ne", key));
+      if (dbCollection.update(pushQuery,
+              new BasicDBObject("$push", new BasicDBObject(fieldName, valueDbObject)))
+          .getN() > 0) {
+        return;
+      }
+    }
+    throw new DatabaseSchemaException("Object not found: " + classAndField
+        + " (id=" + Database.getPrimaryKey(message) + ")");
+  }
+
   /**
    * Returns the number of documents in this collection that match the passed
    * QueryOptions.
@@ -4,16 +4,9 @@ import java.util.List;
 
 import org.bson.BasicBSONObject;
 import org.bson.types.BasicBSONList;
-import org.bson.types.ObjectId;
 
 import com.google.common.collect.Lists;
-import com.google.protobuf.Descriptors.EnumValueDescriptor;
-import com.google.protobuf.Descriptors.FieldDescriptor;
-import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
 import com.google.protobuf.Message;
-import com.janknspank.common.Asserts;
-import com.janknspank.database.ExtensionsProto.Required;
-import com.janknspank.database.ExtensionsProto.StorageMethod;
 import com.mongodb.BasicDBList;
 import com.mongodb.BasicDBObject;
 import com.mongodb.DBCursor;
@@ -21,241 +14,38 @@ import com.mongodb.DBObject;
 
 /**
  * Converts protocol buffer objects to MongoDB documents, and vice versa.
+ * The real work's done by a MongoCodec for each message type, which works
+ * out how to handle each field once, rather than for every document.
  */
 public class Mongoizer {
   public static <T extends Message> List<T> fromDBList(BasicBSONList list, Class<T> clazz)
       throws DatabaseSchemaException {
-    List<T> messageList = Lists.newArrayList();
-    for (int i = 0; i < list.size(); i++) {
-      messageList.add(fromDBObject((BasicBSONObject) list.get(i), clazz));
-    }
-    return messageList;
+    return MongoCodec.of(clazz).fromDBList(list);
   }
 
   public static <T extends Message> List<T> fromCursor(DBCursor cursor, Class<T> clazz)
       throws DatabaseSchemaException {
-    List<T> messageList = Lists.newArrayList();
-    while (cursor.hasNext()) {
-      messageList.add(fromDBObject((BasicBSONObject) cursor.next(), clazz));
-    }
-    return messageList;
+    return MongoCodec.of(clazz).fromCursor(cursor);
   }
 
-  @SuppressWarnings("unchecked")
   public static <T extends Message> T fromDBObject(BasicBSONObject object, Class<T> clazz)
       throws DatabaseSchemaException {
-    T defaultInstance = (T) Database.getDefaultInstance(clazz);
-    T.Builder messageBuilder = defaultInstance.newBuilderForType();
-    for (FieldDescriptor fieldDescriptor : defaultInstance.getDescriptorForType().getFields()) {
-      String fieldName = fieldDescriptor.getName();
-      JavaType javaType = fieldDescriptor.getJavaType();
-
-      // Handle primary keys a little differently - they're stored in "_id".
-      StorageMethod storageMethod =
-          fieldDescriptor.getOptions().getExtension(ExtensionsProto.storageMethod);
-      if (storageMethod == StorageMethod.PRIMARY_KEY) {
-        Asserts.assertTrue(javaType == JavaType.STRING, "Primary key must be a string",
-            DatabaseSchemaException.class);
-        ObjectId objectId = object.getObjectId("_id");
-        Asserts.assertNotNull(objectId, "Primary key must be defined",
-            DatabaseSchemaException.class);
-        messageBuilder.setField(fieldDescriptor, objectId.toHexString());
-        continue;
-      }
-
-      // Enforce required fields.
-      if (!object.containsField(fieldName)) {
-        Required required = fieldDescriptor.getOptions().getExtension(ExtensionsProto.required);
-        Asserts.assertTrue(required != Required.YES,
-            "Required field missing: " + fieldDescriptor.getFullName(),
-            DatabaseSchemaException.class);
-        continue;
-      }
-
-      if (fieldDescriptor.isRepeated()) {
-        BasicDBList list = (BasicDBList) object.get(fieldName);
-
-        if (javaType == JavaType.MESSAGE) {
-          Message.Builder embeddedMessageBuilder =
-              messageBuilder.newBuilderForField(fieldDescriptor);
-          Class<T> type = (Class<T>) embeddedMessageBuilder.getDefaultInstanceForType().getClass();
-          for (T t : fromDBList(list, type)) {
-            messageBuilder.addRepeatedField(fieldDescriptor, t);
-          }
-          continue;
-        }
-
-        for (int i = 0; i < list.size(); i++) {
-          switch (javaType) {
-            case STRING:
-              messageBuilder.addRepeatedField(fieldDescriptor, (String) list.get(i));
-              break;
-
-            case LONG:
-              messageBuilder.addRepeatedField(fieldDescriptor, (Long) list.get(i));
-              break;
-
-            case INT:
-              messageBuilder.addRepeatedField(fieldDescriptor, (Integer) list.get(i));
-              break;
-
-            case DOUBLE:
-              messageBuilder.addRepeatedField(fieldDescriptor, (Double) list.get(i));
-              break;
-
-            case ENUM:
-              EnumValueDescriptor value =
-                  fieldDescriptor.getEnumType().findValueByName((String) list.get(i));
-              if (value != null) {
-                messageBuilder.addRepeatedField(fieldDescriptor, value);
-              }
-              break;
-
-            case BOOLEAN:
-              messageBuilder.addRepeatedField(fieldDescriptor, (Boolean) list.get(i));
-              break;
-
-            default:
-              throw new DatabaseSchemaException(
-                  "Unsupported type: " + fieldDescriptor.getJavaType().name());
-          }
-        }
-        object.put(fieldName, list);
-      } else {
-        switch (javaType) {
-          case STRING:
-            messageBuilder.setField(fieldDescriptor, object.getString(fieldName));
-            break;
-
-          case LONG:
-            messageBuilder.setField(fieldDescriptor, object.getLong(fieldName));
-            break;
-
-          case INT:
-            messageBuilder.setField(fieldDescriptor, object.getInt(fieldName));
-            break;
-
-          case DOUBLE:
-            messageBuilder.setField(fieldDescriptor, object.getDouble(fieldName));
-            break;
-
-          case ENUM:
-            EnumValueDescriptor value =
-                fieldDescriptor.getEnumType().findValueByName(object.getString(fieldName));
-            if (value != null) {
-              messageBuilder.setField(fieldDescriptor, value);
-            } else {
-              messageBuilder.clearField(fieldDescriptor);
-            }
-            break;
-
-          case BOOLEAN:
-            messageBuilder.setField(fieldDescriptor, object.getBoolean(fieldName));
-            break;
-
-          case MESSAGE:
-            Message.Builder embeddedMessageBuilder =
-                messageBuilder.newBuilderForField(fieldDescriptor);
-            Class<T> type = (Class<T>) embeddedMessageBuilder.getDefaultInstanceForType().getClass();
-            messageBuilder.setField(fieldDescriptor,
-                fromDBObject((BasicBSONObject) object.get(fieldName), type));
-            break;
-
-          default:
-            throw new DatabaseSchemaException(
-                "Unsupported type: " + fieldDescriptor.getJavaType().name());
-        }
-      }
-    }
-    return (T) messageBuilder.build();
+    return MongoCodec.of(clazz).fromDBObject(object);
   }
 
   public static <T extends Message> List<DBObject> toDBObjectList(Iterable<T> messages)
       throws DatabaseSchemaException, DatabaseRequestException {
     List<DBObject> list = Lists.newArrayList();
-    for (Message message : messages) {
+    for (T message : messages) {
       Validator.assertValid(message);
-      list.add(toDBObject(message));
+      list.add(MongoCodec.of(message).toDBObject(message));
     }
     return list;
   }
 
-  public static BasicDBObject toDBObject(Message message) throws DatabaseSchemaException {
-    BasicDBObject object = new BasicDBObject();
-    for (FieldDescriptor fieldDescriptor : message.getDescriptorForType().getFields()) {
-      StorageMethod storageMethod =
-          fieldDescriptor.getOptions().getExtension(ExtensionsProto.storageMethod);
-      if (storageMethod == StorageMethod.DO_NOT_STORE) {
-        continue;
-      }
-
-      String fieldName = fieldDescriptor.getName();
-      JavaType javaType = fieldDescriptor.getJavaType();
-      if (fieldDescriptor.isRepeated()) {
-        if (message.getRepeatedFieldCount(fieldDescriptor) == 0) {
-          continue;
-        }
-        BasicDBList list = new BasicDBList();
-        for (int i = 0; i < message.getRepeatedFieldCount(fieldDescriptor); i++) {
-          switch (javaType) {
-            case STRING:
-            case LONG:
-            case INT:
-            case DOUBLE:
-            case BOOLEAN:
-              list.add(message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            case ENUM:
-              EnumValueDescriptor v =
-                  (EnumValueDescriptor) message.getRepeatedField(fieldDescriptor, i);
-              list.add(v.getName());
-              break;
-
-            case MESSAGE:
-              list.add(toDBObject((Message) message.getRepeatedField(fieldDescriptor, i)));
-              break;
-
-            default:
-              throw new DatabaseSchemaException(
-                  "Unsupported type: " + fieldDescriptor.getJavaType().name());
-          }
-        }
-        object.put(fieldName, list);
-
-      } else if (message.hasField(fieldDescriptor)) {
-        if (storageMethod == StorageMethod.PRIMARY_KEY) {
-          Asserts.assertTrue(javaType == JavaType.STRING, "Primary key must be a string",
-              DatabaseSchemaException.class);
-          object.put("_id", new ObjectId(((String) message.getField(fieldDescriptor))));
-          continue;
-        }
-
-        switch (javaType) {
-          case STRING:
-          case LONG:
-          case INT:
-          case DOUBLE:
-          case BOOLEAN:
-            object.put(fieldName, message.getField(fieldDescriptor));
-            break;
-
-          case ENUM:
-            EnumValueDescriptor v = (EnumValueDescriptor) message.getField(fieldDescriptor);
-            object.put(fieldName, v.getName());
-            break;
-
-          case MESSAGE:
-            object.put(fieldName, toDBObject((Message) message.getField(fieldDescriptor)));
-            break;
-
-          default:
-            throw new DatabaseSchemaException(
-                "Unsupported type: " + fieldDescriptor.getJavaType().name());
-        }
-      }
-    }
-    return object;
+  public static <T extends Message> BasicDBObject toDBObject(T message)
+      throws DatabaseSchemaException {
+    return MongoCodec.of(message).toDBObject(message);
   }
 
   public static <U extends Object> BasicDBList toDBList(Iterable<U> list)
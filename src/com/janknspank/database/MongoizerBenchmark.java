@@ -0,0 +1,238 @@
+package com.janknspank.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.bson.BasicBSONObject;
+import org.bson.types.ObjectId;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.google.protobuf.Message;
+import com.janknspank.database.ExtensionsProto.StorageMethod;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.ArticleFeature;
+import com.janknspank.proto.ArticleProto.ArticleKeyword;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.mongodb.BasicDBList;
+import com.mongodb.BasicDBObject;
+
+/**
+ * Compares converting Articles to and from MongoDB documents with MongoCodec
+ * versus walking each message's descriptor and reflecting on its type for
+ * every document, as Mongoizer used to.  Also verifies that both give the same
+ * results.  No database connection is needed.
+ *
+ * Usage:
+ * java com.janknspank.database.MongoizerBenchmark [testdata directory] [passes]
+ */
+public class MongoizerBenchmark {
+  private static List<Article> readArticles(File directory) throws IOException {
+    List<Article> articles = Lists.newArrayList();
+    int id = 0;
+    for (File file : directory.listFiles()) {
+      if (!file.getName().endsWith(".html")) {
+        continue;
+      }
+      Document document = Jsoup.parse(file, "UTF-8");
+      Article.Builder articleBuilder = Article.newBuilder()
+          .setUrlId(String.format("%024x", ++id))
+          .setUrl("http://www.example.com/" + file.getName())
+          .setTitle(document.title())
+          .setType("article")
+          .setDescription(document.title())
+          .setPublishedTime(System.currentTimeMillis())
+          .setCrawlTime(System.currentTimeMillis())
+          .setWordCount(document.text().split(" ").length);
+      for (Element paragraphEl : document.select("p")) {
+        if (paragraphEl.text().length() > 0) {
+          articleBuilder.addParagraph(paragraphEl.text());
+        }
+      }
+      for (String word : document.title().split(" ")) {
+        articleBuilder.addKeyword(ArticleKeyword.newBuilder()
+            .setKeyword(word)
+            .setStrength(word.length())
+            .setType("o")
+            .setSource(ArticleKeyword.Source.NLP));
+      }
+      for (int featureId = 1; featureId < 50; featureId++) {
+        articleBuilder.addFeature(ArticleFeature.newBuilder()
+            .setFeatureId(featureId)
+            .setSimilarity(1.0 / featureId));
+      }
+      for (int i = 0; i < 5; i++) {
+        articleBuilder.addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(SocialEngagement.Site.FACEBOOK)
+            .setShareCount(100 * i)
+            .setShareScore(0.1 * i)
+            .setLikeCount(10 * i)
+            .setCommentCount(i)
+            .setCreateTime(System.currentTimeMillis()));
+      }
+      articles.add(articleBuilder.build());
+    }
+    return articles;
+  }
+
+  /**
+   * The way Mongoizer.fromDBObject used to work.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends Message> T fromDBObjectByDescriptorWalk(
+      BasicBSONObject object, Class<T> clazz) {
+    T defaultInstance = (T) Database.getDefaultInstance(clazz);
+    Message.Builder messageBuilder = defaultInstance.newBuilderForType();
+    for (FieldDescriptor fieldDescriptor : defaultInstance.getDescriptorForType().getFields()) {
+      String fieldName = fieldDescriptor.getName();
+      if (fieldDescriptor.getOptions().getExtension(ExtensionsProto.storageMethod)
+          == StorageMethod.PRIMARY_KEY) {
+        messageBuilder.setField(fieldDescriptor, object.getObjectId("_id").toHexString());
+        continue;
+      }
+      if (!object.containsField(fieldName)) {
+        continue;
+      }
+      if (fieldDescriptor.isRepeated()) {
+        BasicDBList list = (BasicDBList) object.get(fieldName);
+        for (int i = 0; i < list.size(); i++) {
+          messageBuilder.addRepeatedField(fieldDescriptor,
+              fromDBValueByDescriptorWalk(messageBuilder, fieldDescriptor, list.get(i)));
+        }
+      } else {
+        messageBuilder.setField(fieldDescriptor,
+            fromDBValueByDescriptorWalk(messageBuilder, fieldDescriptor, object.get(fieldName)));
+      }
+    }
+    return (T) messageBuilder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object fromDBValueByDescriptorWalk(
+      Message.Builder messageBuilder, FieldDescriptor fieldDescriptor, Object value) {
+    switch (fieldDescriptor.getJavaType()) {
+      case ENUM:
+        return fieldDescriptor.getEnumType().findValueByName((String) value);
+      case MESSAGE:
+        Class<Message> type = (Class<Message>)
+            messageBuilder.newBuilderForField(fieldDescriptor).getDefaultInstanceForType()
+                .getClass();
+        return fromDBObjectByDescriptorWalk((BasicBSONObject) value, type);
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * The way Mongoizer.toDBObject used to work.
+   */
+  private static BasicDBObject toDBObjectByDescriptorWalk(Message message) {
+    BasicDBObject object = new BasicDBObject();
+    for (FieldDescriptor fieldDescriptor : message.getDescriptorForType().getFields()) {
+      StorageMethod storageMethod =
+          fieldDescriptor.getOptions().getExtension(ExtensionsProto.storageMethod);
+      if (storageMethod == StorageMethod.DO_NOT_STORE) {
+        continue;
+      }
+      String fieldName = fieldDescriptor.getName();
+      if (fieldDescriptor.isRepeated()) {
+        if (message.getRepeatedFieldCount(fieldDescriptor) == 0) {
+          continue;
+        }
+        BasicDBList list = new BasicDBList();
+        for (int i = 0; i < message.getRepeatedFieldCount(fieldDescriptor); i++) {
+          list.add(toDBValueByDescriptorWalk(
+              fieldDescriptor, message.getRepeatedField(fieldDescriptor, i)));
+        }
+        object.put(fieldName, list);
+      } else if (message.hasField(fieldDescriptor)) {
+        if (storageMethod == StorageMethod.PRIMARY_KEY) {
+          object.put("_id", new ObjectId(((String) message.getField(fieldDescriptor))));
+          continue;
+        }
+        object.put(fieldName,
+            toDBValueByDescriptorWalk(fieldDescriptor, message.getField(fieldDescriptor)));
+      }
+    }
+    return object;
+  }
+
+  private static Object toDBValueByDescriptorWalk(FieldDescriptor fieldDescriptor, Object value) {
+    if (fieldDescriptor.getJavaType() == JavaType.ENUM) {
+      return ((EnumValueDescriptor) value).getName();
+    } else if (fieldDescriptor.getJavaType() == JavaType.MESSAGE) {
+      return toDBObjectByDescriptorWalk((Message) value);
+    }
+    return value;
+  }
+
+  private static double toRate(int count, long startTime) {
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return count / elapsedSeconds;
+  }
+
+  /**
+   * Returns articles per second encoded and decoded by walking descriptors.
+   */
+  private static double runDescriptorWalk(List<Article> articles, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Article article : articles) {
+        fromDBObjectByDescriptorWalk(toDBObjectByDescriptorWalk(article), Article.class);
+      }
+    }
+    return toRate(articles.size() * passes, startTime);
+  }
+
+  /**
+   * Returns articles per second encoded and decoded by MongoCodec.
+   */
+  private static double runCodec(MongoCodec<Article> codec, List<Article> articles, int passes)
+      throws DatabaseSchemaException {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Article article : articles) {
+        codec.fromDBObject(codec.toDBObject(article));
+      }
+    }
+    return toRate(articles.size() * passes, startTime);
+  }
+
+  public static void main(String args[]) throws Exception {
+    File directory = new File(args.length > 0 ? args[0] : "testdata");
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    List<Article> articles = readArticles(directory);
+    if (articles.isEmpty()) {
+      throw new IllegalStateException("No .html files found in " + directory);
+    }
+
+    MongoCodec<Article> codec = MongoCodec.of(Article.class);
+    for (Article article : articles) {
+      BasicDBObject expectedObject = toDBObjectByDescriptorWalk(article);
+      BasicDBObject object = codec.toDBObject(article);
+      if (!expectedObject.equals(object)) {
+        throw new IllegalStateException("Document mismatch for " + article.getUrl());
+      }
+      if (!fromDBObjectByDescriptorWalk(object, Article.class).equals(codec.fromDBObject(object))) {
+        throw new IllegalStateException("Article mismatch for " + article.getUrl());
+      }
+    }
+
+    // Warm up both, so that JIT compilation isn't counted.
+    runDescriptorWalk(articles, Math.max(1, passes / 10));
+    runCodec(codec, articles, Math.max(1, passes / 10));
+
+    System.out.println("Benchmarking " + articles.size() + " articles x " + passes + " passes");
+    double oldRate = runDescriptorWalk(articles, passes);
+    double newRate = runCodec(codec, articles, passes);
+    System.out.println(String.format("Descriptor walk: %10.2f articles/sec", oldRate));
+    System.out.println(String.format("MongoCodec:      %10.2f articles/sec (%.2fx)",
+        newRate, newRate / oldRate));
+  }
+}
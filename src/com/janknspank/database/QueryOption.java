@@ -4,6 +4,7 @@ import java.util.List;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.protobuf.ProtocolMessageEnum;
@@ -311,6 +312,96 @@ public class QueryOption {
     }
   }
 
+  /**
+   * Limits which top-level fields of the matching messages are read from the
+   * database.  Fields that aren't read are left unset on the returned messages,
+   * so only pass messages fetched this way to code that doesn't need the
+   * missing fields - and never write them back!  Use
+   * {@code Collection#hydrate(Iterable, String...)} to fill in missing fields
+   * later, if it turns out they're needed after all.  The primary key is
+   * always read.
+   */
+  public abstract static class Projection extends QueryOption {
+    private final ImmutableSet<String> fieldNames;
+
+    private Projection(String... fieldNames) {
+      this(ImmutableSet.copyOf(fieldNames));
+    }
+
+    private Projection(Iterable<String> fieldNames) {
+      this.fieldNames = ImmutableSet.copyOf(fieldNames);
+    }
+
+    public ImmutableSet<String> getFieldNames() {
+      return fieldNames;
+    }
+
+    /**
+     * Returns whether the top-level field named {@code fieldName} is read by
+     * queries with this projection.
+     */
+    public abstract boolean includes(String fieldName);
+  }
+
+  /**
+   * Reads only the named fields (and the primary key).
+   */
+  public static class Fields extends Projection {
+    public Fields(String... fieldNames) {
+      super(fieldNames);
+    }
+
+    public Fields(Iterable<String> fieldNames) {
+      super(fieldNames);
+    }
+
+    @Override
+    public boolean includes(String fieldName) {
+      return getFieldNames().contains(fieldName);
+    }
+  }
+
+  /**
+   * Reads all fields except the named ones.
+   */
+  public static class Exclude extends Projection {
+    public Exclude(String... fieldNames) {
+      super(fieldNames);
+    }
+
+    public Exclude(Iterable<String> fieldNames) {
+      super(fieldNames);
+    }
+
+    @Override
+    public boolean includes(String fieldName) {
+      return !getFieldNames().contains(fieldName);
+    }
+  }
+
+  /**
+   * Reads only the first {@code count} values of a repeated field.  E.g. for
+   * when we only care about an article's first paragraph.
+   */
+  public static class FirstValues extends QueryOption {
+    private final String fieldName;
+    private final int count;
+
+    public FirstValues(String fieldName, int count) {
+      Preconditions.checkArgument(count > 0);
+      this.fieldName = fieldName;
+      this.count = count;
+    }
+
+    public String getFieldName() {
+      return fieldName;
+    }
+
+    public int getCount() {
+      return count;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   static final <X extends QueryOption> List<X> getList(
       QueryOption[] options, Class<X> queryOption) {
@@ -0,0 +1,157 @@
+package com.janknspank.database;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.protobuf.Descriptors.Descriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.janknspank.database.ExtensionsProto.ClientSerialization;
+
+/**
+ * The fields of a message type that Serializer sends to clients, and how to
+ * serialize each, worked out once per message type.  Reading the
+ * ClientSerialization option off each field's descriptor is surprisingly
+ * expensive, and most of our messages have more server-only fields than
+ * client-visible ones, so this saves us from touching most fields at all.
+ *
+ * Immutable and thread-safe.
+ */
+class SerializationPlan {
+  private static final ConcurrentMap<Descriptor, SerializationPlan> PLANS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * How to serialize each value of a field.
+   */
+  enum ValueType {
+    STRING,
+    LONG_AS_STRING,
+    LONG_AS_NUMBER,
+    INT,
+    DOUBLE,
+    FLOAT,
+    ENUM,
+    MESSAGE,
+    BOOLEAN
+  }
+
+  static class Field {
+    final FieldDescriptor fieldDescriptor;
+    final String name;
+    final boolean isRepeated;
+
+    /**
+     * How to serialize this field's values, or null if it's of a type we
+     * can't serialize, in which case we fail only if it's actually set.
+     */
+    final ValueType valueType;
+
+    /**
+     * The plan for MESSAGE fields' values.  Resolved lazily, since messages
+     * can contain themselves.
+     */
+    private volatile SerializationPlan messagePlan = null;
+
+    private Field(FieldDescriptor fieldDescriptor, ClientSerialization serialization) {
+      this.fieldDescriptor = fieldDescriptor;
+      this.name = fieldDescriptor.getName();
+      this.isRepeated = fieldDescriptor.isRepeated();
+      this.valueType = getValueType(fieldDescriptor, serialization);
+    }
+
+    SerializationPlan getMessagePlan() {
+      SerializationPlan plan = messagePlan;
+      if (plan == null) {
+        plan = SerializationPlan.get(fieldDescriptor.getMessageType());
+        messagePlan = plan;
+      }
+      return plan;
+    }
+  }
+
+  private final List<Field> fields;
+  private final ImmutableSet<String> fieldNames;
+
+  private SerializationPlan(Descriptor descriptor) {
+    List<Field> fields = Lists.newArrayList();
+    ImmutableSet.Builder<String> fieldNames = ImmutableSet.builder();
+    for (FieldDescriptor fieldDescriptor : descriptor.getFields()) {
+      ClientSerialization serialization =
+          fieldDescriptor.getOptions().getExtension(ExtensionsProto.clientSerialization);
+      if (serialization != ClientSerialization.EXCLUDE) {
+        fields.add(new Field(fieldDescriptor, serialization));
+        fieldNames.add(fieldDescriptor.getName());
+      }
+    }
+    this.fields = ImmutableList.copyOf(fields);
+    this.fieldNames = fieldNames.build();
+  }
+
+  /**
+   * Returns the serialization plan for messages of type {@code descriptor}.
+   */
+  static SerializationPlan get(Descriptor descriptor) {
+    SerializationPlan plan = PLANS.get(descriptor);
+    if (plan == null) {
+      plan = new SerializationPlan(descriptor);
+      SerializationPlan existingPlan = PLANS.putIfAbsent(descriptor, plan);
+      if (existingPlan != null) {
+        plan = existingPlan;
+      }
+    }
+    return plan;
+  }
+
+  /**
+   * Returns the fields that should be serialized, in .proto order.
+   */
+  List<Field> getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns the names of the fields that should be serialized.
+   */
+  ImmutableSet<String> getFieldNames() {
+    return fieldNames;
+  }
+
+  private static ValueType getValueType(
+      FieldDescriptor fieldDescriptor, ClientSerialization serialization) {
+    JavaType javaType = fieldDescriptor.getJavaType();
+
+    // Validation.
+    if (serialization == ClientSerialization.INCLUDE_AS_NUMBER &&
+        javaType != JavaType.LONG &&
+        javaType != JavaType.INT) {
+      throw new RuntimeException("Cannot include a <" + javaType.name() + "> type as number");
+    }
+
+    switch (javaType) {
+      case STRING:
+        return ValueType.STRING;
+      case LONG:
+        return (serialization == ClientSerialization.INCLUDE_AS_NUMBER)
+            ? ValueType.LONG_AS_NUMBER : ValueType.LONG_AS_STRING;
+      case INT:
+        return ValueType.INT;
+      case DOUBLE:
+        return ValueType.DOUBLE;
+      case FLOAT:
+        return ValueType.FLOAT;
+      case ENUM:
+        return ValueType.ENUM;
+      case MESSAGE:
+        return ValueType.MESSAGE;
+      case BOOLEAN:
+        return ValueType.BOOLEAN;
+      default:
+        return null;
+    }
+  }
+}
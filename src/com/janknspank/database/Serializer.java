@@ -1,17 +1,23 @@
 package com.janknspank.database;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import com.google.common.collect.ImmutableSet;
+import com.google.protobuf.Descriptors.Descriptor;
 import com.google.protobuf.Descriptors.EnumValueDescriptor;
-import com.google.protobuf.Descriptors.FieldDescriptor;
-import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
 import com.google.protobuf.Message;
-import com.janknspank.database.ExtensionsProto.ClientSerialization;
+import com.janknspank.common.JsonStreamWriter;
+import com.janknspank.database.SerializationPlan.Field;
 
 /**
  * Converts a protocol buffer object to JSON by using the ClientSerialization
- * instructions embedded in the .proto definition's extensions.
+ * instructions embedded in the .proto definition's extensions.  The
+ * instructions are read once per message type, into a SerializationPlan.
  */
 public class Serializer {
   public static <T extends Message> JSONArray toJSON(Iterable<T> messages) {
@@ -23,119 +29,172 @@ public class Serializer {
   }
 
   public static JSONObject toJSON(Message message) {
+    return toJSON(message, SerializationPlan.get(message.getDescriptorForType()));
+  }
+
+  private static JSONObject toJSON(Message message, SerializationPlan plan) {
     JSONObject o = new JSONObject();
-    for (FieldDescriptor fieldDescriptor : message.getDescriptorForType().getFields()) {
-      ClientSerialization serialization =
-          fieldDescriptor.getOptions().getExtension(ExtensionsProto.clientSerialization);
-
-      // Omit unset fields and fields we've been requested to not serialize.
-      if (serialization == ClientSerialization.EXCLUDE ||
-          (fieldDescriptor.isRepeated() && message.getRepeatedFieldCount(fieldDescriptor) == 0) ||
-          (!fieldDescriptor.isRepeated() && !message.hasField(fieldDescriptor))) {
-        continue;
+    for (Field field : plan.getFields()) {
+      // Omit unset fields.  Repeated fields come back as Lists, so we get all
+      // their values with one call, rather than one per value.
+      if (field.isRepeated) {
+        List<?> values = (List<?>) message.getField(field.fieldDescriptor);
+        if (values.isEmpty()) {
+          continue;
+        }
+        JSONArray jsonArray = new JSONArray();
+        for (Object value : values) {
+          jsonArray.put(toJSONValue(field, value));
+        }
+        o.put(field.name, jsonArray);
+      } else if (message.hasField(field.fieldDescriptor)) {
+        o.put(field.name, toJSONValue(field, message.getField(field.fieldDescriptor)));
       }
+    }
+    return o;
+  }
 
-      // Validation.
-      if (serialization == ClientSerialization.INCLUDE_AS_NUMBER &&
-          fieldDescriptor.getJavaType() != JavaType.LONG &&
-          fieldDescriptor.getJavaType() != JavaType.INT) {
-        throw new RuntimeException("Cannot include a <" + fieldDescriptor.getJavaType().name()
-            + "> type as number");
-      }
+  /**
+   * Returns the names of the top-level fields of {@code descriptor}'s message
+   * type that we send to clients.  Useful for reading only those fields from
+   * the database.
+   */
+  public static Set<String> getFieldNames(Descriptor descriptor) {
+    return SerializationPlan.get(descriptor).getFieldNames();
+  }
 
-      String fieldName = fieldDescriptor.getName();
-      if (fieldDescriptor.isRepeated()) {
-        JSONArray jsonArray = new JSONArray();
-        JavaType javaType = fieldDescriptor.getJavaType();
-        for (int i = 0; i < message.getRepeatedFieldCount(fieldDescriptor); i++) {
-          switch (javaType) {
-            case STRING:
-              jsonArray.put((String) message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            case LONG:
-              if (serialization == ClientSerialization.INCLUDE_AS_NUMBER) {
-                jsonArray.put((long) message.getRepeatedField(fieldDescriptor, i));
-              } else {
-                jsonArray.put(Long.toString((long) message.getRepeatedField(fieldDescriptor, i)));
-              }
-              break;
-
-            case INT:
-              jsonArray.put((int) message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            case DOUBLE:
-              jsonArray.put((double) message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            case FLOAT:
-              jsonArray.put((float) message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            case ENUM:
-              EnumValueDescriptor v =
-                  (EnumValueDescriptor) message.getRepeatedField(fieldDescriptor, i);
-              jsonArray.put(v.getName());
-              break;
-
-            case MESSAGE:
-              jsonArray.put(toJSON((Message) message.getRepeatedField(fieldDescriptor, i)));
-              break;
-
-            case BOOLEAN:
-              jsonArray.put((boolean) message.getRepeatedField(fieldDescriptor, i));
-              break;
-
-            default:
-              throw new RuntimeException("Unsupported type: " + fieldDescriptor.getJavaType().name());
-          }
+  private static Object toJSONValue(Field field, Object value) {
+    if (field.valueType == null) {
+      throw new RuntimeException(
+          "Unsupported type: " + field.fieldDescriptor.getJavaType().name());
+    }
+    switch (field.valueType) {
+      case LONG_AS_STRING:
+        return Long.toString((long) value);
+
+      case FLOAT:
+        // org.json has no floats, so these have always been sent as doubles.
+        return (double) (float) value;
+
+      case ENUM:
+        return ((EnumValueDescriptor) value).getName();
+
+      case MESSAGE:
+        return toJSON((Message) value, field.getMessagePlan());
+
+      default:
+        // Strings, ints, longs as numbers, doubles, and booleans all go into
+        // JSON as-is.
+        return value;
+    }
+  }
+
+  /**
+   * Writes {@code messages} as a JSON array, the same as
+   * {@code #toJSON(Iterable)} would produce, but without building the JSON
+   * in memory first.
+   */
+  public static <T extends Message> void write(Iterable<T> messages, JsonStreamWriter writer)
+      throws IOException {
+    writer.beginArray();
+    for (Message message : messages) {
+      write(message, writer);
+    }
+    writer.endArray();
+  }
+
+  /**
+   * Writes {@code message} as a JSON object, the same as
+   * {@code #toJSON(Message)} would produce, but without building the JSON in
+   * memory first.
+   */
+  public static void write(Message message, JsonStreamWriter writer) throws IOException {
+    writer.beginObject();
+    writeFields(message, SerializationPlan.get(message.getDescriptorForType()), writer,
+        ImmutableSet.<String>of());
+    writer.endObject();
+  }
+
+  /**
+   * Writes the serializable fields of {@code message} into the JSON object
+   * that {@code writer} is currently in the middle of, so that callers can
+   * add fields of their own.  Fields named in {@code skipFieldNames} aren't
+   * written, so that callers can replace them without duplicating keys.
+   */
+  public static void writeFields(
+      Message message, JsonStreamWriter writer, Set<String> skipFieldNames) throws IOException {
+    writeFields(message, SerializationPlan.get(message.getDescriptorForType()), writer,
+        skipFieldNames);
+  }
+
+  private static void writeFields(Message message, SerializationPlan plan,
+      JsonStreamWriter writer, Set<String> skipFieldNames) throws IOException {
+    for (Field field : plan.getFields()) {
+      if (!skipFieldNames.isEmpty() && skipFieldNames.contains(field.name)) {
+        continue;
+      }
+      if (field.isRepeated) {
+        List<?> values = (List<?>) message.getField(field.fieldDescriptor);
+        if (values.isEmpty()) {
+          continue;
         }
-        o.put(fieldName, jsonArray);
-      } else {
-        switch (fieldDescriptor.getJavaType()) {
-          case STRING:
-            o.put(fieldName, (String) message.getField(fieldDescriptor));
-            break;
-
-          case LONG:
-            if (serialization == ClientSerialization.INCLUDE_AS_NUMBER) {
-              o.put(fieldName, (long) message.getField(fieldDescriptor));
-            } else {
-              o.put(fieldName, Long.toString((long) message.getField(fieldDescriptor)));
-            }
-            break;
-
-          case INT:
-            o.put(fieldName, (int) message.getField(fieldDescriptor));
-            break;
-
-          case DOUBLE:
-            o.put(fieldName, (double) message.getField(fieldDescriptor));
-            break;
-
-          case FLOAT:
-            o.put(fieldName, (float) message.getField(fieldDescriptor));
-            break;
-
-          case ENUM:
-            EnumValueDescriptor v = (EnumValueDescriptor) message.getField(fieldDescriptor);
-            o.put(fieldName, v.getName());
-            break;
-
-          case MESSAGE:
-            o.put(fieldName, toJSON((Message) message.getField(fieldDescriptor)));
-            break;
-
-          case BOOLEAN:
-            o.put(fieldName, (boolean) message.getField(fieldDescriptor));
-            break;
-
-          default:
-            throw new RuntimeException("Unsupported type: " + fieldDescriptor.getJavaType().name());
+        writer.name(field.name);
+        writer.beginArray();
+        for (Object value : values) {
+          writeValue(field, value, writer);
         }
+        writer.endArray();
+      } else if (message.hasField(field.fieldDescriptor)) {
+        writer.name(field.name);
+        writeValue(field, message.getField(field.fieldDescriptor), writer);
       }
     }
-    return o;
+  }
+
+  private static void writeValue(Field field, Object value, JsonStreamWriter writer)
+      throws IOException {
+    if (field.valueType == null) {
+      throw new RuntimeException(
+          "Unsupported type: " + field.fieldDescriptor.getJavaType().name());
+    }
+    switch (field.valueType) {
+      case STRING:
+        writer.value((String) value);
+        break;
+
+      case LONG_AS_STRING:
+        writer.value(Long.toString((long) value));
+        break;
+
+      case LONG_AS_NUMBER:
+        writer.value((long) value);
+        break;
+
+      case INT:
+        writer.value((int) value);
+        break;
+
+      case DOUBLE:
+        writer.value((double) value);
+        break;
+
+      case FLOAT:
+        writer.value((float) value);
+        break;
+
+      case ENUM:
+        writer.value(((EnumValueDescriptor) value).getName());
+        break;
+
+      case MESSAGE:
+        writer.beginObject();
+        writeFields((Message) value, field.getMessagePlan(), writer, ImmutableSet.<String>of());
+        writer.endObject();
+        break;
+
+      case BOOLEAN:
+        writer.value((boolean) value);
+        break;
+    }
   }
 }
@@ -0,0 +1,230 @@
+package com.janknspank.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.google.common.collect.Lists;
+import com.google.protobuf.Descriptors.EnumValueDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Descriptors.FieldDescriptor.JavaType;
+import com.google.protobuf.Message;
+import com.janknspank.database.ExtensionsProto.ClientSerialization;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.ArticleFeature;
+import com.janknspank.proto.ArticleProto.ArticleKeyword;
+import com.janknspank.proto.CoreProto.Entity;
+import com.janknspank.proto.UserProto.Interest;
+import com.janknspank.proto.UserProto.Interest.InterestSource;
+import com.janknspank.proto.UserProto.Interest.InterestType;
+import com.janknspank.proto.UserProto.User;
+
+/**
+ * Compares Serializer's cached SerializationPlans against walking each
+ * message's descriptor and reading its ClientSerialization options on every
+ * call, as we used to.  Also verifies that both give the same JSON.
+ *
+ * Articles are built from the web pages in testdata.  Users and Entities are
+ * made up, but shaped like real ones.
+ *
+ * Usage:
+ * java com.janknspank.database.SerializerBenchmark [testdata directory] [passes]
+ */
+public class SerializerBenchmark {
+  private static int lastId = 0;
+
+  private static String nextId() {
+    return String.format("%024x", ++lastId);
+  }
+
+  private static List<Message> readArticles(File directory) throws IOException {
+    List<Message> articles = Lists.newArrayList();
+    for (File file : directory.listFiles()) {
+      if (!file.getName().endsWith(".html")) {
+        continue;
+      }
+      Document document = Jsoup.parse(file, "UTF-8");
+      Article.Builder articleBuilder = Article.newBuilder()
+          .setUrlId(nextId())
+          .setUrl("http://www.example.com/" + file.getName())
+          .setTitle(document.title())
+          .setType("article")
+          .setDescription(document.title())
+          .setPublishedTime(System.currentTimeMillis())
+          .setCrawlTime(System.currentTimeMillis())
+          .setWordCount(document.text().split(" ").length);
+      for (Element paragraphEl : document.select("p")) {
+        if (paragraphEl.text().length() > 0) {
+          articleBuilder.addParagraph(paragraphEl.text());
+        }
+      }
+      for (String word : document.title().split(" ")) {
+        articleBuilder.addKeyword(ArticleKeyword.newBuilder()
+            .setKeyword(word)
+            .setStrength(word.length())
+            .setType("o")
+            .setSource(ArticleKeyword.Source.UNKNOWN));
+      }
+      for (int featureId = 1; featureId < 50; featureId++) {
+        articleBuilder.addFeature(ArticleFeature.newBuilder()
+            .setFeatureId(featureId)
+            .setSimilarity(1.0 / featureId));
+      }
+      articles.add(articleBuilder.build());
+    }
+    return articles;
+  }
+
+  private static Entity createEntity(int i) {
+    return Entity.newBuilder()
+        .setId(nextId())
+        .setKeyword("Entity number " + i)
+        .setShortName("Entity " + i)
+        .setType("org")
+        .setSource(Entity.Source.USER)
+        .build();
+  }
+
+  private static List<Message> createEntities(int count) {
+    List<Message> entities = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      entities.add(createEntity(i));
+    }
+    return entities;
+  }
+
+  private static List<Message> createUsers(int count) {
+    List<Message> users = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      User.Builder userBuilder = User.newBuilder()
+          .setId(nextId())
+          .setFirstName("First" + i)
+          .setLastName("Last" + i)
+          .setEmail("user" + i + "@example.com")
+          .setCreateTime(System.currentTimeMillis())
+          .setLastLoginTime(System.currentTimeMillis());
+      for (int j = 0; j < 20; j++) {
+        userBuilder.addInterest(Interest.newBuilder()
+            .setId(nextId())
+            .setType(InterestType.ENTITY)
+            .setSource(InterestSource.USER)
+            .setCreateTime(System.currentTimeMillis())
+            .setEntity(createEntity(j)));
+      }
+      users.add(userBuilder.build());
+    }
+    return users;
+  }
+
+  /**
+   * The way Serializer used to work: Walk every field of every message, and
+   * check its ClientSerialization option, every time.
+   */
+  private static JSONObject toJSONByDescriptorWalk(Message message) {
+    JSONObject o = new JSONObject();
+    for (FieldDescriptor fieldDescriptor : message.getDescriptorForType().getFields()) {
+      ClientSerialization serialization =
+          fieldDescriptor.getOptions().getExtension(ExtensionsProto.clientSerialization);
+      if (serialization == ClientSerialization.EXCLUDE ||
+          (fieldDescriptor.isRepeated() && message.getRepeatedFieldCount(fieldDescriptor) == 0) ||
+          (!fieldDescriptor.isRepeated() && !message.hasField(fieldDescriptor))) {
+        continue;
+      }
+      if (fieldDescriptor.isRepeated()) {
+        JSONArray jsonArray = new JSONArray();
+        for (int i = 0; i < message.getRepeatedFieldCount(fieldDescriptor); i++) {
+          jsonArray.put(toJSONValueByDescriptorWalk(fieldDescriptor, serialization,
+              message.getRepeatedField(fieldDescriptor, i)));
+        }
+        o.put(fieldDescriptor.getName(), jsonArray);
+      } else {
+        o.put(fieldDescriptor.getName(), toJSONValueByDescriptorWalk(fieldDescriptor,
+            serialization, message.getField(fieldDescriptor)));
+      }
+    }
+    return o;
+  }
+
+  private static Object toJSONValueByDescriptorWalk(FieldDescriptor fieldDescriptor,
+      ClientSerialization serialization, Object value) {
+    if (fieldDescriptor.getJavaType() == JavaType.LONG
+        && serialization != ClientSerialization.INCLUDE_AS_NUMBER) {
+      return Long.toString((long) value);
+    } else if (fieldDescriptor.getJavaType() == JavaType.FLOAT) {
+      return (double) (float) value;
+    } else if (fieldDescriptor.getJavaType() == JavaType.ENUM) {
+      return ((EnumValueDescriptor) value).getName();
+    } else if (fieldDescriptor.getJavaType() == JavaType.MESSAGE) {
+      return toJSONByDescriptorWalk((Message) value);
+    }
+    return value;
+  }
+
+  /**
+   * Returns messages per second when walking descriptors.
+   */
+  private static double runDescriptorWalk(List<Message> messages, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Message message : messages) {
+        toJSONByDescriptorWalk(message);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (messages.size() * passes) / elapsedSeconds;
+  }
+
+  /**
+   * Returns messages per second for Serializer.
+   */
+  private static double runSerializer(List<Message> messages, int passes) {
+    long startTime = System.nanoTime();
+    for (int pass = 0; pass < passes; pass++) {
+      for (Message message : messages) {
+        Serializer.toJSON(message);
+      }
+    }
+    double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+    return (messages.size() * passes) / elapsedSeconds;
+  }
+
+  private static void benchmark(String name, List<Message> messages, int passes) {
+    for (Message message : messages) {
+      String expected = toJSONByDescriptorWalk(message).toString();
+      String actual = Serializer.toJSON(message).toString();
+      if (!expected.equals(actual)) {
+        throw new IllegalStateException(
+            "JSON mismatch for " + name + ":\n" + expected + "\nvs\n" + actual);
+      }
+    }
+
+    // Warm up both, so that JIT compilation isn't counted.
+    runDescriptorWalk(messages, Math.max(1, passes / 10));
+    runSerializer(messages, Math.max(1, passes / 10));
+
+    double oldRate = runDescriptorWalk(messages, passes);
+    double newRate = runSerializer(messages, passes);
+    System.out.println(String.format("%-8s descriptor walk: %10.2f/sec, "
+        + "SerializationPlan: %10.2f/sec (%.2fx)", name, oldRate, newRate, newRate / oldRate));
+  }
+
+  public static void main(String args[]) throws Exception {
+    File directory = new File(args.length > 0 ? args[0] : "testdata");
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+    List<Message> articles = readArticles(directory);
+    if (articles.isEmpty()) {
+      throw new IllegalStateException("No .html files found in " + directory);
+    }
+
+    System.out.println("Benchmarking " + passes + " passes");
+    benchmark("Article", articles, passes);
+    benchmark("User", createUsers(articles.size()), passes);
+    benchmark("Entity", createEntities(articles.size()), passes);
+  }
+}
@@ -7,12 +7,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.List;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.ObjectArrays;
@@ -22,6 +24,7 @@ import com.google.protobuf.Message;
 import com.google.protobuf.ProtocolMessageEnum;
 import com.janknspank.common.Asserts;
 import com.janknspank.common.Logger;
+import com.janknspank.common.Metrics;
 import com.janknspank.database.ExtensionsProto.Required;
 import com.janknspank.database.ExtensionsProto.StorageMethod;
 import com.janknspank.database.ExtensionsProto.StringCharset;
@@ -57,37 +60,74 @@ import com.mysql.jdbc.exceptions.jdbc4.MySQLSyntaxErrorException;
 public class SqlCollection<T extends Message> extends Collection<T> {
   private static final Logger LOG = new Logger(SqlCollection.class);
   private static final String PROTO_COLUMN_NAME = "proto";
-  private Connection __connection; // DO NOT USE THIS DIRECTLY!!
 
   public SqlCollection(Class<T> clazz) {
     super(clazz);
   }
 
+  /**
+   * Borrows a connection for a single operation.  Every caller must pass it
+   * to {@code #release(Connection, long)} when it's done, so that it goes
+   * back to the pool.  Connections are never shared between threads.
+   */
   protected Connection getConnection() throws DatabaseSchemaException {
     try {
-      if (__connection == null || __connection.isClosed()) {
-        __connection = SqlConnection.getConnection();
-      }
+      return SqlConnection.getConnection();
     } catch (SQLException e) {
-      throw new DatabaseSchemaException("Could not use connection", e);
+      throw new DatabaseSchemaException("Could not get connection: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns {@code connection} to the pool, and records how long we had it,
+   * starting at {@code borrowedNanos}.
+   */
+  private static void release(Connection connection, long borrowedNanos) {
+    Metrics.getTimer("database.sql.connection_use").record(borrowedNanos);
+    try {
+      connection.close();
+    } catch (SQLException e) {}
+  }
+
+  /**
+   * Closes {@code statement}, if there is one.  For pooled connections, this
+   * puts the statement back in the connection's prepared statement cache.
+   */
+  private static void closeQuietly(Statement statement) {
+    if (statement != null) {
+      try {
+        statement.close();
+      } catch (SQLException e) {}
     }
-    return __connection;
   }
 
   @Override
   public void createTable() throws DatabaseSchemaException {
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     try {
-      getConnection().prepareStatement(getCreateTableSql()).execute();
+      execute(connection, getCreateTableSql());
       for (String statement : getCreateIndexesSql(clazz)) {
-        getConnection().prepareStatement(statement).execute();
+        execute(connection, statement);
       }
     } catch (SQLException e) {
       throw new DatabaseSchemaException(
           "Could not create table " + clazz.getSimpleName() + ": " + e.getMessage(), e);
+    } finally {
+      release(connection, borrowedNanos);
     }
     LOG.info("Table created: " + getTableName());
   }
 
+  private static void execute(Connection connection, String sql) throws SQLException {
+    PreparedStatement statement = connection.prepareStatement(sql);
+    try {
+      statement.execute();
+    } finally {
+      closeQuietly(statement);
+    }
+  }
+
   private String getSqlTypeForField(FieldDescriptor fieldDescriptor)
       throws DatabaseSchemaException {
     switch (fieldDescriptor.getJavaType()) {
@@ -241,7 +281,7 @@ public class SqlCollection<T extends Message> extends Collection<T> {
    * Returns an INSERT INTO statement for inserting the given protocol buffer
    * message into its respective MySQL table.
    */
-  private PreparedStatement getRawInsertStatement(T message)
+  private PreparedStatement getRawInsertStatement(Connection connection, T message)
       throws DatabaseSchemaException, SQLException {
     // Start creating the SQL statement.
     StringBuilder sql = new StringBuilder();
@@ -274,7 +314,7 @@ public class SqlCollection<T extends Message> extends Collection<T> {
     LOG.fine(sql.toString());
 
     // Prepare the statement!
-    return getConnection().prepareStatement(sql.toString());
+    return connection.prepareStatement(sql.toString());
   }
 
   /**
@@ -288,9 +328,11 @@ public class SqlCollection<T extends Message> extends Collection<T> {
     }
 
     T firstMessage = Iterables.getFirst(messages, null);
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     PreparedStatement statement = null;
     try {
-      statement = getRawInsertStatement(firstMessage);
+      statement = getRawInsertStatement(connection, firstMessage);
       for (T message : messages) {
         Validator.assertValid(message);
         Asserts.assertTrue(firstMessage.getClass().equals(message.getClass()),
@@ -304,11 +346,8 @@ public class SqlCollection<T extends Message> extends Collection<T> {
       throw new DatabaseSchemaException(
           "Could not insert " + getTableName() + ": " + e.getMessage(), e);
     } finally {
-      if (statement != null) {
-        try {
-          statement.close();
-        } catch (SQLException e) {}
-      }
+      closeQuietly(statement);
+      release(connection, borrowedNanos);
     }
   }
 
@@ -337,7 +376,8 @@ public class SqlCollection<T extends Message> extends Collection<T> {
    * Returns an UPDATE statement for updating the given protocol buffer message
    * in its respective MySQL table.
    */
-  private PreparedStatement getRawUpdateStatement(WhereOption... whereOptions)
+  private PreparedStatement getRawUpdateStatement(
+      Connection connection, WhereOption... whereOptions)
       throws DatabaseSchemaException, SQLException {
     // Start creating the SQL statement.
     StringBuilder sql = new StringBuilder();
@@ -358,7 +398,7 @@ public class SqlCollection<T extends Message> extends Collection<T> {
 
     LOG.fine(sql.toString());
 
-    return getConnection().prepareStatement(sql.toString());
+    return connection.prepareStatement(sql.toString());
   }
 
   /**
@@ -384,9 +424,11 @@ public class SqlCollection<T extends Message> extends Collection<T> {
         whereOptions);
 
     int columnCount = getColumnCount();
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     PreparedStatement statement = null;
     try {
-      statement = getRawUpdateStatement(whereOptions);
+      statement = getRawUpdateStatement(connection, whereOptions);
       for (T message : messages) {
         Validator.assertValid(message);
         Asserts.assertTrue(firstMessage.getClass().equals(message.getClass()),
@@ -406,9 +448,8 @@ public class SqlCollection<T extends Message> extends Collection<T> {
       throw new DatabaseSchemaException(
           "Could not insert " + getTableName() + ": " + e.getMessage(), e);
     } finally {
-      try {
-        statement.close();
-      } catch (SQLException e) {}
+      closeQuietly(statement);
+      release(connection, borrowedNanos);
     }
   }
 
@@ -619,30 +660,54 @@ public class SqlCollection<T extends Message> extends Collection<T> {
       return ImmutableList.of();
     }
 
+    QueryOption.Projection projection = getProjection(options);
+    List<QueryOption.FirstValues> firstValuesList =
+        QueryOption.getList(options, QueryOption.FirstValues.class);
+    boolean readProto = projection == null
+        || primaryKeyField == null
+        || !(projection instanceof QueryOption.Fields)
+        || !firstValuesList.isEmpty()
+        || !areAllColumns(projection.getFieldNames());
+
     StringBuilder sql = new StringBuilder();
-    sql.append("SELECT * FROM " + getTableName());
+    if (readProto) {
+      sql.append("SELECT * FROM " + getTableName());
+    } else {
+      // Everything we need is pulled out into its own column, so we can skip
+      // reading and parsing the proto blob entirely.
+      sql.append("SELECT " + Joiner.on(", ").join(
+          ImmutableSet.<String>builder()
+              .add(primaryKeyField)
+              .addAll(projection.getFieldNames())
+              .build())
+          + " FROM " + getTableName());
+    }
     sql.append(getWhereClauseSql(options));
     sql.append(getOrderBySql(options));
     sql.append(getLimitSql(options));
 
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     PreparedStatement statement = null;
     try {
-      statement = getConnection().prepareStatement(sql.toString());
+      statement = connection.prepareStatement(sql.toString());
       int i = 0;
       for (Object whereValue : getWhereValues(options)) {
         setObject(statement, ++i, whereValue);
       }
-      return createListFromResultSet(statement.executeQuery());
+      List<T> messages = Lists.newArrayList();
+      ResultSet result = statement.executeQuery();
+      while (result.next()) {
+        messages.add(createFromCurrentRow(result, readProto, projection, firstValuesList));
+      }
+      return messages;
     } catch (MySQLSyntaxErrorException e) {
       throw new DatabaseSchemaException("Invalid query: " + sql, e);
     } catch (SQLException e) {
       throw new DatabaseSchemaException("Could not execute get: " + e.getMessage(), e);
     } finally {
-      if (statement != null) {
-        try {
-          statement.close();
-        } catch (SQLException e) {}
-      }
+      closeQuietly(statement);
+      release(connection, borrowedNanos);
     }
   }
 
@@ -658,9 +723,11 @@ public class SqlCollection<T extends Message> extends Collection<T> {
     sql.append(getOrderBySql(options));
     sql.append(getLimitSql(options));
 
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     PreparedStatement statement = null;
     try {
-      statement = getConnection().prepareStatement(sql.toString());
+      statement = connection.prepareStatement(sql.toString());
       int i = 0;
       for (Object whereValue : getWhereValues(options)) {
         setObject(statement, ++i, whereValue);
@@ -670,11 +737,8 @@ public class SqlCollection<T extends Message> extends Collection<T> {
       throw new DatabaseSchemaException("Could not execute get: " + e.getMessage()
           + ": " + e.getMessage(), e);
     } finally {
-      if (statement != null) {
-        try {
-          statement.close();
-        } catch (SQLException e) {}
-      }
+      closeQuietly(statement);
+      release(connection, borrowedNanos);
     }
   }
 
@@ -690,6 +754,27 @@ public class SqlCollection<T extends Message> extends Collection<T> {
     return sum;
   }
 
+  /**
+   * Returns true if all the passed fields are stored in their own MySQL
+   * columns, rather than only in the proto blob.
+   */
+  private boolean areAllColumns(Iterable<String> fieldNames) {
+    for (String fieldName : fieldNames) {
+      FieldDescriptor field = Database.getFieldDescriptor(clazz, fieldName);
+      if (!isColumn(storageMethodMap.get(field))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isColumn(StorageMethod storageMethod) {
+    return storageMethod == StorageMethod.PRIMARY_KEY ||
+        storageMethod == StorageMethod.INDEX ||
+        storageMethod == StorageMethod.UNIQUE_INDEX ||
+        storageMethod == StorageMethod.PULL_OUT;
+  }
+
   /**
    * Through reflection, returns a protocol buffer message of the type specified
    * in {@code clazz} using the passed MySQL result set.
@@ -697,64 +782,98 @@ public class SqlCollection<T extends Message> extends Collection<T> {
   public T createFromResultSet(ResultSet result)
       throws SQLException, DatabaseSchemaException {
     if (result.next()) {
-      try {
+      return createFromCurrentRow(
+          result, true, null, ImmutableList.<QueryOption.FirstValues>of());
+    }
+    return null;
+  }
+
+  /**
+   * Returns a message for the row {@code result} is currently on.  If
+   * {@code readProto} is false, only the primary key and the fields in
+   * {@code projection} were selected, and they're all columns.  Fields the
+   * projection leaves out are cleared, even if they were in the proto blob,
+   * so that we return the same thing MongoDB would.
+   */
+  private T createFromCurrentRow(ResultSet result, boolean readProto,
+      QueryOption.Projection projection, List<QueryOption.FirstValues> firstValuesList)
+      throws SQLException, DatabaseSchemaException {
+    try {
+      Message.Builder messageBuilder;
+      if (readProto) {
         Method parseFromMethod = clazz.getMethod("parseFrom", InputStream.class);
 
         @SuppressWarnings("unchecked")
         T maybeStaleMessage = (T) parseFromMethod.invoke(null,
             result.getBlob(PROTO_COLUMN_NAME).getBinaryStream());
-        Message.Builder messageBuilder = maybeStaleMessage.toBuilder();
-
-        // For pulled-out and indexed fields, the proto may have different
-        // values than we've stored in the proto.  In this case, the MySQL
-        // columns win.  Let's make that happen.
-        for (FieldDescriptor field : storageMethodMap.keySet()) {
-          StorageMethod storageMethod = storageMethodMap.get(field);
-          if (storageMethod == StorageMethod.PRIMARY_KEY ||
-              storageMethod == StorageMethod.INDEX ||
-              storageMethod == StorageMethod.UNIQUE_INDEX ||
-              storageMethod == StorageMethod.PULL_OUT) {
-            Object obj = result.getObject(field.getName());
-            if (obj == null) {
-              messageBuilder.clearField(field);
-              continue;
-            }
-            switch (field.getJavaType()) {
-              case STRING:
-                messageBuilder.setField(field, result.getString(field.getName()));
-                break;
-              case LONG:
-                messageBuilder.setField(field, result.getLong(field.getName()));
-                break;
-              case ENUM:
-                EnumValueDescriptor value =
-                    field.getEnumType().findValueByNumber(result.getInt(field.getName()));
-                messageBuilder.setField(field, value);
-                break;
-              case INT:
-                messageBuilder.setField(field, result.getInt(field.getName()));
-                break;
-              case BOOLEAN:
-                messageBuilder.setField(field, result.getBoolean(field.getName()));
-                break;
-              case DOUBLE:
-                messageBuilder.setField(field, result.getDouble(field.getName()));
-                break;
-            }
+        messageBuilder = maybeStaleMessage.toBuilder();
+      } else {
+        messageBuilder = Database.getDefaultInstance(clazz).newBuilderForType();
+      }
+
+      // For pulled-out and indexed fields, the proto may have different
+      // values than we've stored in the proto.  In this case, the MySQL
+      // columns win.  Let's make that happen.
+      for (FieldDescriptor field : storageMethodMap.keySet()) {
+        StorageMethod storageMethod = storageMethodMap.get(field);
+        if (projection != null
+            && storageMethod != StorageMethod.PRIMARY_KEY
+            && !projection.includes(field.getName())) {
+          messageBuilder.clearField(field);
+          continue;
+        }
+        if (isColumn(storageMethod)) {
+          Object obj = result.getObject(field.getName());
+          if (obj == null) {
+            messageBuilder.clearField(field);
+            continue;
+          }
+          switch (field.getJavaType()) {
+            case STRING:
+              messageBuilder.setField(field, result.getString(field.getName()));
+              break;
+            case LONG:
+              messageBuilder.setField(field, result.getLong(field.getName()));
+              break;
+            case ENUM:
+              EnumValueDescriptor value =
+                  field.getEnumType().findValueByNumber(result.getInt(field.getName()));
+              messageBuilder.setField(field, value);
+              break;
+            case INT:
+              messageBuilder.setField(field, result.getInt(field.getName()));
+              break;
+            case BOOLEAN:
+              messageBuilder.setField(field, result.getBoolean(field.getName()));
+              break;
+            case DOUBLE:
+              messageBuilder.setField(field, result.getDouble(field.getName()));
+              break;
           }
         }
+      }
 
-        @SuppressWarnings("unchecked")
-        T message = (T) messageBuilder.build();
+      for (QueryOption.FirstValues firstValues : firstValuesList) {
+        FieldDescriptor field = Database.getFieldDescriptor(clazz, firstValues.getFieldName());
+        List<?> values = (List<?>) messageBuilder.getField(field);
+        if (values.size() > firstValues.getCount()) {
+          messageBuilder.setField(field,
+              ImmutableList.copyOf(values.subList(0, firstValues.getCount())));
+        }
+      }
+
+      @SuppressWarnings("unchecked")
+      T message = (T) messageBuilder.build();
+      if (projection == null) {
+        // Projected messages can be missing required fields, on purpose.
         Validator.assertValid(message);
-        return message;
-      } catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException
-          | InvocationTargetException | DatabaseRequestException e) {
-        throw new DatabaseSchemaException(
-            "Could not create " + clazz.getSimpleName() + " object: " + e.getMessage(), e);
       }
+      return message;
+    } catch (NoSuchMethodException | IllegalAccessException | IllegalArgumentException
+        | InvocationTargetException | DatabaseRequestException e) {
+      throw new DatabaseSchemaException(
+          "Could not create " + clazz.getSimpleName() + " object: " + e.getMessage(), e);
     }
-    return null;
   }
 
   public List<T> createListFromResultSet(ResultSet result) throws DatabaseSchemaException {
@@ -820,16 +939,24 @@ public class SqlCollection<T extends Message> extends Collection<T> {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public void replaceOrPush(T message, String fieldName, String keyFieldName, Message value)
+      throws DatabaseSchemaException, DatabaseRequestException {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Returns the number of rows in this table that match the specified
    * QueryOptions.
    */
   @SuppressWarnings("resource")
   public long getSize(WhereOption... whereOptions) throws DatabaseSchemaException {
+    Connection connection = getConnection();
+    long borrowedNanos = System.nanoTime();
     PreparedStatement statement = null;
     ResultSet results = null;
     try {
-      statement = getConnection().prepareStatement(
+      statement = connection.prepareStatement(
           "SELECT count(*) FROM " + this.getTableName()
               + getWhereClauseSql(whereOptions));
       int i = 0;
@@ -844,13 +971,12 @@ public class SqlCollection<T extends Message> extends Collection<T> {
       throw new DatabaseSchemaException("Could not find collection size: " + e.getMessage(), e);
     } finally {
       try {
-        if (statement != null) {
-          statement.close();
-        }
         if (results != null) {
           results.close();
         }
       } catch (SQLException e) {}
+      closeQuietly(statement);
+      release(connection, borrowedNanos);
     }
     throw new DatabaseSchemaException("Failed to get collection size");
   }
@@ -7,8 +7,28 @@ import java.sql.SQLException;
 import org.apache.commons.dbcp.BasicDataSource;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableList;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Metrics;
 
+/**
+ * The pool of MySQL connections that SqlCollections borrow from.  Every SQL
+ * operation borrows its own connection and returns it (by closing it) when
+ * it's done, so operations on different threads never share a socket.
+ * Prepared statements are cached per connection, so repeated queries don't
+ * need to be re-prepared.
+ *
+ * Pool sizes can be configured with these environment variables:
+ *  - SQL_POOL_MAX_ACTIVE: Max connections borrowed at once (default 20).
+ *  - SQL_POOL_MAX_IDLE: Max connections kept open while idle (default 20).
+ *  - SQL_POOL_MAX_WAIT_MILLIS: How long to wait for a connection when they're
+ *    all borrowed, before failing (default 10000).
+ *  - SQL_POOL_MAX_PREPARED_STATEMENTS: Max cached prepared statements per
+ *    connection (default 100).
+ *
+ * Connection wait times and pool usage are exported through {@code Metrics}.
+ */
 public class SqlConnection {
   // JDBC driver name and database URL
   private static final String JDBC_DRIVER = "com.mysql.jdbc.Driver";
@@ -42,10 +62,52 @@ public class SqlConnection {
     dataSource.setUrl(DB_URL);
     dataSource.setUsername(mysqlUser);
     dataSource.setPassword(mysqlPassword);
+    configurePool(dataSource);
+
+    Metrics.registerGauge("database.sql.pool.active", new Supplier<Integer>() {
+      @Override
+      public Integer get() {
+        return dataSource.getNumActive();
+      }
+    });
+    Metrics.registerGauge("database.sql.pool.idle", new Supplier<Integer>() {
+      @Override
+      public Integer get() {
+        return dataSource.getNumIdle();
+      }
+    });
+  }
+
+  /**
+   * Applies our pool sizes and prepared statement caching to
+   * {@code dataSource}.
+   */
+  private static void configurePool(BasicDataSource dataSource) {
+    int maxActive = Environment.getInt("SQL_POOL_MAX_ACTIVE", 20);
+    dataSource.setMaxActive(maxActive);
+    dataSource.setMaxIdle(Environment.getInt("SQL_POOL_MAX_IDLE", maxActive));
+    dataSource.setMaxWait(Environment.getInt("SQL_POOL_MAX_WAIT_MILLIS", 10000));
+    dataSource.setPoolPreparedStatements(true);
+    dataSource.setMaxOpenPreparedStatements(
+        Environment.getInt("SQL_POOL_MAX_PREPARED_STATEMENTS", 100));
+
+    // MySQL closes connections that have been idle for a while, so make sure
+    // we don't hand out dead ones.
+    dataSource.setValidationQuery("SELECT 1");
+    dataSource.setTestOnBorrow(true);
   }
 
-  static synchronized Connection getConnection() throws SQLException {
-    return dataSource.getConnection();
+  /**
+   * Borrows a connection from the pool.  Callers must close it when they're
+   * done, which returns it to the pool.
+   */
+  static Connection getConnection() throws SQLException {
+    long startNanos = System.nanoTime();
+    try {
+      return dataSource.getConnection();
+    } finally {
+      Metrics.getTimer("database.sql.connection_wait").record(startNanos);
+    }
   }
 
   // Please don't call this.  It won't work when we switch to MongoDB.
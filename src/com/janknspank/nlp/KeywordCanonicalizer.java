@@ -11,10 +11,9 @@ import java.util.regex.Pattern;
 
 import com.google.api.client.util.Lists;
 import com.google.common.base.CharMatcher;
-import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -23,13 +22,10 @@ import com.janknspank.bizness.Entities;
 import com.janknspank.bizness.EntityCache;
 import com.janknspank.bizness.EntityType;
 import com.janknspank.classifier.FeatureId;
-import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
-import com.janknspank.database.QueryOption;
 import com.janknspank.proto.ArticleProto.ArticleFeature;
 import com.janknspank.proto.ArticleProto.ArticleKeyword;
 import com.janknspank.proto.CoreProto.Entity;
-import com.janknspank.proto.CoreProto.KeywordToEntityId;
 
 public class KeywordCanonicalizer {
   private static final Set<String> PERSON_TITLES = Sets.newHashSet(
@@ -45,8 +41,6 @@ public class KeywordCanonicalizer {
   public static final int STRENGTH_FOR_TITLE_MATCH = 150;
   public static final int STRENGTH_FOR_FIRST_PARAGRAPH_MATCH = 100;
 
-  private static Map<String, KeywordToEntityId> __keywordToEntityIdMap = null;
-
   /**
    * Figures out which of the passed keyword strings are better.  Longer
    * keywords are always preferred, but beyond that, we value things like proper
@@ -220,7 +214,7 @@ public class KeywordCanonicalizer {
     // Further canonicalize remaining keywords to a set of Entities, if we can.
     List<ArticleKeyword> finalKeywords = Lists.newArrayList();
     Set<String> entityIdsSoFar = Sets.newHashSet();
-    Map<String, KeywordToEntityId> keywordToEntityIdMap = getKeywordToEntityIdMap();
+    KeywordDictionary keywordDictionary = KeywordDictionary.getInstance();
 
     // Make sure we're dealing with keywords in paragraph-order.  These keywords
     // should already be in proper order, but it doesn't hurt to do it again.
@@ -233,16 +227,32 @@ public class KeywordCanonicalizer {
             articleKeyword1.getParagraphNumber(), articleKeyword2.getParagraphNumber());
       }
     });
+
+    // Read all the Entities we might need at once, rather than one query per
+    // keyword.
+    Set<String> entityIds = Sets.newHashSet();
+    for (ArticleKeyword keyword : keywordList) {
+      String entityId = keywordDictionary.getEntityId(keyword.getKeyword());
+      if (entityId != null) {
+        entityIds.add(entityId);
+      }
+    }
+    Map<String, Entity> entities = Maps.newHashMap();
+    try {
+      entities = EntityCache.getEntities(entityIds);
+    } catch (DatabaseSchemaException e) {
+      e.printStackTrace();
+    }
+
     for (ArticleKeyword keyword : keywordList) {
-      KeywordToEntityId keywordToEntityId =
-          keywordToEntityIdMap.get(keyword.getKeyword().toLowerCase());
-      if (keywordToEntityId != null) {
+      String entityId = keywordDictionary.getEntityId(keyword.getKeyword());
+      if (entityId != null) {
         // Prevent dupes: If we already have canonicalized this keyword to an
         // Entity, we're good... We can stop now :).
-        if (entityIdsSoFar.contains(keywordToEntityId.getEntityId())) {
+        if (entityIdsSoFar.contains(entityId)) {
           continue;
         }
-        entityIdsSoFar.add(keywordToEntityId.getEntityId());
+        entityIdsSoFar.add(entityId);
 
         // Now you can see why keeping the keywords in paragraph order is
         // important: If we didn't, keywords found at the bottom of the article
@@ -258,7 +268,7 @@ public class KeywordCanonicalizer {
         //   strengthAddition += STRENGTH_FOR_FIRST_PARAGRAPH_MATCH;
         // }
 
-        Entity entity = EntityCache.getEntity(keywordToEntityId.getEntityId());
+        Entity entity = entities.get(entityId);
         if (entity != null) {
           finalKeywords.add(keyword.toBuilder()
               .setEntity(entity.toBuilder().clearTopic().build())
@@ -273,101 +283,80 @@ public class KeywordCanonicalizer {
   }
 
   /**
-   * If the passed block represents an entity, it is returned.  Else, the left
-   * side and the right side of the block are recursively checked, to see what
-   * entities we can possibly find anywhere in the block.
-   * NOTE(jonemerson): Yaaa this is expensive, which is why we only do it for
-   * titles and the first paragraph!! :)
-   */
-  public static Iterable<ArticleKeyword> getArticleKeywordsFromTextInternal(
-      String block,
-      int paragraphNumber,
-      Map<String, KeywordToEntityId> keywordToEntityIdMap) {
-    KeywordToEntityId keywordToEntityId = keywordToEntityIdMap.get(block.toLowerCase());
-    if (keywordToEntityId != null) {
-      Entity entity = EntityCache.getEntity(keywordToEntityId.getEntityId());
-      String entityKeyword = entity.hasShortName() ? entity.getShortName() : entity.getKeyword();
-
-      return ImmutableList.of(ArticleKeyword.newBuilder()
-          .setKeyword(entityKeyword)
-          .setStrength((paragraphNumber == 0)
-              ? STRENGTH_FOR_TITLE_MATCH : STRENGTH_FOR_FIRST_PARAGRAPH_MATCH)
-          .setType(entity.getType())
-          .setSource(ArticleKeyword.Source.TITLE)
-          .setEntity(entity)
-          .setParagraphNumber(paragraphNumber)
-          .build());
-    } else if (block.contains(" ")) {
-      return Iterables.concat(
-          getArticleKeywordsFromTextInternal(block.substring(0, block.lastIndexOf(" ")),
-              paragraphNumber, keywordToEntityIdMap),
-              getArticleKeywordsFromTextInternal(block.substring(block.indexOf(" ") + 1),
-              paragraphNumber, keywordToEntityIdMap));
-    } else {
-      return Collections.emptyList();
-    }
-  }
-
-  /**
-   * Does a brute force search through all our keyword entities to try to find
-   * keywords.
+   * Finds all the entities mentioned in the passed text, in the order they're
+   * first mentioned.  Only consecutive capitalized words are considered, and
+   * within each run of them, mentions inside longer ones are usually skipped
+   * (see {@code KeywordDictionary#findEntityIds}).  E.g. "Senator Barbara
+   * Boxer goes to Google" might find the entities for "Barbara Boxer" and
+   * "Google", but not "Boxer".  A keyword whose Entity doesn't exist counts
+   * as no mention at all, so the mentions inside it are still found.
    */
   public static List<ArticleKeyword> getArticleKeywordsFromText(
       String text, int paragraphNumber) {
-    Map<String, KeywordToEntityId> keywordToEntityIdMap = getKeywordToEntityIdMap();
+    KeywordDictionary keywordDictionary = KeywordDictionary.getInstance();
 
     // Find consecutive capitalized words blocks.  E.g. "Senator Barbara Boxer
     // goes to Google" would create [ "Senator Barbara Boxer", "Google" ].
-    List<String> blocks = Lists.newArrayList();
+    List<List<String>> blocks = Lists.newArrayList();
     List<String> blockBuilder = Lists.newArrayList();
     for (String word : text.split("(\\s|\u00A0)")) {
       if (word.isEmpty()) {
         // OK... nothing to do!
       } else if (Character.isUpperCase(word.charAt(0))) {
+        // Words that scrub down to nothing are kept, since they still
+        // separate the words around them into different mentions.
         blockBuilder.add(KeywordUtils.scrubKeyword(word));
       } else {
         if (blockBuilder.size() > 0) {
-          blocks.add(Joiner.on(" ").join(blockBuilder));
-          blockBuilder.clear();
+          blocks.add(blockBuilder);
+          blockBuilder = Lists.newArrayList();
         }
       }
     }
     if (blockBuilder.size() > 0) {
-      blocks.add(Joiner.on(" ").join(blockBuilder));
-      blockBuilder.clear();
+      blocks.add(blockBuilder);
     }
 
-    Map<String, ArticleKeyword> entityIdToKeywordMap = Maps.newHashMap();
-    for (String block : blocks) {
-      for (ArticleKeyword keyword : getArticleKeywordsFromTextInternal(
-          block, paragraphNumber, keywordToEntityIdMap)) {
-        if (!entityIdToKeywordMap.containsKey(keyword.getEntity().getId())) {
-          entityIdToKeywordMap.put(keyword.getEntity().getId(), keyword);
-        }
-      }
+    // Read every Entity the blocks might mention at once, so that we know
+    // which keywords' Entities actually exist before deciding on mentions.
+    Set<String> candidateEntityIds = Sets.newHashSet();
+    for (List<String> block : blocks) {
+      candidateEntityIds.addAll(keywordDictionary.findAllEntityIds(block));
+    }
+    if (candidateEntityIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+    Map<String, Entity> entities;
+    try {
+      entities = EntityCache.getEntities(candidateEntityIds);
+    } catch (DatabaseSchemaException e) {
+      e.printStackTrace();
+      return Collections.emptyList();
     }
-    return ImmutableList.copyOf(entityIdToKeywordMap.values());
-  }
 
-  public static synchronized Map<String, KeywordToEntityId> getKeywordToEntityIdMap() {
-    if (__keywordToEntityIdMap == null) {
-      __keywordToEntityIdMap = Maps.newHashMap();
-      try {
-        System.out.println(
-            "WARNING - SLOW QUERY: KeywordCanonicalizer.getKeywordToEntityIdMap() initialization");
-        for (KeywordToEntityId keywordToEntityId : Database.with(KeywordToEntityId.class).get(
-            new QueryOption.WhereNotNull("entity_id"))) {
-          __keywordToEntityIdMap.put(keywordToEntityId.getKeyword(), keywordToEntityId);
-        }
-      } catch (DatabaseSchemaException e) {
-        throw new Error(e);
-      }
+    Set<String> entityIds = Sets.newLinkedHashSet();
+    for (List<String> block : blocks) {
+      entityIds.addAll(keywordDictionary.findEntityIds(
+          block, Predicates.in(entities.keySet())));
+    }
+
+    List<ArticleKeyword> keywords = Lists.newArrayList();
+    for (String entityId : entityIds) {
+      Entity entity = entities.get(entityId);
+      keywords.add(ArticleKeyword.newBuilder()
+          .setKeyword(entity.hasShortName() ? entity.getShortName() : entity.getKeyword())
+          .setStrength((paragraphNumber == 0)
+              ? STRENGTH_FOR_TITLE_MATCH : STRENGTH_FOR_FIRST_PARAGRAPH_MATCH)
+          .setType(entity.getType())
+          .setSource(ArticleKeyword.Source.TITLE)
+          .setEntity(entity)
+          .setParagraphNumber(paragraphNumber)
+          .build());
     }
-    return __keywordToEntityIdMap;
+    return keywords;
   }
 
   public static String getEntityIdForKeyword(String keyword) {
-    KeywordToEntityId keywordToEntityId = getKeywordToEntityIdMap().get(keyword.toLowerCase());
-    return (keywordToEntityId == null) ? null : keywordToEntityId.getEntityId();
+    return KeywordDictionary.getInstance().getEntityId(keyword);
   }
 }
@@ -0,0 +1,472 @@
+package com.janknspank.nlp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.io.IOUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.janknspank.common.Environment;
+import com.janknspank.common.Logger;
+import com.janknspank.database.Database;
+import com.janknspank.database.DatabaseSchemaException;
+import com.janknspank.database.QueryOption;
+import com.janknspank.proto.CoreProto.KeywordToEntityId;
+
+/**
+ * A compact, read-only map from lowercased keywords to the IDs of the
+ * Entities they refer to, built from the KeywordToEntityId table.
+ *
+ * The dictionary's stored as a single file of sorted entries, which is memory
+ * mapped rather than read onto the heap.  Lookups binary search the entries'
+ * UTF-8 bytes in place, so the only objects created are the entity IDs that
+ * get returned.  Because the entries are sorted, they also work as a trie,
+ * for finding every keyword mentioned in a run of text.  The file is written
+ * by {@code PopulateKeywordToEntityIdTable} whenever it updates the table.
+ *
+ * File format (all numbers big-endian):
+ *  - int: MAGIC
+ *  - int: Number of entries
+ *  - int[number of entries]: Offset of each entry, in keyword order
+ *  - Entries, each: unsigned short keyword length, keyword UTF-8 bytes,
+ *    unsigned byte entity ID length, entity ID UTF-8 bytes.
+ *
+ * Running servers check the file for changes every few minutes, and swap in
+ * the new dictionary when it's replaced.  If there's no file, the dictionary
+ * is built from the database, like we used to do.
+ *
+ * Configured with these environment variables:
+ *  - KEYWORD_DICTIONARY_FILE: Where the dictionary lives (default
+ *    "keywords/keyword_to_entity_id.dict").
+ *  - KEYWORD_DICTIONARY_RELOAD_MINUTES: How often to check the file for
+ *    changes (default 10).
+ *
+ * Instances are immutable and thread-safe.
+ */
+public class KeywordDictionary {
+  private static final Logger LOG = new Logger(KeywordDictionary.class);
+  private static final int MAGIC = 0x4b574431; // "KWD1".
+  private static final int HEADER_SIZE = 8;
+  private static final File DICTIONARY_FILE = new File(
+      System.getenv("KEYWORD_DICTIONARY_FILE") == null
+          ? "keywords/keyword_to_entity_id.dict"
+          : System.getenv("KEYWORD_DICTIONARY_FILE"));
+
+  private static final AtomicReference<KeywordDictionary> INSTANCE = new AtomicReference<>();
+
+  private final ByteBuffer buffer;
+  private final int size;
+  private final long lastModified;
+
+  private KeywordDictionary(ByteBuffer buffer, long lastModified) throws IOException {
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException("Not a keyword dictionary");
+    }
+    this.buffer = buffer;
+    this.size = buffer.getInt(4);
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Returns the current dictionary, loading it if it hasn't been yet.  The
+   * first call can be slow if there's no dictionary file, so servers should
+   * call this before they start taking requests.
+   */
+  public static KeywordDictionary getInstance() {
+    KeywordDictionary dictionary = INSTANCE.get();
+    if (dictionary == null) {
+      dictionary = initialize();
+    }
+    return dictionary;
+  }
+
+  private static synchronized KeywordDictionary initialize() {
+    if (INSTANCE.get() == null) {
+      KeywordDictionary dictionary;
+      try {
+        if (DICTIONARY_FILE.exists()) {
+          dictionary = fromFile(DICTIONARY_FILE);
+        } else {
+          LOG.warning("No keyword dictionary at " + DICTIONARY_FILE + ", reading database");
+          dictionary = fromMap(readKeywordToEntityIdMap());
+        }
+      } catch (IOException | DatabaseSchemaException e) {
+        throw new Error(e);
+      }
+      INSTANCE.set(dictionary);
+      startReloading();
+    }
+    return INSTANCE.get();
+  }
+
+  private static void startReloading() {
+    int reloadMinutes = Environment.getInt("KEYWORD_DICTIONARY_RELOAD_MINUTES", 10);
+    ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat("keyword-dictionary-reload")
+            .setDaemon(true)
+            .build());
+    reloadExecutor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        reloadIfChanged();
+      }
+    }, reloadMinutes, reloadMinutes, TimeUnit.MINUTES);
+  }
+
+  /**
+   * Swaps in the dictionary file if it's changed since we last read it.
+   * Lookups that are already running finish with the old dictionary.
+   */
+  public static void reloadIfChanged() {
+    KeywordDictionary current = INSTANCE.get();
+    if (!DICTIONARY_FILE.exists()
+        || (current != null && DICTIONARY_FILE.lastModified() == current.lastModified)) {
+      return;
+    }
+    try {
+      KeywordDictionary dictionary = fromFile(DICTIONARY_FILE);
+      INSTANCE.set(dictionary);
+      LOG.info("Reloaded keyword dictionary: " + dictionary.size() + " keywords");
+    } catch (IOException e) {
+      LOG.warning("Could not reload keyword dictionary, keeping the old one", e);
+    }
+  }
+
+  /**
+   * Memory maps the dictionary in {@code file}.
+   */
+  public static KeywordDictionary fromFile(File file) throws IOException {
+    RandomAccessFile randomAccessFile = null;
+    try {
+      long lastModified = file.lastModified();
+      randomAccessFile = new RandomAccessFile(file, "r");
+      FileChannel channel = randomAccessFile.getChannel();
+      return new KeywordDictionary(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), lastModified);
+    } finally {
+      IOUtils.closeQuietly(randomAccessFile);
+    }
+  }
+
+  /**
+   * Builds a dictionary on the heap, without a file.
+   */
+  @VisibleForTesting
+  static KeywordDictionary fromMap(Map<String, String> keywordToEntityIdMap) throws IOException {
+    return new KeywordDictionary(ByteBuffer.wrap(toBytes(keywordToEntityIdMap)), 0);
+  }
+
+  /**
+   * Writes a dictionary of {@code keywordToEntityIdMap} to {@code file}.  The
+   * dictionary's written to a temporary file first, then moved into place, so
+   * that servers never see a partially written file.
+   */
+  public static void writeToFile(Map<String, String> keywordToEntityIdMap, File file)
+      throws IOException {
+    File directory = file.getAbsoluteFile().getParentFile();
+    directory.mkdirs();
+    File tempFile = File.createTempFile("keyword_dictionary", ".tmp", directory);
+    FileOutputStream outputStream = null;
+    try {
+      outputStream = new FileOutputStream(tempFile);
+      outputStream.write(toBytes(keywordToEntityIdMap));
+      outputStream.close();
+      Files.move(tempFile.toPath(), file.toPath(),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      IOUtils.closeQuietly(outputStream);
+      tempFile.delete();
+    }
+  }
+
+  /**
+   * Writes the dictionary to the file servers read it from.
+   */
+  public static void writeToFile(Map<String, String> keywordToEntityIdMap) throws IOException {
+    writeToFile(keywordToEntityIdMap, DICTIONARY_FILE);
+  }
+
+  private static byte[] toBytes(Map<String, String> keywordToEntityIdMap) throws IOException {
+    TreeMap<byte[], byte[]> sortedEntries =
+        new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    for (Map.Entry<String, String> entry : keywordToEntityIdMap.entrySet()) {
+      byte[] keywordBytes = entry.getKey().toLowerCase().getBytes(StandardCharsets.UTF_8);
+      byte[] entityIdBytes = entry.getValue().getBytes(StandardCharsets.UTF_8);
+      if (keywordBytes.length > 0xffff || entityIdBytes.length > 0xff) {
+        LOG.warning("Skipping keyword that's too long for the dictionary: " + entry.getKey());
+        continue;
+      }
+      if (!sortedEntries.containsKey(keywordBytes)) {
+        sortedEntries.put(keywordBytes, entityIdBytes);
+      }
+    }
+
+    ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    DataOutputStream entryOut = new DataOutputStream(entryBytes);
+    int entriesStart = HEADER_SIZE + 4 * sortedEntries.size();
+    int[] offsets = new int[sortedEntries.size()];
+    int i = 0;
+    for (Map.Entry<byte[], byte[]> entry : sortedEntries.entrySet()) {
+      offsets[i++] = entriesStart + entryOut.size();
+      entryOut.writeShort(entry.getKey().length);
+      entryOut.write(entry.getKey());
+      entryOut.writeByte(entry.getValue().length);
+      entryOut.write(entry.getValue());
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(entriesStart + entryOut.size());
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeInt(sortedEntries.size());
+    for (int offset : offsets) {
+      out.writeInt(offset);
+    }
+    entryBytes.writeTo(out);
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns the entity ID of every KeywordToEntityId that has one, keyed by
+   * keyword.
+   */
+  public static Map<String, String> readKeywordToEntityIdMap() throws DatabaseSchemaException {
+    Map<String, String> keywordToEntityIdMap = Maps.newHashMap();
+    for (KeywordToEntityId keywordToEntityId : Database.with(KeywordToEntityId.class).get(
+        new QueryOption.WhereNotNull("entity_id"))) {
+      keywordToEntityIdMap.put(keywordToEntityId.getKeyword(), keywordToEntityId.getEntityId());
+    }
+    return keywordToEntityIdMap;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the ID of the Entity that {@code keyword} refers to, ignoring
+   * case, or null if it doesn't refer to one.
+   */
+  public String getEntityId(String keyword) {
+    byte[] keywordBytes = keyword.toLowerCase().getBytes(StandardCharsets.UTF_8);
+    int index = findFirstAtLeast(keywordBytes);
+    if (index < size) {
+      int offset = getEntryOffset(index);
+      if (compareKeyword(offset, keywordBytes) == 0) {
+        return readEntityId(offset);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the IDs of the Entities mentioned in {@code words}, in the order
+   * they're mentioned, ignoring case.  Same as {@code #findEntityIds(List,
+   * Predicate)}, with every entity ID accepted.
+   */
+  public List<String> findEntityIds(List<String> words) {
+    return findEntityIds(words, Predicates.<String>alwaysTrue());
+  }
+
+  /**
+   * Returns the entity ID of every keyword anywhere in {@code words},
+   * including ones inside longer keywords.  This is a superset of what
+   * {@code #findEntityIds} can return for the same words, so callers can
+   * read all the Entities they might need at once.
+   */
+  public Set<String> findAllEntityIds(List<String> words) {
+    Set<String> entityIds = Sets.newLinkedHashSet();
+    for (String[] runEntityIds : getKeywordEntityIds(words)) {
+      for (String entityId : runEntityIds) {
+        if (entityId != null) {
+          entityIds.add(entityId);
+        }
+      }
+    }
+    return entityIds;
+  }
+
+  /**
+   * Returns the IDs of the Entities mentioned in {@code words}, in the order
+   * they're mentioned, ignoring case.  Keywords whose entity ID isn't accepted
+   * by {@code isKnownEntityId} are treated as if they weren't keywords at all,
+   * so the mentions inside them can still be found.
+   *
+   * Mentions are the ones we used to find by recursively checking the words
+   * with the last word dropped, then with the first word dropped, until we
+   * hit a keyword.  So a mention is skipped only if every way of trimming
+   * words off the ends to get to it passes through a longer mention.  E.g. in
+   * "President Barack Obama Administration", "Barack Obama" and "Obama
+   * Administration" are found, but "Obama" isn't.  In "Barack Obama Speaks",
+   * both "Barack Obama" and "Obama" (by way of "Obama Speaks") are found.
+   */
+  public List<String> findEntityIds(List<String> words, Predicate<String> isKnownEntityId) {
+    int wordCount = words.size();
+    String[][] keywordEntityIds = getKeywordEntityIds(words);
+
+    // Walk every span of words the recursion could have reached, shortest
+    // first from the left.  reachable[end] says whether the span from the
+    // current start to {@code end} was reached, given the row before it.
+    List<String> entityIds = Lists.newArrayList();
+    boolean[] reachable = new boolean[wordCount + 1];
+    if (wordCount > 0) {
+      reachable[wordCount] = true;
+    }
+    for (int start = 0; start < wordCount; start++) {
+      boolean[] nextReachable = new boolean[wordCount + 1];
+      boolean anyReachable = false;
+      for (int end = wordCount; end > start; end--) {
+        if (!reachable[end]) {
+          continue;
+        }
+        anyReachable = true;
+        String entityId = getKeywordEntityId(keywordEntityIds, start, end);
+        if (entityId != null && isKnownEntityId.apply(entityId)) {
+          entityIds.add(entityId);
+        } else {
+          // Not a keyword, so we'd have split it: Drop the last word, and the
+          // first word.
+          reachable[end - 1] = true;
+          nextReachable[end] = true;
+        }
+      }
+      if (!anyReachable) {
+        break;
+      }
+      reachable = nextReachable;
+    }
+    return entityIds;
+  }
+
+  /**
+   * Returns a table where {@code [start][length - 1]} is the entity ID of the
+   * keyword made of the {@code length} words at {@code start}, if there is
+   * one.
+   *
+   * Since keywords are sorted, the dictionary can be walked like a trie: We
+   * stop extending a run as soon as no keyword starts with it, so the number
+   * of lookups is linear in the number of words, times the number of words in
+   * our longest keyword.
+   */
+  private String[][] getKeywordEntityIds(List<String> words) {
+    int wordCount = words.size();
+    String[][] keywordEntityIds = new String[wordCount][];
+    for (int start = 0; start < wordCount; start++) {
+      List<String> runEntityIds = Lists.newArrayList();
+      StringBuilder run = new StringBuilder();
+      for (int end = start + 1; end <= wordCount; end++) {
+        if (end > start + 1) {
+          run.append(' ');
+        }
+        run.append(words.get(end - 1).toLowerCase());
+        byte[] runBytes = run.toString().getBytes(StandardCharsets.UTF_8);
+
+        // The first keyword at or after the run is the run itself if it's a
+        // keyword, else the first keyword that starts with it, if any do.
+        int index = findFirstAtLeast(runBytes);
+        if (index == size) {
+          break;
+        }
+        int offset = getEntryOffset(index);
+        int keywordLength = buffer.getShort(offset) & 0xffff;
+        if (keywordLength < runBytes.length
+            || compareKeyword(offset, runBytes, runBytes.length) != 0) {
+          break;
+        }
+        runEntityIds.add((keywordLength == runBytes.length) ? readEntityId(offset) : null);
+      }
+      keywordEntityIds[start] = runEntityIds.toArray(new String[runEntityIds.size()]);
+    }
+    return keywordEntityIds;
+  }
+
+  private static String getKeywordEntityId(String[][] keywordEntityIds, int start, int end) {
+    String[] startEntityIds = keywordEntityIds[start];
+    return (end - start <= startEntityIds.length) ? startEntityIds[end - start - 1] : null;
+  }
+
+  private int getEntryOffset(int index) {
+    return buffer.getInt(HEADER_SIZE + 4 * index);
+  }
+
+  /**
+   * Returns the index of the first entry whose keyword is greater than or
+   * equal to {@code keywordBytes}, or {@code size} if there isn't one.
+   */
+  private int findFirstAtLeast(byte[] keywordBytes) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compareKeyword(getEntryOffset(middle), keywordBytes) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Compares the keyword of the entry at {@code offset} to
+   * {@code keywordBytes}, byte by byte, as unsigned values.
+   */
+  private int compareKeyword(int offset, byte[] keywordBytes) {
+    return compareKeyword(offset, keywordBytes, buffer.getShort(offset) & 0xffff);
+  }
+
+  /**
+   * Same as above, but only considers the first {@code length} bytes of the
+   * entry's keyword.
+   */
+  private int compareKeyword(int offset, byte[] keywordBytes, int length) {
+    int start = offset + 2;
+    int commonLength = Math.min(length, keywordBytes.length);
+    for (int i = 0; i < commonLength; i++) {
+      int comparison = UnsignedBytes.compare(buffer.get(start + i), keywordBytes[i]);
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+    return length - keywordBytes.length;
+  }
+
+  private String readEntityId(int offset) {
+    int entityIdOffset = offset + 2 + (buffer.getShort(offset) & 0xffff);
+    return readString(entityIdOffset + 1, buffer.get(entityIdOffset) & 0xff);
+  }
+
+  private String readString(int offset, int length) {
+    // Absolute reads only, so that concurrent lookups don't disturb each
+    // other's buffer positions.
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
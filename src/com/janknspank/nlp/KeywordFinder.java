@@ -47,44 +47,87 @@ import com.janknspank.proto.ArticleProto.ArticleKeyword.Source;
  * sets.
  */
 public class KeywordFinder {
-  private final SentenceDetectorME SENTENCE_DETECTOR_ME;
-  private final opennlp.tools.tokenize.Tokenizer TOKENIZER;
-  private final List<NameFinderME> PERSON_FINDER_LIST = Lists.newArrayList();
-  private final List<NameFinderME> ORGANIZATION_FINDER_LIST = Lists.newArrayList();
-  private final List<NameFinderME> LOCATION_FINDER_LIST = Lists.newArrayList();
+  // OpenNLP models are immutable and thread-safe, so we load them exactly
+  // once and share them.  The *ME classes that run them are not thread-safe
+  // though, so each thread gets its own set - see {@code #NLP_TOOLS}.
+  private final SentenceModel SENTENCE_MODEL;
+  private final TokenizerModel TOKENIZER_MODEL;
+  private final List<TokenNameFinderModel> PERSON_MODEL_LIST = Lists.newArrayList();
+  private final List<TokenNameFinderModel> ORGANIZATION_MODEL_LIST = Lists.newArrayList();
+  private final List<TokenNameFinderModel> LOCATION_MODEL_LIST = Lists.newArrayList();
 
   private static KeywordFinder instance = null;
 
+  /**
+   * Thread-confined sentence detector, tokenizer, and name finders, built
+   * from the shared models.  This lets all our crawler threads do natural
+   * language processing at the same time, rather than waiting on each other.
+   */
+  private final ThreadLocal<NlpTools> NLP_TOOLS = new ThreadLocal<NlpTools>() {
+    @Override
+    protected NlpTools initialValue() {
+      return new NlpTools();
+    }
+  };
+
+  private class NlpTools {
+    private final SentenceDetectorME sentenceDetectorMe;
+    private final opennlp.tools.tokenize.Tokenizer tokenizer;
+    private final List<NameFinderME> personFinderList = Lists.newArrayList();
+    private final List<NameFinderME> organizationFinderList = Lists.newArrayList();
+    private final List<NameFinderME> locationFinderList = Lists.newArrayList();
+
+    private NlpTools() {
+      sentenceDetectorMe = new SentenceDetectorME(SENTENCE_MODEL);
+      tokenizer = new TokenizerME(TOKENIZER_MODEL);
+      for (TokenNameFinderModel personModel : PERSON_MODEL_LIST) {
+        personFinderList.add(new NameFinderME(personModel));
+      }
+      for (TokenNameFinderModel organizationModel : ORGANIZATION_MODEL_LIST) {
+        organizationFinderList.add(new NameFinderME(organizationModel));
+      }
+      for (TokenNameFinderModel locationModel : LOCATION_MODEL_LIST) {
+        locationFinderList.add(new NameFinderME(locationModel));
+      }
+    }
+
+    /**
+     * Clears the adaptive data the name finders remember between sentences.
+     * This should be called after every document.
+     */
+    private void clearAdaptiveData() {
+      for (NameFinderME nameFinderMe :
+          Iterables.concat(personFinderList, organizationFinderList, locationFinderList)) {
+        nameFinderMe.clearAdaptiveData();
+      }
+    }
+  }
+
   private KeywordFinder() {
     try {
       @SuppressWarnings("resource")
       InputStream sentenceModelInputStream = new FileInputStream("opennlp/en-sent.bin");
-      SentenceModel sentenceModel = new SentenceModel(sentenceModelInputStream);
-      SENTENCE_DETECTOR_ME = new SentenceDetectorME(sentenceModel);
+      SENTENCE_MODEL = new SentenceModel(sentenceModelInputStream);
 
       @SuppressWarnings("resource")
       InputStream tokenizerModelInputStream = new FileInputStream("opennlp/en-token.bin");
-      TokenizerModel tokenizerModel = new TokenizerModel(tokenizerModelInputStream);
-      TOKENIZER = new TokenizerME(tokenizerModel);
+      TOKENIZER_MODEL = new TokenizerModel(tokenizerModelInputStream);
 
       for (String model : new String[] { "newsserver", "ner" }) {
         @SuppressWarnings("resource")
         InputStream personModelInputStream =
             new FileInputStream("opennlp/en-" + model + "-person.bin");
-        TokenNameFinderModel personModel = new TokenNameFinderModel(personModelInputStream);
-        PERSON_FINDER_LIST.add(new NameFinderME(personModel));
+        PERSON_MODEL_LIST.add(new TokenNameFinderModel(personModelInputStream));
 
         @SuppressWarnings("resource")
         InputStream organizationModelInputStream =
             new FileInputStream("opennlp/en-" + model + "-organization.bin");
-        TokenNameFinderModel organizationModel = new TokenNameFinderModel(organizationModelInputStream);
-        ORGANIZATION_FINDER_LIST.add(new NameFinderME(organizationModel));
+        ORGANIZATION_MODEL_LIST.add(new TokenNameFinderModel(organizationModelInputStream));
 
         @SuppressWarnings("resource")
         InputStream locationModelInputStream =
             new FileInputStream("opennlp/en-" + model + "-location.bin");
-        TokenNameFinderModel locationModel = new TokenNameFinderModel(locationModelInputStream);
-        LOCATION_FINDER_LIST.add(new NameFinderME(locationModel));
+        LOCATION_MODEL_LIST.add(new TokenNameFinderModel(locationModelInputStream));
       }
     } catch (Exception e) {
       throw new RuntimeException(e);
@@ -92,7 +135,8 @@ public class KeywordFinder {
   }
 
   /**
-   * Returns a KeywordFinder singleton.
+   * Returns a KeywordFinder singleton.  The returned object is safe to use
+   * from multiple threads concurrently.
    */
   public static synchronized KeywordFinder getInstance() {
     if (instance == null) {
@@ -126,8 +170,8 @@ public class KeywordFinder {
     Iterables.addAll(keywords, findKeywordsFromHypertext(urlId, document));
     Iterables.addAll(keywords, KeywordCanonicalizer.getArticleKeywordsFromText(title, 0));
 
-    // Special handling for the first paragraph: Brute force search for
-    // important keywords.
+    // Special handling for the first paragraph: Look for every entity we know
+    // about.
     Iterable<String> paragraphs = ParagraphFinder.getParagraphs(document);
     if (!Iterables.isEmpty(paragraphs)) {
       Iterables.addAll(keywords, KeywordCanonicalizer.getArticleKeywordsFromText(
@@ -144,8 +188,9 @@ public class KeywordFinder {
     return KeywordCanonicalizer.canonicalize(keywords, articleFeatures);
   }
 
-  private synchronized Iterable<ArticleKeyword> findParagraphKeywords(
+  Iterable<ArticleKeyword> findParagraphKeywords(
       String urlId, String title, Iterable<String> paragraphs) {
+    NlpTools nlpTools = NLP_TOOLS.get();
     List<ArticleKeyword> keywords = Lists.newArrayList();
 
     // Go through each paragraph, find keywords with the natural language
@@ -159,12 +204,12 @@ public class KeywordFinder {
     Map<String, Integer> tokenToFirstParagraph = Maps.newHashMap();
     int paragraphNumber = 0;
     for (String paragraph : Iterables.concat(ImmutableList.of(title + "."), paragraphs)) {
-      for (String sentence : SENTENCE_DETECTOR_ME.sentDetect(paragraph)) {
-        String[] tokens = TOKENIZER.tokenize(sentence);
+      for (String sentence : nlpTools.sentenceDetectorMe.sentDetect(paragraph)) {
+        String[] tokens = nlpTools.tokenizer.tokenize(sentence);
         for (ArticleKeyword keyword : Iterables.concat(
-            findPeople(urlId, tokens, paragraphNumber),
-            findOrganizations(urlId, tokens, paragraphNumber),
-            findLocations(urlId, tokens, paragraphNumber))) {
+            findPeople(nlpTools, urlId, tokens, paragraphNumber),
+            findOrganizations(nlpTools, urlId, tokens, paragraphNumber),
+            findLocations(nlpTools, urlId, tokens, paragraphNumber))) {
           if (tokenToFirstParagraph.containsKey(keyword.getKeyword().toLowerCase())) {
             keywords.add(keyword.toBuilder()
                 .setParagraphNumber(tokenToFirstParagraph.get(keyword.getKeyword().toLowerCase()))
@@ -190,20 +235,12 @@ public class KeywordFinder {
       }
       paragraphNumber++;
     }
-    for (NameFinderME personFinderMe : PERSON_FINDER_LIST) {
-      personFinderMe.clearAdaptiveData();
-    }
-    for (NameFinderME organizationFinderMe : ORGANIZATION_FINDER_LIST) {
-      organizationFinderMe.clearAdaptiveData();
-    }
-    for (NameFinderME locationFinderMe : LOCATION_FINDER_LIST) {
-      locationFinderMe.clearAdaptiveData();
-    }
+    nlpTools.clearAdaptiveData();
 
     return keywords;
   }
 
-  private synchronized Iterable<ArticleKeyword> findKeywords(
+  private Iterable<ArticleKeyword> findKeywords(
       String urlId,
       String[] tokens,
       int paragraphNumber,
@@ -240,37 +277,37 @@ public class KeywordFinder {
         });
   }
 
-  private synchronized Iterable<ArticleKeyword> findPeople(
-      String urlId, String[] tokens, int paragraphNumber) {
+  private Iterable<ArticleKeyword> findPeople(
+      NlpTools nlpTools, String urlId, String[] tokens, int paragraphNumber) {
     return findKeywords(
         urlId,
         tokens,
         paragraphNumber,
-        PERSON_FINDER_LIST,
+        nlpTools.personFinderList,
         EntityType.PERSON,
         5 /* strengthMultiplier */,
         20 /* maxStrength */);
   }
 
-  private synchronized Iterable<ArticleKeyword> findOrganizations(
-      String urlId, String[] tokens, int paragraphNumber) {
+  private Iterable<ArticleKeyword> findOrganizations(
+      NlpTools nlpTools, String urlId, String[] tokens, int paragraphNumber) {
     return findKeywords(
         urlId,
         tokens,
         paragraphNumber,
-        ORGANIZATION_FINDER_LIST,
+        nlpTools.organizationFinderList,
         EntityType.ORGANIZATION,
         5 /* strengthMultiplier */,
         20 /* maxStrength */);
   }
 
-  private synchronized Iterable<ArticleKeyword> findLocations(
-      String urlId, String[] tokens, int paragraphNumber) {
+  private Iterable<ArticleKeyword> findLocations(
+      NlpTools nlpTools, String urlId, String[] tokens, int paragraphNumber) {
     return findKeywords(
         urlId,
         tokens,
         paragraphNumber,
-        LOCATION_FINDER_LIST,
+        nlpTools.locationFinderList,
         EntityType.PLACE,
         3 /* strengthMultiplier */,
         15 /* maxStrength */);
@@ -414,11 +451,11 @@ public class KeywordFinder {
         });
   }
 
-  public synchronized String[] getSentences(String paragraph) {
-    return SENTENCE_DETECTOR_ME.sentDetect(paragraph);
+  public String[] getSentences(String paragraph) {
+    return NLP_TOOLS.get().sentenceDetectorMe.sentDetect(paragraph);
   }
 
-  public synchronized String[] getTokens(String sentence) {
-    return TOKENIZER.tokenize(sentence);
+  public String[] getTokens(String sentence) {
+    return NLP_TOOLS.get().tokenizer.tokenize(sentence);
   }
 }
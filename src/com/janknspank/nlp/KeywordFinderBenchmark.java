@@ -0,0 +1,139 @@
+package com.janknspank.nlp;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Measures how many articles per second we can push through the natural
+ * language processing parts of a crawl (sentence detection, tokenization, and
+ * name finding) as we add threads.  Since KeywordFinder gives each thread its
+ * own OpenNLP tools, throughput should scale roughly with the number of cores.
+ *
+ * Usage:
+ * java com.janknspank.nlp.KeywordFinderBenchmark [testdata directory] [passes]
+ */
+public class KeywordFinderBenchmark {
+  private static class BenchmarkArticle {
+    private final String title;
+    private final List<String> paragraphs;
+
+    private BenchmarkArticle(String title, List<String> paragraphs) {
+      this.title = title;
+      this.paragraphs = paragraphs;
+    }
+  }
+
+  private static List<BenchmarkArticle> readArticles(File directory) throws IOException {
+    List<BenchmarkArticle> articles = Lists.newArrayList();
+    for (File file : directory.listFiles()) {
+      if (!file.getName().endsWith(".html")) {
+        continue;
+      }
+      Document document = Jsoup.parse(file, "UTF-8");
+      List<String> paragraphs = Lists.newArrayList();
+      for (Element paragraphEl : document.select("p")) {
+        if (paragraphEl.text().length() > 0) {
+          paragraphs.add(paragraphEl.text());
+        }
+      }
+      articles.add(new BenchmarkArticle(document.title(), paragraphs));
+    }
+    return articles;
+  }
+
+  /**
+   * Does the same NLP work that the crawler does for each article: Keyword
+   * finding, plus the tokenization Vector does for feature classification.
+   */
+  private static void process(KeywordFinder keywordFinder, BenchmarkArticle article) {
+    keywordFinder.findParagraphKeywords("benchmark", article.title, article.paragraphs);
+    for (String paragraph : article.paragraphs) {
+      for (String sentence : keywordFinder.getSentences(paragraph)) {
+        keywordFinder.getTokens(sentence);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of articles per second processed using the specified
+   * number of threads.
+   */
+  private static double run(final KeywordFinder keywordFinder,
+      final List<BenchmarkArticle> articles, final int passes, int threadCount)
+      throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      // Warm up each thread's tools, so that model loading isn't counted.
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < threadCount; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            process(keywordFinder, articles.get(0));
+            return null;
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      long startTime = System.nanoTime();
+      futures.clear();
+      for (int i = 0; i < threadCount; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int pass = 0; pass < passes; pass++) {
+              for (BenchmarkArticle article : articles) {
+                process(keywordFinder, article);
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      double elapsedSeconds = (System.nanoTime() - startTime) / 1000000000.0;
+      return (articles.size() * passes * threadCount) / elapsedSeconds;
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  public static void main(String args[]) throws Exception {
+    File directory = new File(args.length > 0 ? args[0] : "testdata");
+    int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    List<BenchmarkArticle> articles = readArticles(directory);
+    if (articles.isEmpty()) {
+      throw new IllegalStateException("No .html files found in " + directory);
+    }
+
+    KeywordFinder keywordFinder = KeywordFinder.getInstance();
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.println("Benchmarking " + articles.size() + " articles x " + passes
+        + " passes on " + cores + " cores");
+    double singleThreadedRate = 0;
+    for (int threadCount = 1; threadCount <= cores; threadCount *= 2) {
+      double rate = run(keywordFinder, articles, passes, threadCount);
+      if (threadCount == 1) {
+        singleThreadedRate = rate;
+      }
+      System.out.println(String.format("%3d threads: %8.2f articles/sec (%.2fx)",
+          threadCount, rate, rate / singleThreadedRate));
+    }
+  }
+}
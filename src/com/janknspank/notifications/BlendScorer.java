@@ -19,19 +19,19 @@ public class BlendScorer implements NotificationScorer {
   }
 
   @Override
-  public int getScore(Article article, Set<String> followedEntityIds) {
-    return (historicalScorer.getScore(article, followedEntityIds)
-        + nnetScorer.getScore(article, followedEntityIds)) / 2;
+  public int getScore(Article article, Set<String> followedEntityIds, long now) {
+    return (historicalScorer.getScore(article, followedEntityIds, now)
+        + nnetScorer.getScore(article, followedEntityIds, now)) / 2;
   }
 
   @Override
   public int getScoreNecessaryToTriggerNotification(long lastNotificationTime,
-      UserTimezone userTimezone) {
+      UserTimezone userTimezone, long now) {
     return
         (historicalScorer.getScoreNecessaryToTriggerNotification(
-            lastNotificationTime, userTimezone)
+            lastNotificationTime, userTimezone, now)
         + nnetScorer.getScoreNecessaryToTriggerNotification(
-            lastNotificationTime, userTimezone)) / 2;
+            lastNotificationTime, userTimezone, now)) / 2;
   }
 
   @Override
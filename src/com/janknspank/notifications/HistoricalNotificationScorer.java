@@ -26,20 +26,20 @@ public class HistoricalNotificationScorer implements NotificationScorer {
    * would be for notification-purposes for the given user.
    */
   @Override
-  public int getScore(Article article, Set<String> followedEntityIds) {
+  public int getScore(Article article, Set<String> followedEntityIds, long now) {
     // 0 out of 100 possible for ranking score.
     int score = (int) (article.getScore() * 100);
 
     // Punishment for older articles, so that we tend to notify about newly
     // published topics as opposed to things the user might have seen on other
     // news aggregators recently.
-    double ageInHours = ((double) System.currentTimeMillis() - article.getPublishedTime())
+    double ageInHours = ((double) now - article.getPublishedTime())
         / TimeUnit.HOURS.toMillis(1);
     score -= 8 * ageInHours;
 
     // -25 to 100 depending on whether the article's about a company, and
     // whether the user's following that company.
-    ArticleEvaluation evaluation = new ArticleEvaluation(article, followedEntityIds);
+    ArticleEvaluation evaluation = new ArticleEvaluation(article, followedEntityIds, now);
     if (evaluation.isFollowedCompany()) {
       // Users click on these notifications 57% more than average.
       score += 100;
@@ -79,9 +79,9 @@ public class HistoricalNotificationScorer implements NotificationScorer {
    */
   @Override
   public int getScoreNecessaryToTriggerNotification(
-      long lastNotificationTime, UserTimezone userTimezone) {
+      long lastNotificationTime, UserTimezone userTimezone, long now) {
     int hoursSinceNotification =
-        (int) ((System.currentTimeMillis() - lastNotificationTime) / TimeUnit.HOURS.toMillis(1));
+        (int) ((now - lastNotificationTime) / TimeUnit.HOURS.toMillis(1));
     int scoreNecessaryToTriggerNotification = 200 - (10 * hoursSinceNotification);
     if (userTimezone.isMorning()) {
       // Encourage more notifications in the morning.
@@ -13,16 +13,17 @@ public interface NotificationScorer {
 
   /**
    * Returns a score between 0 and 300 indicating how important this article
-   * would be for notification-purposes for the given user.
+   * would be for notification-purposes for the given user, as of {@code now}
+   * (in epoch millis).
    */
-  public int getScore(Article article, Set<String> followedEntityIds);
+  public int getScore(Article article, Set<String> followedEntityIds, long now);
 
   /**
    * Returns the minimum score necessary for actually sending an article out
-   * to a user via push.
+   * to a user via push, as of {@code now} (in epoch millis).
    */
   public int getScoreNecessaryToTriggerNotification(
-      long lastNotificationTime, UserTimezone userTimezone);
+      long lastNotificationTime, UserTimezone userTimezone, long now);
 
   /**
    * Returns the articles that are applicable to this scorer.
@@ -16,6 +16,7 @@ import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
 import com.janknspank.bizness.Articles;
 import com.janknspank.bizness.BiznessException;
@@ -47,6 +48,7 @@ public class PushDeviceNotifications {
 
   private static class PreviousUserNotifications {
     private final Future<Iterable<Notification>> recentNotificationsFuture;
+    private Set<String> recentClusterIds = null;
 
     public PreviousUserNotifications(User user) throws DatabaseSchemaException {
       recentNotificationsFuture = Database.with(Notification.class).getFuture(
@@ -68,7 +70,42 @@ public class PushDeviceNotifications {
       return 0;
     }
 
+    /**
+     * Returns the duplicate cluster IDs of the articles we recently notified
+     * the user about.  Articles that started their own cluster (or that were
+     * crawled before we assigned clusters) are represented by their URL ID.
+     */
+    private Set<String> getRecentClusterIds() throws DatabaseSchemaException {
+      if (recentClusterIds == null) {
+        Set<String> clusterIds = Sets.newHashSet();
+        try {
+          for (Notification notification : recentNotificationsFuture.get()) {
+            clusterIds.add(notification.getUrlId());
+          }
+        } catch (InterruptedException | ExecutionException e) {
+          Throwables.propagateIfInstanceOf(e.getCause(), DatabaseSchemaException.class);
+        }
+        if (!clusterIds.isEmpty()) {
+          for (Article notifiedArticle : Database.with(Article.class).get(
+              ImmutableSet.copyOf(clusterIds))) {
+            if (notifiedArticle.hasDuplicateClusterId()) {
+              clusterIds.add(notifiedArticle.getDuplicateClusterId());
+            }
+          }
+        }
+        recentClusterIds = clusterIds;
+      }
+      return recentClusterIds;
+    }
+
     private boolean isDupe(Article article) throws DatabaseSchemaException {
+      if (getRecentClusterIds().contains(
+          article.hasDuplicateClusterId() ? article.getDuplicateClusterId() : article.getUrlId())) {
+        return true;
+      }
+
+      // Fall back to comparing stems, for articles and notifications from
+      // before we assigned duplicate clusters at crawl time.
       Deduper.ArticleExtraction articleExtraction = new Deduper.ArticleExtraction(article);
       try {
         for (Notification pushNotification : recentNotificationsFuture.get()) {
@@ -122,7 +159,12 @@ public class PushDeviceNotifications {
     return lastAppUseTime;
   }
 
-  private static Article getArticleToNotifyAbout(User user, Set<String> followedEntityIds)
+  /**
+   * Returns the article we should notify the user about as of {@code now} (in
+   * epoch millis), or null if nothing's worth a notification.
+   */
+  private static Article getArticleToNotifyAbout(
+      User user, Set<String> followedEntityIds, long now)
       throws DatabaseSchemaException, BiznessException {
     PreviousUserNotifications previousUserNotifications = new PreviousUserNotifications(user);
 
@@ -137,7 +179,7 @@ public class PushDeviceNotifications {
     long lastNotificationTime = previousUserNotifications.getLastNotificationTime();
     long timeCutoff = Math.max(getLastAppUseTime(user), lastNotificationTime)
         - TimeUnit.MINUTES.toMillis(30);
-    timeCutoff = Math.max(timeCutoff, System.currentTimeMillis() - TimeUnit.HOURS.toMillis(8));
+    timeCutoff = Math.max(timeCutoff, now - TimeUnit.HOURS.toMillis(8));
 
     // Find the best article in the user's stream, for notification purposes.
     Article bestArticle = null;
@@ -153,7 +195,7 @@ public class PushDeviceNotifications {
         continue;
       }
 
-      int score = scorer.getScore(article, followedEntityIds);
+      int score = scorer.getScore(article, followedEntityIds, now);
       if (score > 0 && score > bestArticleScore) {
         bestArticleScore = score;
         bestArticle = article;
@@ -161,7 +203,7 @@ public class PushDeviceNotifications {
     }
 
     int scoreNecessaryToTriggerNotification = scorer.getScoreNecessaryToTriggerNotification(
-        lastNotificationTime, userTimezone);
+        lastNotificationTime, userTimezone, now);
     if (bestArticle != null
         && bestArticleScore >= scoreNecessaryToTriggerNotification) {
       if (USERS_TO_INCLUDE_SCORES_ON_NOTIFICATIONS.contains(user.getEmail())) {
@@ -233,10 +275,12 @@ public class PushDeviceNotifications {
         if (!Iterables.isEmpty(registrations)) {
           Future<Integer> badgeCountFuture = getBadgeCountFuture();
           Set<String> followedEntityIds = getFollowedEntityIds(user);
-          Article bestArticle = getArticleToNotifyAbout(user, followedEntityIds);
+          long now = System.currentTimeMillis();
+          Article bestArticle = getArticleToNotifyAbout(user, followedEntityIds, now);
           if (bestArticle != null) {
             System.out.println("Sending \"" + bestArticle.getTitle() + "\" to " + user.getEmail());
-            ArticleEvaluation evaluation = new ArticleEvaluation(bestArticle, followedEntityIds);
+            ArticleEvaluation evaluation =
+                new ArticleEvaluation(bestArticle, followedEntityIds, now);
             for (DeviceRegistration registration : registrations) {
               Notification.Builder pushNotificationBuilder =
                   IosPushNotificationHelper.createPushNotification(registration, bestArticle)
@@ -247,11 +291,10 @@ public class PushDeviceNotifications {
                       .setHotCount(bestArticle.getHotCount())
                       .setScore(bestArticle.getScore())
                       .setNotificationScore(new HistoricalNotificationScorer()
-                          .getScore(bestArticle, followedEntityIds))
+                          .getScore(bestArticle, followedEntityIds, now))
                       .setNnetScore(NotificationNeuralNetworkScorer.getInstance()
-                          .getNormalizedOutput(bestArticle, followedEntityIds))
-                      .setAgeInMillis(System.currentTimeMillis()
-                          - Articles.getPublishedTime(bestArticle))
+                          .getNormalizedOutput(bestArticle, followedEntityIds, now))
+                      .setAgeInMillis(now - Articles.getPublishedTime(bestArticle))
                       .setAlgorithm(getScorerForUser(user, followedEntityIds).getAlgorithm());
 
               SocialEngagement twitterEngagement =
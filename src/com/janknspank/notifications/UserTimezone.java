@@ -104,7 +104,14 @@ public class UserTimezone {
   }
 
   public boolean isWeekend() {
-    Instant instant = Instant.ofEpochMilli(getCurrentTime());
+    return isWeekend(getCurrentTime());
+  }
+
+  /**
+   * Returns whether it's the weekend for this timezone at {@code timeMillis}.
+   */
+  public boolean isWeekend(long timeMillis) {
+    Instant instant = Instant.ofEpochMilli(timeMillis);
     DayOfWeek dayOfWeek = ZonedDateTime.ofInstant(instant,
         ZoneOffset.ofHoursMinutes(hourOffset, minuteOffset)).getDayOfWeek();
     return (dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY);
@@ -79,13 +79,17 @@ public class ArticleEvaluation {
     siteCtrRating = ClicksPerSites.getCtrRating(site);
   }
 
-  public ArticleEvaluation(Article article, Set<String> followedEntityIds) {
+  /**
+   * Evaluates the passed article as of {@code now} (in epoch millis), which
+   * is what its age is measured against.
+   */
+  public ArticleEvaluation(Article article, Set<String> followedEntityIds, long now) {
     isCompany = isArticleAboutCompany(article);
     isEvent = isArticleAboutEvent(article);
     isFollowedCompany = isArticleAboutFollowedCompany(article, followedEntityIds);
     score = article.getScore();
     hotCount = article.getHotCount();
-    ageInMillis = System.currentTimeMillis() - Articles.getPublishedTime(article);
+    ageInMillis = now - Articles.getPublishedTime(article);
 
     SiteManifest site = SiteManifests.getForUrl(article.getUrl());
     siteCtrRating = ClicksPerSites.getCtrRating(site);
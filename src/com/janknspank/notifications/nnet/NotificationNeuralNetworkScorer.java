@@ -64,8 +64,8 @@ public final class NotificationNeuralNetworkScorer implements NotificationScorer
    * would be for notification-purposes for the given user.
    */
   @Override
-  public int getScore(Article article, Set<String> followedEntityIds) {
-    double normalizedOutput = getNormalizedOutput(article, followedEntityIds);
+  public int getScore(Article article, Set<String> followedEntityIds, long now) {
+    double normalizedOutput = getNormalizedOutput(article, followedEntityIds, now);
     return Math.max(0, (int) (200 * (normalizedOutput * 3 - 2)));
   }
 
@@ -75,9 +75,9 @@ public final class NotificationNeuralNetworkScorer implements NotificationScorer
     return neuralNetwork.getOutput()[0];
   }
 
-  public double getNormalizedOutput(Article article, Set<String> followedEntityIds) {
+  public double getNormalizedOutput(Article article, Set<String> followedEntityIds, long now) {
     return DistributionBuilder.projectQuantile(distribution,
-        getOutput(new ArticleEvaluation(article, followedEntityIds)));
+        getOutput(new ArticleEvaluation(article, followedEntityIds, now)));
   }
 
   /**
@@ -89,9 +89,9 @@ public final class NotificationNeuralNetworkScorer implements NotificationScorer
    */
   @Override
   public int getScoreNecessaryToTriggerNotification(
-      long lastNotificationTime, UserTimezone userTimezone) {
+      long lastNotificationTime, UserTimezone userTimezone, long now) {
     int hoursSinceNotification =
-        (int) ((System.currentTimeMillis() - lastNotificationTime) / TimeUnit.HOURS.toMillis(1));
+        (int) ((now - lastNotificationTime) / TimeUnit.HOURS.toMillis(1));
     int scoreNecessaryToTriggerNotification = 200 - (5 * hoursSinceNotification);
     if (userTimezone.isDaytime()) {
       scoreNecessaryToTriggerNotification -= 15;
@@ -497,6 +497,45 @@ public final class ArticleProto {
      */
     com.janknspank.proto.ArticleProto.VideoOrBuilder getVideoOrBuilder(
         int index);
+
+    // optional string duplicate_cluster_id = 27;
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    boolean hasDuplicateClusterId();
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    java.lang.String getDuplicateClusterId();
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    com.google.protobuf.ByteString
+        getDuplicateClusterIdBytes();
   }
   /**
    * Protobuf type {@code Article}
@@ -703,6 +742,11 @@ public final class ArticleProto {
               video_.add(input.readMessage(com.janknspank.proto.ArticleProto.Video.PARSER, extensionRegistry));
               break;
             }
+            case 218: {
+              bitField0_ |= 0x00100000;
+              duplicateClusterId_ = input.readBytes();
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -1735,6 +1779,73 @@ public final class ArticleProto {
       return video_.get(index);
     }
 
+    // optional string duplicate_cluster_id = 27;
+    public static final int DUPLICATE_CLUSTER_ID_FIELD_NUMBER = 27;
+    private java.lang.Object duplicateClusterId_;
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    public boolean hasDuplicateClusterId() {
+      return ((bitField0_ & 0x00100000) == 0x00100000);
+    }
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    public java.lang.String getDuplicateClusterId() {
+      java.lang.Object ref = duplicateClusterId_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          duplicateClusterId_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>optional string duplicate_cluster_id = 27;</code>
+     *
+     * <pre>
+     * The group of duplicate articles (same story, different publishers) this
+     * article belongs to, as determined at crawl time by DuplicateClusterer.
+     * This is the url_id of the first article crawled in the cluster.
+     * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+     * describing the cluster as of when this article was added to it.
+     * </pre>
+     */
+    public com.google.protobuf.ByteString
+        getDuplicateClusterIdBytes() {
+      java.lang.Object ref = duplicateClusterId_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        duplicateClusterId_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
     private void initFields() {
       urlId_ = "";
       url_ = "";
@@ -1762,6 +1873,7 @@ public final class ArticleProto {
       hotCount_ = 0;
       score_ = 0D;
       video_ = java.util.Collections.emptyList();
+      duplicateClusterId_ = "";
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -1853,6 +1965,9 @@ public final class ArticleProto {
       for (int i = 0; i < video_.size(); i++) {
         output.writeMessage(26, video_.get(i));
       }
+      if (((bitField0_ & 0x00100000) == 0x00100000)) {
+        output.writeBytes(27, getDuplicateClusterIdBytes());
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1976,6 +2091,10 @@ public final class ArticleProto {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(26, video_.get(i));
       }
+      if (((bitField0_ & 0x00100000) == 0x00100000)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(27, getDuplicateClusterIdBytes());
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -2164,6 +2283,8 @@ public final class ArticleProto {
         } else {
           videoBuilder_.clear();
         }
+        duplicateClusterId_ = "";
+        bitField0_ = (bitField0_ & ~0x04000000);
         return this;
       }
 
@@ -2320,6 +2441,10 @@ public final class ArticleProto {
         } else {
           result.video_ = videoBuilder_.build();
         }
+        if (((from_bitField0_ & 0x04000000) == 0x04000000)) {
+          to_bitField0_ |= 0x00100000;
+        }
+        result.duplicateClusterId_ = duplicateClusterId_;
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -2538,6 +2663,11 @@ public final class ArticleProto {
             }
           }
         }
+        if (other.hasDuplicateClusterId()) {
+          bitField0_ |= 0x04000000;
+          duplicateClusterId_ = other.duplicateClusterId_;
+          onChanged();
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -4985,6 +5115,128 @@ public final class ArticleProto {
         return videoBuilder_;
       }
 
+      // optional string duplicate_cluster_id = 27;
+      private java.lang.Object duplicateClusterId_ = "";
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public boolean hasDuplicateClusterId() {
+        return ((bitField0_ & 0x04000000) == 0x04000000);
+      }
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public java.lang.String getDuplicateClusterId() {
+        java.lang.Object ref = duplicateClusterId_;
+        if (!(ref instanceof java.lang.String)) {
+          java.lang.String s = ((com.google.protobuf.ByteString) ref)
+              .toStringUtf8();
+          duplicateClusterId_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public com.google.protobuf.ByteString
+          getDuplicateClusterIdBytes() {
+        java.lang.Object ref = duplicateClusterId_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          duplicateClusterId_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public Builder setDuplicateClusterId(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x04000000;
+        duplicateClusterId_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public Builder clearDuplicateClusterId() {
+        bitField0_ = (bitField0_ & ~0x04000000);
+        duplicateClusterId_ = getDefaultInstance().getDuplicateClusterId();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string duplicate_cluster_id = 27;</code>
+       *
+       * <pre>
+       * The group of duplicate articles (same story, different publishers) this
+       * article belongs to, as determined at crawl time by DuplicateClusterer.
+       * This is the url_id of the first article crawled in the cluster.
+       * hot_count and oldest_hot_duplicate_time are also stored at crawl time,
+       * describing the cluster as of when this article was added to it.
+       * </pre>
+       */
+      public Builder setDuplicateClusterIdBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x04000000;
+        duplicateClusterId_ = value;
+        onChanged();
+        return this;
+      }
+
       // @@protoc_insertion_point(builder_scope:Article)
     }
 
@@ -9587,137 +9839,912 @@ public final class ArticleProto {
     // @@protoc_insertion_point(class_scope:InterpretedData)
   }
 
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_Article_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_Article_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_ArticleKeyword_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_ArticleKeyword_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_SocialEngagement_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_SocialEngagement_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_ArticleFeature_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_ArticleFeature_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_Video_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_Video_fieldAccessorTable;
-  private static com.google.protobuf.Descriptors.Descriptor
-    internal_static_InterpretedData_descriptor;
-  private static
-    com.google.protobuf.GeneratedMessage.FieldAccessorTable
-      internal_static_InterpretedData_fieldAccessorTable;
+  public interface SocialEngagementHistoryOrBuilder
+      extends com.google.protobuf.MessageOrBuilder {
 
-  public static com.google.protobuf.Descriptors.FileDescriptor
-      getDescriptor() {
-    return descriptor;
+    // optional .SocialEngagement social_engagement = 1;
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    boolean hasSocialEngagement();
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    com.janknspank.proto.ArticleProto.SocialEngagement getSocialEngagement();
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder getSocialEngagementOrBuilder();
+
+    // optional string url_id = 2;
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    boolean hasUrlId();
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    java.lang.String getUrlId();
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    com.google.protobuf.ByteString
+        getUrlIdBytes();
+
+    // optional int64 create_time = 3;
+    /**
+     * <code>optional int64 create_time = 3;</code>
+     */
+    boolean hasCreateTime();
+    /**
+     * <code>optional int64 create_time = 3;</code>
+     */
+    long getCreateTime();
   }
-  private static com.google.protobuf.Descriptors.FileDescriptor
-      descriptor;
-  static {
-    java.lang.String[] descriptorData = {
-      "\n\"com/janknspank/proto/article.proto\032(co" +
-      "m/janknspank/database/extensions.proto\032\037" +
-      "com/janknspank/proto/core.proto\"\376\006\n\007Arti" +
-      "cle\022 \n\006url_id\030\001 \001(\tB\020\210\246\035\001\220\246\035\002\230\246\035\030\250\246\035\001\022\032\n" +
-      "\003url\030\002 \001(\tB\r\210\246\035\001\230\246\035\377\005\250\246\035\001\022\034\n\005title\030\003 \001(\t" +
-      "B\r\210\246\035\001\220\246\035\005\230\246\035\200\002\022\022\n\004type\030\004 \001(\tB\004\230\246\035\031\022\031\n\006a" +
-      "uthor\030\005 \001(\tB\t\230\246\035\200\002\240\246\035\003\022\024\n\006origin\030\030 \001(\tB\004" +
-      "\230\246\0352\022\034\n\tcopyright\030\006 \001(\tB\t\230\246\035\200\002\240\246\035\003\022\036\n\013de" +
-      "scription\030\007 \001(\tB\t\210\246\035\001\230\246\035\200\020\022\030\n\timage_url\030" +
-      "\010 \001(\tB\005\230\246\035\200\020\022\034\n\tparagraph\030\t \003(\tB\t\240\246\035\003\230\246\035",
-      "\200P\022 \n\016published_time\030\n \001(\003B\010\210\246\035\001\220\246\035\003\022\033\n\r" +
-      "modified_time\030\013 \001(\003B\004\240\246\035\003\022\030\n\ncrawl_time\030" +
-      "\014 \001(\003B\004\240\246\035\003\022\034\n\nword_count\030\r \001(\003B\010\210\246\035\001\240\246\035" +
-      "\003\022&\n\007keyword\030\016 \003(\0132\017.ArticleKeywordB\004\240\246\035" +
-      "\003\0222\n\021social_engagement\030\017 \003(\0132\021.SocialEng" +
-      "agementB\004\240\246\035\003\022&\n\007feature\030\020 \003(\0132\017.Article" +
-      "FeatureB\004\240\246\035\003\022 \n\016deduping_stems\030\021 \003(\tB\010\230" +
-      "\246\035\004\240\246\035\003\022\024\n\006retain\030\022 \001(\010B\004\240\246\035\003\022%\n\006reason\030" +
-      "\023 \001(\0162\017.Article.ReasonB\004\220\246\035\006\022\"\n\024reason_i" +
-      "ndustry_code\030\031 \001(\005B\004\220\246\035\006\022\021\n\003hot\030\024 \001(\010B\004\220",
-      "\246\035\006\022+\n\031oldest_hot_duplicate_time\030\025 \001(\003B\010" +
-      "\240\246\035\003\220\246\035\006\022\033\n\thot_count\030\026 \001(\005B\010\240\246\035\003\220\246\035\006\022\027\n" +
-      "\005score\030\027 \001(\001B\010\240\246\035\003\220\246\035\006\022\025\n\005video\030\032 \003(\0132\006." +
-      "Video\"<\n\006Reason\022\013\n\007UNKNOWN\020\000\022\014\n\010INDUSTRY" +
-      "\020\001\022\n\n\006PERSON\020\002\022\013\n\007COMPANY\020\003:\023\212\265\030\017MongoDB" +
-      ".Article\"\223\002\n\016ArticleKeyword\022\035\n\007keyword\030\001" +
-      " \001(\tB\014\210\246\035\001\220\246\035\003\230\246\0352\022\026\n\010strength\030\002 \001(\005B\004\210\246" +
-      "\035\001\022\036\n\004type\030\003 \001(\tB\020\210\246\035\001\220\246\035\005\230\246\035\005\250\246\035\001\022/\n\006so" +
-      "urce\030\004 \001(\0162\026.ArticleKeyword.Source:\007UNKN" +
-      "OWN\022\030\n\020paragraph_number\030\005 \001(\005\022\027\n\006entity\030",
-      "\006 \001(\0132\007.Entity\"F\n\006Source\022\013\n\007UNKNOWN\020\000\022\007\n" +
-      "\003NLP\020\001\022\r\n\tHYPERLINK\020\002\022\014\n\010META_TAG\020\003\022\t\n\005T" +
-      "ITLE\020\004\"\347\001\n\020SocialEngagement\022-\n\004site\030\001 \001(" +
-      "\0162\026.SocialEngagement.Site:\007UNKNOWN\022\031\n\013sh" +
-      "are_count\030\002 \001(\003B\004\210\246\035\001\022\031\n\013share_score\030\003 \001" +
-      "(\001B\004\210\246\035\001\022\022\n\nlike_count\030\004 \001(\003\022\025\n\rcomment_" +
-      "count\030\005 \001(\003\022\023\n\013create_time\030\006 \001(\003\".\n\004Site" +
-      "\022\013\n\007UNKNOWN\020\000\022\014\n\010FACEBOOK\020\001\022\013\n\007TWITTER\020\002" +
-      "\"B\n\016ArticleFeature\022\034\n\nfeature_id\030\001 \001(\005B\010" +
-      "\210\246\035\001\220\246\035\003\022\022\n\nsimilarity\030\002 \001(\001\"\215\001\n\005Video\022\026",
-      "\n\004type\030\001 \001(\tB\010\230\246\0352\210\246\035\001\022\"\n\013youtube_url\030\002 " +
-      "\001(\tB\r\230\246\035\377\005\250\246\035\001\220\246\035\005\022#\n\014video_source\030\003 \001(\t" +
-      "B\r\230\246\035\377\005\250\246\035\001\220\246\035\005\022\020\n\010width_px\030\004 \001(\005\022\021\n\thei" +
-      "ght_px\030\005 \001(\005\"9\n\017InterpretedData\022\031\n\007artic" +
-      "le\030\001 \001(\0132\010.Article\022\013\n\003url\030\002 \003(\tB$\n\024com.j" +
-      "anknspank.protoB\014ArticleProto"
-    };
-    com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
-      new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
-        public com.google.protobuf.ExtensionRegistry assignDescriptors(
-            com.google.protobuf.Descriptors.FileDescriptor root) {
-          descriptor = root;
-          internal_static_Article_descriptor =
-            getDescriptor().getMessageTypes().get(0);
-          internal_static_Article_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_Article_descriptor,
-              new java.lang.String[] { "UrlId", "Url", "Title", "Type", "Author", "Origin", "Copyright", "Description", "ImageUrl", "Paragraph", "PublishedTime", "ModifiedTime", "CrawlTime", "WordCount", "Keyword", "SocialEngagement", "Feature", "DedupingStems", "Retain", "Reason", "ReasonIndustryCode", "Hot", "OldestHotDuplicateTime", "HotCount", "Score", "Video", });
-          internal_static_ArticleKeyword_descriptor =
-            getDescriptor().getMessageTypes().get(1);
-          internal_static_ArticleKeyword_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_ArticleKeyword_descriptor,
-              new java.lang.String[] { "Keyword", "Strength", "Type", "Source", "ParagraphNumber", "Entity", });
-          internal_static_SocialEngagement_descriptor =
-            getDescriptor().getMessageTypes().get(2);
-          internal_static_SocialEngagement_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_SocialEngagement_descriptor,
-              new java.lang.String[] { "Site", "ShareCount", "ShareScore", "LikeCount", "CommentCount", "CreateTime", });
-          internal_static_ArticleFeature_descriptor =
-            getDescriptor().getMessageTypes().get(3);
-          internal_static_ArticleFeature_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_ArticleFeature_descriptor,
-              new java.lang.String[] { "FeatureId", "Similarity", });
-          internal_static_Video_descriptor =
-            getDescriptor().getMessageTypes().get(4);
-          internal_static_Video_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_Video_descriptor,
-              new java.lang.String[] { "Type", "YoutubeUrl", "VideoSource", "WidthPx", "HeightPx", });
-          internal_static_InterpretedData_descriptor =
-            getDescriptor().getMessageTypes().get(5);
-          internal_static_InterpretedData_fieldAccessorTable = new
-            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
-              internal_static_InterpretedData_descriptor,
-              new java.lang.String[] { "Article", "Url", });
-          com.google.protobuf.ExtensionRegistry registry =
-            com.google.protobuf.ExtensionRegistry.newInstance();
-          registry.add(com.janknspank.database.ExtensionsProto.required);
-          registry.add(com.janknspank.database.ExtensionsProto.storageMethod);
+  /**
+   * Protobuf type {@code SocialEngagementHistory}
+   *
+   * <pre>
+   * A snapshot of an article's social engagement on one site, at one point in
+   * time.  Articles only keep their latest snapshot for each site (in
+   * Article.social_engagement), so that reading them stays cheap.  The full
+   * history is kept here instead.
+   * </pre>
+   */
+  public static final class SocialEngagementHistory extends
+      com.google.protobuf.GeneratedMessage
+      implements SocialEngagementHistoryOrBuilder {
+    // Use SocialEngagementHistory.newBuilder() to construct.
+    private SocialEngagementHistory(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+      super(builder);
+      this.unknownFields = builder.getUnknownFields();
+    }
+    private SocialEngagementHistory(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+    private static final SocialEngagementHistory defaultInstance;
+    public static SocialEngagementHistory getDefaultInstance() {
+      return defaultInstance;
+    }
+
+    public SocialEngagementHistory getDefaultInstanceForType() {
+      return defaultInstance;
+    }
+
+    private final com.google.protobuf.UnknownFieldSet unknownFields;
+    @java.lang.Override
+    public final com.google.protobuf.UnknownFieldSet
+        getUnknownFields() {
+      return this.unknownFields;
+    }
+    private SocialEngagementHistory(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      initFields();
+      int mutable_bitField0_ = 0;
+      com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+          com.google.protobuf.UnknownFieldSet.newBuilder();
+      try {
+        boolean done = false;
+        while (!done) {
+          int tag = input.readTag();
+          switch (tag) {
+            case 0:
+              done = true;
+              break;
+            default: {
+              if (!parseUnknownField(input, unknownFields,
+                                     extensionRegistry, tag)) {
+                done = true;
+              }
+              break;
+            }
+            case 10: {
+              com.janknspank.proto.ArticleProto.SocialEngagement.Builder subBuilder = null;
+              if (((bitField0_ & 0x00000001) == 0x00000001)) {
+                subBuilder = socialEngagement_.toBuilder();
+              }
+              socialEngagement_ = input.readMessage(com.janknspank.proto.ArticleProto.SocialEngagement.PARSER, extensionRegistry);
+              if (subBuilder != null) {
+                subBuilder.mergeFrom(socialEngagement_);
+                socialEngagement_ = subBuilder.buildPartial();
+              }
+              bitField0_ |= 0x00000001;
+              break;
+            }
+            case 18: {
+              bitField0_ |= 0x00000002;
+              urlId_ = input.readBytes();
+              break;
+            }
+            case 24: {
+              bitField0_ |= 0x00000004;
+              createTime_ = input.readInt64();
+              break;
+            }
+          }
+        }
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        throw e.setUnfinishedMessage(this);
+      } catch (java.io.IOException e) {
+        throw new com.google.protobuf.InvalidProtocolBufferException(
+            e.getMessage()).setUnfinishedMessage(this);
+      } finally {
+        this.unknownFields = unknownFields.build();
+        makeExtensionsImmutable();
+      }
+    }
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.janknspank.proto.ArticleProto.internal_static_SocialEngagementHistory_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.janknspank.proto.ArticleProto.internal_static_SocialEngagementHistory_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.janknspank.proto.ArticleProto.SocialEngagementHistory.class, com.janknspank.proto.ArticleProto.SocialEngagementHistory.Builder.class);
+    }
+
+    public static com.google.protobuf.Parser<SocialEngagementHistory> PARSER =
+        new com.google.protobuf.AbstractParser<SocialEngagementHistory>() {
+      public SocialEngagementHistory parsePartialFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return new SocialEngagementHistory(input, extensionRegistry);
+      }
+    };
+
+    @java.lang.Override
+    public com.google.protobuf.Parser<SocialEngagementHistory> getParserForType() {
+      return PARSER;
+    }
+
+    private int bitField0_;
+    // optional .SocialEngagement social_engagement = 1;
+    public static final int SOCIAL_ENGAGEMENT_FIELD_NUMBER = 1;
+    private com.janknspank.proto.ArticleProto.SocialEngagement socialEngagement_;
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    public boolean hasSocialEngagement() {
+      return ((bitField0_ & 0x00000001) == 0x00000001);
+    }
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    public com.janknspank.proto.ArticleProto.SocialEngagement getSocialEngagement() {
+      return socialEngagement_;
+    }
+    /**
+     * <code>optional .SocialEngagement social_engagement = 1;</code>
+     */
+    public com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder getSocialEngagementOrBuilder() {
+      return socialEngagement_;
+    }
+
+    // optional string url_id = 2;
+    public static final int URL_ID_FIELD_NUMBER = 2;
+    private java.lang.Object urlId_;
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    public boolean hasUrlId() {
+      return ((bitField0_ & 0x00000002) == 0x00000002);
+    }
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    public java.lang.String getUrlId() {
+      java.lang.Object ref = urlId_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        if (bs.isValidUtf8()) {
+          urlId_ = s;
+        }
+        return s;
+      }
+    }
+    /**
+     * <code>optional string url_id = 2;</code>
+     */
+    public com.google.protobuf.ByteString
+        getUrlIdBytes() {
+      java.lang.Object ref = urlId_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        urlId_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    // optional int64 create_time = 3;
+    public static final int CREATE_TIME_FIELD_NUMBER = 3;
+    private long createTime_;
+    /**
+     * <code>optional int64 create_time = 3;</code>
+     */
+    public boolean hasCreateTime() {
+      return ((bitField0_ & 0x00000004) == 0x00000004);
+    }
+    /**
+     * <code>optional int64 create_time = 3;</code>
+     */
+    public long getCreateTime() {
+      return createTime_;
+    }
+
+    private void initFields() {
+      socialEngagement_ = com.janknspank.proto.ArticleProto.SocialEngagement.getDefaultInstance();
+      urlId_ = "";
+      createTime_ = 0L;
+    }
+    private byte memoizedIsInitialized = -1;
+    public final boolean isInitialized() {
+      byte isInitialized = memoizedIsInitialized;
+      if (isInitialized != -1) return isInitialized == 1;
+
+      memoizedIsInitialized = 1;
+      return true;
+    }
+
+    public void writeTo(com.google.protobuf.CodedOutputStream output)
+                        throws java.io.IOException {
+      getSerializedSize();
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        output.writeMessage(1, socialEngagement_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        output.writeBytes(2, getUrlIdBytes());
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        output.writeInt64(3, createTime_);
+      }
+      getUnknownFields().writeTo(output);
+    }
+
+    private int memoizedSerializedSize = -1;
+    public int getSerializedSize() {
+      int size = memoizedSerializedSize;
+      if (size != -1) return size;
+
+      size = 0;
+      if (((bitField0_ & 0x00000001) == 0x00000001)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(1, socialEngagement_);
+      }
+      if (((bitField0_ & 0x00000002) == 0x00000002)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(2, getUrlIdBytes());
+      }
+      if (((bitField0_ & 0x00000004) == 0x00000004)) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(3, createTime_);
+      }
+      size += getUnknownFields().getSerializedSize();
+      memoizedSerializedSize = size;
+      return size;
+    }
+
+    private static final long serialVersionUID = 0L;
+    @java.lang.Override
+    protected java.lang.Object writeReplace()
+        throws java.io.ObjectStreamException {
+      return super.writeReplace();
+    }
+
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        com.google.protobuf.ByteString data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        com.google.protobuf.ByteString data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(byte[] data)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        byte[] data,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return PARSER.parseFrom(data, extensionRegistry);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseDelimitedFrom(java.io.InputStream input)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseDelimitedFrom(
+        java.io.InputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseDelimitedFrom(input, extensionRegistry);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        com.google.protobuf.CodedInputStream input)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input);
+    }
+    public static com.janknspank.proto.ArticleProto.SocialEngagementHistory parseFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      return PARSER.parseFrom(input, extensionRegistry);
+    }
+
+    public static Builder newBuilder() { return Builder.create(); }
+    public Builder newBuilderForType() { return newBuilder(); }
+    public static Builder newBuilder(com.janknspank.proto.ArticleProto.SocialEngagementHistory prototype) {
+      return newBuilder().mergeFrom(prototype);
+    }
+    public Builder toBuilder() { return newBuilder(this); }
+
+    @java.lang.Override
+    protected Builder newBuilderForType(
+        com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+      Builder builder = new Builder(parent);
+      return builder;
+    }
+    /**
+     * Protobuf type {@code SocialEngagementHistory}
+     *
+     * <pre>
+     * A snapshot of an article's social engagement on one site, at one point in
+     * time.  Articles only keep their latest snapshot for each site (in
+     * Article.social_engagement), so that reading them stays cheap.  The full
+     * history is kept here instead.
+     * </pre>
+     */
+    public static final class Builder extends
+        com.google.protobuf.GeneratedMessage.Builder<Builder>
+       implements com.janknspank.proto.ArticleProto.SocialEngagementHistoryOrBuilder {
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.janknspank.proto.ArticleProto.internal_static_SocialEngagementHistory_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.janknspank.proto.ArticleProto.internal_static_SocialEngagementHistory_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.janknspank.proto.ArticleProto.SocialEngagementHistory.class, com.janknspank.proto.ArticleProto.SocialEngagementHistory.Builder.class);
+      }
+
+      // Construct using com.janknspank.proto.ArticleProto.SocialEngagementHistory.newBuilder()
+      private Builder() {
+        maybeForceBuilderInitialization();
+      }
+
+      private Builder(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        super(parent);
+        maybeForceBuilderInitialization();
+      }
+      private void maybeForceBuilderInitialization() {
+        if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          getSocialEngagementFieldBuilder();
+        }
+      }
+      private static Builder create() {
+        return new Builder();
+      }
+
+      public Builder clear() {
+        super.clear();
+        if (socialEngagementBuilder_ == null) {
+          socialEngagement_ = com.janknspank.proto.ArticleProto.SocialEngagement.getDefaultInstance();
+        } else {
+          socialEngagementBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        urlId_ = "";
+        bitField0_ = (bitField0_ & ~0x00000002);
+        createTime_ = 0L;
+        bitField0_ = (bitField0_ & ~0x00000004);
+        return this;
+      }
+
+      public Builder clone() {
+        return create().mergeFrom(buildPartial());
+      }
+
+      public com.google.protobuf.Descriptors.Descriptor
+          getDescriptorForType() {
+        return com.janknspank.proto.ArticleProto.internal_static_SocialEngagementHistory_descriptor;
+      }
+
+      public com.janknspank.proto.ArticleProto.SocialEngagementHistory getDefaultInstanceForType() {
+        return com.janknspank.proto.ArticleProto.SocialEngagementHistory.getDefaultInstance();
+      }
+
+      public com.janknspank.proto.ArticleProto.SocialEngagementHistory build() {
+        com.janknspank.proto.ArticleProto.SocialEngagementHistory result = buildPartial();
+        if (!result.isInitialized()) {
+          throw newUninitializedMessageException(result);
+        }
+        return result;
+      }
+
+      public com.janknspank.proto.ArticleProto.SocialEngagementHistory buildPartial() {
+        com.janknspank.proto.ArticleProto.SocialEngagementHistory result = new com.janknspank.proto.ArticleProto.SocialEngagementHistory(this);
+        int from_bitField0_ = bitField0_;
+        int to_bitField0_ = 0;
+        if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+          to_bitField0_ |= 0x00000001;
+        }
+        if (socialEngagementBuilder_ == null) {
+          result.socialEngagement_ = socialEngagement_;
+        } else {
+          result.socialEngagement_ = socialEngagementBuilder_.build();
+        }
+        if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+          to_bitField0_ |= 0x00000002;
+        }
+        result.urlId_ = urlId_;
+        if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+          to_bitField0_ |= 0x00000004;
+        }
+        result.createTime_ = createTime_;
+        result.bitField0_ = to_bitField0_;
+        onBuilt();
+        return result;
+      }
+
+      public Builder mergeFrom(com.google.protobuf.Message other) {
+        if (other instanceof com.janknspank.proto.ArticleProto.SocialEngagementHistory) {
+          return mergeFrom((com.janknspank.proto.ArticleProto.SocialEngagementHistory)other);
+        } else {
+          super.mergeFrom(other);
+          return this;
+        }
+      }
+
+      public Builder mergeFrom(com.janknspank.proto.ArticleProto.SocialEngagementHistory other) {
+        if (other == com.janknspank.proto.ArticleProto.SocialEngagementHistory.getDefaultInstance()) return this;
+        if (other.hasSocialEngagement()) {
+          mergeSocialEngagement(other.getSocialEngagement());
+        }
+        if (other.hasUrlId()) {
+          bitField0_ |= 0x00000002;
+          urlId_ = other.urlId_;
+          onChanged();
+        }
+        if (other.hasCreateTime()) {
+          setCreateTime(other.getCreateTime());
+        }
+        this.mergeUnknownFields(other.getUnknownFields());
+        return this;
+      }
+
+      public final boolean isInitialized() {
+        return true;
+      }
+
+      public Builder mergeFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        com.janknspank.proto.ArticleProto.SocialEngagementHistory parsedMessage = null;
+        try {
+          parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          parsedMessage = (com.janknspank.proto.ArticleProto.SocialEngagementHistory) e.getUnfinishedMessage();
+          throw e;
+        } finally {
+          if (parsedMessage != null) {
+            mergeFrom(parsedMessage);
+          }
+        }
+        return this;
+      }
+      private int bitField0_;
+
+      // optional .SocialEngagement social_engagement = 1;
+      private com.janknspank.proto.ArticleProto.SocialEngagement socialEngagement_ = com.janknspank.proto.ArticleProto.SocialEngagement.getDefaultInstance();
+      private com.google.protobuf.SingleFieldBuilder<
+          com.janknspank.proto.ArticleProto.SocialEngagement, com.janknspank.proto.ArticleProto.SocialEngagement.Builder, com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder> socialEngagementBuilder_;
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public boolean hasSocialEngagement() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public com.janknspank.proto.ArticleProto.SocialEngagement getSocialEngagement() {
+        if (socialEngagementBuilder_ == null) {
+          return socialEngagement_;
+        } else {
+          return socialEngagementBuilder_.getMessage();
+        }
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public Builder setSocialEngagement(com.janknspank.proto.ArticleProto.SocialEngagement value) {
+        if (socialEngagementBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          socialEngagement_ = value;
+          onChanged();
+        } else {
+          socialEngagementBuilder_.setMessage(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public Builder setSocialEngagement(
+          com.janknspank.proto.ArticleProto.SocialEngagement.Builder builderForValue) {
+        if (socialEngagementBuilder_ == null) {
+          socialEngagement_ = builderForValue.build();
+          onChanged();
+        } else {
+          socialEngagementBuilder_.setMessage(builderForValue.build());
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public Builder mergeSocialEngagement(com.janknspank.proto.ArticleProto.SocialEngagement value) {
+        if (socialEngagementBuilder_ == null) {
+          if (((bitField0_ & 0x00000001) == 0x00000001) &&
+              socialEngagement_ != com.janknspank.proto.ArticleProto.SocialEngagement.getDefaultInstance()) {
+            socialEngagement_ =
+              com.janknspank.proto.ArticleProto.SocialEngagement.newBuilder(socialEngagement_).mergeFrom(value).buildPartial();
+          } else {
+            socialEngagement_ = value;
+          }
+          onChanged();
+        } else {
+          socialEngagementBuilder_.mergeFrom(value);
+        }
+        bitField0_ |= 0x00000001;
+        return this;
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public Builder clearSocialEngagement() {
+        if (socialEngagementBuilder_ == null) {
+          socialEngagement_ = com.janknspank.proto.ArticleProto.SocialEngagement.getDefaultInstance();
+          onChanged();
+        } else {
+          socialEngagementBuilder_.clear();
+        }
+        bitField0_ = (bitField0_ & ~0x00000001);
+        return this;
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public com.janknspank.proto.ArticleProto.SocialEngagement.Builder getSocialEngagementBuilder() {
+        bitField0_ |= 0x00000001;
+        onChanged();
+        return getSocialEngagementFieldBuilder().getBuilder();
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      public com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder getSocialEngagementOrBuilder() {
+        if (socialEngagementBuilder_ != null) {
+          return socialEngagementBuilder_.getMessageOrBuilder();
+        } else {
+          return socialEngagement_;
+        }
+      }
+      /**
+       * <code>optional .SocialEngagement social_engagement = 1;</code>
+       */
+      private com.google.protobuf.SingleFieldBuilder<
+          com.janknspank.proto.ArticleProto.SocialEngagement, com.janknspank.proto.ArticleProto.SocialEngagement.Builder, com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder> 
+          getSocialEngagementFieldBuilder() {
+        if (socialEngagementBuilder_ == null) {
+          socialEngagementBuilder_ = new com.google.protobuf.SingleFieldBuilder<
+              com.janknspank.proto.ArticleProto.SocialEngagement, com.janknspank.proto.ArticleProto.SocialEngagement.Builder, com.janknspank.proto.ArticleProto.SocialEngagementOrBuilder>(
+                  socialEngagement_,
+                  getParentForChildren(),
+                  isClean());
+          socialEngagement_ = null;
+        }
+        return socialEngagementBuilder_;
+      }
+
+      // optional string url_id = 2;
+      private java.lang.Object urlId_ = "";
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public boolean hasUrlId() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public java.lang.String getUrlId() {
+        java.lang.Object ref = urlId_;
+        if (!(ref instanceof java.lang.String)) {
+          java.lang.String s = ((com.google.protobuf.ByteString) ref)
+              .toStringUtf8();
+          urlId_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public com.google.protobuf.ByteString
+          getUrlIdBytes() {
+        java.lang.Object ref = urlId_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          urlId_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public Builder setUrlId(
+          java.lang.String value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        urlId_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public Builder clearUrlId() {
+        bitField0_ = (bitField0_ & ~0x00000002);
+        urlId_ = getDefaultInstance().getUrlId();
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional string url_id = 2;</code>
+       */
+      public Builder setUrlIdBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000002;
+        urlId_ = value;
+        onChanged();
+        return this;
+      }
+
+      // optional int64 create_time = 3;
+      private long createTime_ ;
+      /**
+       * <code>optional int64 create_time = 3;</code>
+       */
+      public boolean hasCreateTime() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int64 create_time = 3;</code>
+       */
+      public long getCreateTime() {
+        return createTime_;
+      }
+      /**
+       * <code>optional int64 create_time = 3;</code>
+       */
+      public Builder setCreateTime(long value) {
+        bitField0_ |= 0x00000004;
+        createTime_ = value;
+        onChanged();
+        return this;
+      }
+      /**
+       * <code>optional int64 create_time = 3;</code>
+       */
+      public Builder clearCreateTime() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        createTime_ = 0L;
+        onChanged();
+        return this;
+      }
+
+      // @@protoc_insertion_point(builder_scope:SocialEngagementHistory)
+    }
+
+    static {
+      defaultInstance = new SocialEngagementHistory(true);
+      defaultInstance.initFields();
+    }
+
+    // @@protoc_insertion_point(class_scope:SocialEngagementHistory)
+  }
+
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_Article_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_Article_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_ArticleKeyword_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_ArticleKeyword_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_SocialEngagement_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_SocialEngagement_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_ArticleFeature_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_ArticleFeature_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_Video_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_Video_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_InterpretedData_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_InterpretedData_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_SocialEngagementHistory_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_SocialEngagementHistory_fieldAccessorTable;
+
+  public static com.google.protobuf.Descriptors.FileDescriptor
+      getDescriptor() {
+    return descriptor;
+  }
+  private static com.google.protobuf.Descriptors.FileDescriptor
+      descriptor;
+  static {
+    java.lang.String[] descriptorData = {
+      "\n\"com/janknspank/proto/article.proto\032(co" +
+      "m/janknspank/database/extensions.proto\032\037" +
+      "com/janknspank/proto/core.proto\"\242\007\n\007Arti" +
+      "cle\022 \n\006url_id\030\001 \001(\tB\020\210\246\035\001\220\246\035\002\230\246\035\030\250\246\035\001\022\032\n" +
+      "\003url\030\002 \001(\tB\r\210\246\035\001\230\246\035\377\005\250\246\035\001\022\034\n\005title\030\003 \001(\t" +
+      "B\r\210\246\035\001\220\246\035\005\230\246\035\200\002\022\022\n\004type\030\004 \001(\tB\004\230\246\035\031\022\031\n\006a" +
+      "uthor\030\005 \001(\tB\t\230\246\035\200\002\240\246\035\003\022\024\n\006origin\030\030 \001(\tB\004" +
+      "\230\246\0352\022\034\n\tcopyright\030\006 \001(\tB\t\230\246\035\200\002\240\246\035\003\022\036\n\013de" +
+      "scription\030\007 \001(\tB\t\210\246\035\001\230\246\035\200\020\022\030\n\timage_url\030" +
+      "\010 \001(\tB\005\230\246\035\200\020\022\034\n\tparagraph\030\t \003(\tB\t\240\246\035\003\230\246\035",
+      "\200P\022 \n\016published_time\030\n \001(\003B\010\210\246\035\001\220\246\035\003\022\033\n\r" +
+      "modified_time\030\013 \001(\003B\004\240\246\035\003\022\030\n\ncrawl_time\030" +
+      "\014 \001(\003B\004\240\246\035\003\022\034\n\nword_count\030\r \001(\003B\010\210\246\035\001\240\246\035" +
+      "\003\022&\n\007keyword\030\016 \003(\0132\017.ArticleKeywordB\004\240\246\035" +
+      "\003\0222\n\021social_engagement\030\017 \003(\0132\021.SocialEng" +
+      "agementB\004\240\246\035\003\022&\n\007feature\030\020 \003(\0132\017.Article" +
+      "FeatureB\004\240\246\035\003\022 \n\016deduping_stems\030\021 \003(\tB\010\230" +
+      "\246\035\004\240\246\035\003\022\024\n\006retain\030\022 \001(\010B\004\240\246\035\003\022%\n\006reason\030" +
+      "\023 \001(\0162\017.Article.ReasonB\004\220\246\035\006\022\"\n\024reason_i" +
+      "ndustry_code\030\031 \001(\005B\004\220\246\035\006\022\021\n\003hot\030\024 \001(\010B\004\220",
+      "\246\035\006\022\'\n\031oldest_hot_duplicate_time\030\025 \001(\003B\004" +
+      "\240\246\035\003\022\027\n\thot_count\030\026 \001(\005B\004\240\246\035\003\022\027\n\005score\030\027" +
+      " \001(\001B\010\240\246\035\003\220\246\035\006\022\025\n\005video\030\032 \003(\0132\006.Video\022*\n" +
+      "\024duplicate_cluster_id\030\033 \001(\tB\014\230\246\035\030\250\246\035\001\240\246\035" +
+      "\003\"<\n\006Reason\022\013\n\007UNKNOWN\020\000\022\014\n\010INDUSTRY\020\001\022\n" +
+      "\n\006PERSON\020\002\022\013\n\007COMPANY\020\003:\023\212\265\030\017MongoDB.Art" +
+      "icle\"\223\002\n\016ArticleKeyword\022\035\n\007keyword\030\001 \001(\t" +
+      "B\014\210\246\035\001\220\246\035\003\230\246\0352\022\026\n\010strength\030\002 \001(\005B\004\210\246\035\001\022\036" +
+      "\n\004type\030\003 \001(\tB\020\210\246\035\001\220\246\035\005\230\246\035\005\250\246\035\001\022/\n\006source" +
+      "\030\004 \001(\0162\026.ArticleKeyword.Source:\007UNKNOWN\022",
+      "\030\n\020paragraph_number\030\005 \001(\005\022\027\n\006entity\030\006 \001(" +
+      "\0132\007.Entity\"F\n\006Source\022\013\n\007UNKNOWN\020\000\022\007\n\003NLP" +
+      "\020\001\022\r\n\tHYPERLINK\020\002\022\014\n\010META_TAG\020\003\022\t\n\005TITLE" +
+      "\020\004\"\347\001\n\020SocialEngagement\022-\n\004site\030\001 \001(\0162\026." +
+      "SocialEngagement.Site:\007UNKNOWN\022\031\n\013share_" +
+      "count\030\002 \001(\003B\004\210\246\035\001\022\031\n\013share_score\030\003 \001(\001B\004" +
+      "\210\246\035\001\022\022\n\nlike_count\030\004 \001(\003\022\025\n\rcomment_coun" +
+      "t\030\005 \001(\003\022\023\n\013create_time\030\006 \001(\003\".\n\004Site\022\013\n\007" +
+      "UNKNOWN\020\000\022\014\n\010FACEBOOK\020\001\022\013\n\007TWITTER\020\002\"B\n\016" +
+      "ArticleFeature\022\034\n\nfeature_id\030\001 \001(\005B\010\210\246\035\001",
+      "\220\246\035\003\022\022\n\nsimilarity\030\002 \001(\001\"\215\001\n\005Video\022\026\n\004ty" +
+      "pe\030\001 \001(\tB\010\230\246\0352\210\246\035\001\022\"\n\013youtube_url\030\002 \001(\tB" +
+      "\r\230\246\035\377\005\250\246\035\001\220\246\035\005\022#\n\014video_source\030\003 \001(\tB\r\230\246" +
+      "\035\377\005\250\246\035\001\220\246\035\005\022\020\n\010width_px\030\004 \001(\005\022\021\n\theight_" +
+      "px\030\005 \001(\005\"9\n\017InterpretedData\022\031\n\007article\030\001" +
+      " \001(\0132\010.Article\022\013\n\003url\030\002 \003(\t\"\263\001\n\027SocialEn" +
+      "gagementHistory\0222\n\021social_engagement\030\001 \001" +
+      "(\0132\021.SocialEngagementB\004\210\246\035\001\022 \n\006url_id\030\002 " +
+      "\001(\tB\020\210\246\035\001\220\246\035\003\230\246\035\030\250\246\035\001\022\035\n\013create_time\030\003 \001" +
+      "(\003B\010\210\246\035\001\220\246\035\003:#\212\265\030\037MongoDB.SocialEngageme",
+      "ntHistoryB$\n\024com.janknspank.protoB\014Artic" +
+      "leProto"
+    };
+    com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
+      new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
+        public com.google.protobuf.ExtensionRegistry assignDescriptors(
+            com.google.protobuf.Descriptors.FileDescriptor root) {
+          descriptor = root;
+          internal_static_Article_descriptor =
+            getDescriptor().getMessageTypes().get(0);
+          internal_static_Article_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_Article_descriptor,
+              new java.lang.String[] { "UrlId", "Url", "Title", "Type", "Author", "Origin", "Copyright", "Description", "ImageUrl", "Paragraph", "PublishedTime", "ModifiedTime", "CrawlTime", "WordCount", "Keyword", "SocialEngagement", "Feature", "DedupingStems", "Retain", "Reason", "ReasonIndustryCode", "Hot", "OldestHotDuplicateTime", "HotCount", "Score", "Video", "DuplicateClusterId", });
+          internal_static_ArticleKeyword_descriptor =
+            getDescriptor().getMessageTypes().get(1);
+          internal_static_ArticleKeyword_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_ArticleKeyword_descriptor,
+              new java.lang.String[] { "Keyword", "Strength", "Type", "Source", "ParagraphNumber", "Entity", });
+          internal_static_SocialEngagement_descriptor =
+            getDescriptor().getMessageTypes().get(2);
+          internal_static_SocialEngagement_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_SocialEngagement_descriptor,
+              new java.lang.String[] { "Site", "ShareCount", "ShareScore", "LikeCount", "CommentCount", "CreateTime", });
+          internal_static_ArticleFeature_descriptor =
+            getDescriptor().getMessageTypes().get(3);
+          internal_static_ArticleFeature_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_ArticleFeature_descriptor,
+              new java.lang.String[] { "FeatureId", "Similarity", });
+          internal_static_Video_descriptor =
+            getDescriptor().getMessageTypes().get(4);
+          internal_static_Video_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_Video_descriptor,
+              new java.lang.String[] { "Type", "YoutubeUrl", "VideoSource", "WidthPx", "HeightPx", });
+          internal_static_InterpretedData_descriptor =
+            getDescriptor().getMessageTypes().get(5);
+          internal_static_InterpretedData_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_InterpretedData_descriptor,
+              new java.lang.String[] { "Article", "Url", });
+          internal_static_SocialEngagementHistory_descriptor =
+            getDescriptor().getMessageTypes().get(6);
+          internal_static_SocialEngagementHistory_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_SocialEngagementHistory_descriptor,
+              new java.lang.String[] { "SocialEngagement", "UrlId", "CreateTime", });
+          com.google.protobuf.ExtensionRegistry registry =
+            com.google.protobuf.ExtensionRegistry.newInstance();
+          registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.storageMethod);
           registry.add(com.janknspank.database.ExtensionsProto.stringLength);
           registry.add(com.janknspank.database.ExtensionsProto.stringCharset);
           registry.add(com.janknspank.database.ExtensionsProto.required);
@@ -9779,6 +10806,14 @@ public final class ArticleProto {
           registry.add(com.janknspank.database.ExtensionsProto.storageMethod);
           registry.add(com.janknspank.database.ExtensionsProto.stringLength);
           registry.add(com.janknspank.database.ExtensionsProto.stringCharset);
+          registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.storageMethod);
+          registry.add(com.janknspank.database.ExtensionsProto.stringLength);
+          registry.add(com.janknspank.database.ExtensionsProto.stringCharset);
+          registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.storageMethod);
+          registry.add(com.janknspank.database.ExtensionsProto.databaseCollection);
           return registry;
         }
       };
@@ -10323,6 +10323,31 @@ public final class CrawlerProto {
      * <code>optional bool was_interrupted = 7;</code>
      */
     boolean getWasInterrupted();
+
+    // repeated .CrawlHistory.Stage stage = 8;
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> 
+        getStageList();
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    com.janknspank.proto.CrawlerProto.CrawlHistory.Stage getStage(int index);
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    int getStageCount();
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    java.util.List<? extends com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder> 
+        getStageOrBuilderList();
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder getStageOrBuilder(
+        int index);
   }
   /**
    * Protobuf type {@code CrawlHistory}
@@ -10418,6 +10443,14 @@ public final class CrawlerProto {
               wasInterrupted_ = input.readBool();
               break;
             }
+            case 66: {
+              if (!((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+                stage_ = new java.util.ArrayList<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage>();
+                mutable_bitField0_ |= 0x00000080;
+              }
+              stage_.add(input.readMessage(com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.PARSER, extensionRegistry));
+              break;
+            }
           }
         }
       } catch (com.google.protobuf.InvalidProtocolBufferException e) {
@@ -10429,6 +10462,9 @@ public final class CrawlerProto {
         if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
           site_ = java.util.Collections.unmodifiableList(site_);
         }
+        if (((mutable_bitField0_ & 0x00000080) == 0x00000080)) {
+          stage_ = java.util.Collections.unmodifiableList(stage_);
+        }
         this.unknownFields = unknownFields.build();
         makeExtensionsImmutable();
       }
@@ -11154,137 +11190,1119 @@ public final class CrawlerProto {
         /**
          * <code>optional int64 start_time = 2;</code>
          */
-        public Builder clearStartTime() {
+        public Builder clearStartTime() {
+          bitField0_ = (bitField0_ & ~0x00000002);
+          startTime_ = 0L;
+          onChanged();
+          return this;
+        }
+
+        // optional int64 end_time = 3;
+        private long endTime_ ;
+        /**
+         * <code>optional int64 end_time = 3;</code>
+         */
+        public boolean hasEndTime() {
+          return ((bitField0_ & 0x00000004) == 0x00000004);
+        }
+        /**
+         * <code>optional int64 end_time = 3;</code>
+         */
+        public long getEndTime() {
+          return endTime_;
+        }
+        /**
+         * <code>optional int64 end_time = 3;</code>
+         */
+        public Builder setEndTime(long value) {
+          bitField0_ |= 0x00000004;
+          endTime_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int64 end_time = 3;</code>
+         */
+        public Builder clearEndTime() {
+          bitField0_ = (bitField0_ & ~0x00000004);
+          endTime_ = 0L;
+          onChanged();
+          return this;
+        }
+
+        // optional int64 millis = 4;
+        private long millis_ ;
+        /**
+         * <code>optional int64 millis = 4;</code>
+         *
+         * <pre>
+         * Elapsed time.
+         * </pre>
+         */
+        public boolean hasMillis() {
+          return ((bitField0_ & 0x00000008) == 0x00000008);
+        }
+        /**
+         * <code>optional int64 millis = 4;</code>
+         *
+         * <pre>
+         * Elapsed time.
+         * </pre>
+         */
+        public long getMillis() {
+          return millis_;
+        }
+        /**
+         * <code>optional int64 millis = 4;</code>
+         *
+         * <pre>
+         * Elapsed time.
+         * </pre>
+         */
+        public Builder setMillis(long value) {
+          bitField0_ |= 0x00000008;
+          millis_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int64 millis = 4;</code>
+         *
+         * <pre>
+         * Elapsed time.
+         * </pre>
+         */
+        public Builder clearMillis() {
+          bitField0_ = (bitField0_ & ~0x00000008);
+          millis_ = 0L;
+          onChanged();
+          return this;
+        }
+
+        // optional int32 articles_crawled = 5;
+        private int articlesCrawled_ ;
+        /**
+         * <code>optional int32 articles_crawled = 5;</code>
+         */
+        public boolean hasArticlesCrawled() {
+          return ((bitField0_ & 0x00000010) == 0x00000010);
+        }
+        /**
+         * <code>optional int32 articles_crawled = 5;</code>
+         */
+        public int getArticlesCrawled() {
+          return articlesCrawled_;
+        }
+        /**
+         * <code>optional int32 articles_crawled = 5;</code>
+         */
+        public Builder setArticlesCrawled(int value) {
+          bitField0_ |= 0x00000010;
+          articlesCrawled_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int32 articles_crawled = 5;</code>
+         */
+        public Builder clearArticlesCrawled() {
+          bitField0_ = (bitField0_ & ~0x00000010);
+          articlesCrawled_ = 0;
+          onChanged();
+          return this;
+        }
+
+        // @@protoc_insertion_point(builder_scope:CrawlHistory.Site)
+      }
+
+      static {
+        defaultInstance = new Site(true);
+        defaultInstance.initFields();
+      }
+
+      // @@protoc_insertion_point(class_scope:CrawlHistory.Site)
+    }
+
+    public interface StageOrBuilder
+        extends com.google.protobuf.MessageOrBuilder {
+
+      // optional string name = 1;
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      boolean hasName();
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      java.lang.String getName();
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      com.google.protobuf.ByteString
+          getNameBytes();
+
+      // optional int64 busy_millis = 2;
+      /**
+       * <code>optional int64 busy_millis = 2;</code>
+       *
+       * <pre>
+       * Total time spent working on items.
+       * </pre>
+       */
+      boolean hasBusyMillis();
+      /**
+       * <code>optional int64 busy_millis = 2;</code>
+       *
+       * <pre>
+       * Total time spent working on items.
+       * </pre>
+       */
+      long getBusyMillis();
+
+      // optional int64 queue_millis = 3;
+      /**
+       * <code>optional int64 queue_millis = 3;</code>
+       *
+       * <pre>
+       * Total time items spent waiting in this stage's queue.
+       * </pre>
+       */
+      boolean hasQueueMillis();
+      /**
+       * <code>optional int64 queue_millis = 3;</code>
+       *
+       * <pre>
+       * Total time items spent waiting in this stage's queue.
+       * </pre>
+       */
+      long getQueueMillis();
+
+      // optional int64 max_millis = 4;
+      /**
+       * <code>optional int64 max_millis = 4;</code>
+       *
+       * <pre>
+       * Longest time spent on any one item.
+       * </pre>
+       */
+      boolean hasMaxMillis();
+      /**
+       * <code>optional int64 max_millis = 4;</code>
+       *
+       * <pre>
+       * Longest time spent on any one item.
+       * </pre>
+       */
+      long getMaxMillis();
+
+      // optional int32 items_completed = 5;
+      /**
+       * <code>optional int32 items_completed = 5;</code>
+       */
+      boolean hasItemsCompleted();
+      /**
+       * <code>optional int32 items_completed = 5;</code>
+       */
+      int getItemsCompleted();
+
+      // optional int32 items_failed = 6;
+      /**
+       * <code>optional int32 items_failed = 6;</code>
+       */
+      boolean hasItemsFailed();
+      /**
+       * <code>optional int32 items_failed = 6;</code>
+       */
+      int getItemsFailed();
+    }
+    /**
+     * Protobuf type {@code CrawlHistory.Stage}
+     *
+     * <pre>
+     * Throughput and latency for each stage of the crawl pipeline (fetching,
+     * processing, social engagement, storing).
+     * </pre>
+     */
+    public static final class Stage extends
+        com.google.protobuf.GeneratedMessage
+        implements StageOrBuilder {
+      // Use Stage.newBuilder() to construct.
+      private Stage(com.google.protobuf.GeneratedMessage.Builder<?> builder) {
+        super(builder);
+        this.unknownFields = builder.getUnknownFields();
+      }
+      private Stage(boolean noInit) { this.unknownFields = com.google.protobuf.UnknownFieldSet.getDefaultInstance(); }
+
+      private static final Stage defaultInstance;
+      public static Stage getDefaultInstance() {
+        return defaultInstance;
+      }
+
+      public Stage getDefaultInstanceForType() {
+        return defaultInstance;
+      }
+
+      private final com.google.protobuf.UnknownFieldSet unknownFields;
+      @java.lang.Override
+      public final com.google.protobuf.UnknownFieldSet
+          getUnknownFields() {
+        return this.unknownFields;
+      }
+      private Stage(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        initFields();
+        int mutable_bitField0_ = 0;
+        com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+            com.google.protobuf.UnknownFieldSet.newBuilder();
+        try {
+          boolean done = false;
+          while (!done) {
+            int tag = input.readTag();
+            switch (tag) {
+              case 0:
+                done = true;
+                break;
+              default: {
+                if (!parseUnknownField(input, unknownFields,
+                                       extensionRegistry, tag)) {
+                  done = true;
+                }
+                break;
+              }
+              case 10: {
+                bitField0_ |= 0x00000001;
+                name_ = input.readBytes();
+                break;
+              }
+              case 16: {
+                bitField0_ |= 0x00000002;
+                busyMillis_ = input.readInt64();
+                break;
+              }
+              case 24: {
+                bitField0_ |= 0x00000004;
+                queueMillis_ = input.readInt64();
+                break;
+              }
+              case 32: {
+                bitField0_ |= 0x00000008;
+                maxMillis_ = input.readInt64();
+                break;
+              }
+              case 40: {
+                bitField0_ |= 0x00000010;
+                itemsCompleted_ = input.readInt32();
+                break;
+              }
+              case 48: {
+                bitField0_ |= 0x00000020;
+                itemsFailed_ = input.readInt32();
+                break;
+              }
+            }
+          }
+        } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+          throw e.setUnfinishedMessage(this);
+        } catch (java.io.IOException e) {
+          throw new com.google.protobuf.InvalidProtocolBufferException(
+              e.getMessage()).setUnfinishedMessage(this);
+        } finally {
+          this.unknownFields = unknownFields.build();
+          makeExtensionsImmutable();
+        }
+      }
+      public static final com.google.protobuf.Descriptors.Descriptor
+          getDescriptor() {
+        return com.janknspank.proto.CrawlerProto.internal_static_CrawlHistory_Stage_descriptor;
+      }
+
+      protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+          internalGetFieldAccessorTable() {
+        return com.janknspank.proto.CrawlerProto.internal_static_CrawlHistory_Stage_fieldAccessorTable
+            .ensureFieldAccessorsInitialized(
+                com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.class, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder.class);
+      }
+
+      public static com.google.protobuf.Parser<Stage> PARSER =
+          new com.google.protobuf.AbstractParser<Stage>() {
+        public Stage parsePartialFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws com.google.protobuf.InvalidProtocolBufferException {
+          return new Stage(input, extensionRegistry);
+        }
+      };
+
+      @java.lang.Override
+      public com.google.protobuf.Parser<Stage> getParserForType() {
+        return PARSER;
+      }
+
+      private int bitField0_;
+      // optional string name = 1;
+      public static final int NAME_FIELD_NUMBER = 1;
+      private java.lang.Object name_;
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      public boolean hasName() {
+        return ((bitField0_ & 0x00000001) == 0x00000001);
+      }
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      public java.lang.String getName() {
+        java.lang.Object ref = name_;
+        if (ref instanceof java.lang.String) {
+          return (java.lang.String) ref;
+        } else {
+          com.google.protobuf.ByteString bs = 
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          if (bs.isValidUtf8()) {
+            name_ = s;
+          }
+          return s;
+        }
+      }
+      /**
+       * <code>optional string name = 1;</code>
+       */
+      public com.google.protobuf.ByteString
+          getNameBytes() {
+        java.lang.Object ref = name_;
+        if (ref instanceof java.lang.String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          name_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+
+      // optional int64 busy_millis = 2;
+      public static final int BUSY_MILLIS_FIELD_NUMBER = 2;
+      private long busyMillis_;
+      /**
+       * <code>optional int64 busy_millis = 2;</code>
+       *
+       * <pre>
+       * Total time spent working on items.
+       * </pre>
+       */
+      public boolean hasBusyMillis() {
+        return ((bitField0_ & 0x00000002) == 0x00000002);
+      }
+      /**
+       * <code>optional int64 busy_millis = 2;</code>
+       *
+       * <pre>
+       * Total time spent working on items.
+       * </pre>
+       */
+      public long getBusyMillis() {
+        return busyMillis_;
+      }
+
+      // optional int64 queue_millis = 3;
+      public static final int QUEUE_MILLIS_FIELD_NUMBER = 3;
+      private long queueMillis_;
+      /**
+       * <code>optional int64 queue_millis = 3;</code>
+       *
+       * <pre>
+       * Total time items spent waiting in this stage's queue.
+       * </pre>
+       */
+      public boolean hasQueueMillis() {
+        return ((bitField0_ & 0x00000004) == 0x00000004);
+      }
+      /**
+       * <code>optional int64 queue_millis = 3;</code>
+       *
+       * <pre>
+       * Total time items spent waiting in this stage's queue.
+       * </pre>
+       */
+      public long getQueueMillis() {
+        return queueMillis_;
+      }
+
+      // optional int64 max_millis = 4;
+      public static final int MAX_MILLIS_FIELD_NUMBER = 4;
+      private long maxMillis_;
+      /**
+       * <code>optional int64 max_millis = 4;</code>
+       *
+       * <pre>
+       * Longest time spent on any one item.
+       * </pre>
+       */
+      public boolean hasMaxMillis() {
+        return ((bitField0_ & 0x00000008) == 0x00000008);
+      }
+      /**
+       * <code>optional int64 max_millis = 4;</code>
+       *
+       * <pre>
+       * Longest time spent on any one item.
+       * </pre>
+       */
+      public long getMaxMillis() {
+        return maxMillis_;
+      }
+
+      // optional int32 items_completed = 5;
+      public static final int ITEMS_COMPLETED_FIELD_NUMBER = 5;
+      private int itemsCompleted_;
+      /**
+       * <code>optional int32 items_completed = 5;</code>
+       */
+      public boolean hasItemsCompleted() {
+        return ((bitField0_ & 0x00000010) == 0x00000010);
+      }
+      /**
+       * <code>optional int32 items_completed = 5;</code>
+       */
+      public int getItemsCompleted() {
+        return itemsCompleted_;
+      }
+
+      // optional int32 items_failed = 6;
+      public static final int ITEMS_FAILED_FIELD_NUMBER = 6;
+      private int itemsFailed_;
+      /**
+       * <code>optional int32 items_failed = 6;</code>
+       */
+      public boolean hasItemsFailed() {
+        return ((bitField0_ & 0x00000020) == 0x00000020);
+      }
+      /**
+       * <code>optional int32 items_failed = 6;</code>
+       */
+      public int getItemsFailed() {
+        return itemsFailed_;
+      }
+
+      private void initFields() {
+        name_ = "";
+        busyMillis_ = 0L;
+        queueMillis_ = 0L;
+        maxMillis_ = 0L;
+        itemsCompleted_ = 0;
+        itemsFailed_ = 0;
+      }
+      private byte memoizedIsInitialized = -1;
+      public final boolean isInitialized() {
+        byte isInitialized = memoizedIsInitialized;
+        if (isInitialized != -1) return isInitialized == 1;
+
+        memoizedIsInitialized = 1;
+        return true;
+      }
+
+      public void writeTo(com.google.protobuf.CodedOutputStream output)
+                          throws java.io.IOException {
+        getSerializedSize();
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          output.writeBytes(1, getNameBytes());
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          output.writeInt64(2, busyMillis_);
+        }
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          output.writeInt64(3, queueMillis_);
+        }
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          output.writeInt64(4, maxMillis_);
+        }
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          output.writeInt32(5, itemsCompleted_);
+        }
+        if (((bitField0_ & 0x00000020) == 0x00000020)) {
+          output.writeInt32(6, itemsFailed_);
+        }
+        getUnknownFields().writeTo(output);
+      }
+
+      private int memoizedSerializedSize = -1;
+      public int getSerializedSize() {
+        int size = memoizedSerializedSize;
+        if (size != -1) return size;
+
+        size = 0;
+        if (((bitField0_ & 0x00000001) == 0x00000001)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeBytesSize(1, getNameBytes());
+        }
+        if (((bitField0_ & 0x00000002) == 0x00000002)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt64Size(2, busyMillis_);
+        }
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt64Size(3, queueMillis_);
+        }
+        if (((bitField0_ & 0x00000008) == 0x00000008)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt64Size(4, maxMillis_);
+        }
+        if (((bitField0_ & 0x00000010) == 0x00000010)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt32Size(5, itemsCompleted_);
+        }
+        if (((bitField0_ & 0x00000020) == 0x00000020)) {
+          size += com.google.protobuf.CodedOutputStream
+            .computeInt32Size(6, itemsFailed_);
+        }
+        size += getUnknownFields().getSerializedSize();
+        memoizedSerializedSize = size;
+        return size;
+      }
+
+      private static final long serialVersionUID = 0L;
+      @java.lang.Override
+      protected java.lang.Object writeReplace()
+          throws java.io.ObjectStreamException {
+        return super.writeReplace();
+      }
+
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          com.google.protobuf.ByteString data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          com.google.protobuf.ByteString data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(byte[] data)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          byte[] data,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws com.google.protobuf.InvalidProtocolBufferException {
+        return PARSER.parseFrom(data, extensionRegistry);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseDelimitedFrom(java.io.InputStream input)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseDelimitedFrom(
+          java.io.InputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseDelimitedFrom(input, extensionRegistry);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          com.google.protobuf.CodedInputStream input)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input);
+      }
+      public static com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parseFrom(
+          com.google.protobuf.CodedInputStream input,
+          com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+          throws java.io.IOException {
+        return PARSER.parseFrom(input, extensionRegistry);
+      }
+
+      public static Builder newBuilder() { return Builder.create(); }
+      public Builder newBuilderForType() { return newBuilder(); }
+      public static Builder newBuilder(com.janknspank.proto.CrawlerProto.CrawlHistory.Stage prototype) {
+        return newBuilder().mergeFrom(prototype);
+      }
+      public Builder toBuilder() { return newBuilder(this); }
+
+      @java.lang.Override
+      protected Builder newBuilderForType(
+          com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+        Builder builder = new Builder(parent);
+        return builder;
+      }
+      /**
+       * Protobuf type {@code CrawlHistory.Stage}
+       *
+       * <pre>
+       * Throughput and latency for each stage of the crawl pipeline (fetching,
+       * processing, social engagement, storing).
+       * </pre>
+       */
+      public static final class Builder extends
+          com.google.protobuf.GeneratedMessage.Builder<Builder>
+         implements com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder {
+        public static final com.google.protobuf.Descriptors.Descriptor
+            getDescriptor() {
+          return com.janknspank.proto.CrawlerProto.internal_static_CrawlHistory_Stage_descriptor;
+        }
+
+        protected com.google.protobuf.GeneratedMessage.FieldAccessorTable
+            internalGetFieldAccessorTable() {
+          return com.janknspank.proto.CrawlerProto.internal_static_CrawlHistory_Stage_fieldAccessorTable
+              .ensureFieldAccessorsInitialized(
+                  com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.class, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder.class);
+        }
+
+        // Construct using com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.newBuilder()
+        private Builder() {
+          maybeForceBuilderInitialization();
+        }
+
+        private Builder(
+            com.google.protobuf.GeneratedMessage.BuilderParent parent) {
+          super(parent);
+          maybeForceBuilderInitialization();
+        }
+        private void maybeForceBuilderInitialization() {
+          if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
+          }
+        }
+        private static Builder create() {
+          return new Builder();
+        }
+
+        public Builder clear() {
+          super.clear();
+          name_ = "";
+          bitField0_ = (bitField0_ & ~0x00000001);
+          busyMillis_ = 0L;
+          bitField0_ = (bitField0_ & ~0x00000002);
+          queueMillis_ = 0L;
+          bitField0_ = (bitField0_ & ~0x00000004);
+          maxMillis_ = 0L;
+          bitField0_ = (bitField0_ & ~0x00000008);
+          itemsCompleted_ = 0;
+          bitField0_ = (bitField0_ & ~0x00000010);
+          itemsFailed_ = 0;
+          bitField0_ = (bitField0_ & ~0x00000020);
+          return this;
+        }
+
+        public Builder clone() {
+          return create().mergeFrom(buildPartial());
+        }
+
+        public com.google.protobuf.Descriptors.Descriptor
+            getDescriptorForType() {
+          return com.janknspank.proto.CrawlerProto.internal_static_CrawlHistory_Stage_descriptor;
+        }
+
+        public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage getDefaultInstanceForType() {
+          return com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.getDefaultInstance();
+        }
+
+        public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage build() {
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage result = buildPartial();
+          if (!result.isInitialized()) {
+            throw newUninitializedMessageException(result);
+          }
+          return result;
+        }
+
+        public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage buildPartial() {
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage result = new com.janknspank.proto.CrawlerProto.CrawlHistory.Stage(this);
+          int from_bitField0_ = bitField0_;
+          int to_bitField0_ = 0;
+          if (((from_bitField0_ & 0x00000001) == 0x00000001)) {
+            to_bitField0_ |= 0x00000001;
+          }
+          result.name_ = name_;
+          if (((from_bitField0_ & 0x00000002) == 0x00000002)) {
+            to_bitField0_ |= 0x00000002;
+          }
+          result.busyMillis_ = busyMillis_;
+          if (((from_bitField0_ & 0x00000004) == 0x00000004)) {
+            to_bitField0_ |= 0x00000004;
+          }
+          result.queueMillis_ = queueMillis_;
+          if (((from_bitField0_ & 0x00000008) == 0x00000008)) {
+            to_bitField0_ |= 0x00000008;
+          }
+          result.maxMillis_ = maxMillis_;
+          if (((from_bitField0_ & 0x00000010) == 0x00000010)) {
+            to_bitField0_ |= 0x00000010;
+          }
+          result.itemsCompleted_ = itemsCompleted_;
+          if (((from_bitField0_ & 0x00000020) == 0x00000020)) {
+            to_bitField0_ |= 0x00000020;
+          }
+          result.itemsFailed_ = itemsFailed_;
+          result.bitField0_ = to_bitField0_;
+          onBuilt();
+          return result;
+        }
+
+        public Builder mergeFrom(com.google.protobuf.Message other) {
+          if (other instanceof com.janknspank.proto.CrawlerProto.CrawlHistory.Stage) {
+            return mergeFrom((com.janknspank.proto.CrawlerProto.CrawlHistory.Stage)other);
+          } else {
+            super.mergeFrom(other);
+            return this;
+          }
+        }
+
+        public Builder mergeFrom(com.janknspank.proto.CrawlerProto.CrawlHistory.Stage other) {
+          if (other == com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.getDefaultInstance()) return this;
+          if (other.hasName()) {
+            bitField0_ |= 0x00000001;
+            name_ = other.name_;
+            onChanged();
+          }
+          if (other.hasBusyMillis()) {
+            setBusyMillis(other.getBusyMillis());
+          }
+          if (other.hasQueueMillis()) {
+            setQueueMillis(other.getQueueMillis());
+          }
+          if (other.hasMaxMillis()) {
+            setMaxMillis(other.getMaxMillis());
+          }
+          if (other.hasItemsCompleted()) {
+            setItemsCompleted(other.getItemsCompleted());
+          }
+          if (other.hasItemsFailed()) {
+            setItemsFailed(other.getItemsFailed());
+          }
+          this.mergeUnknownFields(other.getUnknownFields());
+          return this;
+        }
+
+        public final boolean isInitialized() {
+          return true;
+        }
+
+        public Builder mergeFrom(
+            com.google.protobuf.CodedInputStream input,
+            com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+            throws java.io.IOException {
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage parsedMessage = null;
+          try {
+            parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+          } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+            parsedMessage = (com.janknspank.proto.CrawlerProto.CrawlHistory.Stage) e.getUnfinishedMessage();
+            throw e;
+          } finally {
+            if (parsedMessage != null) {
+              mergeFrom(parsedMessage);
+            }
+          }
+          return this;
+        }
+        private int bitField0_;
+
+        // optional string name = 1;
+        private java.lang.Object name_ = "";
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public boolean hasName() {
+          return ((bitField0_ & 0x00000001) == 0x00000001);
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public java.lang.String getName() {
+          java.lang.Object ref = name_;
+          if (!(ref instanceof java.lang.String)) {
+            java.lang.String s = ((com.google.protobuf.ByteString) ref)
+                .toStringUtf8();
+            name_ = s;
+            return s;
+          } else {
+            return (java.lang.String) ref;
+          }
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public com.google.protobuf.ByteString
+            getNameBytes() {
+          java.lang.Object ref = name_;
+          if (ref instanceof String) {
+            com.google.protobuf.ByteString b = 
+                com.google.protobuf.ByteString.copyFromUtf8(
+                    (java.lang.String) ref);
+            name_ = b;
+            return b;
+          } else {
+            return (com.google.protobuf.ByteString) ref;
+          }
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public Builder setName(
+            java.lang.String value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+          name_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public Builder clearName() {
+          bitField0_ = (bitField0_ & ~0x00000001);
+          name_ = getDefaultInstance().getName();
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional string name = 1;</code>
+         */
+        public Builder setNameBytes(
+            com.google.protobuf.ByteString value) {
+          if (value == null) {
+    throw new NullPointerException();
+  }
+  bitField0_ |= 0x00000001;
+          name_ = value;
+          onChanged();
+          return this;
+        }
+
+        // optional int64 busy_millis = 2;
+        private long busyMillis_ ;
+        /**
+         * <code>optional int64 busy_millis = 2;</code>
+         *
+         * <pre>
+         * Total time spent working on items.
+         * </pre>
+         */
+        public boolean hasBusyMillis() {
+          return ((bitField0_ & 0x00000002) == 0x00000002);
+        }
+        /**
+         * <code>optional int64 busy_millis = 2;</code>
+         *
+         * <pre>
+         * Total time spent working on items.
+         * </pre>
+         */
+        public long getBusyMillis() {
+          return busyMillis_;
+        }
+        /**
+         * <code>optional int64 busy_millis = 2;</code>
+         *
+         * <pre>
+         * Total time spent working on items.
+         * </pre>
+         */
+        public Builder setBusyMillis(long value) {
+          bitField0_ |= 0x00000002;
+          busyMillis_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int64 busy_millis = 2;</code>
+         *
+         * <pre>
+         * Total time spent working on items.
+         * </pre>
+         */
+        public Builder clearBusyMillis() {
           bitField0_ = (bitField0_ & ~0x00000002);
-          startTime_ = 0L;
+          busyMillis_ = 0L;
           onChanged();
           return this;
         }
 
-        // optional int64 end_time = 3;
-        private long endTime_ ;
+        // optional int64 queue_millis = 3;
+        private long queueMillis_ ;
         /**
-         * <code>optional int64 end_time = 3;</code>
+         * <code>optional int64 queue_millis = 3;</code>
+         *
+         * <pre>
+         * Total time items spent waiting in this stage's queue.
+         * </pre>
          */
-        public boolean hasEndTime() {
+        public boolean hasQueueMillis() {
           return ((bitField0_ & 0x00000004) == 0x00000004);
         }
         /**
-         * <code>optional int64 end_time = 3;</code>
+         * <code>optional int64 queue_millis = 3;</code>
+         *
+         * <pre>
+         * Total time items spent waiting in this stage's queue.
+         * </pre>
          */
-        public long getEndTime() {
-          return endTime_;
+        public long getQueueMillis() {
+          return queueMillis_;
         }
         /**
-         * <code>optional int64 end_time = 3;</code>
+         * <code>optional int64 queue_millis = 3;</code>
+         *
+         * <pre>
+         * Total time items spent waiting in this stage's queue.
+         * </pre>
          */
-        public Builder setEndTime(long value) {
+        public Builder setQueueMillis(long value) {
           bitField0_ |= 0x00000004;
-          endTime_ = value;
+          queueMillis_ = value;
           onChanged();
           return this;
         }
         /**
-         * <code>optional int64 end_time = 3;</code>
+         * <code>optional int64 queue_millis = 3;</code>
+         *
+         * <pre>
+         * Total time items spent waiting in this stage's queue.
+         * </pre>
          */
-        public Builder clearEndTime() {
+        public Builder clearQueueMillis() {
           bitField0_ = (bitField0_ & ~0x00000004);
-          endTime_ = 0L;
+          queueMillis_ = 0L;
           onChanged();
           return this;
         }
 
-        // optional int64 millis = 4;
-        private long millis_ ;
+        // optional int64 max_millis = 4;
+        private long maxMillis_ ;
         /**
-         * <code>optional int64 millis = 4;</code>
+         * <code>optional int64 max_millis = 4;</code>
          *
          * <pre>
-         * Elapsed time.
+         * Longest time spent on any one item.
          * </pre>
          */
-        public boolean hasMillis() {
+        public boolean hasMaxMillis() {
           return ((bitField0_ & 0x00000008) == 0x00000008);
         }
         /**
-         * <code>optional int64 millis = 4;</code>
+         * <code>optional int64 max_millis = 4;</code>
          *
          * <pre>
-         * Elapsed time.
+         * Longest time spent on any one item.
          * </pre>
          */
-        public long getMillis() {
-          return millis_;
+        public long getMaxMillis() {
+          return maxMillis_;
         }
         /**
-         * <code>optional int64 millis = 4;</code>
+         * <code>optional int64 max_millis = 4;</code>
          *
          * <pre>
-         * Elapsed time.
+         * Longest time spent on any one item.
          * </pre>
          */
-        public Builder setMillis(long value) {
+        public Builder setMaxMillis(long value) {
           bitField0_ |= 0x00000008;
-          millis_ = value;
+          maxMillis_ = value;
           onChanged();
           return this;
         }
         /**
-         * <code>optional int64 millis = 4;</code>
+         * <code>optional int64 max_millis = 4;</code>
          *
          * <pre>
-         * Elapsed time.
+         * Longest time spent on any one item.
          * </pre>
          */
-        public Builder clearMillis() {
+        public Builder clearMaxMillis() {
           bitField0_ = (bitField0_ & ~0x00000008);
-          millis_ = 0L;
+          maxMillis_ = 0L;
           onChanged();
           return this;
         }
 
-        // optional int32 articles_crawled = 5;
-        private int articlesCrawled_ ;
+        // optional int32 items_completed = 5;
+        private int itemsCompleted_ ;
         /**
-         * <code>optional int32 articles_crawled = 5;</code>
+         * <code>optional int32 items_completed = 5;</code>
          */
-        public boolean hasArticlesCrawled() {
+        public boolean hasItemsCompleted() {
           return ((bitField0_ & 0x00000010) == 0x00000010);
         }
         /**
-         * <code>optional int32 articles_crawled = 5;</code>
+         * <code>optional int32 items_completed = 5;</code>
          */
-        public int getArticlesCrawled() {
-          return articlesCrawled_;
+        public int getItemsCompleted() {
+          return itemsCompleted_;
         }
         /**
-         * <code>optional int32 articles_crawled = 5;</code>
+         * <code>optional int32 items_completed = 5;</code>
          */
-        public Builder setArticlesCrawled(int value) {
+        public Builder setItemsCompleted(int value) {
           bitField0_ |= 0x00000010;
-          articlesCrawled_ = value;
+          itemsCompleted_ = value;
           onChanged();
           return this;
         }
         /**
-         * <code>optional int32 articles_crawled = 5;</code>
+         * <code>optional int32 items_completed = 5;</code>
          */
-        public Builder clearArticlesCrawled() {
+        public Builder clearItemsCompleted() {
           bitField0_ = (bitField0_ & ~0x00000010);
-          articlesCrawled_ = 0;
+          itemsCompleted_ = 0;
           onChanged();
           return this;
         }
 
-        // @@protoc_insertion_point(builder_scope:CrawlHistory.Site)
+        // optional int32 items_failed = 6;
+        private int itemsFailed_ ;
+        /**
+         * <code>optional int32 items_failed = 6;</code>
+         */
+        public boolean hasItemsFailed() {
+          return ((bitField0_ & 0x00000020) == 0x00000020);
+        }
+        /**
+         * <code>optional int32 items_failed = 6;</code>
+         */
+        public int getItemsFailed() {
+          return itemsFailed_;
+        }
+        /**
+         * <code>optional int32 items_failed = 6;</code>
+         */
+        public Builder setItemsFailed(int value) {
+          bitField0_ |= 0x00000020;
+          itemsFailed_ = value;
+          onChanged();
+          return this;
+        }
+        /**
+         * <code>optional int32 items_failed = 6;</code>
+         */
+        public Builder clearItemsFailed() {
+          bitField0_ = (bitField0_ & ~0x00000020);
+          itemsFailed_ = 0;
+          onChanged();
+          return this;
+        }
+
+        // @@protoc_insertion_point(builder_scope:CrawlHistory.Stage)
       }
 
       static {
-        defaultInstance = new Site(true);
+        defaultInstance = new Stage(true);
         defaultInstance.initFields();
       }
 
-      // @@protoc_insertion_point(class_scope:CrawlHistory.Site)
+      // @@protoc_insertion_point(class_scope:CrawlHistory.Stage)
     }
 
     private int bitField0_;
@@ -11482,6 +12500,42 @@ public final class CrawlerProto {
       return wasInterrupted_;
     }
 
+    // repeated .CrawlHistory.Stage stage = 8;
+    public static final int STAGE_FIELD_NUMBER = 8;
+    private java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> stage_;
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    public java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> getStageList() {
+      return stage_;
+    }
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    public java.util.List<? extends com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder> 
+        getStageOrBuilderList() {
+      return stage_;
+    }
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    public int getStageCount() {
+      return stage_.size();
+    }
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage getStage(int index) {
+      return stage_.get(index);
+    }
+    /**
+     * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+     */
+    public com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder getStageOrBuilder(
+        int index) {
+      return stage_.get(index);
+    }
+
     private void initFields() {
       crawlId_ = "";
       host_ = "";
@@ -11490,6 +12544,7 @@ public final class CrawlerProto {
       endTime_ = 0L;
       millis_ = 0L;
       wasInterrupted_ = false;
+      stage_ = java.util.Collections.emptyList();
     }
     private byte memoizedIsInitialized = -1;
     public final boolean isInitialized() {
@@ -11524,6 +12579,9 @@ public final class CrawlerProto {
       if (((bitField0_ & 0x00000020) == 0x00000020)) {
         output.writeBool(7, wasInterrupted_);
       }
+      for (int i = 0; i < stage_.size(); i++) {
+        output.writeMessage(8, stage_.get(i));
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -11561,6 +12619,10 @@ public final class CrawlerProto {
         size += com.google.protobuf.CodedOutputStream
           .computeBoolSize(7, wasInterrupted_);
       }
+      for (int i = 0; i < stage_.size(); i++) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeMessageSize(8, stage_.get(i));
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSerializedSize = size;
       return size;
@@ -11675,6 +12737,7 @@ public final class CrawlerProto {
       private void maybeForceBuilderInitialization() {
         if (com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders) {
           getSiteFieldBuilder();
+          getStageFieldBuilder();
         }
       }
       private static Builder create() {
@@ -11701,6 +12764,12 @@ public final class CrawlerProto {
         bitField0_ = (bitField0_ & ~0x00000020);
         wasInterrupted_ = false;
         bitField0_ = (bitField0_ & ~0x00000040);
+        if (stageBuilder_ == null) {
+          stage_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000080);
+        } else {
+          stageBuilder_.clear();
+        }
         return this;
       }
 
@@ -11762,6 +12831,15 @@ public final class CrawlerProto {
           to_bitField0_ |= 0x00000020;
         }
         result.wasInterrupted_ = wasInterrupted_;
+        if (stageBuilder_ == null) {
+          if (((bitField0_ & 0x00000080) == 0x00000080)) {
+            stage_ = java.util.Collections.unmodifiableList(stage_);
+            bitField0_ = (bitField0_ & ~0x00000080);
+          }
+          result.stage_ = stage_;
+        } else {
+          result.stage_ = stageBuilder_.build();
+        }
         result.bitField0_ = to_bitField0_;
         onBuilt();
         return result;
@@ -11826,6 +12904,32 @@ public final class CrawlerProto {
         if (other.hasWasInterrupted()) {
           setWasInterrupted(other.getWasInterrupted());
         }
+        if (stageBuilder_ == null) {
+          if (!other.stage_.isEmpty()) {
+            if (stage_.isEmpty()) {
+              stage_ = other.stage_;
+              bitField0_ = (bitField0_ & ~0x00000080);
+            } else {
+              ensureStageIsMutable();
+              stage_.addAll(other.stage_);
+            }
+            onChanged();
+          }
+        } else {
+          if (!other.stage_.isEmpty()) {
+            if (stageBuilder_.isEmpty()) {
+              stageBuilder_.dispose();
+              stageBuilder_ = null;
+              stage_ = other.stage_;
+              bitField0_ = (bitField0_ & ~0x00000080);
+              stageBuilder_ = 
+                com.google.protobuf.GeneratedMessage.alwaysUseFieldBuilders ?
+                   getStageFieldBuilder() : null;
+            } else {
+              stageBuilder_.addAllMessages(other.stage_);
+            }
+          }
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         return this;
       }
@@ -12389,6 +13493,246 @@ public final class CrawlerProto {
         return this;
       }
 
+      // repeated .CrawlHistory.Stage stage = 8;
+      private java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> stage_ =
+        java.util.Collections.emptyList();
+      private void ensureStageIsMutable() {
+        if (!((bitField0_ & 0x00000080) == 0x00000080)) {
+          stage_ = new java.util.ArrayList<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage>(stage_);
+          bitField0_ |= 0x00000080;
+         }
+      }
+
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder, com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder> stageBuilder_;
+
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> getStageList() {
+        if (stageBuilder_ == null) {
+          return java.util.Collections.unmodifiableList(stage_);
+        } else {
+          return stageBuilder_.getMessageList();
+        }
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public int getStageCount() {
+        if (stageBuilder_ == null) {
+          return stage_.size();
+        } else {
+          return stageBuilder_.getCount();
+        }
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage getStage(int index) {
+        if (stageBuilder_ == null) {
+          return stage_.get(index);
+        } else {
+          return stageBuilder_.getMessage(index);
+        }
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder setStage(
+          int index, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage value) {
+        if (stageBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureStageIsMutable();
+          stage_.set(index, value);
+          onChanged();
+        } else {
+          stageBuilder_.setMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder setStage(
+          int index, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder builderForValue) {
+        if (stageBuilder_ == null) {
+          ensureStageIsMutable();
+          stage_.set(index, builderForValue.build());
+          onChanged();
+        } else {
+          stageBuilder_.setMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder addStage(com.janknspank.proto.CrawlerProto.CrawlHistory.Stage value) {
+        if (stageBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureStageIsMutable();
+          stage_.add(value);
+          onChanged();
+        } else {
+          stageBuilder_.addMessage(value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder addStage(
+          int index, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage value) {
+        if (stageBuilder_ == null) {
+          if (value == null) {
+            throw new NullPointerException();
+          }
+          ensureStageIsMutable();
+          stage_.add(index, value);
+          onChanged();
+        } else {
+          stageBuilder_.addMessage(index, value);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder addStage(
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder builderForValue) {
+        if (stageBuilder_ == null) {
+          ensureStageIsMutable();
+          stage_.add(builderForValue.build());
+          onChanged();
+        } else {
+          stageBuilder_.addMessage(builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder addStage(
+          int index, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder builderForValue) {
+        if (stageBuilder_ == null) {
+          ensureStageIsMutable();
+          stage_.add(index, builderForValue.build());
+          onChanged();
+        } else {
+          stageBuilder_.addMessage(index, builderForValue.build());
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder addAllStage(
+          java.lang.Iterable<? extends com.janknspank.proto.CrawlerProto.CrawlHistory.Stage> values) {
+        if (stageBuilder_ == null) {
+          ensureStageIsMutable();
+          super.addAll(values, stage_);
+          onChanged();
+        } else {
+          stageBuilder_.addAllMessages(values);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder clearStage() {
+        if (stageBuilder_ == null) {
+          stage_ = java.util.Collections.emptyList();
+          bitField0_ = (bitField0_ & ~0x00000080);
+          onChanged();
+        } else {
+          stageBuilder_.clear();
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public Builder removeStage(int index) {
+        if (stageBuilder_ == null) {
+          ensureStageIsMutable();
+          stage_.remove(index);
+          onChanged();
+        } else {
+          stageBuilder_.remove(index);
+        }
+        return this;
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder getStageBuilder(
+          int index) {
+        return getStageFieldBuilder().getBuilder(index);
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder getStageOrBuilder(
+          int index) {
+        if (stageBuilder_ == null) {
+          return stage_.get(index);  } else {
+          return stageBuilder_.getMessageOrBuilder(index);
+        }
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public java.util.List<? extends com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder> 
+           getStageOrBuilderList() {
+        if (stageBuilder_ != null) {
+          return stageBuilder_.getMessageOrBuilderList();
+        } else {
+          return java.util.Collections.unmodifiableList(stage_);
+        }
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder addStageBuilder() {
+        return getStageFieldBuilder().addBuilder(
+            com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder addStageBuilder(
+          int index) {
+        return getStageFieldBuilder().addBuilder(
+            index, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.getDefaultInstance());
+      }
+      /**
+       * <code>repeated .CrawlHistory.Stage stage = 8;</code>
+       */
+      public java.util.List<com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder> 
+           getStageBuilderList() {
+        return getStageFieldBuilder().getBuilderList();
+      }
+      private com.google.protobuf.RepeatedFieldBuilder<
+          com.janknspank.proto.CrawlerProto.CrawlHistory.Stage, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder, com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder> 
+          getStageFieldBuilder() {
+        if (stageBuilder_ == null) {
+          stageBuilder_ = new com.google.protobuf.RepeatedFieldBuilder<
+              com.janknspank.proto.CrawlerProto.CrawlHistory.Stage, com.janknspank.proto.CrawlerProto.CrawlHistory.Stage.Builder, com.janknspank.proto.CrawlerProto.CrawlHistory.StageOrBuilder>(
+                  stage_,
+                  ((bitField0_ & 0x00000080) == 0x00000080),
+                  getParentForChildren(),
+                  isClean());
+          stage_ = null;
+        }
+        return stageBuilder_;
+      }
+
       // @@protoc_insertion_point(builder_scope:CrawlHistory)
     }
 
@@ -12450,6 +13794,11 @@ public final class CrawlerProto {
   private static
     com.google.protobuf.GeneratedMessage.FieldAccessorTable
       internal_static_CrawlHistory_Site_fieldAccessorTable;
+  private static com.google.protobuf.Descriptors.Descriptor
+    internal_static_CrawlHistory_Stage_descriptor;
+  private static
+    com.google.protobuf.GeneratedMessage.FieldAccessorTable
+      internal_static_CrawlHistory_Stage_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -12499,17 +13848,22 @@ public final class CrawlerProto {
       "ecks\022\027\n\010good_url\030\001 \003(\tB\005\230\246\035\377\005\022\026\n\007bad_url" +
       "\030\002 \003(\tB\005\230\246\035\377\005\032V\n\030ArticleUrlDetectorCheck" +
       "s\022\032\n\013article_url\030\001 \003(\tB\005\230\246\035\377\005\022\036\n\017non_art",
-      "icle_url\030\002 \003(\tB\005\230\246\035\377\005\"\341\002\n\014CrawlHistory\022\"" +
+      "icle_url\030\002 \003(\tB\005\230\246\035\377\005\"\233\004\n\014CrawlHistory\022\"" +
       "\n\010crawl_id\030\001 \001(\tB\020\210\246\035\001\220\246\035\002\230\246\035\030\250\246\035\001\022\027\n\004ho" +
       "st\030\002 \001(\tB\t\210\246\035\001\230\246\035\200\002\022 \n\004site\030\003 \003(\0132\022.Craw" +
       "lHistory.Site\022\030\n\nstart_time\030\004 \001(\003B\004\210\246\035\001\022" +
       "\020\n\010end_time\030\005 \001(\003\022\016\n\006millis\030\006 \001(\003\022\027\n\017was" +
-      "_interrupted\030\007 \001(\010\032\202\001\n\004Site\022\036\n\013root_doma" +
-      "in\030\001 \001(\tB\t\210\246\035\001\230\246\035\377\005\022\030\n\nstart_time\030\002 \001(\003B" +
-      "\004\210\246\035\001\022\020\n\010end_time\030\003 \001(\003\022\016\n\006millis\030\004 \001(\003\022" +
-      "\036\n\020articles_crawled\030\005 \001(\005B\004\210\246\035\001:\030\212\265\030\024Mon" +
-      "goDB.CrawlHistoryB$\n\024com.janknspank.prot",
-      "oB\014CrawlerProto"
+      "_interrupted\030\007 \001(\010\022\"\n\005stage\030\010 \003(\0132\023.Craw" +
+      "lHistory.Stage\032\202\001\n\004Site\022\036\n\013root_domain\030\001" +
+      " \001(\tB\t\210\246\035\001\230\246\035\377\005\022\030\n\nstart_time\030\002 \001(\003B\004\210\246\035" +
+      "\001\022\020\n\010end_time\030\003 \001(\003\022\016\n\006millis\030\004 \001(\003\022\036\n\020a" +
+      "rticles_crawled\030\005 \001(\005B\004\210\246\035\001\032\223\001\n\005Stage\022\026\n",
+      "\004name\030\001 \001(\tB\010\210\246\035\001\230\246\035@\022\023\n\013busy_millis\030\002 \001" +
+      "(\003\022\024\n\014queue_millis\030\003 \001(\003\022\022\n\nmax_millis\030\004" +
+      " \001(\003\022\035\n\017items_completed\030\005 \001(\005B\004\210\246\035\001\022\024\n\014i" +
+      "tems_failed\030\006 \001(\005:\030\212\265\030\024MongoDB.CrawlHist" +
+      "oryB$\n\024com.janknspank.protoB\014CrawlerProt" +
+      "o"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
       new com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner() {
@@ -12569,13 +13923,19 @@ public final class CrawlerProto {
           internal_static_CrawlHistory_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_CrawlHistory_descriptor,
-              new java.lang.String[] { "CrawlId", "Host", "Site", "StartTime", "EndTime", "Millis", "WasInterrupted", });
+              new java.lang.String[] { "CrawlId", "Host", "Site", "StartTime", "EndTime", "Millis", "WasInterrupted", "Stage", });
           internal_static_CrawlHistory_Site_descriptor =
             internal_static_CrawlHistory_descriptor.getNestedTypes().get(0);
           internal_static_CrawlHistory_Site_fieldAccessorTable = new
             com.google.protobuf.GeneratedMessage.FieldAccessorTable(
               internal_static_CrawlHistory_Site_descriptor,
               new java.lang.String[] { "RootDomain", "StartTime", "EndTime", "Millis", "ArticlesCrawled", });
+          internal_static_CrawlHistory_Stage_descriptor =
+            internal_static_CrawlHistory_descriptor.getNestedTypes().get(1);
+          internal_static_CrawlHistory_Stage_fieldAccessorTable = new
+            com.google.protobuf.GeneratedMessage.FieldAccessorTable(
+              internal_static_CrawlHistory_Stage_descriptor,
+              new java.lang.String[] { "Name", "BusyMillis", "QueueMillis", "MaxMillis", "ItemsCompleted", "ItemsFailed", });
           com.google.protobuf.ExtensionRegistry registry =
             com.google.protobuf.ExtensionRegistry.newInstance();
           registry.add(com.janknspank.database.ExtensionsProto.required);
@@ -12618,6 +13978,9 @@ public final class CrawlerProto {
           registry.add(com.janknspank.database.ExtensionsProto.stringLength);
           registry.add(com.janknspank.database.ExtensionsProto.required);
           registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.required);
+          registry.add(com.janknspank.database.ExtensionsProto.stringLength);
+          registry.add(com.janknspank.database.ExtensionsProto.required);
           registry.add(com.janknspank.database.ExtensionsProto.databaseCollection);
           return registry;
         }
@@ -0,0 +1,103 @@
+package com.janknspank.rank;
+
+import java.util.BitSet;
+
+import com.janknspank.classifier.FeatureId;
+import com.janknspank.classifier.FeatureType;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.ArticleFeature;
+
+/**
+ * The article-side data InputValuesGenerator needs for scoring an article for
+ * a specific user: Feature similarities by FeatureId, the article's relevance
+ * to the user's industries, and which of the user's contact and company
+ * keywords show up in the title and first paragraph.  Each of these is
+ * calculated once, then shared by all the inputs that need it.
+ *
+ * Create these through {@code UserScoringContext#forArticle(Article)}.
+ */
+public class ArticleScoringContext {
+  private static final FeatureId[] FEATURE_IDS = FeatureId.values();
+
+  private final UserScoringContext userContext;
+  private final Article article;
+
+  /**
+   * Similarity of each feature this article has, indexed by FeatureId ordinal.
+   * If an article somehow has a feature twice, the first one wins, same as
+   * {@code ArticleFeatures#getFeatureSimilarity}.
+   */
+  private final double[] featureSimilarities = new double[FEATURE_IDS.length];
+  private final BitSet features = new BitSet(FEATURE_IDS.length);
+
+  private final double relevanceToUserIndustries;
+  private BitSet titleKeywordMatches = null;
+  private BitSet firstParagraphKeywordMatches = null;
+
+  ArticleScoringContext(UserScoringContext userContext, Article article) {
+    this.userContext = userContext;
+    this.article = article;
+    for (ArticleFeature articleFeature : article.getFeatureList()) {
+      FeatureId featureId = FeatureId.fromId(articleFeature.getFeatureId());
+      if (featureId != null && !features.get(featureId.ordinal())) {
+        features.set(featureId.ordinal());
+        featureSimilarities[featureId.ordinal()] = articleFeature.getSimilarity();
+      }
+    }
+    relevanceToUserIndustries = InputValuesGenerator.relevanceToUserIndustries(userContext, this);
+  }
+
+  public UserScoringContext getUserContext() {
+    return userContext;
+  }
+
+  public Article getArticle() {
+    return article;
+  }
+
+  public boolean hasFeature(FeatureId featureId) {
+    return features.get(featureId.ordinal());
+  }
+
+  /**
+   * Returns the article's similarity to the passed feature, or 0 if the article
+   * doesn't have it.
+   */
+  public double getFeatureSimilarity(FeatureId featureId) {
+    return featureSimilarities[featureId.ordinal()];
+  }
+
+  /**
+   * Returns the number of INDUSTRY features this article has with a
+   * similarity above {@code similarity}.
+   */
+  int countIndustriesAbove(double similarity) {
+    int count = 0;
+    for (int ordinal = features.nextSetBit(0); ordinal >= 0;
+        ordinal = features.nextSetBit(ordinal + 1)) {
+      if (FEATURE_IDS[ordinal].getFeatureType() == FeatureType.INDUSTRY
+          && featureSimilarities[ordinal] > similarity) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  double getRelevanceToUserIndustries() {
+    return relevanceToUserIndustries;
+  }
+
+  BitSet getTitleKeywordMatches() {
+    if (titleKeywordMatches == null) {
+      titleKeywordMatches = userContext.findKeywords(article.getTitle());
+    }
+    return titleKeywordMatches;
+  }
+
+  BitSet getFirstParagraphKeywordMatches() {
+    if (firstParagraphKeywordMatches == null) {
+      firstParagraphKeywordMatches = userContext.findKeywords(article.getParagraph(0));
+    }
+    return firstParagraphKeywordMatches;
+  }
+}
@@ -0,0 +1,173 @@
+package com.janknspank.rank;
+
+import java.util.List;
+import java.util.Map;
+
+import org.neuroph.core.Connection;
+import org.neuroph.core.Layer;
+import org.neuroph.core.NeuralNetwork;
+import org.neuroph.core.Neuron;
+import org.neuroph.core.input.WeightedSum;
+import org.neuroph.core.transfer.Linear;
+import org.neuroph.core.transfer.Sigmoid;
+import org.neuroph.core.transfer.TransferFunction;
+import org.neuroph.nnet.comp.neuron.BiasNeuron;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * An immutable, plain-arrays copy of a trained Neuroph feed-forward network.
+ *
+ * Neuroph's {@code NeuralNetwork#setInput} / {@code #calculate} /
+ * {@code #getOutput} store intermediate values on the network's neurons, so a
+ * shared network can't safely be used from multiple threads at once.  This
+ * class instead evaluates the trained weights as matrix math over local
+ * arrays, so it's thread-safe without any locking, and it doesn't allocate
+ * any objects when given a reusable {@code Workspace}.
+ */
+public class CompiledNeuralNetwork {
+  private static final int TRANSFER_SIGMOID = 0;
+  private static final int TRANSFER_LINEAR = 1;
+
+  private final int inputCount;
+
+  /**
+   * For each non-input layer, for each neuron in that layer, the weights of
+   * its connections to each neuron in the previous layer.  The last weight is
+   * the bias, which is multiplied by a constant 1.
+   */
+  private final double[][][] weights;
+  private final int[][] transferTypes;
+  private final double[][] transferSlopes;
+  private final int maxLayerSize;
+
+  /**
+   * Per-thread scratch space for evaluating a network, so that scoring lots of
+   * articles in a row doesn't allocate.
+   */
+  public class Workspace {
+    private final double[] previous = new double[maxLayerSize];
+    private final double[] current = new double[maxLayerSize];
+  }
+
+  public CompiledNeuralNetwork(NeuralNetwork<?> neuralNetwork) {
+    // Figure out the index of each non-bias neuron within its layer.
+    List<List<Neuron>> layerNeurons = Lists.newArrayList();
+    Map<Neuron, Integer> neuronIndexes = Maps.newHashMap();
+    for (Layer layer : neuralNetwork.getLayers()) {
+      List<Neuron> neurons = Lists.newArrayList();
+      for (Neuron neuron : layer.getNeurons()) {
+        if (!(neuron instanceof BiasNeuron)) {
+          neuronIndexes.put(neuron, neurons.size());
+          neurons.add(neuron);
+        }
+      }
+      layerNeurons.add(neurons);
+    }
+
+    inputCount = layerNeurons.get(0).size();
+    weights = new double[layerNeurons.size() - 1][][];
+    transferTypes = new int[layerNeurons.size() - 1][];
+    transferSlopes = new double[layerNeurons.size() - 1][];
+    int maxLayerSize = inputCount;
+    for (int layer = 1; layer < layerNeurons.size(); layer++) {
+      List<Neuron> neurons = layerNeurons.get(layer);
+      int previousLayerSize = layerNeurons.get(layer - 1).size();
+      maxLayerSize = Math.max(maxLayerSize, neurons.size());
+      weights[layer - 1] = new double[neurons.size()][previousLayerSize + 1];
+      transferTypes[layer - 1] = new int[neurons.size()];
+      transferSlopes[layer - 1] = new double[neurons.size()];
+      for (int n = 0; n < neurons.size(); n++) {
+        Neuron neuron = neurons.get(n);
+        if (!(neuron.getInputFunction() instanceof WeightedSum)) {
+          throw new IllegalStateException("Unsupported input function: "
+              + neuron.getInputFunction().getClass().getSimpleName());
+        }
+        for (Connection connection : neuron.getInputConnections()) {
+          double weight = connection.getWeight().getValue();
+          if (connection.getFromNeuron() instanceof BiasNeuron) {
+            weights[layer - 1][n][previousLayerSize] += weight;
+          } else {
+            weights[layer - 1][n][neuronIndexes.get(connection.getFromNeuron())] += weight;
+          }
+        }
+        TransferFunction transferFunction = neuron.getTransferFunction();
+        if (transferFunction instanceof Sigmoid) {
+          transferTypes[layer - 1][n] = TRANSFER_SIGMOID;
+          transferSlopes[layer - 1][n] = ((Sigmoid) transferFunction).getSlope();
+        } else if (transferFunction instanceof Linear) {
+          transferTypes[layer - 1][n] = TRANSFER_LINEAR;
+          transferSlopes[layer - 1][n] = ((Linear) transferFunction).getSlope();
+        } else {
+          throw new IllegalStateException("Unsupported transfer function: "
+              + transferFunction.getClass().getSimpleName());
+        }
+      }
+    }
+    this.maxLayerSize = maxLayerSize;
+  }
+
+  public int getInputCount() {
+    return inputCount;
+  }
+
+  public Workspace newWorkspace() {
+    return new Workspace();
+  }
+
+  /**
+   * Returns the value of the network's first output neuron for the passed
+   * inputs.
+   */
+  public double calculate(double[] inputs) {
+    return calculate(inputs, newWorkspace());
+  }
+
+  /**
+   * Returns the value of the network's first output neuron for the passed
+   * inputs, using {@code workspace} for intermediate values.  Workspaces must
+   * not be shared across threads.
+   */
+  public double calculate(double[] inputs, Workspace workspace) {
+    if (inputs.length != inputCount) {
+      throw new IllegalArgumentException(
+          "Expected " + inputCount + " inputs, got " + inputs.length);
+    }
+    double[] previous = workspace.previous;
+    double[] current = workspace.current;
+    System.arraycopy(inputs, 0, previous, 0, inputCount);
+    int previousSize = inputCount;
+    for (int layer = 0; layer < weights.length; layer++) {
+      double[][] layerWeights = weights[layer];
+      for (int n = 0; n < layerWeights.length; n++) {
+        double[] neuronWeights = layerWeights[n];
+        double net = neuronWeights[previousSize]; // Bias.
+        for (int i = 0; i < previousSize; i++) {
+          net += previous[i] * neuronWeights[i];
+        }
+        current[n] = transfer(transferTypes[layer][n], transferSlopes[layer][n], net);
+      }
+      double[] swap = previous;
+      previous = current;
+      current = swap;
+      previousSize = layerWeights.length;
+    }
+    return previous[0];
+  }
+
+  /**
+   * Same math as Neuroph's Sigmoid and Linear transfer functions.
+   */
+  private static double transfer(int transferType, double slope, double net) {
+    if (transferType == TRANSFER_LINEAR) {
+      return slope * net;
+    }
+    if (net > 100) {
+      return 1.0;
+    } else if (net < -100) {
+      return 0.0;
+    }
+    return 1 / (1 + Math.exp(-slope * net));
+  }
+}
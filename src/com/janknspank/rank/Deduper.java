@@ -1,5 +1,6 @@
 package com.janknspank.rank;
 
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -7,6 +8,7 @@ import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -30,7 +32,19 @@ public class Deduper {
   // Turns out a pretty large value gives us the best results, based on this
   // score calculation:
   // int score = positives * 10 - (5 * missedDupes + 2 * falseDupes);
-  private static final long STEM_INTERSECTION_PUBLISH_DATE_RANGE = TimeUnit.HOURS.toMillis(30);
+  public static final long STEM_INTERSECTION_PUBLISH_DATE_RANGE = TimeUnit.HOURS.toMillis(30);
+
+  /**
+   * The Article fields #filterOutDupes reads.
+   */
+  public static final ImmutableSet<String> ARTICLE_FIELDS = ImmutableSet.of(
+      "published_time",
+      "crawl_time",
+      "deduping_stems",
+      "social_engagement",
+      "duplicate_cluster_id",
+      "hot_count",
+      "oldest_hot_duplicate_time");
 
   /**
    * Helper class that contains extracted values from an article that are
@@ -56,17 +70,49 @@ public class Deduper {
     }
 
     public boolean isDuplicate(ArticleExtraction extraction2) {
-      if (Math.abs(extraction2.publishedTime - publishedTime) > STEM_INTERSECTION_PUBLISH_DATE_RANGE) {
+      if (!isWithinPublishDateRange(extraction2)) {
         return false;
       }
       return Sets.intersection(stems, extraction2.stems).size() >= STEM_INTERSECTION_COUNT_MINIMUM;
     }
 
+    private boolean isWithinPublishDateRange(ArticleExtraction extraction2) {
+      return Math.abs(extraction2.publishedTime - publishedTime)
+          <= STEM_INTERSECTION_PUBLISH_DATE_RANGE;
+    }
+
+    /**
+     * Returns this extraction's stems as integer IDs, assigning new IDs to
+     * stems {@code stemIds} hasn't seen before.
+     */
+    private int[] internStems(Map<String, Integer> stemIds) {
+      int[] ids = new int[stems.size()];
+      int i = 0;
+      for (String stem : stems) {
+        Integer id = stemIds.get(stem);
+        if (id == null) {
+          id = stemIds.size();
+          stemIds.put(stem, id);
+        }
+        ids[i++] = id;
+      }
+      return ids;
+    }
+
     public void markHasKilledDupe(long publishedTime) {
       ++dupeKilledCount;
       oldestHotDuplicateTime = Math.min(oldestHotDuplicateTime, publishedTime);
     }
 
+    /**
+     * Credits this extraction with the other members of its crawl-time
+     * duplicate cluster.
+     */
+    private void markHasClusterDupes(int clusterDupeCount, long clusterOldestTime) {
+      dupeKilledCount += clusterDupeCount;
+      oldestHotDuplicateTime = Math.min(oldestHotDuplicateTime, clusterOldestTime);
+    }
+
     public long getPublishedTime() {
       return publishedTime;
     }
@@ -85,57 +131,167 @@ public class Deduper {
   }
 
   /**
-   * This method filters out duplicates based on the DuplicateArticles
-   * that are written on Article objects at crawl time. This is more efficient
-   * than computing duplicates from scratch using cosine similarity. This
-   * method should be used during getArticles, not the "dedupe" method below.
+   * Returns true if an article with {@code engagement} should replace one with
+   * {@code existingEngagement} as the article we show for a set of duplicates.
+   */
+  private static boolean isMoreSociallyValuable(
+      SocialEngagement engagement, SocialEngagement existingEngagement) {
+    return existingEngagement == null
+        || (engagement != null
+            && engagement.getShareScore() > existingEngagement.getShareScore());
+  }
+
+  /**
+   * This method filters out duplicates based on the duplicate clusters and
+   * deduping stems that are written on Article objects at crawl time. This is
+   * more efficient than computing duplicates from scratch using cosine
+   * similarity. This method should be used during getArticles, not the
+   * "dedupe" method below.
+   *
+   * First, articles that share a duplicate_cluster_id (see
+   * {@code DuplicateClusterer}) are collapsed into whichever of them has the
+   * best social score, with a single hash lookup per article.  Their hot count
+   * is the larger of the cluster size we see here and the cluster size that
+   * was recorded at crawl time.
+   *
+   * Then the survivors, plus any articles crawled before we started assigning
+   * clusters, are deduped by stems, in the order they're passed.  Each one is
+   * compared against the articles we've kept so far, and if it's a duplicate
+   * of any of them, the earliest such kept article either absorbs it or is
+   * replaced by it, depending on their social scores.
+   *
+   * Rather than comparing each article against every kept article, we keep
+   * an inverted index from (interned) stems to the kept articles that have
+   * them.  Counting hits across an article's stems' postings gives us the
+   * exact stem intersection size with every kept article that shares at least
+   * one stem, so only those few candidates ever get looked at.
    */
   public static List<Article> filterOutDupes(Iterable<Article> articles) {
-    // This cache saves us about 500ms when de-duping 100 articles.
-    final Map<ArticleExtraction, Article> extractionMap = Maps.newHashMap();
-    for (Article article : articles) {
-      extractionMap.put(new ArticleExtraction(article), article);
+    List<Article> articleList = ImmutableList.copyOf(articles);
+    int articleCount = articleList.size();
+    ArticleExtraction[] extractions = new ArticleExtraction[articleCount];
+    SocialEngagement[] engagements = new SocialEngagement[articleCount];
+
+    // candidates holds indexes into articleList of the articles that survive
+    // cluster collapsing.  The cluster arrays are indexed by position in
+    // candidates.
+    List<Integer> candidates = Lists.newArrayList();
+    Map<String, Integer> candidatePositionsByClusterId = Maps.newHashMap();
+    int[] clusterMemberCounts = new int[articleCount];
+    int[] clusterHotCounts = new int[articleCount];
+    long[] clusterOldestTimes = new long[articleCount];
+    for (int i = 0; i < articleCount; i++) {
+      Article article = articleList.get(i);
+      extractions[i] = new ArticleExtraction(article);
+      engagements[i] = SocialEngagements.getForArticle(article, Site.FACEBOOK);
+      long oldestTime = article.hasOldestHotDuplicateTime()
+          ? Math.min(article.getOldestHotDuplicateTime(), extractions[i].getPublishedTime())
+          : extractions[i].getPublishedTime();
+
+      Integer position = article.hasDuplicateClusterId()
+          ? candidatePositionsByClusterId.get(article.getDuplicateClusterId())
+          : null;
+      if (position == null) {
+        position = candidates.size();
+        candidates.add(i);
+        if (article.hasDuplicateClusterId()) {
+          candidatePositionsByClusterId.put(article.getDuplicateClusterId(), position);
+        }
+        clusterMemberCounts[position] = 1;
+        clusterHotCounts[position] = article.getHotCount();
+        clusterOldestTimes[position] = oldestTime;
+        continue;
+      }
+      if (isMoreSociallyValuable(engagements[i], engagements[candidates.get(position)])) {
+        candidates.set(position, i);
+      }
+      clusterMemberCounts[position]++;
+      clusterHotCounts[position] = Math.max(clusterHotCounts[position], article.getHotCount());
+      clusterOldestTimes[position] = Math.min(clusterOldestTimes[position], oldestTime);
+    }
+    int[][] articleStemIds = new int[articleCount][];
+    Map<String, Integer> stemIds = Maps.newHashMap();
+    for (int position = 0; position < candidates.size(); position++) {
+      int index = candidates.get(position);
+      int clusterSize = Math.max(clusterMemberCounts[position], clusterHotCounts[position]);
+      if (clusterSize > 1) {
+        extractions[index].markHasClusterDupes(clusterSize - 1, clusterOldestTimes[position]);
+      }
+      articleStemIds[index] = extractions[index].internStems(stemIds);
     }
 
-    List<ArticleExtraction> nonDupeExtractions = Lists.newArrayList();
-    for (ArticleExtraction extraction : extractionMap.keySet()) {
-      boolean foundDupe = false;
-      for (int i = 0; i < nonDupeExtractions.size(); i++) {
-        ArticleExtraction nonDupeExtraction = nonDupeExtractions.get(i);
-        if (extraction.isDuplicate(nonDupeExtraction)) {
-          // Choose the one with the higher social score.
-          SocialEngagement engagement =
-              SocialEngagements.getForArticle(extractionMap.get(extraction), Site.FACEBOOK);
-          SocialEngagement nonDupeEngagement =
-              SocialEngagements.getForArticle(extractionMap.get(nonDupeExtraction), Site.FACEBOOK);
-          if (nonDupeEngagement == null
-              || (engagement != null
-                  && engagement.getShareScore() > nonDupeEngagement.getShareScore())) {
-            // The new article is more socially valuable, use it instead.
-            extraction.markHasKilledDupe(nonDupeExtraction.getPublishedTime());
-            nonDupeExtractions.set(i, extraction);
-          } else {
-            nonDupeExtraction.markHasKilledDupe(extraction.getPublishedTime());
+    // nonDupes holds indexes into articleList of the articles we're keeping.
+    // slotsByStemId maps each stem ID to the positions in nonDupes whose
+    // article has that stem.
+    List<Integer> nonDupes = Lists.newArrayList();
+    List<BitSet> slotsByStemId = Lists.newArrayList();
+    for (int i = 0; i < stemIds.size(); i++) {
+      slotsByStemId.add(new BitSet());
+    }
+    int[] intersectionCounts = new int[articleCount];
+    List<Integer> candidateSlots = Lists.newArrayList();
+    for (int index : candidates) {
+      ArticleExtraction extraction = extractions[index];
+
+      // Count the number of stems this article shares with each kept article.
+      for (int stemId : articleStemIds[index]) {
+        BitSet slots = slotsByStemId.get(stemId);
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+          if (intersectionCounts[slot]++ == 0) {
+            candidateSlots.add(slot);
           }
-          foundDupe = true;
-          break;
         }
       }
-      if (!foundDupe) {
-        nonDupeExtractions.add(extraction);
+
+      // Find the first kept article this one's a duplicate of.
+      int dupeSlot = -1;
+      for (int slot : candidateSlots) {
+        if (intersectionCounts[slot] >= STEM_INTERSECTION_COUNT_MINIMUM
+            && (dupeSlot < 0 || slot < dupeSlot)
+            && extraction.isWithinPublishDateRange(extractions[nonDupes.get(slot)])) {
+          dupeSlot = slot;
+        }
+        intersectionCounts[slot] = 0;
+      }
+      candidateSlots.clear();
+
+      if (dupeSlot < 0) {
+        for (int stemId : articleStemIds[index]) {
+          slotsByStemId.get(stemId).set(nonDupes.size());
+        }
+        nonDupes.add(index);
+        continue;
+      }
+
+      // Choose the one with the higher social score.
+      int nonDupeIndex = nonDupes.get(dupeSlot);
+      ArticleExtraction nonDupeExtraction = extractions[nonDupeIndex];
+      if (isMoreSociallyValuable(engagements[index], engagements[nonDupeIndex])) {
+        // The new article is more socially valuable, use it instead.
+        extraction.markHasKilledDupe(nonDupeExtraction.getPublishedTime());
+        nonDupes.set(dupeSlot, index);
+        for (int stemId : articleStemIds[nonDupeIndex]) {
+          slotsByStemId.get(stemId).clear(dupeSlot);
+        }
+        for (int stemId : articleStemIds[index]) {
+          slotsByStemId.get(stemId).set(dupeSlot);
+        }
+      } else {
+        nonDupeExtraction.markHasKilledDupe(extraction.getPublishedTime());
       }
     }
 
     List<Article> dedupedArticles = Lists.newArrayList();
-    for (ArticleExtraction extraction : nonDupeExtractions) {
+    for (int index : nonDupes) {
+      ArticleExtraction extraction = extractions[index];
       if (extraction.getDupeKilledCount() > 0) {
-        dedupedArticles.add(extractionMap.get(extraction).toBuilder()
+        dedupedArticles.add(articleList.get(index).toBuilder()
             .setHot(true)
             .setHotCount(extraction.getDupeKilledCount() + 1)
             .setOldestHotDuplicateTime(extraction.getOldestHotDuplicateTime())
             .build());
       } else {
-        dedupedArticles.add(extractionMap.get(extraction));
+        dedupedArticles.add(articleList.get(index));
       }
     }
     return dedupedArticles;
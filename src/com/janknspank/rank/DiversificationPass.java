@@ -23,6 +23,15 @@ import com.janknspank.server.soy.ViewFeedSoy;
  * the same topics aren't mentioned sequentially, unless that's all we got.
  */
 public abstract class DiversificationPass {
+  /**
+   * The Article fields diversification passes read.
+   */
+  public static final ImmutableSet<String> ARTICLE_FIELDS = ImmutableSet.of(
+      "url",
+      "keyword",
+      "feature",
+      "deduping_stems");
+
   public abstract Iterable<Article> diversify(Iterable<Article> articles);
 
   /**
@@ -18,19 +18,20 @@ public class HeuristicScorer extends Scorer {
   }
 
   public double getScore(User user, Article article) {
+    ArticleScoringContext articleContext = new UserScoringContext(user).forArticle(article);
     double score = 0;
 
     // 1. Relevance to user's industries
-    score += 0.4 * InputValuesGenerator.relevanceToUserIndustries(user, article);
+    score += 0.4 * articleContext.getRelevanceToUserIndustries();
 
     // 2. Relevance to social media
     score += 0.3 * InputValuesGenerator.relevanceOnFacebook(user, article);
 
     // 3. Relevance to contacts
-    score += 0.3 * InputValuesGenerator.relevanceToContacts(user, article);
+    score += 0.3 * InputValuesGenerator.relevanceToContacts(articleContext);
 
     // 4. Past employers
-    score += 0.1 * InputValuesGenerator.relevanceToCompanyEntities(user, article);
+    score += 0.1 * InputValuesGenerator.relevanceToCompanyEntities(articleContext);
 
     return score;
   }
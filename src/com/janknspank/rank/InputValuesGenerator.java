@@ -1,19 +1,12 @@
 package com.janknspank.rank;
 
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.BitSet;
+import java.util.List;
 import java.util.regex.Pattern;
 
-import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 import com.janknspank.bizness.ArticleFeatures;
-import com.janknspank.bizness.EntityType;
 import com.janknspank.bizness.SocialEngagements;
-import com.janknspank.bizness.UserIndustries;
-import com.janknspank.bizness.UserInterests;
 import com.janknspank.classifier.FeatureId;
-import com.janknspank.classifier.FeatureType;
 import com.janknspank.classifier.manual.ManualFeatureAcquisitions;
 import com.janknspank.classifier.manual.ManualFeatureBigMoney;
 import com.janknspank.classifier.manual.ManualFeatureFundraising;
@@ -22,76 +15,18 @@ import com.janknspank.classifier.manual.ManualFeatureLaunches;
 import com.janknspank.classifier.manual.ManualFeatureQuarterlyEarnings;
 import com.janknspank.nlp.KeywordCanonicalizer;
 import com.janknspank.proto.ArticleProto.Article;
-import com.janknspank.proto.ArticleProto.ArticleFeature;
 import com.janknspank.proto.ArticleProto.ArticleKeyword;
 import com.janknspank.proto.ArticleProto.SocialEngagement;
-import com.janknspank.proto.UserProto.AddressBookContact;
-import com.janknspank.proto.UserProto.Interest;
-import com.janknspank.proto.UserProto.Interest.InterestType;
-import com.janknspank.proto.UserProto.LinkedInContact;
 import com.janknspank.proto.UserProto.User;
 
 /**
- * Helper class to generate input node values for the Scorer.
+ * Helper class to generate input node values for the Scorer.  The heavy
+ * lifting of figuring out what the user's interested in, and which features
+ * each article has, is done once per user / article by
+ * {@code UserScoringContext} and {@code ArticleScoringContext}.
  */
 public class InputValuesGenerator {
   private static final Pattern WHITESPACE_PATTERN = Pattern.compile("(\\s|\\xA0)+");
-  private static final ContactsKeywordsCache CONTACTS_KEYWORDS_CACHE = new ContactsKeywordsCache();
-
-  private static class ContactsKeywordsCacheItem {
-    private String userId = null;
-    private long lastUpdatedMillis = 0;
-    private Set<String> contactsKeywords;
-  }
-
-  /**
-   * Poor-mans @RequestScoped cache for a user's contact keywords.  Really wish
-   * I had Guice for this instead.  This allows us to calculate keywords for the
-   * current user's contacts only once per /get_articles (etc.) request.
-   */
-  private static class ContactsKeywordsCache extends ThreadLocal<ContactsKeywordsCacheItem> {
-    @Override
-    protected ContactsKeywordsCacheItem initialValue() {
-      return null;
-    }
-
-    public Set<String> getContactsKeywords(User user) {
-      if (!user.hasId()) {
-        throw new IllegalStateException("User ID cannot be null");
-      }
-      ContactsKeywordsCacheItem cacheItem = get();
-      if (cacheItem != null
-          && user.getId().equals(cacheItem.userId)
-          && (System.currentTimeMillis() - cacheItem.lastUpdatedMillis)
-              < TimeUnit.MINUTES.toMillis(1)) {
-        return get().contactsKeywords;
-      }
-
-      cacheItem = new ContactsKeywordsCacheItem();
-      cacheItem.userId = user.getId();
-      cacheItem.lastUpdatedMillis = System.currentTimeMillis();
-      Set<String> contactsKeywords = Sets.newHashSet();
-      for (Interest interest : UserInterests.getInterests(user)) {
-        if (interest.getType() == InterestType.ENTITY
-            && EntityType.fromValue(interest.getEntity().getType()).isA(EntityType.PERSON)) {
-          contactsKeywords.add(interest.getEntity().getKeyword());
-        }
-        if (interest.getType() == InterestType.ADDRESS_BOOK_CONTACTS) {
-          for (AddressBookContact contact : user.getAddressBookContactList()) {
-            contactsKeywords.add(contact.getName());
-          }
-        }
-        if (interest.getType() == InterestType.LINKED_IN_CONTACTS) {
-          for (LinkedInContact contact : user.getLinkedInContactList()) {
-            contactsKeywords.add(contact.getName());
-          }
-        }
-      }
-      cacheItem.contactsKeywords = contactsKeywords;
-      this.set(cacheItem);
-      return contactsKeywords;
-    }
-  };
 
   /**
    * Returns a score for how relevant the passed article is to industries that
@@ -103,13 +38,17 @@ public class InputValuesGenerator {
    *  1.0 - Strong match on 3 or more industries
    */
   public static double relevanceToUserIndustries(User user, Article article) {
+    return new UserScoringContext(user).forArticle(article).getRelevanceToUserIndustries();
+  }
+
+  static double relevanceToUserIndustries(
+      UserScoringContext userContext, ArticleScoringContext articleContext) {
     boolean matchedAbove80 = false;
     int numAbove90Percentile = 0;
 
-    Map<FeatureId, Double> articleIndustryMap = getArticleIndustryMap(article);
-    for (FeatureId industryFeatureId : UserIndustries.getIndustryFeatureIds(user)) {
-      if (articleIndustryMap.containsKey(industryFeatureId)) {
-        double similarity = articleIndustryMap.get(industryFeatureId);
+    for (FeatureId industryFeatureId : userContext.getIndustryFeatureIds()) {
+      if (industryFeatureId != null && articleContext.hasFeature(industryFeatureId)) {
+        double similarity = articleContext.getFeatureSimilarity(industryFeatureId);
         if (similarity > 0.8) {
           matchedAbove80 = true;
         }
@@ -137,23 +76,19 @@ public class InputValuesGenerator {
    * cares about.
    */
   public static double relevanceToNonUserIndustries(User user, Article article) {
+    return relevanceToNonUserIndustries(new UserScoringContext(user).forArticle(article));
+  }
+
+  public static double relevanceToNonUserIndustries(ArticleScoringContext articleContext) {
     double highestSimilarityScoreThatMatchesUser = 0;
-    Map<FeatureId, Double> articleIndustryMap = getArticleIndustryMap(article);
-    for (FeatureId userIndustryFeatureId : UserIndustries.getIndustryFeatureIds(user)) {
-      if (articleIndustryMap.containsKey(userIndustryFeatureId)) {
+    for (FeatureId userIndustryFeatureId : articleContext.getUserContext().getIndustryFeatureIds()) {
+      if (userIndustryFeatureId != null && articleContext.hasFeature(userIndustryFeatureId)) {
         highestSimilarityScoreThatMatchesUser = Math.max(highestSimilarityScoreThatMatchesUser,
-            articleIndustryMap.get(userIndustryFeatureId));
-      }
-    }
-    int numIndustriesMoreRelevant = 0;
-    for (ArticleFeature feature : article.getFeatureList()) {
-      FeatureId articleFeatureId = FeatureId.fromId(feature.getFeatureId());
-      if (articleFeatureId != null
-          && articleFeatureId.getFeatureType() == FeatureType.INDUSTRY
-          && feature.getSimilarity() > (highestSimilarityScoreThatMatchesUser + 0.001)) {
-        numIndustriesMoreRelevant++;
+            articleContext.getFeatureSimilarity(userIndustryFeatureId));
       }
     }
+    int numIndustriesMoreRelevant =
+        articleContext.countIndustriesAbove(highestSimilarityScoreThatMatchesUser + 0.001);
     return Math.min(1, (numIndustriesMoreRelevant * 0.1));
   }
 
@@ -170,68 +105,75 @@ public class InputValuesGenerator {
   }
 
   public static double relevanceToContacts(User user, Article article) {
+    return relevanceToContacts(new UserScoringContext(user).forArticle(article));
+  }
+
+  public static double relevanceToContacts(ArticleScoringContext articleContext) {
     // If the article isn't relevant to the user's industries, then if there's
     // any contact name keyword string matches, they're probably false
     // positives.  As such, just score them as 0.
-    if (relevanceToUserIndustries(user, article) < 0.1) {
+    if (articleContext.getRelevanceToUserIndustries() < 0.1) {
       return 0;
     }
 
+    UserScoringContext userContext = articleContext.getUserContext();
+    int contactKeywordCount = userContext.getContactKeywordCount();
     double value = 0;
-    Set<String> contactsKeywords = CONTACTS_KEYWORDS_CACHE.getContactsKeywords(user);
-    for (String keyword : contactsKeywords) {
-      if (article.getTitle().contains(keyword)) {
+    value += 0.1 * articleContext.getTitleKeywordMatches()
+        .get(0, contactKeywordCount).cardinality();
+    value += 0.05 * articleContext.getFirstParagraphKeywordMatches()
+        .get(0, contactKeywordCount).cardinality();
+    for (ArticleKeyword articleKeyword : articleContext.getArticle().getKeywordList()) {
+      String keyword = articleKeyword.getKeyword();
+      if (userContext.isContactKeyword(keyword)) {
         value += 0.1;
       }
-      if (article.getParagraph(0).contains(keyword)) {
-        value += 0.05;
-      }
-      for (ArticleKeyword articleKeyword : article.getKeywordList()) {
-        if (articleKeyword.getKeyword().equals(keyword)) {
-          value += 0.1;
-        } else if (WHITESPACE_PATTERN.matcher(articleKeyword.getKeyword()).find()
-            && (articleKeyword.getKeyword().contains(keyword)
-                || keyword.contains(articleKeyword.getKeyword()))) {
-          value += 0.05;
-        }
+      if (WHITESPACE_PATTERN.matcher(keyword).find()) {
+        value += 0.05 * userContext.getContactKeywordOverlapCount(keyword);
       }
     }
     return Math.min(1, value);
   }
 
   public static double relevanceToCompanyEntities(User user, Article article) {
+    return relevanceToCompanyEntities(new UserScoringContext(user).forArticle(article));
+  }
+
+  public static double relevanceToCompanyEntities(ArticleScoringContext articleContext) {
+    UserScoringContext userContext = articleContext.getUserContext();
+    Article article = articleContext.getArticle();
+    BitSet titleKeywordMatches = articleContext.getTitleKeywordMatches();
+    BitSet firstParagraphKeywordMatches = articleContext.getFirstParagraphKeywordMatches();
+    int contactKeywordCount = userContext.getContactKeywordCount();
+    List<String> companyKeywords = userContext.getCompanyKeywords();
+    List<String> companyEntityIds = userContext.getCompanyEntityIds();
+
     double value = 0;
-    for (Interest interest : UserInterests.getInterests(user)) {
-      if (interest.getType() != InterestType.ENTITY) {
-        continue;
+    for (int i = 0; i < companyKeywords.size(); i++) {
+      String keyword = companyKeywords.get(i);
+      if (titleKeywordMatches.get(contactKeywordCount + i)) {
+        value += 0.05;
       }
-      EntityType entityType = EntityType.fromValue(interest.getEntity().getType());
-      if (entityType != null && entityType.isA(EntityType.ORGANIZATION)) {
-        String keyword = interest.getEntity().getKeyword();
-        if (article.getTitle().contains(keyword)) {
-          value += 0.05;
-        }
-        if (article.getParagraph(0).contains(keyword)) {
-          // There can be lots of false positives here, since we're just looking
-          // for the keyword string anywhere within the paragraph, regardless of
-          // tokenization / industry matches.
-          value += 0.01;
-        }
-        for (ArticleKeyword articleKeyword : article.getKeywordList()) {
-          if (articleKeyword.getKeyword().equals(keyword)
-              || interest.getEntity().getId().equals(articleKeyword.getEntity().getId())) {
-            if (articleKeyword.getStrength()
-                  >= KeywordCanonicalizer.STRENGTH_FOR_TITLE_MATCH) {
-              value += 0.1;
-            } else if (articleKeyword.getStrength()
-                  >= KeywordCanonicalizer.STRENGTH_FOR_FIRST_PARAGRAPH_MATCH) {
-              value += 0.75;
-            }
-          } else if (articleKeyword.getParagraphNumber() <= 2
-              && (articleKeyword.getKeyword().contains(keyword)
-                  || keyword.contains(articleKeyword.getKeyword()))) {
-            value += 0.025;
+      if (firstParagraphKeywordMatches.get(contactKeywordCount + i)) {
+        // There can be lots of false positives here, since we're just looking
+        // for the keyword string anywhere within the paragraph, regardless of
+        // tokenization / industry matches.
+        value += 0.01;
+      }
+      for (ArticleKeyword articleKeyword : article.getKeywordList()) {
+        if (articleKeyword.getKeyword().equals(keyword)
+            || companyEntityIds.get(i).equals(articleKeyword.getEntity().getId())) {
+          if (articleKeyword.getStrength()
+                >= KeywordCanonicalizer.STRENGTH_FOR_TITLE_MATCH) {
+            value += 0.1;
+          } else if (articleKeyword.getStrength()
+                >= KeywordCanonicalizer.STRENGTH_FOR_FIRST_PARAGRAPH_MATCH) {
+            value += 0.75;
           }
+        } else if (articleKeyword.getParagraphNumber() <= 2
+            && (articleKeyword.getKeyword().contains(keyword)
+                || keyword.contains(articleKeyword.getKeyword()))) {
+          value += 0.025;
         }
       }
     }
@@ -242,60 +184,56 @@ public class InputValuesGenerator {
     return ArticleFeatures.getFeatureSimilarity(article, FeatureId.STARTUPS);
   }
 
-  public static double relevanceToAcquisitions(Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureAcquisitions.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_ACQUISITIONS)
+  public static double relevanceToAcquisitions(ArticleScoringContext articleContext) {
+    return ManualFeatureAcquisitions.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_ACQUISITIONS)
         : 0;
   }
 
-  public static double relevanceToLaunches(Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureLaunches.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_LAUNCHES)
+  public static double relevanceToLaunches(ArticleScoringContext articleContext) {
+    return ManualFeatureLaunches.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_LAUNCHES)
         : 0;
   }
 
-  public static double relevanceToFundraising(Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureFundraising.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_FUNDRAISING)
+  public static double relevanceToFundraising(ArticleScoringContext articleContext) {
+    return ManualFeatureFundraising.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_FUNDRAISING)
         : 0;
   }
 
-  public static double relevanceToBigMoney(Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureBigMoney.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_BIG_MONEY)
+  public static double relevanceToBigMoney(ArticleScoringContext articleContext) {
+    return ManualFeatureBigMoney.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_BIG_MONEY)
         : 0;
   }
 
-  public static double relevanceToQuarterlyEarnings(
-      Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureQuarterlyEarnings.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_QUARTERLY_EARNINGS)
+  public static double relevanceToQuarterlyEarnings(ArticleScoringContext articleContext) {
+    return ManualFeatureQuarterlyEarnings.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_QUARTERLY_EARNINGS)
         : 0;
   }
 
-  public static double relevanceToList(
-      Set<FeatureId> userIndustryFeatureIds, Article article) {
-    return ManualFeatureIsList.isRelevantToUser(userIndustryFeatureIds)
-        ? ArticleFeatures.getFeatureSimilarity(article, FeatureId.MANUAL_HEURISTIC_IS_LIST)
+  public static double relevanceToList(ArticleScoringContext articleContext) {
+    return ManualFeatureIsList.isRelevantToUser(
+            articleContext.getUserContext().getUserIndustryFeatureIds())
+        ? articleContext.getFeatureSimilarity(FeatureId.MANUAL_HEURISTIC_IS_LIST)
         : 0;
   }
 
-  private static Map<FeatureId, Double> getArticleIndustryMap(Article article) {
-    Map<FeatureId, Double> articleIndustryMap = Maps.newHashMap();
-    for (ArticleFeature articleFeature : article.getFeatureList()) {
-      articleIndustryMap.put(
-          FeatureId.fromId(articleFeature.getFeatureId()), articleFeature.getSimilarity());
-    }
-    return articleIndustryMap;
-  }
-
   /**
    * Returns an adjusted value for an article's score against a given feature
    * ID.  The value is adjusted such that scores less than 0.6667 receive 0s,
    * then scores in the remaining [0.6667, 1.0] range receive scores between
    * [0, 1], on a linear scale.
    */
-  public static double getOptimizedFeatureValue(Article article, FeatureId featureId) {
-    return Math.max(0, ArticleFeatures.getFeatureSimilarity(article, featureId) * 3 - 2);
+  public static double getOptimizedFeatureValue(
+      ArticleScoringContext articleContext, FeatureId featureId) {
+    return Math.max(0, articleContext.getFeatureSimilarity(featureId) * 3 - 2);
   }
-}
\ No newline at end of file
+}
@@ -1,17 +1,17 @@
 package com.janknspank.rank;
 
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.neuroph.core.NeuralNetwork;
 import org.neuroph.nnet.learning.BackPropagation;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.primitives.Doubles;
 import com.janknspank.bizness.Urls;
-import com.janknspank.bizness.UserIndustries;
-import com.janknspank.bizness.UserInterests;
 import com.janknspank.bizness.Users;
 import com.janknspank.classifier.FeatureId;
 import com.janknspank.common.Asserts;
@@ -24,15 +24,58 @@ import com.janknspank.proto.UserProto.User;
 public final class NeuralNetworkScorer extends Scorer {
   static final String DEFAULT_NEURAL_NETWORK_FILE = "neuralnet/backpropagation_out.nnet";
   private static NeuralNetworkScorer instance = null;
-  private NeuralNetwork<BackPropagation> neuralNetwork;
+
+  /**
+   * Names of the neural network's input nodes, in the order they're passed to
+   * the network.
+   */
+  public static final ImmutableList<String> INPUT_NAMES = ImmutableList.of(
+      "industries",
+      "industry-specific",
+      "facebook",
+      "twitter",
+      "contacts",
+      "companies",
+      "acquisitions",
+      "launches",
+      "fundraising",
+      "entertainment",
+      "sports",
+      "politics",
+      "murder_crime_war",
+      "equity",
+      "big_money",
+      "quarterly_earnings",
+      "is_list");
+
+  /**
+   * The Article fields the input values are calculated from.  Only the first
+   * paragraph is ever looked at.
+   */
+  public static final ImmutableSet<String> ARTICLE_FIELDS = ImmutableSet.of(
+      "title",
+      "paragraph",
+      "keyword",
+      "feature",
+      "social_engagement");
+
+  private final CompiledNeuralNetwork compiledNeuralNetwork;
 
   @SuppressWarnings("unchecked")
   private NeuralNetworkScorer() {
-    neuralNetwork = NeuralNetwork.createFromFile(DEFAULT_NEURAL_NETWORK_FILE);
+    this(NeuralNetwork.createFromFile(DEFAULT_NEURAL_NETWORK_FILE));
   }
 
+  /**
+   * Creates a scorer from the current weights of {@code neuralNetwork}.  Later
+   * changes to the network (e.g. further training) are not reflected.
+   */
   public NeuralNetworkScorer(NeuralNetwork<BackPropagation> neuralNetwork) {
-    this.neuralNetwork = neuralNetwork;
+    compiledNeuralNetwork = new CompiledNeuralNetwork(neuralNetwork);
+    if (compiledNeuralNetwork.getInputCount() != INPUT_NAMES.size()) {
+      throw new IllegalStateException("Neural network has "
+          + compiledNeuralNetwork.getInputCount() + " inputs, expected " + INPUT_NAMES.size());
+    }
   }
 
   public static synchronized NeuralNetworkScorer getInstance() {
@@ -42,85 +85,124 @@ public final class NeuralNetworkScorer extends Scorer {
     return instance;
   }
 
-  public static LinkedHashMap<String, Double> generateInputNodes(User user, Article article) {
-    Asserts.assertNotNull(user, "user", NullPointerException.class);
-    Asserts.assertNotNull(article, "article", NullPointerException.class);
-    LinkedHashMap<String, Double> linkedHashMap = Maps.newLinkedHashMap();
+  /**
+   * Writes the neural network's input values for the passed user + article
+   * into {@code inputs}, in {@code INPUT_NAMES} order.
+   */
+  static void generateInputs(ArticleScoringContext articleContext, double[] inputs) {
+    UserScoringContext userContext = articleContext.getUserContext();
+    User user = userContext.getUser();
+    Article article = articleContext.getArticle();
 
     // 0. Relevance to user's industries.
-    linkedHashMap.put("industries", InputValuesGenerator.relevanceToUserIndustries(user, article));
+    inputs[0] = articleContext.getRelevanceToUserIndustries();
 
     // 1. Nearby industry count.  Value relative to the number of industries
     // this article is about that the user is not explicitly interested in.
-    linkedHashMap.put("industry-specific",
-        InputValuesGenerator.relevanceToNonUserIndustries(user, article));
+    inputs[1] = InputValuesGenerator.relevanceToNonUserIndustries(articleContext);
 
     // 2. Relevance on Facebook.
-    linkedHashMap.put("facebook", InputValuesGenerator.relevanceOnFacebook(user, article));
+    inputs[2] = InputValuesGenerator.relevanceOnFacebook(user, article);
 
     // 3. Relevance on Twitter.
-    linkedHashMap.put("twitter", InputValuesGenerator.relevanceOnTwitter(user, article));
+    inputs[3] = InputValuesGenerator.relevanceOnTwitter(user, article);
 
     // 4. Relevance to contacts.
-    linkedHashMap.put("contacts", InputValuesGenerator.relevanceToContacts(user, article));
+    inputs[4] = InputValuesGenerator.relevanceToContacts(articleContext);
 
     // 5. Company / organization entities being followed.
-    linkedHashMap.put("companies", InputValuesGenerator.relevanceToCompanyEntities(user, article));
+    inputs[5] = InputValuesGenerator.relevanceToCompanyEntities(articleContext);
 
     // 6. Relevance to acquisitions.
-    Set<FeatureId> userIndustryFeatureIds = UserInterests.getUserIndustryFeatureIds(user);
-    linkedHashMap.put("acquisitions",
-        InputValuesGenerator.relevanceToAcquisitions(userIndustryFeatureIds, article));
+    inputs[6] = InputValuesGenerator.relevanceToAcquisitions(articleContext);
 
     // 7. Relevance to launches.
-    linkedHashMap.put("launches",
-        InputValuesGenerator.relevanceToLaunches(userIndustryFeatureIds, article));
+    inputs[7] = InputValuesGenerator.relevanceToLaunches(articleContext);
 
     // 8. Relevance to start-up fundraising rounds.
-    linkedHashMap.put("fundraising",
-        InputValuesGenerator.relevanceToFundraising(userIndustryFeatureIds, article));
+    inputs[8] = InputValuesGenerator.relevanceToFundraising(articleContext);
 
     // 9. Topic scores.  If the user's actually interested in any of these
     // things, then we null out the scores (because otherwise the neural
     // network just learns that some folks like Sports + Politics + etc, without
     // knowing why, which is a really bad thing for overall quality.)
-    linkedHashMap.put("entertainment",
-        InputValuesGenerator.getOptimizedFeatureValue(article, FeatureId.TOPIC_ENTERTAINMENT));
-    linkedHashMap.put("sports", UserIndustries.hasFeatureId(user, FeatureId.SPORTS)
-        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(article, FeatureId.TOPIC_SPORTS));
-    linkedHashMap.put("politics", UserIndustries.hasFeatureId(user, FeatureId.GOVERNMENT)
-        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(article, FeatureId.TOPIC_POLITICS));
-    linkedHashMap.put("murder_crime_war", UserIndustries.hasFeatureId(user, FeatureId.MILITARY)
-        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(article, FeatureId.TOPIC_MURDER_CRIME_WAR));
-    linkedHashMap.put("equity", UserIndustries.hasFeatureId(user, FeatureId.EQUITY_INVESTING)
-        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(article, FeatureId.EQUITY_INVESTING));
+    inputs[9] = InputValuesGenerator.getOptimizedFeatureValue(
+        articleContext, FeatureId.TOPIC_ENTERTAINMENT);
+    inputs[10] = userContext.hasFeatureId(FeatureId.SPORTS)
+        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(
+            articleContext, FeatureId.TOPIC_SPORTS);
+    inputs[11] = userContext.hasFeatureId(FeatureId.GOVERNMENT)
+        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(
+            articleContext, FeatureId.TOPIC_POLITICS);
+    inputs[12] = userContext.hasFeatureId(FeatureId.MILITARY)
+        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(
+            articleContext, FeatureId.TOPIC_MURDER_CRIME_WAR);
+    inputs[13] = userContext.hasFeatureId(FeatureId.EQUITY_INVESTING)
+        ? 0 : InputValuesGenerator.getOptimizedFeatureValue(
+            articleContext, FeatureId.EQUITY_INVESTING);
 
     // 10. Relevance to big money
-    linkedHashMap.put("big_money",
-        InputValuesGenerator.relevanceToBigMoney(userIndustryFeatureIds, article));
+    inputs[14] = InputValuesGenerator.relevanceToBigMoney(articleContext);
 
     // 11. Relevance to quarterly earnings
-    linkedHashMap.put("quarterly_earnings", 
-        InputValuesGenerator.relevanceToQuarterlyEarnings(userIndustryFeatureIds, article));
+    inputs[15] = InputValuesGenerator.relevanceToQuarterlyEarnings(articleContext);
 
     // 12. Is it a list of things
-    linkedHashMap.put("is_list", 
-        InputValuesGenerator.relevanceToList(userIndustryFeatureIds, article));
+    inputs[16] = InputValuesGenerator.relevanceToList(articleContext);
+  }
 
+  /**
+   * Returns the neural network's input values for the passed user + article.
+   */
+  public static double[] generateInputs(User user, Article article) {
+    Asserts.assertNotNull(user, "user", NullPointerException.class);
+    Asserts.assertNotNull(article, "article", NullPointerException.class);
+    double[] inputs = new double[INPUT_NAMES.size()];
+    generateInputs(new UserScoringContext(user).forArticle(article), inputs);
+    return inputs;
+  }
+
+  /**
+   * Returns the neural network's input values keyed by their names.  For
+   * debugging only: Scoring uses the much cheaper {@code #generateInputs}.
+   */
+  public static LinkedHashMap<String, Double> generateInputNodes(User user, Article article) {
+    double[] inputs = generateInputs(user, article);
+    LinkedHashMap<String, Double> linkedHashMap = Maps.newLinkedHashMap();
+    for (int i = 0; i < inputs.length; i++) {
+      linkedHashMap.put(INPUT_NAMES.get(i), inputs[i]);
+    }
     return linkedHashMap;
   }
 
   @Override
   public double getScore(User user, Article article) {
+    return compiledNeuralNetwork.calculate(generateInputs(user, article));
+  }
+
+  /**
+   * Scores all the passed articles for {@code user}, reusing the same input
+   * and scratch arrays throughout, and calculating what the user's interested
+   * in only once.
+   */
+  @Override
+  public double[] getScores(User user, List<Article> articles) {
     Asserts.assertNotNull(user, "user", NullPointerException.class);
-    Asserts.assertNotNull(article, "article", NullPointerException.class);
-    return getScore(generateInputNodes(user, article));
+    UserScoringContext userContext = new UserScoringContext(user);
+    CompiledNeuralNetwork.Workspace workspace = compiledNeuralNetwork.newWorkspace();
+    double[] inputs = new double[INPUT_NAMES.size()];
+    double[] scores = new double[articles.size()];
+    for (int i = 0; i < scores.length; i++) {
+      Article article = articles.get(i);
+      Asserts.assertNotNull(article, "article", NullPointerException.class);
+      generateInputs(userContext.forArticle(article), inputs);
+      scores[i] = compiledNeuralNetwork.calculate(inputs, workspace);
+    }
+    return scores;
   }
 
   public double getScore(LinkedHashMap<String, Double> inputNodes) {
-    neuralNetwork.setInput(Doubles.toArray(inputNodes.values()));
-    neuralNetwork.calculate();
-    return neuralNetwork.getOutput()[0];
+    return compiledNeuralNetwork.calculate(Doubles.toArray(inputNodes.values()));
   }
 
   /**
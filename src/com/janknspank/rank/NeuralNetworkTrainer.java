@@ -21,21 +21,14 @@ import org.neuroph.nnet.learning.MomentumBackpropagation;
 import org.neuroph.util.TransferFunctionType;
 
 import com.google.api.client.util.Maps;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.janknspank.bizness.BiznessException;
 import com.janknspank.common.Averager;
-import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
-import com.janknspank.proto.ArticleProto.Article;
-import com.janknspank.proto.UserProto.User;
 
 public class NeuralNetworkTrainer implements LearningEventListener {
   private static final int MAX_ITERATIONS = 20000;
 
-  // Helper object that gives us human readable names for each input node.
-  private static List<String> INPUT_NODE_KEYS = null;
-
   private double lowestError = 1.0;
   private Double[] lowestErrorNetworkWeights;
   private int lowestErrorIteration = 0;
@@ -161,16 +154,11 @@ public class NeuralNetworkTrainer implements LearningEventListener {
   }
 
   /**
-   * Definitely not-so-efficient hack for getting a list of input name labels,
-   * e.g. "industries", "facebook", "acquisitions", etc.
+   * Returns the input name labels, e.g. "industries", "facebook",
+   * "acquisitions", etc.
    */
-  private static synchronized List<String> getInputNodeKeys() throws DatabaseSchemaException {
-    if (INPUT_NODE_KEYS == null) {
-      INPUT_NODE_KEYS = ImmutableList.copyOf(NeuralNetworkScorer.generateInputNodes(
-          Database.with(User.class).getFirst(),
-          Database.with(Article.class).getFirst()).keySet());
-    }
-    return INPUT_NODE_KEYS;
+  private static List<String> getInputNodeKeys() {
+    return NeuralNetworkScorer.INPUT_NAMES;
   }
 
   private static void printAverageInputValues(DataSet dataSet) throws DatabaseSchemaException {
@@ -1,8 +1,22 @@
 package com.janknspank.rank;
 
+import java.util.List;
+
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.UserProto.User;
 
 public abstract class Scorer {
   public abstract double getScore(User user, Article article);
+
+  /**
+   * Returns scores for each of the passed articles, in the same order.
+   * Subclasses can override this to share work across the batch.
+   */
+  public double[] getScores(User user, List<Article> articles) {
+    double[] scores = new double[articles.size()];
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = getScore(user, articles.get(i));
+    }
+    return scores;
+  }
 }
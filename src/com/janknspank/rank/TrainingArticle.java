@@ -2,7 +2,6 @@ package com.janknspank.rank;
 
 import org.neuroph.core.data.DataSetRow;
 
-import com.google.common.primitives.Doubles;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.UserProto.User;
 
@@ -38,8 +37,7 @@ public class TrainingArticle {
   public synchronized DataSetRow getDataSetRow() {
     if (dataSetRow == null) {
       dataSetRow = new DataSetRow(
-          Doubles.toArray(NeuralNetworkScorer.generateInputNodes(user, article).values()),
-          new double[] { score });
+          NeuralNetworkScorer.generateInputs(user, article), new double[] { score });
     }
     return dataSetRow;
   }
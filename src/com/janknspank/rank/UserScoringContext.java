@@ -0,0 +1,201 @@
+package com.janknspank.rank;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.janknspank.bizness.EntityType;
+import com.janknspank.bizness.UserIndustries;
+import com.janknspank.bizness.UserInterests;
+import com.janknspank.classifier.FeatureId;
+import com.janknspank.common.AhoCorasick;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.UserProto.AddressBookContact;
+import com.janknspank.proto.UserProto.Interest;
+import com.janknspank.proto.UserProto.Interest.InterestSource;
+import com.janknspank.proto.UserProto.Interest.InterestType;
+import com.janknspank.proto.UserProto.LinkedInContact;
+import com.janknspank.proto.UserProto.User;
+
+/**
+ * Everything InputValuesGenerator needs to know about a user, calculated once
+ * and then reused for each article that's scored for them, e.g. once per
+ * /get_articles request.  Before this, each input recalculated the user's
+ * interests, industries, and contacts for every article.
+ *
+ * Not thread-safe, because of the keyword overlap memo: Each request should
+ * create its own.
+ */
+public class UserScoringContext {
+  private final User user;
+
+  /**
+   * The user's followed industries, as returned by
+   * {@code UserIndustries#getIndustryFeatureIds}.  May contain nulls for
+   * industry codes we no longer support.
+   */
+  private final List<FeatureId> industryFeatureIds;
+
+  /**
+   * The user's followed industries, as returned by
+   * {@code UserInterests#getUserIndustryFeatureIds}.
+   */
+  private final Set<FeatureId> userIndustryFeatureIds;
+
+  /**
+   * Ordinals of each FeatureId for which
+   * {@code UserIndustries#hasFeatureId} returns true.
+   */
+  private final BitSet hasFeatureIds = new BitSet();
+
+  /**
+   * Names of followed people and contacts, then keywords of followed
+   * companies.  Indexes into this list are pattern indexes in
+   * {@code keywordMatcher}.
+   */
+  private final List<String> contactKeywords;
+  private final Set<String> contactKeywordSet;
+  private final List<String> companyKeywords;
+  private final List<String> companyEntityIds;
+  private final AhoCorasick keywordMatcher;
+
+  /**
+   * Article keywords repeat a lot across the articles we score for a request,
+   * so remember how many contact keywords overlap each one.
+   */
+  private final Map<String, Integer> contactKeywordOverlapCounts = Maps.newHashMap();
+
+  public UserScoringContext(User user) {
+    if (!user.hasId()) {
+      throw new IllegalStateException("User ID cannot be null");
+    }
+    this.user = user;
+    this.industryFeatureIds = Lists.newArrayList(UserIndustries.getIndustryFeatureIds(user));
+    this.userIndustryFeatureIds = UserInterests.getUserIndustryFeatureIds(user);
+
+    // Same logic as UserIndustries#hasFeatureId, for all FeatureIds at once.
+    BitSet tombstonedFeatureIds = new BitSet();
+    for (Interest interest : user.getInterestList()) {
+      FeatureId featureId = FeatureId.fromId(interest.getIndustryCode());
+      if (featureId != null) {
+        if (interest.getSource() == InterestSource.TOMBSTONE) {
+          tombstonedFeatureIds.set(featureId.ordinal());
+        } else {
+          hasFeatureIds.set(featureId.ordinal());
+        }
+      }
+    }
+    hasFeatureIds.andNot(tombstonedFeatureIds);
+
+    Set<String> contactKeywordSet = Sets.newLinkedHashSet();
+    List<String> companyKeywords = Lists.newArrayList();
+    List<String> companyEntityIds = Lists.newArrayList();
+    for (Interest interest : UserInterests.getInterests(user)) {
+      if (interest.getType() == InterestType.ENTITY) {
+        EntityType entityType = EntityType.fromValue(interest.getEntity().getType());
+        if (entityType != null && entityType.isA(EntityType.PERSON)) {
+          contactKeywordSet.add(interest.getEntity().getKeyword());
+        }
+        if (entityType != null && entityType.isA(EntityType.ORGANIZATION)) {
+          companyKeywords.add(interest.getEntity().getKeyword());
+          companyEntityIds.add(interest.getEntity().getId());
+        }
+      }
+      if (interest.getType() == InterestType.ADDRESS_BOOK_CONTACTS) {
+        for (AddressBookContact contact : user.getAddressBookContactList()) {
+          contactKeywordSet.add(contact.getName());
+        }
+      }
+      if (interest.getType() == InterestType.LINKED_IN_CONTACTS) {
+        for (LinkedInContact contact : user.getLinkedInContactList()) {
+          contactKeywordSet.add(contact.getName());
+        }
+      }
+    }
+    this.contactKeywordSet = contactKeywordSet;
+    this.contactKeywords = ImmutableList.copyOf(contactKeywordSet);
+    this.companyKeywords = companyKeywords;
+    this.companyEntityIds = companyEntityIds;
+    this.keywordMatcher = new AhoCorasick(ImmutableList.<String>builder()
+        .addAll(contactKeywords)
+        .addAll(companyKeywords)
+        .build());
+  }
+
+  public User getUser() {
+    return user;
+  }
+
+  public List<FeatureId> getIndustryFeatureIds() {
+    return industryFeatureIds;
+  }
+
+  public Set<FeatureId> getUserIndustryFeatureIds() {
+    return userIndustryFeatureIds;
+  }
+
+  public boolean hasFeatureId(FeatureId featureId) {
+    return hasFeatureIds.get(featureId.ordinal());
+  }
+
+  /**
+   * Returns the per-article data InputValuesGenerator needs for scoring
+   * {@code article} for this user.
+   */
+  public ArticleScoringContext forArticle(Article article) {
+    return new ArticleScoringContext(this, article);
+  }
+
+  int getContactKeywordCount() {
+    return contactKeywords.size();
+  }
+
+  boolean isContactKeyword(String keyword) {
+    return contactKeywordSet.contains(keyword);
+  }
+
+  List<String> getCompanyKeywords() {
+    return companyKeywords;
+  }
+
+  List<String> getCompanyEntityIds() {
+    return companyEntityIds;
+  }
+
+  /**
+   * Returns which contact and company keywords occur in {@code text}.  Bits
+   * [0, getContactKeywordCount()) are contacts, the rest are companies, in
+   * {@code getCompanyKeywords()} order.
+   */
+  BitSet findKeywords(String text) {
+    return keywordMatcher.findContainedPatterns(text);
+  }
+
+  /**
+   * Returns the number of contact keywords, other than {@code articleKeyword}
+   * itself, that either contain or are contained by {@code articleKeyword}.
+   */
+  int getContactKeywordOverlapCount(String articleKeyword) {
+    Integer count = contactKeywordOverlapCounts.get(articleKeyword);
+    if (count == null) {
+      int containedCount = keywordMatcher.findContainedPatterns(articleKeyword)
+          .get(0, contactKeywords.size()).cardinality();
+      int containingCount = 0;
+      for (String contactKeyword : contactKeywords) {
+        if (contactKeyword.contains(articleKeyword)) {
+          containingCount++;
+        }
+      }
+      // An exact match gets counted by both of the above, but shouldn't be
+      // counted at all.
+      count = containedCount + containingCount - (isContactKeyword(articleKeyword) ? 2 : 0);
+      contactKeywordOverlapCounts.put(articleKeyword, count);
+    }
+    return count;
+  }
+}
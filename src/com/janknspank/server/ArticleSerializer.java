@@ -1,5 +1,6 @@
 package com.janknspank.server;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -22,6 +23,7 @@ import com.janknspank.bizness.EntityType;
 import com.janknspank.bizness.UserInterests;
 import com.janknspank.bizness.Users;
 import com.janknspank.classifier.FeatureId;
+import com.janknspank.common.JsonStreamWriter;
 import com.janknspank.common.TopList;
 import com.janknspank.crawler.Interpreter;
 import com.janknspank.crawler.RequiredFieldException;
@@ -50,6 +52,23 @@ public class ArticleSerializer {
       397, 401, 409, 419, 421, 431, 433, 439, 443, 449, 457, 461, 463, 467,
       479, 487, 491, 499);
 
+  /**
+   * Article fields that #write replaces with values of its own, and so
+   * shouldn't be written by the Serializer.
+   */
+  private static final Set<String> REPLACED_ARTICLE_FIELDS = ImmutableSet.of(
+      "type", "keyword", "origin", "published_time");
+
+  /**
+   * The Article fields that #serialize and #write read: Everything clients
+   * see, plus what we pick keywords, dates, domains and first paragraphs from.
+   */
+  public static final Set<String> ARTICLE_FIELDS = ImmutableSet.<String>builder()
+      .addAll(Serializer.getFieldNames(Article.getDescriptor()))
+      .add("url", "image_url", "paragraph", "keyword", "feature", "published_time",
+          "crawl_time")
+      .build();
+
   public static JSONArray serialize(Iterable<Article> articles,
       User user, boolean includeLinkedInContacts, boolean includeAddressBookContacts,
       @Nullable Entity queriedEntity) {
@@ -66,6 +85,26 @@ public class ArticleSerializer {
     return articlesJson;
   }
 
+  /**
+   * Same as {@code #serialize(Iterable, User, boolean, boolean, Entity)}, but
+   * writes the articles as a JSON array straight to {@code writer}, instead of
+   * building a JSONArray of them in memory.
+   */
+  public static void write(Iterable<Article> articles,
+      User user, boolean includeLinkedInContacts, boolean includeAddressBookContacts,
+      @Nullable Entity queriedEntity, JsonStreamWriter writer) throws IOException {
+    articles = putImageArticleFirst(articles);
+    int i = 1;
+    Set<String> userKeywordSet =
+        getUserKeywordSet(user, includeLinkedInContacts, includeAddressBookContacts);
+    Set<Integer> userIndustryFeatureIdIds = UserInterests.getUserIndustryFeatureIdIds(user);
+    writer.beginArray();
+    for (Article article : articles) {
+      write(article, userKeywordSet, userIndustryFeatureIdIds, queriedEntity, i++, writer);
+    }
+    writer.endArray();
+  }
+
   /**
    * @param user current user
    * @param includeLinkedInContacts whether linked in contacts should be FORCED
@@ -108,14 +147,12 @@ public class ArticleSerializer {
     if (!articleJson.has("origin")) {
       articleJson.put("origin", ViewFeedSoy.getDomain(article));
     }
-    if (SHOW_IMAGE_OFFSETS.contains(offset) || showImageBecauseOfFeature(article)) {
+    if (showImage(article, offset)) {
       articleJson.put("show_image", true);
     }
-    if (article.hasReasonIndustryCode()) {
-      FeatureId featureId = FeatureId.fromId(article.getReasonIndustryCode());
-      if (featureId != null) {
-        articleJson.put("reason_industry_name", featureId.getTitle());
-      }
+    String reasonIndustryName = getReasonIndustryName(article);
+    if (reasonIndustryName != null) {
+      articleJson.put("reason_industry_name", reasonIndustryName);
     }
 
     // Replace the published time with the crawl time, since people often just
@@ -126,6 +163,64 @@ public class ArticleSerializer {
     return articleJson;
   }
 
+  /**
+   * Writes the same JSON object for {@code article} that
+   * {@code #serialize(Article, Set, Set, Entity, int)} returns, straight to
+   * {@code writer}.
+   */
+  public static void write(
+      Article article,
+      Set<String> userKeywordSet,
+      Set<Integer> userIndustryFeatureIdIds,
+      @Nullable Entity queriedEntity,
+      int offset,
+      JsonStreamWriter writer) throws IOException {
+    List<String> paragraphs = article.getParagraphList();
+    writer.beginObject();
+    Serializer.writeFields(article, writer, REPLACED_ARTICLE_FIELDS);
+    writer.name("type").value("article");
+    writer.name("first_paragraphs").beginArray();
+    for (String paragraph : paragraphs.subList(0, Math.min(1, paragraphs.size()))) {
+      writer.value(paragraph);
+    }
+    writer.endArray();
+    writer.name("native_reader_enabled").value(isNativeReaderEnabled(article));
+    writer.name("native_reader_v1.1_enabled").value(true);
+    writer.name("keyword");
+    Serializer.write(
+        getBestKeywords(article, userKeywordSet, userIndustryFeatureIdIds, queriedEntity),
+        writer);
+    writer.name("client_date").value(getClientDate(article));
+    writer.name("origin").value(
+        article.hasOrigin() ? article.getOrigin() : ViewFeedSoy.getDomain(article));
+    if (showImage(article, offset)) {
+      writer.name("show_image").value(true);
+    }
+    String reasonIndustryName = getReasonIndustryName(article);
+    if (reasonIndustryName != null) {
+      writer.name("reason_industry_name").value(reasonIndustryName);
+    }
+
+    // Same as above: Clients get our best guess at the publish time.
+    writer.name("published_time").value(Long.toString(Articles.getPublishedTime(article)));
+    writer.endObject();
+  }
+
+  private static boolean showImage(Article article, int offset) {
+    return SHOW_IMAGE_OFFSETS.contains(offset) || showImageBecauseOfFeature(article);
+  }
+
+  @Nullable
+  private static String getReasonIndustryName(Article article) {
+    if (article.hasReasonIndustryCode()) {
+      FeatureId featureId = FeatureId.fromId(article.getReasonIndustryCode());
+      if (featureId != null) {
+        return featureId.getTitle();
+      }
+    }
+    return null;
+  }
+
   static boolean showImageBecauseOfFeature(Article article) {
     return ArticleFeatures.getFeatureSimilarity(article, FeatureId.ARTS) > 0.9
         || ArticleFeatures.getFeatureSimilarity(article, FeatureId.ARCHITECTURE_AND_PLANNING) > 0.9
@@ -1,12 +1,11 @@
 package com.janknspank.server;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletRequest;
@@ -17,7 +16,6 @@ import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URLEncodedUtils;
 import org.apache.http.message.BasicNameValuePair;
-import org.json.JSONObject;
 
 import com.google.api.client.repackaged.com.google.common.base.Joiner;
 import com.google.api.client.util.Strings;
@@ -38,7 +36,9 @@ import com.janknspank.bizness.TimeRankingStrategy.EntityStreamStrategy;
 import com.janknspank.bizness.TimeRankingStrategy.IndustryStreamStrategy;
 import com.janknspank.bizness.Users;
 import com.janknspank.classifier.FeatureId;
+import com.janknspank.common.JsonStreamWriter;
 import com.janknspank.database.Database;
+import com.janknspank.database.DatabaseExecutor;
 import com.janknspank.database.DatabaseRequestException;
 import com.janknspank.database.DatabaseSchemaException;
 import com.janknspank.database.QueryOption;
@@ -46,6 +46,7 @@ import com.janknspank.database.Serializer;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.CoreProto.Entity;
 import com.janknspank.proto.CoreProto.Entity.Source;
+import com.janknspank.proto.CoreProto.ExploreTopic;
 import com.janknspank.proto.NotificationsProto.Notification;
 import com.janknspank.proto.UserProto.Interest;
 import com.janknspank.proto.UserProto.Interest.InterestType;
@@ -55,25 +56,25 @@ import com.janknspank.rank.DiversificationPass;
 @AuthenticationRequired
 @ServletMapping(urlPattern = "/v1/get_articles")
 public class GetArticlesServlet extends StandardServlet {
-  // TODO(jonemerson): Make a global threadpool for this.  Or figure out
-  // a better way to do asynchronous calls to Mongo DB - Hopefully via Futures.
-  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(10);
-
   /**
    * Use this if your form parameter get relatively large, e.g. with
    * exclude_url_ids.
    */
   @Override
-  protected JSONObject doPostInternal(HttpServletRequest req, HttpServletResponse resp)
+  protected StreamingResponse doPostStreamingInternal(
+      HttpServletRequest req, HttpServletResponse resp)
       throws DatabaseSchemaException, DatabaseRequestException, RequestException, BiznessException {
-    return doGetInternal(req, resp);
+    return doGetStreamingInternal(req, resp);
   }
 
+  /**
+   * Articles are the biggest response we send, so they're streamed to the
+   * client rather than built up as a JSONObject first.
+   */
   @Override
-  protected JSONObject doGetInternal(HttpServletRequest req, HttpServletResponse resp)
+  protected StreamingResponse doGetStreamingInternal(
+      HttpServletRequest req, HttpServletResponse resp)
       throws DatabaseSchemaException, DatabaseRequestException, RequestException, BiznessException {
-    JSONObject response = createSuccessResponse();
-
     // If the user queried for a specific entity, go get it, so we can make
     // sure it's included in the serialization of the articles.
     String entityId = this.getParameter(req, "entity_id");
@@ -84,9 +85,9 @@ public class GetArticlesServlet extends StandardServlet {
 
     // Get articles.
     String contactsParameter = getParameter(req, "contacts");
-    boolean includeLinkedInContacts = "linked_in".equals(contactsParameter);
-    boolean includeAddressBookContacts = "address_book".equals(contactsParameter);
-    Iterable<Article> articles = getArticles(req);
+    final boolean includeLinkedInContacts = "linked_in".equals(contactsParameter);
+    final boolean includeAddressBookContacts = "address_book".equals(contactsParameter);
+    final Iterable<Article> articles = getArticles(req);
 
     // Get the queried entity and industry code.
     Entity queriedEntity = null;
@@ -103,17 +104,30 @@ public class GetArticlesServlet extends StandardServlet {
     Integer queriedIndustryCode = queriedIndustryCodeStr == null
         ? null : NumberUtils.toInt(queriedIndustryCodeStr, 0);
 
+    // Do everything that can fail now, before we start writing the response.
+    final User user = getUser(req);
+    final Entity finalQueriedEntity = queriedEntity;
+    final List<ExploreTopic> exploreTopics = ImmutableList.copyOf(
+        ExploreTopics.get(articles, user, queriedEntity, queriedIndustryCode));
+    final String nextPage = (Iterables.size(articles) == Articles.NUM_RESULTS)
+        ? getNextPageParameters(req, articles) : null;
+
     // Let's serialize!
-    User user = getUser(req);
-    response.put("articles", ArticleSerializer.serialize(
-        Iterables.limit(articles, Articles.NUM_RESULTS - 1),
-        user, includeLinkedInContacts, includeAddressBookContacts, queriedEntity));
-    response.put("explore_topics",
-        Serializer.toJSON(ExploreTopics.get(articles, user, queriedEntity, queriedIndustryCode)));
-    if (Iterables.size(articles) == Articles.NUM_RESULTS) {
-      response.put("next_page", getNextPageParameters(req, articles));
-    }
-    return response;
+    return new StreamingResponse() {
+      @Override
+      public void writeFields(JsonStreamWriter writer) throws IOException {
+        writer.name("articles");
+        ArticleSerializer.write(
+            Iterables.limit(articles, Articles.NUM_RESULTS - 1),
+            user, includeLinkedInContacts, includeAddressBookContacts, finalQueriedEntity,
+            writer);
+        writer.name("explore_topics");
+        Serializer.write(exploreTopics, writer);
+        if (nextPage != null) {
+          writer.name("next_page").value(nextPage);
+        }
+      }
+    };
   }
 
   private String getNextPageParameters(HttpServletRequest req, Iterable<Article> articles) {
@@ -343,10 +357,10 @@ public class GetArticlesServlet extends StandardServlet {
     final String notificationId = getNotificationBlobValue(notificationBlob, "nid");
     Future<Void> updateNotificationFuture = (notificationId == null) ?
         Futures.immediateFuture((Void) null) :
-        EXECUTOR.submit(new UpdateNotificationCallable(notificationId));
+        DatabaseExecutor.getExecutorService().submit(new UpdateNotificationCallable(notificationId));
     Future<Article> articleFuture = (urlId == null) ?
         Futures.immediateFuture((Article) null) :
-        EXECUTOR.submit(new GetArticleCallable(urlId));
+        DatabaseExecutor.getExecutorService().submit(new GetArticleCallable(urlId));
 
     // Now get the standard /getArticles stream.
     User user = getUser(req);
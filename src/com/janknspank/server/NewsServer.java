@@ -10,15 +10,16 @@ import org.reflections.Reflections;
 
 import com.google.common.collect.Sets;
 import com.janknspank.classifier.Feature;
-import com.janknspank.nlp.KeywordCanonicalizer;
+import com.janknspank.nlp.KeywordDictionary;
 
 public class NewsServer {
   /**
    * Do slow things before we open a socket and Heroku thinks we're live.
    */
   private static void initialize() {
-    KeywordCanonicalizer.getKeywordToEntityIdMap();
+    KeywordDictionary.getInstance();
     Feature.getAllFeatures();
+    SoyTemplates.initialize();
   }
 
   @SuppressWarnings("unchecked")
@@ -1,8 +1,12 @@
 package com.janknspank.server;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
@@ -15,14 +19,15 @@ import org.apache.http.client.utils.URLEncodedUtils;
 import org.json.JSONObject;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.io.CharStreams;
-import com.google.template.soy.SoyFileSet;
 import com.google.template.soy.data.SoyMapData;
 import com.google.template.soy.tofu.SoyTofu;
 import com.google.template.soy.tofu.SoyTofu.Renderer;
 import com.janknspank.bizness.Sessions;
 import com.janknspank.common.Asserts;
+import com.janknspank.common.JsonStreamWriter;
 import com.janknspank.common.Version;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
@@ -34,6 +39,7 @@ public class NewsServlet extends HttpServlet {
   private static final String PARAMS_ATTRIBUTE_KEY = "__params";
   private static final String SESSION_ATTRIBUTE_KEY = "__session";
   private static final String USER_ATTRIBUTE_KEY = "__user";
+  private static final int RESPONSE_BUFFER_SIZE = 8192;
 
   /**
    * This is a highly robust way of looking for parameters either in post body,
@@ -235,18 +241,11 @@ public class NewsServlet extends HttpServlet {
 
   /**
    * Returns a Tofu renderer for soy related to this Servlet class, preconfigured
-   * to use namespace "cookout." plus the servlet's name.  E.g. "cookout.index".
+   * to use namespace "news." plus the servlet's name.  E.g. "news.index".
+   * Templates are compiled once, by SoyTemplates.
    */
   public static SoyTofu getTofu(String resourceName) {
-    SoyFileSet.Builder sfsBuilder = new SoyFileSet.Builder();
-    for (File soyFile : new File("templates/").listFiles()) {
-      if (soyFile.getName().endsWith(".soy")) {
-        sfsBuilder.add(soyFile);
-      }
-    }
-    SoyFileSet sfs = sfsBuilder.build();
-    SoyTofu tofu = sfs.compileToTofu().forNamespace("news." + resourceName);
-    return tofu;
+    return SoyTemplates.getTofu(resourceName);
   }
 
   /**
@@ -268,20 +267,82 @@ public class NewsServlet extends HttpServlet {
   }
 
   /**
-   * TODO(jonemerson): There's probably a better way to write a JSONObject
-   * to a OutputStream besides converting the whole thing to a String first.
+   * Returns true if the client said it can handle gzipped responses, e.g.
+   * "Accept-Encoding: gzip, deflate".
    */
-  protected void writeJson(HttpServletRequest req, HttpServletResponse resp, JSONObject o)
+  static boolean acceptsGzip(HttpServletRequest req) {
+    String acceptEncoding = req.getHeader("Accept-Encoding");
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String encoding : Splitter.on(',').trimResults().split(acceptEncoding)) {
+      List<String> parts = Splitter.on(';').trimResults().splitToList(encoding);
+      if ("gzip".equalsIgnoreCase(parts.get(0))) {
+        return parts.size() == 1 || !parts.get(1).replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a UTF-8 Writer for the response body, which gzips the response if
+   * the client supports it.  The Writer must be closed to finish the response.
+   */
+  protected Writer getResponseWriter(HttpServletRequest req, HttpServletResponse resp)
       throws IOException {
-    resp.setContentType("application/json; charset=utf-8");
+    OutputStream outputStream = resp.getOutputStream();
+    resp.addHeader("Vary", "Accept-Encoding");
+    if (acceptsGzip(req)) {
+      resp.setHeader("Content-Encoding", "gzip");
+      outputStream = new GZIPOutputStream(outputStream, RESPONSE_BUFFER_SIZE);
+    }
+    return new BufferedWriter(
+        new OutputStreamWriter(outputStream, Charsets.UTF_8), RESPONSE_BUFFER_SIZE);
+  }
+
+  /**
+   * Returns how many spaces to indent JSON responses by.  Clients can ask for
+   * human-readable responses with an "indent" parameter.  0 means no
+   * indenting.
+   */
+  private int getIndentFactor(HttpServletRequest req) {
+    int indentFactor = 0;
     if (hasParameter(req, "indent")) {
-      int indentFactor = 2;
+      indentFactor = 2;
       try {
         indentFactor = Integer.parseInt(getParameter(req, "indent"));
       } catch (Exception e) {}
-      resp.getOutputStream().write(o.toString(indentFactor).getBytes());
-    } else {
-      resp.getOutputStream().write(o.toString().getBytes());
+    }
+    return indentFactor;
+  }
+
+  protected void writeJson(HttpServletRequest req, HttpServletResponse resp, JSONObject o)
+      throws IOException {
+    resp.setContentType("application/json; charset=utf-8");
+    int indentFactor = getIndentFactor(req);
+    try (Writer writer = getResponseWriter(req, resp)) {
+      if (indentFactor > 0) {
+        writer.write(o.toString(indentFactor));
+      } else {
+        o.write(writer);
+      }
+    }
+  }
+
+  /**
+   * Writes a successful JSON response as it's serialized, without building
+   * the whole thing in memory first.
+   */
+  protected void writeJson(
+      HttpServletRequest req, HttpServletResponse resp, StreamingResponse response)
+      throws IOException {
+    resp.setContentType("application/json; charset=utf-8");
+    try (JsonStreamWriter writer =
+        new JsonStreamWriter(getResponseWriter(req, resp), getIndentFactor(req))) {
+      writer.beginObject();
+      writer.name("success").value(true);
+      response.writeFields(writer);
+      writer.endObject();
     }
   }
 
@@ -10,6 +10,7 @@ import org.json.JSONObject;
 
 import com.google.api.client.util.Lists;
 import com.janknspank.bizness.BiznessException;
+import com.janknspank.bizness.RankedStreamCache;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseRequestException;
 import com.janknspank.database.DatabaseSchemaException;
@@ -49,6 +50,7 @@ public class SetAddressBookServlet extends StandardServlet {
     }
 
     user = Database.set(user, "address_book_contact", addressBookContacts);
+    RankedStreamCache.invalidate(user);
 
     // Create the response.
     JSONObject response = this.createSuccessResponse();
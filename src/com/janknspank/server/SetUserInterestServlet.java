@@ -18,6 +18,7 @@ import com.janknspank.bizness.Entities;
 import com.janknspank.bizness.EntityCache;
 import com.janknspank.bizness.EntityType;
 import com.janknspank.bizness.GuidFactory;
+import com.janknspank.bizness.RankedStreamCache;
 import com.janknspank.bizness.UserInterests;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseRequestException;
@@ -137,6 +138,7 @@ public class SetUserInterestServlet extends StandardServlet {
     // parameters received from the client.
     user = Database.with(User.class).set(user, "interest",
         Iterables.concat(existingInterests, ImmutableList.of(newInterest)));
+    RankedStreamCache.invalidate(user);
 
     // Create the response.
     JSONObject response = this.createSuccessResponse();
@@ -0,0 +1,122 @@
+package com.janknspank.server;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.template.soy.SoyFileSet;
+import com.google.template.soy.tofu.SoyTofu;
+import com.janknspank.common.Logger;
+
+/**
+ * Compiles all the Soy templates in templates/ once, and hands out Tofu
+ * renderers for each namespace from memory.  Compiling templates costs more
+ * than the rest of a typical page load or email render put together, so we
+ * do it at server startup (see NewsServer#initialize) rather than per request.
+ *
+ * For development, set the SOY_HOT_RELOAD environment variable to "true", and
+ * templates will be recompiled whenever a .soy file is added, removed, or
+ * modified.
+ */
+public class SoyTemplates {
+  private static final Logger LOG = new Logger(SoyTemplates.class);
+  private static final File TEMPLATE_DIRECTORY = new File("templates/");
+  private static final boolean HOT_RELOAD =
+      "true".equalsIgnoreCase(System.getenv("SOY_HOT_RELOAD"));
+
+  /**
+   * The templates as of the last compile, plus the per-namespace Tofus we've
+   * handed out for them.  Replaced wholesale when we hot-reload.
+   */
+  private static class CompiledTemplates {
+    private final SoyTofu tofu;
+    private final String signature;
+    private final ConcurrentMap<String, SoyTofu> namespaceTofus = new ConcurrentHashMap<>();
+
+    private CompiledTemplates(SoyTofu tofu, String signature) {
+      this.tofu = tofu;
+      this.signature = signature;
+    }
+
+    private SoyTofu forNamespace(String namespace) {
+      SoyTofu namespaceTofu = namespaceTofus.get(namespace);
+      if (namespaceTofu == null) {
+        namespaceTofu = tofu.forNamespace(namespace);
+        namespaceTofus.putIfAbsent(namespace, namespaceTofu);
+      }
+      return namespaceTofu;
+    }
+  }
+
+  private static volatile CompiledTemplates compiledTemplates = null;
+
+  private SoyTemplates() {}
+
+  private static File[] getSoyFiles() {
+    File[] soyFiles = TEMPLATE_DIRECTORY.listFiles();
+    if (soyFiles == null) {
+      throw new IllegalStateException(
+          "Template directory not found: " + TEMPLATE_DIRECTORY.getAbsolutePath());
+    }
+    Arrays.sort(soyFiles);
+    return soyFiles;
+  }
+
+  /**
+   * Returns a string that changes whenever a template is added, removed, or
+   * modified.
+   */
+  private static String getSignature(File[] soyFiles) {
+    StringBuilder signature = new StringBuilder();
+    for (File soyFile : soyFiles) {
+      if (soyFile.getName().endsWith(".soy")) {
+        signature.append(soyFile.getName()).append(':').append(soyFile.lastModified())
+            .append(':').append(soyFile.length()).append(';');
+      }
+    }
+    return signature.toString();
+  }
+
+  private static CompiledTemplates compile(File[] soyFiles) {
+    SoyFileSet.Builder sfsBuilder = new SoyFileSet.Builder();
+    for (File soyFile : soyFiles) {
+      if (soyFile.getName().endsWith(".soy")) {
+        sfsBuilder.add(soyFile);
+      }
+    }
+    return new CompiledTemplates(sfsBuilder.build().compileToTofu(), getSignature(soyFiles));
+  }
+
+  private static synchronized CompiledTemplates getCompiledTemplates() {
+    if (compiledTemplates == null) {
+      compiledTemplates = compile(getSoyFiles());
+    } else if (HOT_RELOAD) {
+      File[] soyFiles = getSoyFiles();
+      if (!compiledTemplates.signature.equals(getSignature(soyFiles))) {
+        LOG.info("Soy templates changed, recompiling");
+        compiledTemplates = compile(soyFiles);
+      }
+    }
+    return compiledTemplates;
+  }
+
+  /**
+   * Compiles the templates, if they haven't been compiled yet.
+   */
+  public static void initialize() {
+    getCompiledTemplates();
+  }
+
+  /**
+   * Returns a Tofu for the "news." + {@code resourceName} namespace.  E.g.
+   * "news.index".
+   */
+  public static SoyTofu getTofu(String resourceName) {
+    CompiledTemplates templates = compiledTemplates;
+    if (templates == null || HOT_RELOAD) {
+      templates = getCompiledTemplates();
+    }
+    return templates.forNamespace("news." + resourceName);
+  }
+}
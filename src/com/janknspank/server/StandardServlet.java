@@ -22,6 +22,18 @@ public abstract class StandardServlet extends NewsServlet {
     return null;
   }
 
+  /**
+   * Override this instead of doGetInternal to stream a large JSON response to
+   * the client as it's serialized, without building a JSONObject for it
+   * first.  If this returns null, doGetInternal handles the request.
+   */
+  protected StreamingResponse doGetStreamingInternal(
+      HttpServletRequest req, HttpServletResponse resp)
+      throws DatabaseSchemaException, DatabaseRequestException, NotFoundException,
+          RedirectException, BiznessException, RequestException {
+    return null;
+  }
+
   /**
    * Returns any Soy data necessary for rendering the .main template for this
    * servlet's Soy page.
@@ -36,6 +48,11 @@ public abstract class StandardServlet extends NewsServlet {
   protected final void doGet(HttpServletRequest req, HttpServletResponse resp)
       throws ServletException, IOException {
     try {
+      StreamingResponse streamingResponse = doGetStreamingInternal(req, resp);
+      if (streamingResponse != null) {
+        writeJson(req, resp, streamingResponse);
+        return;
+      }
       JSONObject response = doGetInternal(req, resp);
       if (response == null) {
         resp.setHeader("Content-Type", "text/html; charset=utf-8");
@@ -68,11 +85,27 @@ public abstract class StandardServlet extends NewsServlet {
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Same as doGetStreamingInternal, but for POSTs.  If this returns null,
+   * doPostInternal handles the request.
+   */
+  protected StreamingResponse doPostStreamingInternal(
+      HttpServletRequest req, HttpServletResponse resp)
+      throws DatabaseSchemaException, DatabaseRequestException, RequestException,
+          NotFoundException, BiznessException, RedirectException {
+    return null;
+  }
+
   @Override
   protected final void doPost(HttpServletRequest req, HttpServletResponse resp)
       throws ServletException, IOException {
     Throwable ex = null;
     try {
+      StreamingResponse streamingResponse = doPostStreamingInternal(req, resp);
+      if (streamingResponse != null) {
+        writeJson(req, resp, streamingResponse);
+        return;
+      }
       JSONObject response = doPostInternal(req, resp);
       Asserts.assertTrue(response.getBoolean("success"), "success in response",
           BiznessException.class);
@@ -0,0 +1,22 @@
+package com.janknspank.server;
+
+import java.io.IOException;
+
+import com.janknspank.common.JsonStreamWriter;
+
+/**
+ * A successful JSON response that's written straight to the client as it's
+ * serialized, rather than built up as a JSONObject first.  Returned by
+ * StandardServlet#doGetStreamingInternal / #doPostStreamingInternal.
+ *
+ * Anything that can fail (database queries, validation, etc.) should happen
+ * before the StreamingResponse is returned.  By the time writeFields is
+ * called, the HTTP status has been sent, so it's too late to report errors.
+ */
+public interface StreamingResponse {
+  /**
+   * Writes this response's fields into the top-level JSON object.  The
+   * "success": true field has already been written.
+   */
+  void writeFields(JsonStreamWriter writer) throws IOException;
+}
@@ -0,0 +1,32 @@
+package com.janknspank.server;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.janknspank.common.Metrics;
+
+/**
+ * Dumps this server's current performance metrics (database queue depths,
+ * latencies, etc) as plain text, one "name value" pair per line.
+ */
+@ServletMapping(urlPattern = "/viewMetrics")
+public class ViewMetricsServlet extends HttpServlet {
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) {
+    try {
+      response.setHeader("Content-Type", "text/plain; charset=utf-8");
+      PrintWriter pw = new PrintWriter(response.getOutputStream());
+      for (Map.Entry<String, Number> entry : Metrics.getSnapshot().entrySet()) {
+        pw.write(entry.getKey() + " " + entry.getValue() + "\n");
+      }
+      pw.flush();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+}
@@ -35,6 +35,7 @@ public class ViewFeedSoy {
       final User user) {
     Set<String> userKeywordSet =
         UserInterests.getUserKeywordSet(user, ImmutableSet.<InterestType>of());
+    Set<Integer> userIndustryFeatureIdIds = UserInterests.getUserIndustryFeatureIdIds(user);
 
     List<SoyMapData> articleSoyMapDataList = Lists.newArrayList();
     int i = 0;
@@ -62,7 +63,6 @@ public class ViewFeedSoy {
       // Tags.
       List<String> highlightedTags = Lists.newArrayList();
       List<String> unhighlightedTags = Lists.newArrayList();
-      Set<Integer> userIndustryFeatureIdIds = UserInterests.getUserIndustryFeatureIdIds(user);
       for (ArticleKeyword keyword
           : ArticleSerializer.getBestKeywords(article, userKeywordSet, userIndustryFeatureIdIds, null)) {
         String keywordStr = keyword.getKeyword();
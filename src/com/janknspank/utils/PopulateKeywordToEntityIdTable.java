@@ -21,6 +21,7 @@ import com.janknspank.common.TopList;
 import com.janknspank.database.Database;
 import com.janknspank.database.DatabaseSchemaException;
 import com.janknspank.database.QueryOption;
+import com.janknspank.nlp.KeywordDictionary;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.ArticleProto.ArticleFeature;
 import com.janknspank.proto.ArticleProto.ArticleKeyword;
@@ -35,6 +36,8 @@ import com.janknspank.proto.CoreProto.KeywordToEntityId;
  *
  * We should run this somewhat regularly so that we're sure that keywords that
  * are referenced frequently have entities associated with them.
+ *
+ * Afterwards, writes the KeywordDictionary file from the updated table.
  */
 public class PopulateKeywordToEntityIdTable {
   public static class KeywordSet {
@@ -228,5 +231,13 @@ public class PopulateKeywordToEntityIdTable {
       Database.update(keywordToEntityIdsToUpdate);
       System.out.println(i);
     }
+
+    // Rebuild the dictionary servers and crawlers use to find entities for
+    // keywords, now that the table's up to date.  They'll pick it up on
+    // their own.
+    System.out.println("Writing keyword dictionary...");
+    Map<String, String> keywordToEntityIdMap = KeywordDictionary.readKeywordToEntityIdMap();
+    KeywordDictionary.writeToFile(keywordToEntityIdMap);
+    System.out.println(keywordToEntityIdMap.size() + " keywords written.");
   }
 }
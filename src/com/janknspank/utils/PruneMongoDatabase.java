@@ -8,6 +8,7 @@ import com.janknspank.database.DatabaseSchemaException;
 import com.janknspank.database.MongoConnection;
 import com.janknspank.database.QueryOption;
 import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.SocialEngagementHistory;
 import com.janknspank.proto.CrawlerProto.CrawlHistory;
 
 /**
@@ -17,6 +18,7 @@ import com.janknspank.proto.CrawlerProto.CrawlHistory;
  * Steps performed:
  * - Keep Article count under 30,000 by removing the oldest articles.  (This
  *     keeps the Article collection at around 350 megabytes.)
+ * - Remove social engagement history older than the oldest article we kept.
  * - Repair the database to reclaim the space we created.
  *
  * URLs are NOT pruned - We need them so that we know which articles we've seen
@@ -127,6 +129,28 @@ public class PruneMongoDatabase {
     Database.delete(oldCrawlHistories);
   }
 
+  /**
+   * Deletes social engagement snapshots taken before the oldest article we
+   * still have was published.  Their articles are (almost all) gone, and
+   * nothing reads history that old anyway.
+   */
+  private static void pruneSocialEngagementHistory() throws DatabaseSchemaException {
+    long startTime = System.currentTimeMillis();
+    Article oldestArticle = Database.with(Article.class).getFirst(
+        new QueryOption.AscendingSort("published_time"),
+        new QueryOption.WhereNotTrue("retain"));
+    if (oldestArticle == null) {
+      System.out.println("No articles, deleting no social engagement history!");
+      return;
+    }
+
+    System.out.println("Pruning social engagement history ...");
+    int count = Database.with(SocialEngagementHistory.class).delete(
+        new QueryOption.WhereLessThan("create_time", oldestArticle.getPublishedTime()));
+    System.out.println("Deleted " + count + " social engagement histories in "
+        + (System.currentTimeMillis() - startTime) + "ms");
+  }
+
   private static void repairDatabase() throws DatabaseSchemaException {
     long startTime = System.currentTimeMillis();
     System.out.println("Repairing database to free up quota from deleted items ...");
@@ -138,6 +162,7 @@ public class PruneMongoDatabase {
   public static void main(String args[]) throws DatabaseSchemaException, DatabaseRequestException {
     pruneArticles();
     pruneCrawlHistory();
+    pruneSocialEngagementHistory();
     repairDatabase();
     System.out.println("Database pruned successfully.");
   }
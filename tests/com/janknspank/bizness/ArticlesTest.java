@@ -0,0 +1,80 @@
+package com.janknspank.bizness;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.janknspank.classifier.FeatureId;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.Article.Reason;
+import com.janknspank.proto.ArticleProto.ArticleFeature;
+
+public class ArticlesTest {
+  private static final List<String> ENTITY_IDS = ImmutableList.of("entity1");
+  private static final List<String> PERSON_NAMES = ImmutableList.of("Jane Doe");
+  private static final List<String> COMPANY_NAMES = ImmutableList.of("Acme");
+
+  private static Article createArticle(String urlId, Object... featureIdsAndSimilarities) {
+    Article.Builder builder = Article.newBuilder().setUrlId(urlId);
+    for (int i = 0; i < featureIdsAndSimilarities.length; i += 2) {
+      builder.addFeature(ArticleFeature.newBuilder()
+          .setFeatureId(((FeatureId) featureIdsAndSimilarities[i]).getId())
+          .setSimilarity((Double) featureIdsAndSimilarities[i + 1]));
+    }
+    return builder.build();
+  }
+
+  private static int getCandidateQueryCount(List<FeatureId> featureIds) {
+    return Articles.getCandidateQueries(
+        ENTITY_IDS, PERSON_NAMES, COMPANY_NAMES, featureIds, 100,
+        ImmutableSet.<String>of(), false /* videoOnly */).size();
+  }
+
+  @Test
+  public void testGetCandidateQueries() throws Exception {
+    assertEquals(3, getCandidateQueryCount(ImmutableList.<FeatureId>of()));
+    assertEquals(4, getCandidateQueryCount(ImmutableList.of(FeatureId.INTERNET)));
+
+    // Following more industries must not cost more queries.
+    List<FeatureId> tenIndustries = ImmutableList.copyOf(FeatureId.values()).subList(0, 10);
+    assertEquals(4, getCandidateQueryCount(tenIndustries));
+
+    // Groups the user doesn't follow aren't queried.
+    assertEquals(1, Articles.getCandidateQueries(
+        ImmutableList.<String>of(), ImmutableList.<String>of(), ImmutableList.<String>of(),
+        tenIndustries, 100, ImmutableSet.<String>of(), false /* videoOnly */).size());
+  }
+
+  @Test
+  public void testTakeIndustryQuotas() throws Exception {
+    List<Article> articles = Articles.takeIndustryQuotas(
+        ImmutableList.of(
+            createArticle("internet1", FeatureId.INTERNET, 0.9),
+            createArticle("internet2", FeatureId.INTERNET, 0.8),
+            createArticle("internet3", FeatureId.INTERNET, 0.9),
+            // Most similar to INTERNET, but its quota's full.
+            createArticle("both", FeatureId.INTERNET, 0.9, FeatureId.SOFTWARE, 0.3),
+            createArticle("software1", FeatureId.SOFTWARE, 0.9, FeatureId.INTERNET, 0.1),
+            // Not an industry the user follows.
+            createArticle("hardware1", FeatureId.HARDWARE_AND_ELECTRONICS, 0.9)),
+        ImmutableList.of(FeatureId.INTERNET, FeatureId.SOFTWARE),
+        2 /* limitPerIndustry */);
+
+    assertEquals(4, articles.size());
+    assertEquals("internet1", articles.get(0).getUrlId());
+    assertEquals(FeatureId.INTERNET.getId(), articles.get(0).getReasonIndustryCode());
+    assertEquals("internet2", articles.get(1).getUrlId());
+    assertEquals(FeatureId.INTERNET.getId(), articles.get(1).getReasonIndustryCode());
+    assertEquals("both", articles.get(2).getUrlId());
+    assertEquals(FeatureId.SOFTWARE.getId(), articles.get(2).getReasonIndustryCode());
+    assertEquals("software1", articles.get(3).getUrlId());
+    assertEquals(FeatureId.SOFTWARE.getId(), articles.get(3).getReasonIndustryCode());
+    for (Article article : articles) {
+      assertEquals(Reason.INDUSTRY, article.getReason());
+    }
+  }
+}
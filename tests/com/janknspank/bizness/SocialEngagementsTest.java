@@ -0,0 +1,76 @@
+package com.janknspank.bizness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.janknspank.proto.ArticleProto.SocialEngagement.Site;
+
+public class SocialEngagementsTest {
+  private static final long NOW = 1430161200000L; // April 27, 2015.
+
+  private static long hoursAgo(int hours) {
+    return NOW - TimeUnit.HOURS.toMillis(hours);
+  }
+
+  /**
+   * Returns an article that's {@code ageInHours} old, with a Facebook
+   * engagement from {@code engagementAgeInHours} ago.
+   */
+  private static Article createArticle(int ageInHours, int engagementAgeInHours) {
+    return Article.newBuilder()
+        .setPublishedTime(hoursAgo(ageInHours))
+        .setCrawlTime(hoursAgo(ageInHours))
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(Site.FACEBOOK)
+            .setShareCount(100)
+            .setCreateTime(hoursAgo(engagementAgeInHours)))
+        .build();
+  }
+
+  @Test
+  public void testGetForArticle() throws Exception {
+    Article article = Article.newBuilder()
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(Site.FACEBOOK)
+            .setShareCount(1)
+            .setCreateTime(hoursAgo(2)))
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(Site.FACEBOOK)
+            .setShareCount(2)
+            .setCreateTime(hoursAgo(1)))
+        .build();
+    assertEquals(2, SocialEngagements.getForArticle(article, Site.FACEBOOK).getShareCount());
+    assertNull(SocialEngagements.getForArticle(article, Site.TWITTER));
+  }
+
+  @Test
+  public void testNeedsUpdate() throws Exception {
+    // Articles without engagement from a site always need some, however old
+    // they are.
+    assertTrue(SocialEngagements.needsUpdate(createArticle(1, 0), Site.TWITTER, NOW));
+    assertTrue(SocialEngagements.needsUpdate(createArticle(100, 0), Site.TWITTER, NOW));
+
+    // Under 8 hours old: Every 6 hours.
+    assertFalse(SocialEngagements.needsUpdate(createArticle(7, 5), Site.FACEBOOK, NOW));
+    assertTrue(SocialEngagements.needsUpdate(createArticle(7, 7), Site.FACEBOOK, NOW));
+
+    // Under a day old: Every 12 hours.
+    assertFalse(SocialEngagements.needsUpdate(createArticle(20, 11), Site.FACEBOOK, NOW));
+    assertTrue(SocialEngagements.needsUpdate(createArticle(20, 13), Site.FACEBOOK, NOW));
+
+    // Under 2 1/2 days old: Every day.
+    assertFalse(SocialEngagements.needsUpdate(createArticle(50, 23), Site.FACEBOOK, NOW));
+    assertTrue(SocialEngagements.needsUpdate(createArticle(50, 25), Site.FACEBOOK, NOW));
+
+    // Older than that: Never again.
+    assertFalse(SocialEngagements.needsUpdate(createArticle(61, 61), Site.FACEBOOK, NOW));
+  }
+}
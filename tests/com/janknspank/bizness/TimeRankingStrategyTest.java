@@ -0,0 +1,89 @@
+package com.janknspank.bizness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.janknspank.bizness.TimeRankingStrategy.EntityStreamStrategy;
+import com.janknspank.bizness.TimeRankingStrategy.IndustryStreamStrategy;
+import com.janknspank.bizness.TimeRankingStrategy.MainStreamStrategy;
+import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.UserProto.User;
+
+public class TimeRankingStrategyTest {
+  private static final User USER = User.newBuilder()
+      .setId("user")
+      .setTimezoneEstimate("-7:00")
+      .build();
+
+  // Monday, April 27, 2015, noon in San Francisco.
+  private static final long MONDAY = ZonedDateTime.of(
+      2015, 4, 27, 12, 0, 0, 0, ZoneOffset.ofHours(-7)).toInstant().toEpochMilli();
+
+  // Saturday, April 25, 2015, noon in San Francisco.
+  private static final long SATURDAY = ZonedDateTime.of(
+      2015, 4, 25, 12, 0, 0, 0, ZoneOffset.ofHours(-7)).toInstant().toEpochMilli();
+
+  private static Article createArticle(long now, int ageInHours) {
+    long publishedTime = now - TimeUnit.HOURS.toMillis(ageInHours);
+    return Article.newBuilder()
+        .setPublishedTime(publishedTime)
+        .setCrawlTime(publishedTime)
+        .build();
+  }
+
+  @Test
+  public void testContext() throws Exception {
+    TimeRankingStrategy.Context context = new TimeRankingStrategy.Context(USER, MONDAY);
+    assertEquals(MONDAY, context.getNow());
+    assertFalse(context.isWeekend());
+    assertTrue(new TimeRankingStrategy.Context(USER, SATURDAY).isWeekend());
+  }
+
+  @Test
+  public void testMainStreamStrategy() throws Exception {
+    TimeRankingStrategy strategy = new MainStreamStrategy();
+    TimeRankingStrategy.Context context = new TimeRankingStrategy.Context(USER, MONDAY);
+    assertEquals(1, strategy.getTimeRank(createArticle(MONDAY, 0), context), 0.0001);
+    assertEquals(1, strategy.getTimeRank(createArticle(MONDAY, 18), context), 0.0001);
+    assertEquals(0.5, strategy.getTimeRank(createArticle(MONDAY, 18 + 24), context), 0.0001);
+
+    // The user last used the app 5 hours ago, so that's where the punishment
+    // starts.
+    TimeRankingStrategy.Context recentUserContext = new TimeRankingStrategy.Context(
+        USER.toBuilder().addLast5AppUseTime(MONDAY - TimeUnit.HOURS.toMillis(5)).build(),
+        MONDAY);
+    assertEquals(0.5,
+        strategy.getTimeRank(createArticle(MONDAY, 5 + 24), recentUserContext), 0.0001);
+
+    // Weekends start punishing later.
+    TimeRankingStrategy.Context weekendContext = new TimeRankingStrategy.Context(USER, SATURDAY);
+    assertEquals(1, strategy.getTimeRank(createArticle(SATURDAY, 42), weekendContext), 0.0001);
+    assertEquals(0.5,
+        strategy.getTimeRank(createArticle(SATURDAY, 42 + 24), weekendContext), 0.0001);
+  }
+
+  @Test
+  public void testIndustryStreamStrategy() throws Exception {
+    TimeRankingStrategy strategy = new IndustryStreamStrategy();
+    TimeRankingStrategy.Context context = new TimeRankingStrategy.Context(USER, MONDAY);
+    assertEquals(1, strategy.getTimeRank(createArticle(MONDAY, 18), context), 0.0001);
+    assertEquals(0.5, strategy.getTimeRank(createArticle(MONDAY, 18 + 36), context), 0.0001);
+    assertEquals(0.25, strategy.getTimeRank(createArticle(MONDAY, 18 + 72), context), 0.0001);
+  }
+
+  @Test
+  public void testEntityStreamStrategy() throws Exception {
+    TimeRankingStrategy strategy = new EntityStreamStrategy();
+    TimeRankingStrategy.Context context = new TimeRankingStrategy.Context(USER, SATURDAY);
+    assertEquals(1, strategy.getTimeRank(createArticle(SATURDAY, 42), context), 0.0001);
+    assertEquals(0.5,
+        strategy.getTimeRank(createArticle(SATURDAY, 42 + 7 * 24), context), 0.0001);
+  }
+}
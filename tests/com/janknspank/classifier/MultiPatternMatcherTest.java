@@ -0,0 +1,79 @@
+package com.janknspank.classifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+public class MultiPatternMatcherTest {
+  private static void assertRequiredLiteral(String expected, boolean isExact, String regex) {
+    MultiPatternMatcher.RequiredLiteral requiredLiteral =
+        MultiPatternMatcher.getRequiredLiteral(Pattern.compile(regex));
+    assertEquals(regex, expected, requiredLiteral.literal);
+    assertEquals(regex, isExact, requiredLiteral.isExact);
+  }
+
+  @Test
+  public void testGetRequiredLiteral() throws Exception {
+    assertRequiredLiteral("angel round", true, "angel round");
+    assertRequiredLiteral("series a.", true, "series a\\.");
+    assertRequiredLiteral("series a", false, "series a$");
+    assertRequiredLiteral(" of the week", false, "the [0-9]+ best .* of the week");
+    assertRequiredLiteral(" million round", false, "\\$.* million round");
+    assertRequiredLiteral("m funding", false, "raises \\$.+m funding");
+    assertRequiredLiteral(" best ", false,
+        "the (three|four|five) best .* (new|old)");
+    assertRequiredLiteral("abc", false, "abc+d?ef");
+    assertRequiredLiteral(" econ", false, "q[1-4] econ");
+
+    assertNull(MultiPatternMatcher.getRequiredLiteral(Pattern.compile("a|b")));
+    assertNull(MultiPatternMatcher.getRequiredLiteral(Pattern.compile("(?i)hello")));
+    assertNull(MultiPatternMatcher.getRequiredLiteral(Pattern.compile("\\x41bc")));
+    assertNull(MultiPatternMatcher.getRequiredLiteral(Pattern.compile("\\?")));
+    assertNull(MultiPatternMatcher.getRequiredLiteral(
+        Pattern.compile("hello", Pattern.CASE_INSENSITIVE)));
+  }
+
+  @Test
+  public void testFindMatchingPatterns() throws Exception {
+    List<Pattern> patterns = Lists.newArrayList();
+    for (String regex : ImmutableList.of(
+        "series a ", "series a$", "series a,", "raises \\$.+ million", "\\?",
+        "[0-9]{1,2} in [0-9]{1,2}", "to acquire .+illion", "buying\\?", "(?i)Hello",
+        "the (three|four) best .* of the week")) {
+      patterns.add(Pattern.compile(regex));
+    }
+    MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+    assertEquals(patterns.size(), matcher.getPatternCount());
+
+    for (String text : ImmutableList.of(
+        "",
+        "startup raises $5 million in series a",
+        "startup raises $5 in series a, led by",
+        "is google buying? hello",
+        "the four best apps of the week",
+        "the four best of the week",
+        "to acquire for $2 billion",
+        "3 in 4 people")) {
+      BitSet matches = matcher.findMatchingPatterns(text);
+      for (int i = 0; i < patterns.size(); i++) {
+        assertEquals(patterns.get(i) + " / " + text,
+            patterns.get(i).matcher(text).find(), matches.get(i));
+      }
+    }
+
+    BitSet matches = matcher.findMatchingPatterns("startup raises $5 million in series a");
+    assertTrue(matches.get(1));
+    assertFalse(matches.get(0));
+    assertTrue(matches.get(3));
+  }
+}
@@ -0,0 +1,56 @@
+package com.janknspank.classifier;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.janknspank.proto.CoreProto.VectorData;
+import com.janknspank.proto.CoreProto.VectorData.WordFrequency;
+
+public class VectorIndexTest {
+  private static final List<String> WORDS = ImmutableList.of(
+      "Seahawks", "Wilson", "Lynch", "Sherman", "Chancellor",
+      "Patriots", "Brady", "Gronkowski", "Edelman", "Blount");
+
+  private static VectorData createRandomVectorData(Random random) {
+    VectorData.Builder builder = VectorData.newBuilder();
+    for (String word : WORDS) {
+      if (random.nextInt(3) == 0) {
+        builder.addWordFrequency(WordFrequency.newBuilder()
+            .setWord(word)
+            .setFrequency(1 + random.nextInt(10))
+            .setDocumentOccurences(1));
+      }
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testMatchesGetCosineSimilarity() throws Exception {
+    Random random = new Random(42);
+    VectorData.Builder universeDataBuilder = VectorData.newBuilder().setDocumentCount(30);
+    List<Vector> vectors = Lists.newArrayList();
+    for (int i = 0; i < 20; i++) {
+      VectorData vectorData = createRandomVectorData(random);
+      vectors.add(new Vector(vectorData));
+      universeDataBuilder.addAllWordFrequency(vectorData.getWordFrequencyList());
+    }
+    Vector universe = new Vector(universeDataBuilder.build());
+    VectorIndex index = new VectorIndex(universe, vectors);
+    assertEquals(vectors.size(), index.size());
+
+    for (int run = 0; run < 20; run++) {
+      Vector articleVector = new Vector(createRandomVectorData(random));
+      double[] similarities = index.getCosineSimilarities(articleVector);
+      for (int i = 0; i < vectors.size(); i++) {
+        assertEquals(vectors.get(i).getCosineSimilarity(universe, articleVector),
+            similarities[i], 0.000001 /* epsilon */);
+      }
+    }
+  }
+}
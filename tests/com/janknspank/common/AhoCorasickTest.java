@@ -0,0 +1,50 @@
+package com.janknspank.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class AhoCorasickTest {
+  @Test
+  public void testFindContainedPatterns() throws Exception {
+    List<String> patterns = ImmutableList.of("he", "she", "his", "hers", "Jon Emerson", "x");
+    AhoCorasick ahoCorasick = new AhoCorasick(patterns);
+    assertEquals(patterns.size(), ahoCorasick.getPatternCount());
+
+    BitSet found = ahoCorasick.findContainedPatterns("ushers");
+    assertTrue(found.get(0)); // he
+    assertTrue(found.get(1)); // she
+    assertFalse(found.get(2)); // his
+    assertTrue(found.get(3)); // hers
+    assertFalse(found.get(4));
+    assertFalse(found.get(5));
+
+    found = ahoCorasick.findContainedPatterns("Today Jon Emerson said");
+    assertEquals(1, found.cardinality());
+    assertTrue(found.get(4));
+
+    // Case sensitive.
+    assertEquals(0, ahoCorasick.findContainedPatterns("jon emerson").cardinality());
+    assertEquals(0, ahoCorasick.findContainedPatterns("").cardinality());
+  }
+
+  @Test
+  public void testMatchesStringContains() throws Exception {
+    List<String> patterns = ImmutableList.of("a", "ab", "bab", "bc", "bca", "c", "caa", "", "aa");
+    AhoCorasick ahoCorasick = new AhoCorasick(patterns);
+    for (String text : ImmutableList.of("", "abccab", "bcaab", "caaab", "xyz", "aaaa", "babca")) {
+      BitSet found = ahoCorasick.findContainedPatterns(text);
+      for (int i = 0; i < patterns.size(); i++) {
+        assertEquals(text + " / " + patterns.get(i),
+            text.contains(patterns.get(i)), found.get(i));
+      }
+    }
+  }
+}
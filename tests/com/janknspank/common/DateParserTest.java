@@ -1,7 +1,16 @@
 package com.janknspank.common;
 
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.janknspank.common.DateParser;
 
 import static org.junit.Assert.*;
@@ -44,6 +53,93 @@ public class DateParserTest {
     assertSameTime("20150227000000", "27 February 2015"); // Ribaj.com.
     assertSameTime("20141119020000", "Wednesday 19 November 2014 at 2am PST");
     assertSameTime("20150320051100", "8:11 AM EDT  March 20, 2015");
+    assertSameTime("20141230021552", "2014-12-30T10:15:52+00:00");
+    assertSameTime("20141230123239", "2014/12/30 12:32:39");
+    assertSameTime("20150601000000", "2015/06/01");
+
+    // Like SimpleDateFormat, formats only need to match the start of a date.
+    assertSameTime("20141128000000", "2014-11-28T22:16:38.357Z");
+    assertSameTime("20150106000000", "2015-01-06 20:55:00 -0800");
+    assertNull(DateParser.parseDateTime("garbage"));
+  }
+
+  @Test
+  public void testParseDateTimeLikeSimpleDateFormat() throws Exception {
+    // Every date in testdata should parse exactly as it did when we tried
+    // each SimpleDateFormat in turn.  Parse them twice, so the second pass
+    // goes through the formats we remembered for each shape.
+    List<String> dates = DateParserBenchmark.readDates(new File("testdata"));
+    assertFalse(dates.isEmpty());
+    for (int pass = 0; pass < 2; pass++) {
+      for (String date : dates) {
+        assertEquals(date, DateParserBenchmark.parseDateTimeByTryingEachFormat(date),
+            DateParser.parseDateTime(date));
+      }
+    }
+
+    // E.g. BBC.com's datetime attributes: "XXX" needs a colon in the offset,
+    // so these fall through to "yyyy-MM-dd" and lose their times.
+    assertSameTime("20141230000000", "2014-12-30T10:15:52+0000");
+  }
+
+  @Test
+  public void testParseDateTimeWithRememberedShapes() {
+    // Once a shape's format is remembered, a string of the same shape that
+    // the format only partly matches should still get the format trying each
+    // in turn would give it.
+    assertSameTime("20141230021552", "2014-12-30T10:15:52+00:00");
+    assertSameTime("20141230021552", "2014-12-30T10:15:52+00:00");
+    assertSameTime("20141230000000", "2014-12-30T10:15:52+99:00");
+    assertSameTime("20141230021552", "2014-12-30T10:15:52+00:00");
+
+    // Digits that a shorter format would swallow into its last field.
+    assertSameTime("20150102000000", "20150102");
+    assertSameTime("20150102110816", "20150102110816");
+  }
+
+  @Test
+  public void testParseDateTimeFromManyThreads() throws Exception {
+    final List<String> dates = ImmutableList.of(
+        "2014-12-31T22:00:00Z",
+        "Thu, 01 Jan 2015 23:44:25 GMT",
+        "January 6, 2015, 10:43 PM",
+        "27 February 2015",
+        "20150102110816");
+    final List<Long> expected = Lists.newArrayList();
+    for (String date : dates) {
+      expected.add(DateParser.parseDateTime(date));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<Boolean>> futures = Lists.newArrayList();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(new Callable<Boolean>() {
+        @Override
+        public Boolean call() {
+          for (int pass = 0; pass < 200; pass++) {
+            for (int j = 0; j < dates.size(); j++) {
+              if (!expected.get(j).equals(DateParser.parseDateTime(dates.get(j)))) {
+                return false;
+              }
+            }
+          }
+          return true;
+        }
+      }));
+    }
+    for (Future<Boolean> future : futures) {
+      assertTrue(future.get());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testGetShape() {
+    assertEquals("thu, 99 jan 9999 99:99:99 gmt",
+        DateParser.getShape("Thu, 01 Jan 2015 23:44:25 GMT"));
+    assertEquals("thu, 9 jan 9999 99:99:99 pst",
+        DateParser.getShape("Thu, 1 Jan 2015 07:57:48 PST"));
+    assertEquals("9999-99-99t99:99:99+99:99", DateParser.getShape("2014-12-30T10:15:52+00:00"));
+    assertEquals("", DateParser.getShape(""));
   }
 
   @Test
@@ -0,0 +1,67 @@
+package com.janknspank.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonStreamWriterTest {
+  @Test
+  public void testWrite() throws Exception {
+    StringWriter stringWriter = new StringWriter();
+    JsonStreamWriter writer = new JsonStreamWriter(stringWriter);
+    writer.beginObject()
+        .name("success").value(true)
+        .name("values").beginArray()
+            .value(1.0)
+            .value(0.5)
+            .value(42)
+            .value("</script> \"quoted\"\n")
+            .beginObject().endObject()
+            .beginArray().endArray()
+            .nullValue()
+        .endArray()
+        .name("built").value(new JSONObject().put("a", 1))
+        .endObject();
+    writer.close();
+    assertEquals("{\"success\":true,"
+        + "\"values\":[1,0.5,42,\"<\\/script> \\\"quoted\\\"\\n\",{},[],null],"
+        + "\"built\":{\"a\":1}}", stringWriter.toString());
+  }
+
+  @Test
+  public void testIndent() throws Exception {
+    StringWriter stringWriter = new StringWriter();
+    JsonStreamWriter writer = new JsonStreamWriter(stringWriter, 2);
+    writer.beginObject()
+        .name("a").beginArray().value(1).value(2).endArray()
+        .name("b").beginObject().endObject()
+        .endObject();
+    writer.close();
+    assertEquals("{\n  \"a\": [\n    1,\n    2\n  ],\n  \"b\": {}\n}", stringWriter.toString());
+  }
+
+  @Test
+  public void testMatchesOrgJson() throws Exception {
+    String string = "tab\t, bell\u0007, line separator\u2028, </tag>, \\";
+    StringWriter stringWriter = new StringWriter();
+    new JsonStreamWriter(stringWriter).value(string);
+    assertEquals(JSONObject.quote(string), stringWriter.toString());
+
+    for (double number : new double[] { 0, 1, -1.5, 0.1, 1e-7, 123456789012.0, 1e21 }) {
+      assertEquals(JSONObject.numberToString(number), JsonStreamWriter.numberToString(number));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNameOutsideObject() throws Exception {
+    new JsonStreamWriter(new StringWriter()).beginArray().name("oops");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaN() throws Exception {
+    new JsonStreamWriter(new StringWriter()).value(Double.NaN);
+  }
+}
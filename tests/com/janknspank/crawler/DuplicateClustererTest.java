@@ -0,0 +1,90 @@
+package com.janknspank.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.janknspank.proto.ArticleProto.Article;
+
+public class DuplicateClustererTest {
+  private static final long NOW = System.currentTimeMillis();
+
+  private static Article createArticle(String urlId, long publishedTime, String... stems) {
+    return Article.newBuilder()
+        .setUrlId(urlId)
+        .setPublishedTime(publishedTime)
+        .setCrawlTime(publishedTime)
+        .addAllDedupingStems(ImmutableList.copyOf(stems))
+        .build();
+  }
+
+  @Test
+  public void testCluster() throws Exception {
+    DuplicateClusterer clusterer = new DuplicateClusterer();
+    long firstTime = NOW - TimeUnit.HOURS.toMillis(3);
+
+    // The first article in a cluster gives it its ID.
+    Article first = clusterer.cluster(createArticle("first", firstTime, "appl", "iphon", "sale"));
+    assertEquals("first", first.getDuplicateClusterId());
+    assertFalse(first.hasHotCount());
+
+    // Articles that share enough stems join it.
+    Article second = clusterer.cluster(createArticle(
+        "second", NOW - TimeUnit.HOURS.toMillis(2), "appl", "iphon", "record"));
+    assertEquals("first", second.getDuplicateClusterId());
+    assertEquals(2, second.getHotCount());
+    assertEquals(firstTime, second.getOldestHotDuplicateTime());
+
+    // Others start their own.
+    Article other = clusterer.cluster(createArticle(
+        "other", NOW - TimeUnit.HOURS.toMillis(1), "tesla", "batteri", "record"));
+    assertEquals("other", other.getDuplicateClusterId());
+    assertFalse(other.hasHotCount());
+
+    // Duplicates of more than one cluster join the earliest.
+    Article both = clusterer.cluster(createArticle(
+        "both", NOW, "appl", "iphon", "tesla", "batteri"));
+    assertEquals("first", both.getDuplicateClusterId());
+    assertEquals(3, both.getHotCount());
+    assertEquals(firstTime, both.getOldestHotDuplicateTime());
+  }
+
+  @Test
+  public void testClusterIgnoresOldArticles() throws Exception {
+    DuplicateClusterer clusterer = new DuplicateClusterer();
+    clusterer.cluster(createArticle(
+        "old", NOW - TimeUnit.HOURS.toMillis(40), "appl", "iphon", "sale"));
+    Article article = clusterer.cluster(createArticle("new", NOW, "appl", "iphon", "sale"));
+    assertEquals("new", article.getDuplicateClusterId());
+    assertFalse(article.hasHotCount());
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    DuplicateClusterer clusterer = new DuplicateClusterer();
+    long firstTime = NOW - TimeUnit.HOURS.toMillis(3);
+    clusterer.cluster(createArticle("first", firstTime, "appl", "iphon", "sale"));
+
+    // An article that couldn't be stored shouldn't count toward its
+    // cluster...
+    Article unstored = clusterer.cluster(createArticle(
+        "unstored", NOW - TimeUnit.HOURS.toMillis(4), "appl", "iphon", "sale"));
+    assertEquals(NOW - TimeUnit.HOURS.toMillis(4), unstored.getOldestHotDuplicateTime());
+    clusterer.remove(unstored);
+    Article third = clusterer.cluster(createArticle("third", NOW, "appl", "iphon", "sale"));
+    assertEquals("first", third.getDuplicateClusterId());
+    assertEquals(2, third.getHotCount());
+    assertEquals(firstTime, third.getOldestHotDuplicateTime());
+
+    // ... or start one.
+    Article lonely = clusterer.cluster(createArticle("lonely", NOW, "tesla", "batteri"));
+    clusterer.remove(lonely);
+    Article article = clusterer.cluster(createArticle("next", NOW, "tesla", "batteri"));
+    assertEquals("next", article.getDuplicateClusterId());
+    assertFalse(article.hasHotCount());
+  }
+}
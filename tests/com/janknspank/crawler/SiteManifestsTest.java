@@ -0,0 +1,33 @@
+package com.janknspank.crawler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.janknspank.proto.CrawlerProto.SiteManifest;
+
+public class SiteManifestsTest {
+  @Test
+  public void testGetForUrl() throws Exception {
+    assertEquals("cnn.com", SiteManifests.getForUrl("http://cnn.com/").getRootDomain());
+    assertEquals("cnn.com", SiteManifests.getForUrl(
+        "http://money.cnn.com/2015/01/09/technology/uber-price/index.html").getRootDomain());
+    assertEquals("bbc.co.uk", SiteManifests.getForUrl("http://www.bbc.com/news").getRootDomain());
+    assertNull(SiteManifests.getForUrl("http://www.example.com/2015/01/09/article"));
+    assertNull(SiteManifests.getForUrl("http://localhost/"));
+    assertNull(SiteManifests.getForUrl("not a url"));
+  }
+
+  @Test
+  public void testEverySiteCanBeFound() throws Exception {
+    for (SiteManifest site : SiteManifests.getList()) {
+      assertSame(site, SiteManifests.getForUrl("http://" + site.getRootDomain() + "/"));
+      for (String akaRootDomain : site.getAkaRootDomainList()) {
+        assertSame(site, SiteManifests.getForUrl("http://www." + akaRootDomain + "/"));
+      }
+      assertSame(site, SiteManifests.getForShortName(site.getShortName()));
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.janknspank.database;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 import org.junit.Test;
@@ -83,4 +85,25 @@ public class CollectionTest {
     assertInvalidType(Database.getFieldDescriptor(Article.class, "keyword.source"),
         ImmutableList.of(Source.HYPERLINK));
   }
+
+  @Test
+  public void testCopyFields() throws Exception {
+    Article source = Article.newBuilder()
+        .setUrlId("01234567890123456789abcd")
+        .setTitle("New title")
+        .addParagraph("Paragraph 1")
+        .addParagraph("Paragraph 2")
+        .build();
+    Article destination = Article.newBuilder()
+        .setUrlId("01234567890123456789abcd")
+        .setTitle("Old title")
+        .setDescription("Description")
+        .addParagraph("Paragraph 1")
+        .build();
+    Article article = Collection.copyFields(source, destination, "paragraph", "image_url");
+    assertEquals("Old title", article.getTitle());
+    assertEquals("Description", article.getDescription());
+    assertEquals(ImmutableList.of("Paragraph 1", "Paragraph 2"), article.getParagraphList());
+    assertFalse(article.hasImageUrl());
+  }
 }
@@ -1,17 +1,93 @@
 package com.janknspank.database;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.util.List;
 import java.util.Set;
 
+import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.protobuf.Descriptors.Descriptor;
 import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.janknspank.proto.ArticleProto.SocialEngagement.Site;
+import com.mongodb.DB;
+import com.mongodb.DBCollection;
+import com.mongodb.DBObject;
+import com.mongodb.WriteResult;
 
 public class MongoCollectionTest {
+  private static final Article ARTICLE = Article.newBuilder()
+      .setUrlId("urlId")
+      .build();
+  private static final SocialEngagement ENGAGEMENT = SocialEngagement.newBuilder()
+      .setSite(Site.TWITTER)
+      .setShareCount(10)
+      .setShareScore(0.5)
+      .setCreateTime(1430161200000L)
+      .build();
+
+  private DBCollection dbCollection;
+  private MongoCollection<Article> collection;
+
+  @Before
+  public void setUp() throws Exception {
+    final DB db = mock(DB.class);
+    dbCollection = mock(DBCollection.class);
+    when(db.getCollection(any(String.class))).thenReturn(dbCollection);
+    collection = new MongoCollection<Article>(Article.class) {
+      @Override
+      protected DB getDatabase() {
+        return db;
+      }
+    };
+  }
+
+  /**
+   * Makes successive updates to the mock collection modify the passed numbers
+   * of documents.
+   */
+  private void setUpdateCounts(int firstCount, int... counts) {
+    WriteResult firstResult = mock(WriteResult.class);
+    when(firstResult.getN()).thenReturn(firstCount);
+    WriteResult[] results = new WriteResult[counts.length];
+    for (int i = 0; i < counts.length; i++) {
+      results[i] = mock(WriteResult.class);
+      when(results[i].getN()).thenReturn(counts[i]);
+    }
+    when(dbCollection.update(any(DBObject.class), any(DBObject.class)))
+        .thenReturn(firstResult, results);
+  }
+
+  /**
+   * Returns the updates made to the mock collection, verifying that there were
+   * {@code count} of them.
+   */
+  private List<DBObject> getUpdates(int count) {
+    ArgumentCaptor<DBObject> updateCaptor = ArgumentCaptor.forClass(DBObject.class);
+    verify(dbCollection, times(count)).update(any(DBObject.class), updateCaptor.capture());
+    return updateCaptor.getAllValues();
+  }
+
+  private static boolean isReplace(DBObject update) {
+    return update.containsField("$set");
+  }
+
+  private static boolean isPush(DBObject update) {
+    return update.containsField("$push");
+  }
+
   @Test
   public void testGetIndexes() throws Exception {
     Descriptor articleDescriptor =
@@ -47,4 +123,57 @@ public class MongoCollectionTest {
     assertEquals("keyword.entity._id", articleCollection.getFieldName(
         new QueryOption.WhereNotNull("keyword.entity.id")));
   }
+
+  @Test
+  public void testReplaceOrPushReplacesExistingElement() throws Exception {
+    setUpdateCounts(1);
+    collection.replaceOrPush(ARTICLE, "social_engagement", "site", ENGAGEMENT);
+
+    List<DBObject> updates = getUpdates(1);
+    assertTrue(isReplace(updates.get(0)));
+  }
+
+  @Test
+  public void testReplaceOrPushPushesNewElement() throws Exception {
+    setUpdateCounts(0, 1);
+    collection.replaceOrPush(ARTICLE, "social_engagement", "site", ENGAGEMENT);
+
+    List<DBObject> updates = getUpdates(2);
+    assertTrue(isReplace(updates.get(0)));
+    assertTrue(isPush(updates.get(1)));
+  }
+
+  /**
+   * If someone else pushes an element for the same site between our replace
+   * and our push, the push must not add a second one.  Instead, we go around
+   * again and replace theirs.
+   */
+  @Test
+  public void testReplaceOrPushRetriesAfterLosingPushRace() throws Exception {
+    setUpdateCounts(0, 0, 1);
+    collection.replaceOrPush(ARTICLE, "social_engagement", "site", ENGAGEMENT);
+
+    List<DBObject> updates = getUpdates(3);
+    assertTrue(isReplace(updates.get(0)));
+    assertTrue(isPush(updates.get(1)));
+    assertTrue(isReplace(updates.get(2)));
+  }
+
+  @Test
+  public void testReplaceOrPushObjectNotFound() throws Exception {
+    setUpdateCounts(0);
+    try {
+      collection.replaceOrPush(ARTICLE, "social_engagement", "site", ENGAGEMENT);
+      fail("Should have thrown: Nothing was ever updated");
+    } catch (DatabaseSchemaException e) {
+      assertTrue(e.getMessage().startsWith("Object not found: Article.social_engagement"));
+    }
+
+    // Three rounds of replace-then-push.
+    List<DBObject> updates = getUpdates(6);
+    for (int i = 0; i < updates.size(); i += 2) {
+      assertTrue(isReplace(updates.get(i)));
+      assertTrue(isPush(updates.get(i + 1)));
+    }
+  }
 }
@@ -2,11 +2,17 @@ package com.janknspank.database;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.bson.types.BasicBSONList;
+import org.bson.types.ObjectId;
 import org.junit.Test;
 
+import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.ArticleProto.ArticleKeyword;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
 import com.janknspank.proto.CoreProto.Entity;
 import com.janknspank.proto.CoreProto.Entity.EntityTopic;
 import com.janknspank.proto.CoreProto.Entity.EntityTopic.Context;
@@ -102,4 +108,57 @@ public class MongoizerTest {
     assertEquals("Jorge Pasilda", keywordFromFuture.getKeyword());
     assertFalse("Source should not be set.", keywordFromFuture.hasSource());
   }
+
+  @Test
+  public void testRoundTripArticle() throws Exception {
+    Article article = Article.newBuilder()
+        .setUrlId(ID)
+        .setUrl("http://www.nytimes.com/super/article.html")
+        .setTitle("title")
+        .setDescription("description")
+        .addParagraph("paragraph 1")
+        .addParagraph("paragraph 2")
+        .setPublishedTime(300000000L)
+        .setWordCount(825)
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(SocialEngagement.Site.FACEBOOK)
+            .setShareCount(5)
+            .setShareScore(0.5))
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(SocialEngagement.Site.TWITTER)
+            .setShareCount(7)
+            .setShareScore(0.7))
+        .build();
+    BasicDBObject dbObject = Mongoizer.toDBObject(article);
+    assertEquals(2, ((BasicBSONList) dbObject.get("paragraph")).size());
+    assertEquals(article, Mongoizer.fromDBObject(dbObject, Article.class));
+
+    // Codecs are only built once per message type.
+    assertSame(MongoCodec.of(Article.class), MongoCodec.of(article));
+  }
+
+  @Test
+  public void testProjectedArticle() throws Exception {
+    BasicDBObject dbObject = new BasicDBObject();
+    dbObject.put("_id", new ObjectId(ID));
+    dbObject.put("title", "title");
+    MongoCodec<Article> codec = MongoCodec.of(Article.class);
+
+    // Required fields the projection left out aren't enforced.
+    Article article = codec.fromDBObject(dbObject, new QueryOption.Fields("title"));
+    assertEquals(ID, article.getUrlId());
+    assertEquals("title", article.getTitle());
+    assertFalse(article.hasUrl());
+    article = codec.fromDBObject(dbObject, new QueryOption.Exclude("url", "description",
+        "published_time", "word_count"));
+    assertTrue(article.hasTitle());
+
+    // But ones it includes still are.
+    try {
+      codec.fromDBObject(dbObject, new QueryOption.Fields("title", "url"));
+      fail("Missing url should not be allowed");
+    } catch (DatabaseSchemaException e) {
+      // Expected!
+    }
+  }
 }
@@ -2,14 +2,23 @@ package com.janknspank.database;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.StringWriter;
 import java.util.List;
+import java.util.Set;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.janknspank.common.JsonStreamWriter;
 import com.janknspank.proto.ArticleProto.Article;
+import com.janknspank.proto.ArticleProto.ArticleKeyword;
 
 public class SerializerTest {
   private static final List<String> PARAGRAPHS = ImmutableList.of("paragraph1", "p2");
@@ -60,4 +69,66 @@ public class SerializerTest {
     assertFalse(o.has("copyright"));
     assertFalse(o.has("modified_time"));
   }
+
+  @Test
+  public void testWrite() throws Exception {
+    Article article = Article.newBuilder()
+        .addAllParagraph(PARAGRAPHS)
+        .setCopyright(COPYRIGHT)
+        .setDescription("Quotes \" and </script> and \u2028")
+        .setPublishedTime(PUBLISHED_TIME)
+        .setTitle(TITLE)
+        .setUrl(URL)
+        .setUrlId(URL_ID)
+        .addKeyword(ArticleKeyword.newBuilder()
+            .setKeyword("keyword")
+            .setStrength(5)
+            .setType("p"))
+        .build();
+
+    // Streaming should give exactly what building a JSONObject gives.
+    StringWriter stringWriter = new StringWriter();
+    JsonStreamWriter writer = new JsonStreamWriter(stringWriter);
+    Serializer.write(ImmutableList.of(article, article), writer);
+    writer.close();
+    JSONArray expected = Serializer.toJSON(ImmutableList.of(article, article));
+    JSONArray actual = new JSONArray(stringWriter.toString());
+    assertEquals(expected.length(), actual.length());
+    for (int i = 0; i < expected.length(); i++) {
+      JSONObject expectedObject = expected.getJSONObject(i);
+      JSONObject actualObject = actual.getJSONObject(i);
+      assertEquals(expectedObject.keySet(), actualObject.keySet());
+      for (String key : expectedObject.keySet()) {
+        assertEquals(key, expectedObject.get(key).toString(), actualObject.get(key).toString());
+      }
+    }
+
+    // Skipped fields shouldn't be written.
+    stringWriter = new StringWriter();
+    writer = new JsonStreamWriter(stringWriter);
+    writer.beginObject();
+    Serializer.writeFields(article, writer, ImmutableSet.of("title", "published_time"));
+    writer.endObject();
+    writer.close();
+    JSONObject o = new JSONObject(stringWriter.toString());
+    assertFalse(o.has("title"));
+    assertFalse(o.has("published_time"));
+    assertFalse(o.has("copyright"));
+    assertEquals(URL, o.getString("url"));
+  }
+
+  @Test
+  public void testSerializationPlan() throws Exception {
+    SerializationPlan plan = SerializationPlan.get(Article.getDescriptor());
+    assertSame(plan, SerializationPlan.get(Article.getDescriptor()));
+
+    Set<String> fieldNames = Sets.newHashSet();
+    for (SerializationPlan.Field field : plan.getFields()) {
+      fieldNames.add(field.name);
+    }
+    assertTrue(fieldNames.contains("title"));
+    assertTrue(fieldNames.contains("published_time"));
+    assertFalse(fieldNames.contains("copyright"));
+    assertFalse(fieldNames.contains("keyword"));
+  }
 }
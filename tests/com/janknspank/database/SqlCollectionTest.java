@@ -3,6 +3,7 @@ package com.janknspank.database;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -12,22 +13,35 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.janknspank.proto.ArticleProto.Article;
 
 public class SqlCollectionTest {
+  private Connection connection;
   private PreparedStatement preparedStatement;
   private ArgumentCaptor<String> statementCaptor;
   private Collection<Article> collection;
 
   @Before
   public void setUp() throws Exception {
-    final Connection connection = mock(Connection.class);
+    connection = mock(Connection.class);
     preparedStatement = mock(PreparedStatement.class);
     statementCaptor = ArgumentCaptor.forClass(String.class);
     when(connection.prepareStatement(statementCaptor.capture())).thenReturn(preparedStatement);
@@ -138,4 +152,109 @@ public class SqlCollectionTest {
     assertEquals("ID", stringArguments.get(2));
     assertEquals(Long.valueOf(32625L), (Long) longCaptor.getValue());
   }
+
+  @Test
+  public void testConnectionReturnedAfterEachOperation() throws Exception {
+    collection.get();
+    collection.delete(new QueryOption.WhereEquals("url", "http://moo/"));
+    verify(preparedStatement, times(2)).close();
+    verify(connection, times(2)).close();
+  }
+
+  private static final int POOL_SIZE = 8;
+
+  /**
+   * Returns a connection whose queries each wait until {@code inFlight} has
+   * counted down to zero, i.e. until enough queries are running at once.
+   * Closing it puts it back in {@code pool}, and decrements {@code
+   * checkedOut}.
+   */
+  private static Connection createPooledConnection(final BlockingQueue<Connection> pool,
+      final CountDownLatch inFlight, final AtomicInteger checkedOut) throws Exception {
+    final Connection connection = mock(Connection.class);
+    final ResultSet resultSet = mock(ResultSet.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(any(String.class))).thenReturn(statement);
+    when(statement.executeQuery()).thenAnswer(new Answer<ResultSet>() {
+      @Override
+      public ResultSet answer(InvocationOnMock invocation) throws Exception {
+        inFlight.countDown();
+        inFlight.await(10, TimeUnit.SECONDS);
+        return resultSet;
+      }
+    });
+    doAnswer(new Answer<Void>() {
+      @Override
+      public Void answer(InvocationOnMock invocation) {
+        checkedOut.decrementAndGet();
+        pool.add(connection);
+        return null;
+      }
+    }).when(connection).close();
+    return connection;
+  }
+
+  /**
+   * Runs {@code queryCount} gets on {@code threadCount} threads.
+   */
+  private static void runGets(final Collection<Article> collection, int queryCount,
+      int threadCount) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Callable<Iterable<Article>>> gets = Lists.newArrayList();
+      for (int i = 0; i < queryCount; i++) {
+        gets.add(new Callable<Iterable<Article>>() {
+          @Override
+          public Iterable<Article> call() throws Exception {
+            return collection.get(new QueryOption.WhereEquals("url", "http://moo/"));
+          }
+        });
+      }
+      for (Future<Iterable<Article>> future : executor.invokeAll(gets)) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Parallel callers should each check out their own connection, rather than
+   * queueing up behind a shared one.  The first POOL_SIZE queries wait for
+   * each other, so if callers were serialized, at most one connection would
+   * ever be checked out.
+   */
+  @Test
+  public void testParallelCallersUseSeparateConnections() throws Exception {
+    final BlockingQueue<Connection> pool = new LinkedBlockingQueue<>();
+    CountDownLatch inFlight = new CountDownLatch(POOL_SIZE);
+    final AtomicInteger checkedOut = new AtomicInteger();
+    final AtomicInteger maxCheckedOut = new AtomicInteger();
+    for (int i = 0; i < POOL_SIZE; i++) {
+      pool.add(createPooledConnection(pool, inFlight, checkedOut));
+    }
+    Collection<Article> pooledCollection = new SqlCollection<Article>(Article.class) {
+      @Override
+      protected Connection getConnection() throws DatabaseSchemaException {
+        final Connection connection;
+        try {
+          connection = pool.take();
+        } catch (InterruptedException e) {
+          throw new DatabaseSchemaException("Interrupted", e);
+        }
+        int count = checkedOut.incrementAndGet();
+        int max = maxCheckedOut.get();
+        while (count > max && !maxCheckedOut.compareAndSet(max, count)) {
+          max = maxCheckedOut.get();
+        }
+        return connection;
+      }
+    };
+    runGets(pooledCollection, POOL_SIZE * 4, POOL_SIZE);
+    assertEquals(POOL_SIZE, maxCheckedOut.get());
+
+    // Every connection was closed, and made it back to the pool.
+    assertEquals(0, checkedOut.get());
+    assertEquals(POOL_SIZE, pool.size());
+  }
 }
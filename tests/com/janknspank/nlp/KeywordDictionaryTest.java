@@ -0,0 +1,141 @@
+package com.janknspank.nlp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+public class KeywordDictionaryTest {
+  private static final Map<String, String> KEYWORD_TO_ENTITY_ID_MAP =
+      ImmutableMap.<String, String>builder()
+          .put("Barack Obama", "obama")
+          .put("google", "google")
+          .put("Googleplex", "googleplex")
+          .put("Zürich", "zurich")
+          .put("at&t", "att")
+          .build();
+
+  private void assertDictionary(KeywordDictionary dictionary) {
+    assertEquals(5, dictionary.size());
+    assertEquals("obama", dictionary.getEntityId("Barack Obama"));
+    assertEquals("obama", dictionary.getEntityId("barack obama"));
+    assertEquals("google", dictionary.getEntityId("Google"));
+    assertEquals("googleplex", dictionary.getEntityId("googleplex"));
+    assertEquals("zurich", dictionary.getEntityId("ZÜRICH"));
+    assertEquals("att", dictionary.getEntityId("AT&T"));
+    assertNull(dictionary.getEntityId("goog"));
+    assertNull(dictionary.getEntityId("googles"));
+    assertNull(dictionary.getEntityId("barack"));
+    assertNull(dictionary.getEntityId(""));
+    assertNull(dictionary.getEntityId("zzz"));
+  }
+
+  @Test
+  public void testFromMap() throws Exception {
+    assertDictionary(KeywordDictionary.fromMap(KEYWORD_TO_ENTITY_ID_MAP));
+  }
+
+  @Test
+  public void testFindEntityIds() throws Exception {
+    KeywordDictionary dictionary = KeywordDictionary.fromMap(
+        ImmutableMap.<String, String>builder()
+            .put("barack obama", "obama")
+            .put("obama", "obama-short")
+            .put("obama administration", "administration")
+            .put("white house", "whitehouse")
+            .put("white house correspondents dinner", "dinner")
+            .put("google", "google")
+            .build());
+
+    // Mentions inside longer ones are skipped, if there's no way to get to
+    // them without going through a longer one.
+    assertEquals(ImmutableList.of("obama", "administration"),
+        dictionary.findEntityIds(ImmutableList.of(
+            "President", "Barack", "Obama", "Administration")));
+    assertEquals(ImmutableList.of("obama"),
+        dictionary.findEntityIds(ImmutableList.of("Barack", "Obama")));
+
+    // But they're found if there is, same as when we split blocks
+    // recursively: Here, "Obama" is found by way of "Obama Speaks".
+    assertEquals(ImmutableList.of("obama", "obama-short"),
+        dictionary.findEntityIds(ImmutableList.of("Barack", "Obama", "Speaks")));
+    assertEquals(ImmutableList.of("dinner"),
+        dictionary.findEntityIds(ImmutableList.of(
+            "White", "House", "Correspondents", "Dinner")));
+
+    // Prefixes of longer keywords still match on their own.
+    assertEquals(ImmutableList.of("whitehouse", "google"),
+        dictionary.findEntityIds(ImmutableList.of(
+            "White", "House", "Correspondents", "Google")));
+    assertEquals(ImmutableList.of("obama-short"),
+        dictionary.findEntityIds(ImmutableList.of("Obama")));
+    assertEquals(ImmutableList.of(),
+        dictionary.findEntityIds(ImmutableList.of("Barack", "Michelle")));
+    assertEquals(ImmutableList.of(),
+        dictionary.findEntityIds(ImmutableList.<String>of()));
+
+    // Entity IDs come back in the order they're mentioned.
+    assertEquals(ImmutableList.of("google", "whitehouse"),
+        dictionary.findEntityIds(ImmutableList.of("Google", "White", "House")));
+
+    // Empty words (e.g. ones that scrubbed down to nothing) still separate
+    // the words around them.
+    assertEquals(ImmutableList.of("obama-short"),
+        dictionary.findEntityIds(ImmutableList.of("Barack", "", "Obama")));
+  }
+
+  @Test
+  public void testFindEntityIdsWithUnknownEntities() throws Exception {
+    KeywordDictionary dictionary = KeywordDictionary.fromMap(
+        ImmutableMap.<String, String>builder()
+            .put("barack obama", "obama")
+            .put("obama", "obama-short")
+            .put("obama administration", "administration")
+            .build());
+    List<String> words = ImmutableList.of("Barack", "Obama", "Administration");
+
+    // Every keyword is a candidate, even ones inside longer keywords.
+    assertEquals(ImmutableSet.of("obama", "obama-short", "administration"),
+        dictionary.findAllEntityIds(words));
+
+    // Normally "Obama" is hidden inside "Barack Obama" and "Obama
+    // Administration"...
+    assertEquals(ImmutableList.of("obama", "administration"),
+        dictionary.findEntityIds(words));
+
+    // But if their Entities don't exist, they're split further, and "Obama"
+    // is found.
+    assertEquals(ImmutableList.of("obama-short"),
+        dictionary.findEntityIds(words, Predicates.equalTo("obama-short")));
+    assertEquals(ImmutableList.of("administration", "obama-short"),
+        dictionary.findEntityIds(words, Predicates.not(Predicates.equalTo("obama"))));
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    KeywordDictionary dictionary =
+        KeywordDictionary.fromMap(ImmutableMap.<String, String>of());
+    assertEquals(0, dictionary.size());
+    assertNull(dictionary.getEntityId("google"));
+  }
+
+  @Test
+  public void testFile() throws Exception {
+    File file = File.createTempFile("keyword_dictionary_test", ".dict");
+    try {
+      KeywordDictionary.writeToFile(KEYWORD_TO_ENTITY_ID_MAP, file);
+      assertDictionary(KeywordDictionary.fromFile(file));
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -1,13 +1,22 @@
 package com.janknspank.rank;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.janknspank.bizness.SocialEngagements;
 import com.janknspank.proto.ArticleProto.Article;
 import com.janknspank.proto.ArticleProto.ArticleFeature;
+import com.janknspank.proto.ArticleProto.SocialEngagement;
+import com.janknspank.proto.ArticleProto.SocialEngagement.Site;
 
 public class DeduperTest {
   private static final Article MICHELLE_PHAN_ARTICLE_1 = Article.newBuilder()
@@ -171,4 +180,129 @@ public class DeduperTest {
     assertFalse(Deduper.isDupe(BASEMENT_BOY_ARTICLE, FARMING_GROWTH_MARKETS_ARTICLE));
     assertFalse(Deduper.isDupe(FARMING_GROWTH_MARKETS_ARTICLE, MICHELLE_PHAN_ARTICLE_1));
   }
+
+  /**
+   * The original O(n^2) de-duping logic, for making sure the indexed version
+   * in Deduper gives the same answers.
+   */
+  private static List<Article> filterOutDupesPairwise(List<Article> articles) {
+    List<Deduper.ArticleExtraction> extractions = Lists.newArrayList();
+    for (Article article : articles) {
+      extractions.add(new Deduper.ArticleExtraction(article));
+    }
+    List<Integer> nonDupes = Lists.newArrayList();
+    for (int index = 0; index < articles.size(); index++) {
+      boolean foundDupe = false;
+      for (int i = 0; i < nonDupes.size(); i++) {
+        int nonDupeIndex = nonDupes.get(i);
+        if (extractions.get(index).isDuplicate(extractions.get(nonDupeIndex))) {
+          SocialEngagement engagement =
+              SocialEngagements.getForArticle(articles.get(index), Site.FACEBOOK);
+          SocialEngagement nonDupeEngagement =
+              SocialEngagements.getForArticle(articles.get(nonDupeIndex), Site.FACEBOOK);
+          if (nonDupeEngagement == null
+              || (engagement != null
+                  && engagement.getShareScore() > nonDupeEngagement.getShareScore())) {
+            extractions.get(index).markHasKilledDupe(
+                extractions.get(nonDupeIndex).getPublishedTime());
+            nonDupes.set(i, index);
+          } else {
+            extractions.get(nonDupeIndex).markHasKilledDupe(
+                extractions.get(index).getPublishedTime());
+          }
+          foundDupe = true;
+          break;
+        }
+      }
+      if (!foundDupe) {
+        nonDupes.add(index);
+      }
+    }
+    List<Article> dedupedArticles = Lists.newArrayList();
+    for (int index : nonDupes) {
+      Deduper.ArticleExtraction extraction = extractions.get(index);
+      dedupedArticles.add(extraction.getDupeKilledCount() == 0
+          ? articles.get(index)
+          : articles.get(index).toBuilder()
+              .setHot(true)
+              .setHotCount(extraction.getDupeKilledCount() + 1)
+              .setOldestHotDuplicateTime(extraction.getOldestHotDuplicateTime())
+              .build());
+    }
+    return dedupedArticles;
+  }
+
+  @Test
+  public void testFilterOutDupesMatchesPairwise() throws Exception {
+    List<String> vocabulary = ImmutableList.of(
+        "appl", "goog", "phan", "mich", "yout", "laun", "netw", "farm", "mark", "grow");
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      List<Article> articles = Lists.newArrayList();
+      for (int i = 0; i < 60; i++) {
+        Article.Builder builder = Article.newBuilder()
+            .setUrl("http://example.com/" + run + "/" + i)
+            .setPublishedTime(random.nextInt(72) * TimeUnit.HOURS.toMillis(1))
+            .setCrawlTime(random.nextInt(72) * TimeUnit.HOURS.toMillis(1));
+        for (int j = 0; j < 4; j++) {
+          String stem = vocabulary.get(random.nextInt(vocabulary.size()));
+          if (!builder.getDedupingStemsList().contains(stem)) {
+            builder.addDedupingStems(stem);
+          }
+        }
+        if (random.nextBoolean()) {
+          builder.addSocialEngagement(SocialEngagement.newBuilder()
+              .setSite(Site.FACEBOOK)
+              .setShareScore(random.nextDouble()));
+        }
+        articles.add(builder.build());
+      }
+      assertEquals(filterOutDupesPairwise(articles), Deduper.filterOutDupes(articles));
+    }
+  }
+
+  @Test
+  public void testFilterOutDupesCollapsesClusters() throws Exception {
+    long hour = TimeUnit.HOURS.toMillis(1);
+    Article first = Article.newBuilder()
+        .setUrl("http://example.com/first")
+        .setUrlId("first")
+        .setPublishedTime(hour)
+        .setCrawlTime(hour)
+        .setDuplicateClusterId("first")
+        .addDedupingStems("appl")
+        .build();
+    Article popular = Article.newBuilder()
+        .setUrl("http://example.com/popular")
+        .setUrlId("popular")
+        .setPublishedTime(2 * hour)
+        .setCrawlTime(2 * hour)
+        .setDuplicateClusterId("first")
+        .setHotCount(4)
+        .setOldestHotDuplicateTime(0)
+        .addDedupingStems("goog")
+        .addSocialEngagement(SocialEngagement.newBuilder()
+            .setSite(Site.FACEBOOK)
+            .setShareScore(0.5))
+        .build();
+    Article unrelated = Article.newBuilder()
+        .setUrl("http://example.com/unrelated")
+        .setUrlId("unrelated")
+        .setPublishedTime(3 * hour)
+        .setCrawlTime(3 * hour)
+        .setDuplicateClusterId("unrelated")
+        .addDedupingStems("farm")
+        .build();
+
+    // The clustered articles share no stems, but are still collapsed, into
+    // the more popular one, with the hot count recorded at crawl time.
+    List<Article> dedupedArticles =
+        Deduper.filterOutDupes(ImmutableList.of(first, unrelated, popular));
+    assertEquals(2, dedupedArticles.size());
+    assertEquals("popular", dedupedArticles.get(0).getUrlId());
+    assertTrue(dedupedArticles.get(0).getHot());
+    assertEquals(4, dedupedArticles.get(0).getHotCount());
+    assertEquals(0, dedupedArticles.get(0).getOldestHotDuplicateTime());
+    assertEquals(unrelated, dedupedArticles.get(1));
+  }
 }